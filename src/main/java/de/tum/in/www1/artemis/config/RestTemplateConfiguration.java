@@ -1,7 +1,5 @@
 package de.tum.in.www1.artemis.config;
 
-import java.util.ArrayList;
-
 import org.jetbrains.annotations.NotNull;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
@@ -14,60 +12,67 @@ import org.springframework.http.converter.xml.MappingJackson2XmlHttpMessageConve
 import org.springframework.web.client.RestTemplate;
 
 import de.tum.in.www1.artemis.config.auth.JiraAuthorizationInterceptor;
+import de.tum.in.www1.artemis.config.http.PooledRestTemplateFactory;
 import de.tum.in.www1.artemis.service.connectors.gitlab.GitLabHeaderAuthorizationInterceptor;
 import de.tum.in.www1.artemis.service.connectors.jenkins.JenkinsAuthorizationInterceptor;
 
 /**
- * For now only provides a basic {@link org.springframework.web.client.RestTemplate RestTemplate} bean. Can be extended
- * to further customize how requests to other REST APIs are handled
+ * Provides the {@link org.springframework.web.client.RestTemplate RestTemplate} beans for the remote services. Each RestTemplate has its own connection pool, timeouts, retries and
+ * circuit breaker, see {@link PooledRestTemplateFactory}.
  */
 @Configuration
 public class RestTemplateConfiguration {
 
+    private final PooledRestTemplateFactory pooledRestTemplateFactory;
+
+    public RestTemplateConfiguration(PooledRestTemplateFactory pooledRestTemplateFactory) {
+        this.pooledRestTemplateFactory = pooledRestTemplateFactory;
+    }
+
     @Bean
     @Profile("gitlab")
     @Autowired
     public RestTemplate gitlabRestTemplate(GitLabHeaderAuthorizationInterceptor gitlabInterceptor) {
-        return initializeRestTemplateWithInterceptors(gitlabInterceptor);
+        return initializeRestTemplateWithInterceptors("gitlab", gitlabInterceptor);
     }
 
     @Bean
     @Profile("jenkins")
     @Autowired
     public RestTemplate jenkinsRestTemplate(JenkinsAuthorizationInterceptor jenkinsInterceptor) {
-        return initializeRestTemplateWithInterceptors(jenkinsInterceptor);
+        return initializeRestTemplateWithInterceptors("jenkins", jenkinsInterceptor);
     }
 
     @Bean
     @Profile("jira")
     @Autowired
     public RestTemplate jiraRestTemplate(JiraAuthorizationInterceptor jiraAuthorizationInterceptor) {
-        return initializeRestTemplateWithInterceptors(jiraAuthorizationInterceptor);
+        return initializeRestTemplateWithInterceptors("jira", jiraAuthorizationInterceptor);
     }
 
     @Bean
     @Profile("bitbucket")
     public RestTemplate bitbucketRestTemplate() {
         // TODO: authenticate here
-        return new RestTemplate();
+        return pooledRestTemplateFactory.createRestTemplate("bitbucket");
     }
 
     @Bean
     @Profile("bamboo")
     public RestTemplate bambooRestTemplate() {
         // TODO: authenticate here
-        return new RestTemplate();
+        return pooledRestTemplateFactory.createRestTemplate("bamboo");
+    }
+
+    @Bean
+    @Profile("automaticText")
+    public RestTemplate remoteArtemisServiceRestTemplate() {
+        return pooledRestTemplateFactory.createRestTemplate("automatic-text");
     }
 
     @NotNull
-    private RestTemplate initializeRestTemplateWithInterceptors(ClientHttpRequestInterceptor interceptor) {
-        final var restTemplate = new RestTemplate();
-        var interceptors = restTemplate.getInterceptors();
-        if (interceptors.isEmpty()) {
-            interceptors = new ArrayList<>();
-        }
-        interceptors.add(interceptor);
-        restTemplate.setInterceptors(interceptors);
+    private RestTemplate initializeRestTemplateWithInterceptors(String target, ClientHttpRequestInterceptor interceptor) {
+        final var restTemplate = pooledRestTemplateFactory.createRestTemplate(target, interceptor);
 
         // we do not want to use MappingJackson2XmlHttpMessageConverter here because it would lead to problems with the tests
         HttpMessageConverter<?> messageConverterToRemove = null;
@@ -85,6 +90,6 @@ public class RestTemplateConfiguration {
     @Bean
     @Primary
     public RestTemplate restTemplate() {
-        return new RestTemplate();
+        return pooledRestTemplateFactory.createRestTemplate("default");
     }
 }
@@ -0,0 +1,115 @@
+package de.tum.in.www1.artemis.config.http;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Creates the RestTemplates for the remote targets of Artemis (e.g. Bitbucket, Bamboo or the text clustering services). Each target gets its own pool of keep-alive connections,
+ * connect and read timeouts and a {@link ResilientHttpRequestInterceptor} for retries and circuit breaking.
+ *
+ * The settings are read from artemis.http-client.targets.[target].[setting] and default to artemis.http-client.[setting], e.g. artemis.http-client.targets.bamboo.read-timeout-ms
+ * and artemis.http-client.read-timeout-ms. The utilization of the connection pools is exported as artemis.http_client.pool.* metrics.
+ */
+@Component
+public class PooledRestTemplateFactory {
+
+    private static final Logger log = LoggerFactory.getLogger(PooledRestTemplateFactory.class);
+
+    private static final String PROPERTY_PREFIX = "artemis.http-client.";
+
+    private final Environment env;
+
+    private final MeterRegistry meterRegistry;
+
+    private final List<CloseableHttpClient> httpClients = new CopyOnWriteArrayList<>();
+
+    public PooledRestTemplateFactory(Environment env, MeterRegistry meterRegistry) {
+        this.env = env;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Create a RestTemplate with its own connection pool for the given target
+     *
+     * @param target       the name of the target, e.g. bamboo
+     * @param interceptors interceptors (e.g. for authentication) that are executed before the retries and circuit breaking
+     * @return the new RestTemplate
+     */
+    public RestTemplate createRestTemplate(String target, ClientHttpRequestInterceptor... interceptors) {
+        int maxConnections = getProperty(target, "max-connections", 20);
+        int connectTimeout = getProperty(target, "connect-timeout-ms", 5000);
+        int readTimeout = getProperty(target, "read-timeout-ms", 60000);
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        // connections that were idle for a while are checked before they are reused, the remote target might have closed them
+        connectionManager.setValidateAfterInactivity(2000);
+        registerPoolMetrics(target, connectionManager);
+
+        RequestConfig requestConfig = RequestConfig.custom().setConnectTimeout(connectTimeout).setSocketTimeout(readTimeout).setConnectionRequestTimeout(connectTimeout).build();
+        // retries are handled by the ResilientHttpRequestInterceptor, the proxy settings of the JVM are still used
+        CloseableHttpClient httpClient = HttpClients.custom().setConnectionManager(connectionManager).setDefaultRequestConfig(requestConfig).disableAutomaticRetries()
+                .evictIdleConnections(60, TimeUnit.SECONDS).useSystemProperties().build();
+        httpClients.add(httpClient);
+
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        List<ClientHttpRequestInterceptor> restTemplateInterceptors = new ArrayList<>(List.of(interceptors));
+        restTemplateInterceptors.add(new ResilientHttpRequestInterceptor(target, getProperty(target, "max-attempts", 2), getProperty(target, "retry-backoff-ms", 200),
+                getProperty(target, "circuit-breaker.failure-threshold", 10), getProperty(target, "circuit-breaker.open-duration-ms", 30000), meterRegistry));
+        restTemplate.setInterceptors(restTemplateInterceptors);
+        log.debug("Created RestTemplate for {} with {} connections, {} ms connect timeout and {} ms read timeout", target, maxConnections, connectTimeout, readTimeout);
+        return restTemplate;
+    }
+
+    /**
+     * Close the connection pools of all created RestTemplates
+     */
+    @PreDestroy
+    public void closeHttpClients() {
+        for (CloseableHttpClient httpClient : httpClients) {
+            try {
+                httpClient.close();
+            }
+            catch (IOException ex) {
+                log.warn("Could not close HTTP client: {}", ex.getMessage());
+            }
+        }
+    }
+
+    private int getProperty(String target, String name, int defaultValue) {
+        Integer defaultProperty = env.getProperty(PROPERTY_PREFIX + name, Integer.class, defaultValue);
+        return env.getProperty(PROPERTY_PREFIX + "targets." + target + "." + name, Integer.class, defaultProperty);
+    }
+
+    private void registerPoolMetrics(String target, PoolingHttpClientConnectionManager connectionManager) {
+        Gauge.builder("artemis.http_client.pool.leased", connectionManager, manager -> manager.getTotalStats().getLeased()).tag("target", target)
+                .description("Number of connections to the target that are in use").register(meterRegistry);
+        Gauge.builder("artemis.http_client.pool.available", connectionManager, manager -> manager.getTotalStats().getAvailable()).tag("target", target)
+                .description("Number of idle connections to the target").register(meterRegistry);
+        Gauge.builder("artemis.http_client.pool.pending", connectionManager, manager -> manager.getTotalStats().getPending()).tag("target", target)
+                .description("Number of requests waiting for a connection to the target").register(meterRegistry);
+        Gauge.builder("artemis.http_client.pool.max", connectionManager, manager -> manager.getTotalStats().getMax()).tag("target", target)
+                .description("Maximum number of connections to the target").register(meterRegistry);
+    }
+}
@@ -0,0 +1,153 @@
+package de.tum.in.www1.artemis.config.http;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Retries, circuit breaking and latency metrics for the requests to one remote target (e.g. Bitbucket or Bamboo).
+ *
+ * Idempotent requests are retried with exponential backoff if the connection fails or the target answers with 502, 503 or 504. After a number of consecutive failures
+ * (connection errors or 5xx responses) the circuit opens and all requests to the target fail immediately until the open duration has passed. Afterwards requests are sent
+ * again, the next success closes the circuit and the next failure opens it again.
+ *
+ * This interceptor has to be the last interceptor of the RestTemplate, because a retry only executes the interceptors after this one again.
+ */
+public class ResilientHttpRequestInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(ResilientHttpRequestInterceptor.class);
+
+    private static final Set<HttpMethod> IDEMPOTENT_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.PUT, HttpMethod.DELETE);
+
+    private static final Set<Integer> RETRYABLE_STATUS_CODES = Set.of(502, 503, 504);
+
+    private final String target;
+
+    private final int maxAttempts;
+
+    private final long retryBackoffMillis;
+
+    private final int failureThreshold;
+
+    private final long openDurationNanos;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    private volatile long openUntil;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Counter retryCounter;
+
+    private final Counter rejectedCounter;
+
+    /**
+     * @param target             the name of the remote target, used in the log and as tag of the metrics
+     * @param maxAttempts        the maximum number of attempts of an idempotent request
+     * @param retryBackoffMillis the waiting time before the first retry, it is doubled for every further retry
+     * @param failureThreshold   the number of consecutive failures after which the circuit opens
+     * @param openDurationMillis the time during which the circuit stays open
+     * @param meterRegistry      the registry of the metrics
+     */
+    public ResilientHttpRequestInterceptor(String target, int maxAttempts, long retryBackoffMillis, int failureThreshold, long openDurationMillis, MeterRegistry meterRegistry) {
+        this.target = target;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMillis = Math.max(0, retryBackoffMillis);
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMillis);
+        this.meterRegistry = meterRegistry;
+        this.retryCounter = Counter.builder("artemis.http_client.retries").tag("target", target).description("Number of retried requests").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("artemis.http_client.rejected").tag("target", target).description("Number of requests rejected by the open circuit")
+                .register(meterRegistry);
+        Gauge.builder("artemis.http_client.circuit_open", this, interceptor -> interceptor.isOpen() ? 1 : 0).tag("target", target)
+                .description("1 if the requests to the target are rejected because of previous failures").register(meterRegistry);
+    }
+
+    @NotNull
+    @Override
+    public ClientHttpResponse intercept(@NotNull HttpRequest request, @NotNull byte[] body, @NotNull ClientHttpRequestExecution execution) throws IOException {
+        int attempts = IDEMPOTENT_METHODS.contains(request.getMethod()) ? maxAttempts : 1;
+        for (int attempt = 1;; attempt++) {
+            if (isOpen()) {
+                rejectedCounter.increment();
+                throw new IOException("The circuit for " + target + " is open after " + consecutiveFailures.get() + " consecutive failures, the request to " + request.getURI()
+                        + " is rejected");
+            }
+            long start = System.nanoTime();
+            ClientHttpResponse response;
+            try {
+                response = execution.execute(request, body);
+            }
+            catch (IOException ex) {
+                record(request, "IO_ERROR", start);
+                onFailure();
+                if (attempt >= attempts) {
+                    throw ex;
+                }
+                log.debug("Request {} {} to {} failed, retrying: {}", request.getMethod(), request.getURI(), target, ex.getMessage());
+                waitBeforeRetry(attempt);
+                continue;
+            }
+            int statusCode = response.getRawStatusCode();
+            record(request, statusCode / 100 + "xx", start);
+            if (statusCode >= 500) {
+                onFailure();
+            }
+            else {
+                consecutiveFailures.set(0);
+            }
+            if (!RETRYABLE_STATUS_CODES.contains(statusCode) || attempt >= attempts) {
+                return response;
+            }
+            response.close();
+            log.debug("Request {} {} to {} returned {}, retrying", request.getMethod(), request.getURI(), target, statusCode);
+            waitBeforeRetry(attempt);
+        }
+    }
+
+    private boolean isOpen() {
+        return consecutiveFailures.get() >= failureThreshold && System.nanoTime() - openUntil < 0;
+    }
+
+    private void onFailure() {
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            // also reopens the circuit if the first request after the open duration fails
+            openUntil = System.nanoTime() + openDurationNanos;
+            log.warn("{} consecutive requests to {} failed, requests are rejected for the next {} ms", consecutiveFailures.get(), target,
+                    TimeUnit.NANOSECONDS.toMillis(openDurationNanos));
+        }
+    }
+
+    private void waitBeforeRetry(int attempt) throws InterruptedIOException {
+        retryCounter.increment();
+        try {
+            Thread.sleep(retryBackoffMillis << (attempt - 1));
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry the request to " + target);
+        }
+    }
+
+    private void record(HttpRequest request, String outcome, long start) {
+        Timer.builder("artemis.http_client.requests").tag("target", target).tag("method", request.getMethodValue()).tag("outcome", outcome)
+                .description("Latency of the requests to remote targets").publishPercentileHistogram().register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
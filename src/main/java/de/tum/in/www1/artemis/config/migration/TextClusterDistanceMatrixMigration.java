@@ -0,0 +1,92 @@
+package de.tum.in.www1.artemis.config.migration;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.tum.in.www1.artemis.domain.DistanceMatrix;
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+
+/**
+ * Converts the distance matrices of all text clusters from serialized Java arrays to the compact format of {@link DistanceMatrix}. The clusters are converted one by one, so
+ * that only one matrix is loaded into memory at a time.
+ */
+public class TextClusterDistanceMatrixMigration implements CustomTaskChange {
+
+    private static final Logger log = LoggerFactory.getLogger(TextClusterDistanceMatrixMigration.class);
+
+    private int convertedClusters = 0;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        JdbcConnection connection = (JdbcConnection) database.getConnection();
+        try {
+            List<Long> clusterIds = new ArrayList<>();
+            try (Statement statement = connection.createStatement();
+                    ResultSet resultSet = statement.executeQuery("select id from text_cluster where distance_matrix is not null")) {
+                while (resultSet.next()) {
+                    clusterIds.add(resultSet.getLong(1));
+                }
+            }
+            try (PreparedStatement select = connection.prepareStatement("select distance_matrix from text_cluster where id = ?");
+                    PreparedStatement update = connection.prepareStatement("update text_cluster set distance_matrix = ? where id = ?")) {
+                for (Long clusterId : clusterIds) {
+                    select.setLong(1, clusterId);
+                    byte[] data;
+                    try (ResultSet resultSet = select.executeQuery()) {
+                        data = resultSet.next() ? resultSet.getBytes(1) : null;
+                    }
+                    if (data == null || !DistanceMatrix.isLegacyFormat(data)) {
+                        continue;
+                    }
+                    try {
+                        update.setBytes(1, DistanceMatrix.fromBytes(data).toBytes());
+                    }
+                    catch (IllegalArgumentException ex) {
+                        // the matrix was not readable before either, it is recomputed with the next clustering of the exercise
+                        log.warn("The distance matrix of text cluster {} could not be converted: {}", clusterId, ex.getMessage());
+                        continue;
+                    }
+                    update.setLong(2, clusterId);
+                    update.executeUpdate();
+                    convertedClusters++;
+                }
+            }
+        }
+        catch (SQLException | DatabaseException ex) {
+            throw new CustomChangeException("The distance matrices of the text clusters could not be converted", ex);
+        }
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Converted the distance matrices of " + convertedClusters + " text clusters";
+    }
+
+    @Override
+    public void setUp() {
+        // nothing to set up
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+        // no files are needed
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        return new ValidationErrors();
+    }
+}
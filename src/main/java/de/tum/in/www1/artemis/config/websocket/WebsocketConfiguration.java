@@ -53,8 +53,11 @@ import de.tum.in.www1.artemis.security.AuthoritiesConstants;
 import de.tum.in.www1.artemis.service.AuthorizationCheckService;
 import de.tum.in.www1.artemis.service.ExerciseService;
 import de.tum.in.www1.artemis.service.ParticipationService;
+import de.tum.in.www1.artemis.service.SubscriptionAuthorizationCacheService;
 import de.tum.in.www1.artemis.service.UserService;
 import de.tum.in.www1.artemis.validation.InetSocketAddressValidator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 @Configuration
 // See https://stackoverflow.com/a/34337731/3802758
@@ -80,6 +83,10 @@ public class WebsocketConfiguration extends DelegatingWebSocketMessageBrokerConf
 
     private ExerciseService exerciseService;
 
+    private final SubscriptionAuthorizationCacheService subscriptionAuthorizationCacheService;
+
+    private final Timer subscriptionAuthorizationTimer;
+
     private static final int LOGGING_DELAY_SECONDS = 10;
 
     // Split the addresses by comma
@@ -93,7 +100,8 @@ public class WebsocketConfiguration extends DelegatingWebSocketMessageBrokerConf
     private String brokerPassword;
 
     public WebsocketConfiguration(Environment env, MappingJackson2HttpMessageConverter springMvcJacksonConverter, TaskScheduler messageBrokerTaskScheduler,
-            TaskScheduler taskScheduler, AuthorizationCheckService authorizationCheckService, @Lazy ExerciseService exerciseService, UserService userService) {
+            TaskScheduler taskScheduler, AuthorizationCheckService authorizationCheckService, @Lazy ExerciseService exerciseService, UserService userService,
+            SubscriptionAuthorizationCacheService subscriptionAuthorizationCacheService, MeterRegistry meterRegistry) {
         this.env = env;
         this.objectMapper = springMvcJacksonConverter.getObjectMapper();
         this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
@@ -101,6 +109,8 @@ public class WebsocketConfiguration extends DelegatingWebSocketMessageBrokerConf
         this.authorizationCheckService = authorizationCheckService;
         this.exerciseService = exerciseService;
         this.userService = userService;
+        this.subscriptionAuthorizationCacheService = subscriptionAuthorizationCacheService;
+        this.subscriptionAuthorizationTimer = meterRegistry.timer("artemis.websocket.subscription_authorization");
     }
 
     @Autowired
@@ -262,7 +272,7 @@ public class WebsocketConfiguration extends DelegatingWebSocketMessageBrokerConf
             String destination = headerAccessor.getDestination();
 
             if (StompCommand.SUBSCRIBE.equals(headerAccessor.getCommand())) {
-                if (!allowSubscription(principal, destination)) {
+                if (!subscriptionAuthorizationTimer.record(() -> allowSubscription(principal, destination))) {
                     logUnauthorizedDestinationAccess(principal, destination);
                     return null; // erase the forbidden SUBSCRIBE command the user was trying to send
                 }
@@ -281,23 +291,26 @@ public class WebsocketConfiguration extends DelegatingWebSocketMessageBrokerConf
         private boolean allowSubscription(Principal principal, String destination) {
             if (isParticipationTeamDestination(destination)) {
                 Long participationId = getParticipationIdFromDestination(destination);
-                return isParticipationOwnedByUser(principal, participationId);
+                return subscriptionAuthorizationCacheService.isAllowed(principal.getName(), destination, null, () -> isParticipationOwnedByUser(principal, participationId));
             }
             if (isResultNonPersonalDestination(destination)) {
                 Long exerciseId = getExerciseIdFromResultDestination(destination);
-
-                // TODO: Is it right that TAs are not allowed to subscribe to exam exercises?
-                Exercise exercise = exerciseService.findOne(exerciseId);
-                if (exercise.hasExerciseGroup()) {
-                    return isUserInstructorOrHigherForExercise(principal, exercise);
-                }
-                else {
-                    return isUserTAOrHigherForExercise(principal, exercise);
-                }
+                return subscriptionAuthorizationCacheService.isAllowed(principal.getName(), destination, exerciseId, () -> isUserAllowedToSubscribeToResults(principal, exerciseId));
             }
             return true;
         }
 
+        private boolean isUserAllowedToSubscribeToResults(Principal principal, Long exerciseId) {
+            // TODO: Is it right that TAs are not allowed to subscribe to exam exercises?
+            Exercise exercise = exerciseService.findOne(exerciseId);
+            if (exercise.hasExerciseGroup()) {
+                return isUserInstructorOrHigherForExercise(principal, exercise);
+            }
+            else {
+                return isUserTAOrHigherForExercise(principal, exercise);
+            }
+        }
+
         private void logUnauthorizedDestinationAccess(Principal principal, String destination) {
             if (principal == null) {
                 log.warn("Anonymous user tried to access the protected topic: " + destination);
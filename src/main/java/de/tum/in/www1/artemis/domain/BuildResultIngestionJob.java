@@ -0,0 +1,124 @@
+package de.tum.in.www1.artemis.domain;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+
+import javax.persistence.*;
+
+import de.tum.in.www1.artemis.domain.enumeration.BuildResultIngestionState;
+
+/**
+ * A build result that was received from the continuous integration server and is not processed yet. The raw notification is persisted before the CI server gets its response,
+ * so that no result is lost if the processing fails or the server is restarted.
+ */
+@Entity
+@Table(name = "build_result_ingestion_job")
+public class BuildResultIngestionJob implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "plan_key", nullable = false)
+    private String planKey;
+
+    @Lob
+    @Column(name = "payload", nullable = false)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "state", nullable = false)
+    private BuildResultIngestionState state = BuildResultIngestionState.QUEUED;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts = 0;
+
+    @Column(name = "received_date", nullable = false)
+    private ZonedDateTime receivedDate;
+
+    @Column(name = "processing_start_date")
+    private ZonedDateTime processingStartDate;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    public BuildResultIngestionJob() {
+    }
+
+    public BuildResultIngestionJob(String planKey, String payload) {
+        this.planKey = planKey;
+        this.payload = payload;
+        this.receivedDate = ZonedDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getPlanKey() {
+        return planKey;
+    }
+
+    public void setPlanKey(String planKey) {
+        this.planKey = planKey;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public BuildResultIngestionState getState() {
+        return state;
+    }
+
+    public void setState(BuildResultIngestionState state) {
+        this.state = state;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public ZonedDateTime getReceivedDate() {
+        return receivedDate;
+    }
+
+    public void setReceivedDate(ZonedDateTime receivedDate) {
+        this.receivedDate = receivedDate;
+    }
+
+    public ZonedDateTime getProcessingStartDate() {
+        return processingStartDate;
+    }
+
+    public void setProcessingStartDate(ZonedDateTime processingStartDate) {
+        this.processingStartDate = processingStartDate;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    @Override
+    public String toString() {
+        return "BuildResultIngestionJob{" + "id=" + id + ", planKey='" + planKey + "'" + ", state=" + state + ", attempts=" + attempts + ", receivedDate=" + receivedDate + "}";
+    }
+}
@@ -0,0 +1,114 @@
+package de.tum.in.www1.artemis.domain;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+
+import javax.persistence.*;
+
+import de.tum.in.www1.artemis.domain.enumeration.BuildTriggerJobState;
+
+/**
+ * A queued build trigger for a programming exercise participation. The jobs are persisted, so that a build run of an exercise is resumed after a restart of the server.
+ */
+@Entity
+@Table(name = "build_trigger_job")
+public class BuildTriggerJob implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "exercise_id", nullable = false)
+    private Long exerciseId;
+
+    @Column(name = "participation_id", nullable = false)
+    private Long participationId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "state", nullable = false)
+    private BuildTriggerJobState state = BuildTriggerJobState.QUEUED;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts = 0;
+
+    @Column(name = "queued_date", nullable = false)
+    private ZonedDateTime queuedDate;
+
+    /**
+     * the date at which a server claimed the job to trigger the build, null while the job is queued
+     */
+    @Column(name = "processing_start_date")
+    private ZonedDateTime processingStartDate;
+
+    public BuildTriggerJob() {
+    }
+
+    public BuildTriggerJob(Long exerciseId, Long participationId) {
+        this.exerciseId = exerciseId;
+        this.participationId = participationId;
+        this.queuedDate = ZonedDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getExerciseId() {
+        return exerciseId;
+    }
+
+    public void setExerciseId(Long exerciseId) {
+        this.exerciseId = exerciseId;
+    }
+
+    public Long getParticipationId() {
+        return participationId;
+    }
+
+    public void setParticipationId(Long participationId) {
+        this.participationId = participationId;
+    }
+
+    public BuildTriggerJobState getState() {
+        return state;
+    }
+
+    public void setState(BuildTriggerJobState state) {
+        this.state = state;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public ZonedDateTime getQueuedDate() {
+        return queuedDate;
+    }
+
+    public void setQueuedDate(ZonedDateTime queuedDate) {
+        this.queuedDate = queuedDate;
+    }
+
+    public ZonedDateTime getProcessingStartDate() {
+        return processingStartDate;
+    }
+
+    public void setProcessingStartDate(ZonedDateTime processingStartDate) {
+        this.processingStartDate = processingStartDate;
+    }
+
+    @Override
+    public String toString() {
+        return "BuildTriggerJob{" + "id=" + id + ", exerciseId=" + exerciseId + ", participationId=" + participationId + ", state=" + state + ", attempts=" + attempts + "}";
+    }
+}
@@ -0,0 +1,144 @@
+package de.tum.in.www1.artemis.domain;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A symmetric distance matrix (e.g. the distances between the text blocks of a {@link TextCluster}) that only stores the upper triangle including the diagonal.
+ *
+ * The binary format consists of a format byte, the size n of the matrix as int and the n * (n + 1) / 2 values of the upper triangle row by row as doubles, all in little endian
+ * byte order. Matrices that were stored as serialized Java arrays (double[][]) before are still decoded.
+ */
+public class DistanceMatrix implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final byte FORMAT_UPPER_TRIANGLE = 1;
+
+    /**
+     * the first bytes of a Java serialization stream (ObjectStreamConstants.STREAM_MAGIC), used by the old format
+     */
+    private static final byte[] JAVA_SERIALIZATION_MAGIC = { (byte) 0xAC, (byte) 0xED };
+
+    private static final int HEADER_BYTES = Byte.BYTES + Integer.BYTES;
+
+    private final int size;
+
+    private final double[] upperTriangle;
+
+    private DistanceMatrix(int size, double[] upperTriangle) {
+        this.size = size;
+        this.upperTriangle = upperTriangle;
+    }
+
+    /**
+     * Create the matrix from its full representation, only the upper triangle is used
+     *
+     * @param matrix a symmetric square matrix
+     * @return the compact matrix
+     */
+    public static DistanceMatrix of(double[][] matrix) {
+        int size = matrix.length;
+        double[] upperTriangle = new double[size * (size + 1) / 2];
+        int index = 0;
+        for (int row = 0; row < size; row++) {
+            for (int column = row; column < size; column++) {
+                upperTriangle[index++] = matrix[row][column];
+            }
+        }
+        return new DistanceMatrix(size, upperTriangle);
+    }
+
+    /**
+     * Decode the matrix from its binary representation, the old format (serialized Java arrays) is supported as well
+     *
+     * @param data the binary representation of the matrix
+     * @return the matrix
+     * @throws IllegalArgumentException if the data is not a valid distance matrix
+     */
+    public static DistanceMatrix fromBytes(byte[] data) {
+        if (isLegacyFormat(data)) {
+            return of(fromJavaSerialization(data));
+        }
+        if (data.length < HEADER_BYTES || data[0] != FORMAT_UPPER_TRIANGLE) {
+            throw new IllegalArgumentException("Unknown format of the distance matrix");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(Byte.BYTES);
+        int size = buffer.getInt();
+        double[] upperTriangle = new double[size * (size + 1) / 2];
+        if (buffer.remaining() != upperTriangle.length * Double.BYTES) {
+            throw new IllegalArgumentException("The distance matrix of size " + size + " has " + buffer.remaining() + " bytes of values");
+        }
+        buffer.asDoubleBuffer().get(upperTriangle);
+        return new DistanceMatrix(size, upperTriangle);
+    }
+
+    /**
+     * @param data the binary representation of a matrix
+     * @return true if the matrix was stored as serialized Java array
+     */
+    public static boolean isLegacyFormat(byte[] data) {
+        return data.length >= JAVA_SERIALIZATION_MAGIC.length && data[0] == JAVA_SERIALIZATION_MAGIC[0] && data[1] == JAVA_SERIALIZATION_MAGIC[1];
+    }
+
+    private static double[][] fromJavaSerialization(byte[] data) {
+        try (ObjectInputStream objectInputStream = new ObjectInputStream(new ByteArrayInputStream(data))) {
+            return (double[][]) objectInputStream.readObject();
+        }
+        catch (IOException | ClassNotFoundException | ClassCastException e) {
+            throw new IllegalArgumentException("The serialized distance matrix could not be read", e);
+        }
+    }
+
+    /**
+     * @return the binary representation of the matrix
+     */
+    public byte[] toBytes() {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + upperTriangle.length * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(FORMAT_UPPER_TRIANGLE);
+        buffer.putInt(size);
+        buffer.asDoubleBuffer().put(upperTriangle);
+        return buffer.array();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param row    the row index
+     * @param column the column index
+     * @return the distance between the elements with the given indices
+     */
+    public double get(int row, int column) {
+        if (row > column) {
+            return get(column, row);
+        }
+        if (row < 0 || column >= size) {
+            throw new IndexOutOfBoundsException("Index (" + row + ", " + column + ") out of bounds for distance matrix of size " + size);
+        }
+        // the rows before this row contain size + (size - 1) + ... + (size - row + 1) values
+        return upperTriangle[row * size - row * (row - 1) / 2 + column - row];
+    }
+
+    /**
+     * @return a new full (symmetric) matrix with the values of this matrix
+     */
+    public double[][] toArray() {
+        double[][] matrix = new double[size][size];
+        int index = 0;
+        for (int row = 0; row < size; row++) {
+            for (int column = row; column < size; column++) {
+                matrix[row][column] = upperTriangle[index];
+                matrix[column][row] = upperTriangle[index];
+                index++;
+            }
+        }
+        return matrix;
+    }
+}
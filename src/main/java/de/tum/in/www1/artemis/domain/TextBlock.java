@@ -48,7 +48,6 @@ public class TextBlock implements Serializable {
     @Column(name = "type")
     private TextBlockType type = TextBlockType.MANUAL;
 
-    @SuppressWarnings("FieldCanBeLocal")
     @Column(name = "position_in_cluster")
     private Integer positionInCluster = null;
 
@@ -168,6 +167,10 @@ public class TextBlock implements Serializable {
     }
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here, do not remove
 
+    Integer getPositionInCluster() {
+        return positionInCluster;
+    }
+
     void setPositionInCluster(Integer positionInCluster) {
         this.positionInCluster = positionInCluster;
     }
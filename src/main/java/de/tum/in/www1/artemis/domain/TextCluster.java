@@ -20,6 +20,7 @@ import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
 import javax.persistence.OrderBy;
 import javax.persistence.Table;
+import javax.persistence.Transient;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
@@ -41,10 +42,20 @@ public class TextCluster implements Serializable {
     @Column(name = "probabilities")
     private byte[] probabilities;
 
+    /**
+     * binary representation of the {@link DistanceMatrix} of the blocks
+     */
     @Lob
     @Column(name = "distance_matrix")
     private byte[] distanceMatrix;
 
+    /**
+     * the decoded distance matrix, it is only decoded once and reset when the binary representation changes
+     */
+    @Transient
+    @JsonIgnore
+    private transient DistanceMatrix decodedDistanceMatrix;
+
     @OneToMany(mappedBy = "cluster")
     @OrderBy("position_in_cluster")
     @JsonIgnoreProperties("cluster")
@@ -77,7 +88,8 @@ public class TextCluster implements Serializable {
     }
 
     public double[][] getDistanceMatrix() {
-        return castFromBinary(distanceMatrix);
+        DistanceMatrix matrix = getDecodedDistanceMatrix();
+        return matrix != null ? matrix.toArray() : null;
     }
 
     public TextCluster distanceMatrix(double[][] distanceMatrix) {
@@ -86,10 +98,23 @@ public class TextCluster implements Serializable {
     }
 
     public void setDistanceMatrix(double[][] distanceMatrix) {
-        this.distanceMatrix = castToBinary(distanceMatrix);
+        this.decodedDistanceMatrix = distanceMatrix != null ? DistanceMatrix.of(distanceMatrix) : null;
+        this.distanceMatrix = decodedDistanceMatrix != null ? decodedDistanceMatrix.toBytes() : null;
+    }
+
+    private DistanceMatrix getDecodedDistanceMatrix() {
+        if (decodedDistanceMatrix == null && distanceMatrix != null) {
+            decodedDistanceMatrix = DistanceMatrix.fromBytes(distanceMatrix);
+        }
+        return decodedDistanceMatrix;
     }
 
     private int getBlockIndex(TextBlock textBlock) {
+        // the blocks are ordered by their position, so we usually do not have to search the block
+        Integer position = textBlock.getPositionInCluster();
+        if (position != null && position >= 0 && position < blocks.size() && textBlock.equals(blocks.get(position))) {
+            return position;
+        }
         return blocks.indexOf(textBlock);
     }
 
@@ -160,7 +185,7 @@ public class TextCluster implements Serializable {
             throw new IllegalArgumentException("Cannot compute distance to Text Block outside cluster.");
         }
 
-        return getDistanceMatrix()[firstIndex][secondIndex];
+        return getDecodedDistanceMatrix().get(firstIndex, secondIndex);
     }
 
     private void updatePositions() {
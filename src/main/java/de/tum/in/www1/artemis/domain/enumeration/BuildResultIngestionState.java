@@ -0,0 +1,5 @@
+package de.tum.in.www1.artemis.domain.enumeration;
+
+public enum BuildResultIngestionState {
+    QUEUED, PROCESSING, FAILED
+}
@@ -0,0 +1,57 @@
+package de.tum.in.www1.artemis.repository;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import de.tum.in.www1.artemis.domain.BuildResultIngestionJob;
+import de.tum.in.www1.artemis.domain.enumeration.BuildResultIngestionState;
+
+/**
+ * Spring Data JPA repository for the BuildResultIngestionJob entity.
+ */
+@Repository
+public interface BuildResultIngestionJobRepository extends JpaRepository<BuildResultIngestionJob, Long> {
+
+    List<BuildResultIngestionJob> findAllByStateOrderByIdAsc(BuildResultIngestionState state);
+
+    /**
+     * Claim the queued job with the given id for processing. The number of updated jobs is used to make sure that a job is not processed twice.
+     *
+     * @param jobId               the id of the job
+     * @param processingStartDate the date at which the processing of the job starts
+     * @return 1 if the job was claimed, 0 if it is not queued (any more)
+     */
+    @Transactional
+    @Modifying
+    @Query("update BuildResultIngestionJob job set job.state = 'PROCESSING', job.processingStartDate = :#{#processingStartDate} where job.id = :#{#jobId} and job.state = 'QUEUED'")
+    int claimQueuedJob(@Param("jobId") Long jobId, @Param("processingStartDate") ZonedDateTime processingStartDate);
+
+    /**
+     * Queue all failed jobs and all jobs whose processing started before the given date (e.g. because the server was stopped during the processing) again.
+     *
+     * @param processingStartedBefore jobs that are still processing, but were claimed before this date are queued again
+     * @return the number of queued jobs
+     */
+    @Transactional
+    @Modifying
+    @Query("update BuildResultIngestionJob job set job.state = 'QUEUED', job.attempts = 0 where job.state = 'FAILED' or (job.state = 'PROCESSING' and job.processingStartDate < :#{#processingStartedBefore})")
+    int requeueFailedAndStaleJobs(@Param("processingStartedBefore") ZonedDateTime processingStartedBefore);
+
+    /**
+     * Queue all jobs whose processing started before the given date (e.g. because the server was stopped during the processing) again, the failed jobs are not touched.
+     *
+     * @param processingStartedBefore jobs that are still processing, but were claimed before this date are queued again
+     * @return the number of queued jobs
+     */
+    @Transactional
+    @Modifying
+    @Query("update BuildResultIngestionJob job set job.state = 'QUEUED' where job.state = 'PROCESSING' and job.processingStartDate < :#{#processingStartedBefore}")
+    int requeueStaleJobs(@Param("processingStartedBefore") ZonedDateTime processingStartedBefore);
+}
@@ -0,0 +1,81 @@
+package de.tum.in.www1.artemis.repository;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import de.tum.in.www1.artemis.domain.BuildTriggerJob;
+
+/**
+ * Spring Data JPA repository for the BuildTriggerJob entity.
+ */
+@Repository
+public interface BuildTriggerJobRepository extends JpaRepository<BuildTriggerJob, Long> {
+
+    @Query("select job from BuildTriggerJob job where job.state = 'QUEUED' order by job.queuedDate asc, job.id asc")
+    List<BuildTriggerJob> findNextJobs(Pageable pageable);
+
+    @Query("select distinct job.exerciseId from BuildTriggerJob job")
+    List<Long> findExerciseIdsWithQueuedJobs();
+
+    long countByExerciseId(Long exerciseId);
+
+    /**
+     * Claim the queued job with the given id for triggering the build. The number of updated jobs is used to make sure that a build is not triggered twice.
+     *
+     * @param jobId               the id of the job
+     * @param processingStartDate the date at which the processing of the job starts
+     * @return 1 if the job was claimed, 0 if it is not queued (any more)
+     */
+    @Transactional
+    @Modifying
+    @Query("update BuildTriggerJob job set job.state = 'PROCESSING', job.processingStartDate = :#{#processingStartDate} where job.id = :#{#jobId} and job.state = 'QUEUED'")
+    int claimQueuedJob(@Param("jobId") Long jobId, @Param("processingStartDate") ZonedDateTime processingStartDate);
+
+    /**
+     * Queue the claimed job with the given id again at the end of the queue, e.g. because its build could not be triggered.
+     *
+     * @param jobId      the id of the job
+     * @param attempts   the number of failed attempts to trigger the build
+     * @param queuedDate the date at which the job is queued again
+     * @return 1 if the job was queued again, 0 if it was deleted in the meantime (e.g. because the build run was replaced)
+     */
+    @Transactional
+    @Modifying
+    @Query("update BuildTriggerJob job set job.state = 'QUEUED', job.attempts = :#{#attempts}, job.queuedDate = :#{#queuedDate}, job.processingStartDate = null where job.id = :#{#jobId}")
+    int requeueJob(@Param("jobId") Long jobId, @Param("attempts") int attempts, @Param("queuedDate") ZonedDateTime queuedDate);
+
+    /**
+     * Queue all jobs whose processing started before the given date (e.g. because the server was stopped while triggering the build) again.
+     *
+     * @param processingStartedBefore jobs that are still processing, but were claimed before this date are queued again
+     * @return the number of queued jobs
+     */
+    @Transactional
+    @Modifying
+    @Query("update BuildTriggerJob job set job.state = 'QUEUED' where job.state = 'PROCESSING' and job.processingStartDate < :#{#processingStartedBefore}")
+    int requeueStaleJobs(@Param("processingStartedBefore") ZonedDateTime processingStartedBefore);
+
+    /**
+     * Delete the job with the given id after it was processed.
+     *
+     * @param jobId the id of the job
+     * @return 1 if the job was deleted, 0 if it had already been deleted before (e.g. because the build run was replaced)
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from BuildTriggerJob job where job.id = :#{#jobId}")
+    int deleteByIdAndGetCount(@Param("jobId") Long jobId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from BuildTriggerJob job where job.exerciseId = :#{#exerciseId}")
+    int deleteAllByExerciseIdAndGetCount(@Param("exerciseId") Long exerciseId);
+}
@@ -33,8 +33,11 @@ public interface ExamRepository extends JpaRepository<Exam, Long> {
     @Query("select distinct exam from Exam exam left join fetch exam.studentExams studentExams left join fetch exam.exerciseGroups exerciseGroups left join fetch exerciseGroups.exercises where (exam.id = :#{#examId})")
     Exam findOneWithEagerExercisesGroupsAndStudentExams(@Param("examId") long examId);
 
-    @EntityGraph(type = LOAD, attributePaths = { "exerciseGroups", "exerciseGroups.exercises", "registeredUsers", "studentExams" })
-    Optional<Exam> findWithExercisesRegisteredUsersStudentExamsById(Long id);
+    @EntityGraph(type = LOAD, attributePaths = { "exerciseGroups", "exerciseGroups.exercises" })
+    Optional<Exam> findWithExerciseGroupsAndExercisesById(Long id);
+
+    @Query("select user.id from Exam exam join exam.registeredUsers user where exam.id = :#{#examId} order by user.id")
+    List<Long> findRegisteredUserIdsByExamId(@Param("examId") Long examId);
 
     /**
      * Checks if the user is registered for the exam.
@@ -24,4 +24,12 @@ public interface LtiOutcomeUrlRepository extends JpaRepository<LtiOutcomeUrl, Lo
     Optional<LtiOutcomeUrl> findByUserIsCurrentUserAndExercise(@Param("exercise") Exercise exercise);
 
     Optional<LtiOutcomeUrl> findByUserAndExercise(User user, Exercise exercise);
+
+    /**
+     * Checks if any student started the given exercise from an LTI consumer.
+     *
+     * @param exerciseId the id of the exercise
+     * @return true if there is an outcome url for the exercise, false otherwise
+     */
+    boolean existsByExerciseId(long exerciseId);
 }
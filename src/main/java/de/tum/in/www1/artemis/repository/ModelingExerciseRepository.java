@@ -2,6 +2,7 @@ package de.tum.in.www1.artemis.repository;
 
 import static org.springframework.data.jpa.repository.EntityGraph.EntityGraphType.LOAD;
 
+import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,4 +27,8 @@ public interface ModelingExerciseRepository extends JpaRepository<ModelingExerci
     @EntityGraph(type = LOAD, attributePaths = { "exampleSubmissions", "teamAssignmentConfig", "categories" })
     Optional<ModelingExercise> findWithEagerExampleSubmissionsById(@Param("exerciseId") Long exerciseId);
 
+    @Query("SELECT e FROM ModelingExercise e WHERE e.dueDate > :#{#earliestDueDate} AND e.dueDate < :#{#now} "
+            + "AND (e.assessmentDueDate IS NULL OR e.assessmentDueDate > :#{#now})")
+    List<ModelingExercise> findAllWithDueDateBetweenAndAssessmentDueDateNotOver(@Param("earliestDueDate") ZonedDateTime earliestDueDate, @Param("now") ZonedDateTime now);
+
 }
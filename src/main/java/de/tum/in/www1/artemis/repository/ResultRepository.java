@@ -2,8 +2,10 @@ package de.tum.in.www1.artemis.repository;
 
 import static org.springframework.data.jpa.repository.EntityGraph.EntityGraphType.LOAD;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -29,6 +31,20 @@ public interface ResultRepository extends JpaRepository<Result, Long> {
     @EntityGraph(type = LOAD, attributePaths = "submission")
     List<Result> findByParticipationExerciseIdOrderByCompletionDateAsc(Long exerciseId);
 
+    @EntityGraph(type = LOAD, attributePaths = "submission")
+    List<Result> findAllByParticipationIdIn(Collection<Long> participationIds);
+
+    /**
+     * Streams the latest rated and the latest unrated result (each with submission) of every participation of the given exercise. This is used to rebuild the quiz statistics
+     * with a single query. NOTE: the stream has to be consumed within a transaction
+     *
+     * @param exerciseId the id of the exercise
+     * @return a stream with at most one rated and one unrated result per participation
+     */
+    @EntityGraph(type = LOAD, attributePaths = { "submission", "participation" })
+    @Query("select r from Result r where r.participation.exercise.id = :exerciseId and r.completionDate = (select max(rr.completionDate) from Result rr where rr.participation.id = r.participation.id and rr.rated = r.rated)")
+    Stream<Result> streamLatestRatedAndUnratedResultsWithSubmissionByExerciseId(@Param("exerciseId") Long exerciseId);
+
     // TODO: cleanup unused queries
 
     @Query("select r from Result r where r.completionDate = (select max(rr.completionDate) from Result rr where rr.participation.exercise.id = :exerciseId and rr.participation.student.id = r.participation.student.id) and r.participation.exercise.id = :exerciseId order by r.completionDate asc")
@@ -31,6 +31,9 @@ public interface StudentExamRepository extends JpaRepository<StudentExam, Long>
 
     List<StudentExam> findByExamId(Long examId);
 
+    @Query("select distinct studentExam from StudentExam studentExam left join fetch studentExam.exercises left join fetch studentExam.user where studentExam.exam.id = :#{#examId}")
+    List<StudentExam> findWithExercisesAndUserByExamId(@Param("examId") Long examId);
+
     @EntityGraph(type = LOAD, attributePaths = { "exercises" })
     Optional<StudentExam> findWithEagerExercisesById(Long id);
 }
@@ -1,18 +1,25 @@
 package de.tum.in.www1.artemis.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 import static org.springframework.data.jpa.repository.EntityGraph.EntityGraphType.LOAD;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import de.tum.in.www1.artemis.domain.Exercise;
 import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.web.rest.dto.CourseParticipationDTO;
 
 /**
  * Spring Data JPA repository for the Participation entity.
@@ -28,6 +35,21 @@ public interface StudentParticipationRepository extends JpaRepository<StudentPar
     @Query("select distinct participation from StudentParticipation participation left join fetch participation.results r where participation.exercise.course.id = :#{#courseId} and (r.rated is null or r.rated = true)")
     List<StudentParticipation> findByCourseIdWithEagerRatedResults(@Param("courseId") Long courseId);
 
+    /**
+     * Streams all participations of the course that belong to a student or a team, ordered by id. Each participation is returned with its latest rated result that has a
+     * completion date and a score (if there is one), the result is selected in the database. If two results have the same completion date, the participation is returned twice.
+     * NOTE: the stream has to be consumed within a transaction
+     *
+     * @param courseId the id of the course
+     * @return a stream with one row per participation
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new de.tum.in.www1.artemis.web.rest.dto.CourseParticipationDTO(participation.id, participation.presentationScore, exercise.id, student.id, student.login, student.firstName, student.lastName, student.email, student.registrationNumber, team.id, result.id, result.score, result.completionDate, result.successful) from StudentParticipation participation join participation.exercise exercise left join participation.student student left join participation.team team left join participation.results result on (result.rated is null or result.rated = true) and result.completionDate is not null and result.score is not null where exercise.course.id = :#{#courseId} and (student.id is not null or team.id is not null) and (result.id is null or result.completionDate = (select max(rr.completionDate) from Result rr where rr.participation.id = participation.id and (rr.rated is null or rr.rated = true) and rr.score is not null)) order by participation.id")
+    Stream<CourseParticipationDTO> streamByCourseIdWithLatestRatedResult(@Param("courseId") Long courseId);
+
+    @Query("select distinct participation from StudentParticipation participation left join fetch participation.student where participation.exercise.exerciseGroup.exam.id = :#{#examId}")
+    List<StudentParticipation> findByExamIdWithStudent(@Param("examId") Long examId);
+
     @Query("select distinct participation from StudentParticipation participation where participation.exercise.course.id = :#{#courseId} and participation.team.shortName = :#{#teamShortName}")
     List<StudentParticipation> findAllByCourseIdAndTeamShortName(@Param("courseId") Long courseId, @Param("teamShortName") String teamShortName);
 
@@ -71,6 +93,9 @@ public interface StudentParticipationRepository extends JpaRepository<StudentPar
     @Query("select distinct participation from StudentParticipation participation left join fetch participation.results left join fetch participation.submissions where participation.exercise.id = :#{#exerciseId} and participation.team.id = :#{#teamId}")
     List<StudentParticipation> findByExerciseIdAndTeamIdWithEagerResultsAndSubmissions(@Param("exerciseId") Long exerciseId, @Param("teamId") Long teamId);
 
+    @Query("select distinct participation.student.login from StudentParticipation participation join participation.submissions s where participation.exercise.id = :#{#exerciseId} and s.submitted = true")
+    Set<String> findLoginsOfStudentsWithSubmittedSubmissionByExerciseId(@Param("exerciseId") Long exerciseId);
+
     @Query("select distinct participation from StudentParticipation participation left join fetch participation.results as par left join fetch par.feedbacks where participation.exercise.id = :#{#exerciseId} and participation.student.id = :#{#studentId} and (par.id = (select max(id) from participation.results) or par.id = null)")
     Optional<StudentParticipation> findByExerciseIdAndStudentIdWithLatestResult(@Param("exerciseId") Long exerciseId, @Param("studentId") Long studentId);
 
@@ -0,0 +1,323 @@
+package de.tum.in.www1.artemis.service;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.tum.in.www1.artemis.domain.BuildResultIngestionJob;
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.enumeration.BuildPlanType;
+import de.tum.in.www1.artemis.domain.enumeration.BuildResultIngestionState;
+import de.tum.in.www1.artemis.domain.participation.*;
+import de.tum.in.www1.artemis.repository.BuildResultIngestionJobRepository;
+import de.tum.in.www1.artemis.security.SecurityUtils;
+import de.tum.in.www1.artemis.service.connectors.LtiService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Queue for the build results that the continuous integration server sends to Artemis. The notification is persisted and acknowledged immediately, the (expensive) creation of
+ * the result happens on a pool of workers. All results of the same build plan are processed by the same worker in the order in which they were received, so that the results of
+ * a participation are never processed concurrently or out of order. A failed result is retried with an exponentially growing delay before the next result of the build plan
+ * is processed.
+ *
+ * Results that could not be processed after the configured number of attempts are kept as failed jobs and can be replayed with {@link #replayFailedJobs()}. Results whose
+ * processing was interrupted (e.g. by a restart of the server) are queued again when the server starts and periodically afterwards.
+ */
+@Service
+public class BuildResultIngestionService {
+
+    private final Logger log = LoggerFactory.getLogger(BuildResultIngestionService.class);
+
+    /**
+     * Jobs that are still processing after this time are considered as interrupted (e.g. by a restart of the server) and are queued again
+     */
+    private static final Duration STALE_PROCESSING_TIMEOUT = Duration.ofMinutes(10);
+
+    private final BuildResultIngestionJobRepository buildResultIngestionJobRepository;
+
+    private final ParticipationService participationService;
+
+    private final ResultService resultService;
+
+    private final WebsocketMessagingService messagingService;
+
+    private final LtiService ltiService;
+
+    private final ObjectMapper objectMapper;
+
+    private final int maxAttempts;
+
+    private final long retryBackoffMillis;
+
+    /**
+     * One single threaded executor per partition, a build plan is always processed by the same partition
+     */
+    private final List<ExecutorService> partitions = new ArrayList<>();
+
+    /**
+     * number of jobs that were handed to the partitions and are not processed yet
+     */
+    private final AtomicInteger pendingJobs = new AtomicInteger();
+
+    private final Timer queueLagTimer;
+
+    private final Timer processingTimer;
+
+    private final Counter failedJobsCounter;
+
+    public BuildResultIngestionService(BuildResultIngestionJobRepository buildResultIngestionJobRepository, ParticipationService participationService,
+            ResultService resultService, WebsocketMessagingService messagingService, LtiService ltiService, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${artemis.continuous-integration.result-queue.partitions:4}") int numberOfPartitions,
+            @Value("${artemis.continuous-integration.result-queue.max-attempts:3}") int maxAttempts,
+            @Value("${artemis.continuous-integration.result-queue.retry-backoff-ms:1000}") long retryBackoffMillis) {
+        this.buildResultIngestionJobRepository = buildResultIngestionJobRepository;
+        this.participationService = participationService;
+        this.resultService = resultService;
+        this.messagingService = messagingService;
+        this.ltiService = ltiService;
+        this.objectMapper = objectMapper;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMillis = Math.max(0, retryBackoffMillis);
+        for (int i = 0; i < Math.max(1, numberOfPartitions); i++) {
+            partitions.add(Executors.newSingleThreadExecutor());
+        }
+        this.queueLagTimer = meterRegistry.timer("artemis.build_result.queue_lag");
+        this.processingTimer = meterRegistry.timer("artemis.build_result.processing_time");
+        this.failedJobsCounter = meterRegistry.counter("artemis.build_result.failed");
+        Gauge.builder("artemis.build_result.queue_size", pendingJobs, AtomicInteger::get).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // jobs that were not processed yet stay queued in the database and are resumed after the restart
+        partitions.forEach(ExecutorService::shutdownNow);
+    }
+
+    /**
+     * Persist the build result notification of the continuous integration server and hand it to the worker of its build plan.
+     *
+     * @param planKey     the key of the build plan the result belongs to
+     * @param requestBody the build result notification as received from the continuous integration server
+     * @throws JsonProcessingException if the notification cannot be serialized
+     */
+    public void enqueue(String planKey, Object requestBody) throws JsonProcessingException {
+        BuildResultIngestionJob job = buildResultIngestionJobRepository.save(new BuildResultIngestionJob(planKey, objectMapper.writeValueAsString(requestBody)));
+        dispatch(job);
+    }
+
+    /**
+     * Resume the processing of the jobs that were still queued when the server was stopped, and queue the jobs whose processing was interrupted again.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeQueuedJobs() {
+        int staleJobs = buildResultIngestionJobRepository.requeueStaleJobs(ZonedDateTime.now().minus(STALE_PROCESSING_TIMEOUT));
+        if (staleJobs > 0) {
+            log.info("Queue {} build results whose processing was interrupted again", staleJobs);
+        }
+        List<BuildResultIngestionJob> queuedJobs = buildResultIngestionJobRepository.findAllByStateOrderByIdAsc(BuildResultIngestionState.QUEUED);
+        if (!queuedJobs.isEmpty()) {
+            log.info("Resume the processing of {} queued build results", queuedJobs.size());
+            queuedJobs.forEach(this::dispatch);
+        }
+    }
+
+    /**
+     * Queue all failed jobs and all jobs whose processing was interrupted again and process them.
+     *
+     * @return the number of jobs that were queued again
+     */
+    public int replayFailedJobs() {
+        int replayedJobs = buildResultIngestionJobRepository.requeueFailedAndStaleJobs(ZonedDateTime.now().minus(STALE_PROCESSING_TIMEOUT));
+        log.info("Replay {} failed build results", replayedJobs);
+        // jobs that are dispatched twice are only processed once, because every job has to be claimed before it is processed
+        buildResultIngestionJobRepository.findAllByStateOrderByIdAsc(BuildResultIngestionState.QUEUED).forEach(this::dispatch);
+        return replayedJobs;
+    }
+
+    /**
+     * Queue the jobs again whose processing was interrupted (e.g. by a restart of a server of the cluster) after the server was started.
+     */
+    @Scheduled(fixedDelay = 5 * 60 * 1000, initialDelay = 5 * 60 * 1000)
+    public void requeueStaleJobs() {
+        int staleJobs = buildResultIngestionJobRepository.requeueStaleJobs(ZonedDateTime.now().minus(STALE_PROCESSING_TIMEOUT));
+        if (staleJobs > 0) {
+            log.info("Queue {} build results whose processing was interrupted again", staleJobs);
+            // jobs that are dispatched twice are only processed once, because every job has to be claimed before it is processed
+            buildResultIngestionJobRepository.findAllByStateOrderByIdAsc(BuildResultIngestionState.QUEUED).forEach(this::dispatch);
+        }
+    }
+
+    /**
+     * @return the number of jobs that were received by this server and are not processed yet
+     */
+    public int getNumberOfPendingJobs() {
+        return pendingJobs.get();
+    }
+
+    private void dispatch(BuildResultIngestionJob job) {
+        Long jobId = job.getId();
+        pendingJobs.incrementAndGet();
+        partitions.get(Math.floorMod(job.getPlanKey().hashCode(), partitions.size())).execute(() -> {
+            try {
+                processJob(jobId);
+            }
+            catch (Exception ex) {
+                log.error("Unexpected error while processing the build result job " + jobId, ex);
+            }
+            finally {
+                pendingJobs.decrementAndGet();
+            }
+        });
+    }
+
+    private void processJob(Long jobId) {
+        ZonedDateTime processingStartDate = ZonedDateTime.now();
+        if (buildResultIngestionJobRepository.claimQueuedJob(jobId, processingStartDate) == 0) {
+            // the job was already processed or is processed by another worker
+            return;
+        }
+        Optional<BuildResultIngestionJob> optionalJob = buildResultIngestionJobRepository.findById(jobId);
+        if (optionalJob.isEmpty()) {
+            return;
+        }
+        BuildResultIngestionJob job = optionalJob.get();
+        queueLagTimer.record(Duration.between(job.getReceivedDate(), processingStartDate));
+
+        // The 'user' is not properly logged into Artemis, this leads to an issue when accessing custom repository methods.
+        // Therefore a mock auth object has to be created.
+        SecurityUtils.setAuthorizationObject();
+        long start = System.nanoTime();
+        while (true) {
+            try {
+                processBuildResult(job.getPlanKey(), objectMapper.readValue(job.getPayload(), Object.class));
+                buildResultIngestionJobRepository.deleteById(jobId);
+                break;
+            }
+            catch (Exception ex) {
+                job.setAttempts(job.getAttempts() + 1);
+                job.setLastError(StringUtils.abbreviate(ex.toString(), 1000));
+                if (job.getAttempts() >= maxAttempts) {
+                    log.error("The build result for build plan " + job.getPlanKey() + " could not be processed after " + job.getAttempts() + " attempts", ex);
+                    job.setState(BuildResultIngestionState.FAILED);
+                    buildResultIngestionJobRepository.save(job);
+                    failedJobsCounter.increment();
+                    break;
+                }
+                log.warn("Processing the build result for build plan {} failed (attempt {}), try again: {}", job.getPlanKey(), job.getAttempts(), ex.toString());
+                try {
+                    // the following results of the build plan wait as well, so that they are not processed before this one
+                    Thread.sleep(retryBackoffMillis << (job.getAttempts() - 1));
+                }
+                catch (InterruptedException interruptedException) {
+                    // the server shuts down, the job is resumed after the restart
+                    Thread.currentThread().interrupt();
+                    job.setState(BuildResultIngestionState.QUEUED);
+                    buildResultIngestionJobRepository.save(job);
+                    break;
+                }
+            }
+        }
+        processingTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Create the result for the build result notification, notify the user about it and send it to the LTI consumers.
+     *
+     * @param planKey     the key of the build plan the result belongs to
+     * @param requestBody the build result notification of the continuous integration server
+     */
+    private void processBuildResult(String planKey, Object requestBody) {
+        // Try to retrieve the participation with the build plan key.
+        Optional<ProgrammingExerciseParticipation> optionalParticipation = getParticipationWithResults(planKey);
+        if (optionalParticipation.isEmpty()) {
+            log.warn("Participation is missing for notifyResultNew (PlanKey: {}).", planKey);
+            return;
+        }
+
+        ProgrammingExerciseParticipation participation = optionalParticipation.get();
+        // Process the new result from the build result.
+        Optional<Result> result = resultService.processNewProgrammingExerciseResult((Participation) participation, requestBody);
+
+        // Only notify the user about the new result if the result was created successfully.
+        if (result.isPresent()) {
+            log.debug("Send result to client over websocket. Result: {}, Submission: {}, Participation: {}", result.get(), result.get().getSubmission(),
+                    result.get().getParticipation());
+            // notify user via websocket
+            messagingService.broadcastNewResult((Participation) participation, result.get());
+
+            // queues the new score for LTI consumers, exercises without LTI students are skipped
+            if (participation instanceof ProgrammingExerciseStudentParticipation) {
+                ltiService.onNewResult((ProgrammingExerciseStudentParticipation) participation);
+            }
+            log.info("The new result for {} was saved successfully", planKey);
+        }
+    }
+
+    private Optional<ProgrammingExerciseParticipation> getParticipationWithResults(String planKey) {
+        // we have to support template, solution and student build plans here
+        if (planKey.contains(BuildPlanType.TEMPLATE.getName())) {
+            Optional<TemplateProgrammingExerciseParticipation> templateParticipation = participationService.findTemplateParticipationByBuildPlanId(planKey);
+            // we have to convert the optional type here to make Java happy
+            if (templateParticipation.isPresent()) {
+                return Optional.of(templateParticipation.get());
+            }
+            else {
+                return Optional.empty();
+            }
+        }
+        else if (planKey.contains(BuildPlanType.SOLUTION.getName())) {
+            Optional<SolutionProgrammingExerciseParticipation> solutionParticipation = participationService.findSolutionParticipationByBuildPlanId(planKey);
+            // we have to convert the optional type here to make Java happy
+            if (solutionParticipation.isPresent()) {
+                return Optional.of(solutionParticipation.get());
+            }
+            else {
+                return Optional.empty();
+            }
+        }
+        List<ProgrammingExerciseStudentParticipation> participations = participationService.findByBuildPlanIdWithEagerResults(planKey);
+        Optional<ProgrammingExerciseStudentParticipation> participation = Optional.empty();
+        if (participations.size() > 0) {
+            participation = Optional.of(participations.get(0));
+            if (participations.size() > 1) {
+                // in the rare case of multiple participations, take the latest one.
+                for (ProgrammingExerciseStudentParticipation otherParticipation : participations) {
+                    if (otherParticipation.getInitializationDate().isAfter(participation.get().getInitializationDate())) {
+                        participation = Optional.of(otherParticipation);
+                    }
+                }
+            }
+        }
+
+        // we have to convert the optional type here to make Java happy
+        if (participation.isPresent()) {
+            return Optional.of(participation.get());
+        }
+        else {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package de.tum.in.www1.artemis.service;
+
+import java.time.Duration;
+
+/**
+ * Controls the rate at which builds are triggered on the continuous integration server using additive increase / multiplicative decrease (AIMD): every build that was
+ * triggered quickly increases the rate by a constant, every failed or slow trigger request halves it. This way, the rate adapts to the current load of the CI server instead
+ * of triggering a fixed number of builds and waiting a fixed time afterwards.
+ */
+class BuildTriggerRateController {
+
+    private final double minRate;
+
+    private final double maxRate;
+
+    private final double additiveIncrease;
+
+    private final Duration slowResponseThreshold;
+
+    /**
+     * Current rate in triggered builds per second
+     */
+    private double rate;
+
+    BuildTriggerRateController(double initialRate, double minRate, double maxRate, double additiveIncrease, Duration slowResponseThreshold) {
+        this.minRate = Math.max(minRate, 0.01);
+        this.maxRate = Math.max(maxRate, this.minRate);
+        this.additiveIncrease = additiveIncrease;
+        this.slowResponseThreshold = slowResponseThreshold;
+        this.rate = Math.min(Math.max(initialRate, this.minRate), this.maxRate);
+    }
+
+    /**
+     * Adapt the rate after the CI server accepted a build trigger.
+     *
+     * @param responseTime the time the CI server needed to answer the trigger request
+     */
+    synchronized void onTriggered(Duration responseTime) {
+        if (responseTime.compareTo(slowResponseThreshold) > 0) {
+            // the CI server is still responding, but already struggling, so we back off before requests start failing
+            decrease();
+        }
+        else {
+            rate = Math.min(maxRate, rate + additiveIncrease);
+        }
+    }
+
+    /**
+     * Adapt the rate after a build could not be triggered.
+     */
+    synchronized void onFailure() {
+        decrease();
+    }
+
+    private void decrease() {
+        rate = Math.max(minRate, rate / 2);
+    }
+
+    /**
+     * @return the current rate in triggered builds per second
+     */
+    synchronized double getRate() {
+        return rate;
+    }
+
+    /**
+     * @return the time to wait before the next build is triggered at the current rate
+     */
+    synchronized Duration getDelay() {
+        return Duration.ofMillis(Math.round(1000 / rate));
+    }
+}
@@ -0,0 +1,127 @@
+package de.tum.in.www1.artemis.service;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import de.tum.in.www1.artemis.domain.*;
+import de.tum.in.www1.artemis.domain.exam.Exam;
+import de.tum.in.www1.artemis.domain.exam.ExerciseGroup;
+import de.tum.in.www1.artemis.domain.participation.Participation;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+
+/**
+ * Listens to the changes of the entities that are shown on the course dashboard and invalidates the cached dashboards in {@link CourseDashboardCacheService}. Entity changes are
+ * handled after the transaction was committed, so that a dashboard that is loaded concurrently never contains the old state with a newer stamp.
+ */
+@Component
+public class CourseDashboardCacheInvalidator implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener,
+        PostCollectionUpdateEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final CourseDashboardCacheService courseDashboardCacheService;
+
+    public CourseDashboardCacheInvalidator(EntityManagerFactory entityManagerFactory, CourseDashboardCacheService courseDashboardCacheService) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.courseDashboardCacheService = courseDashboardCacheService;
+    }
+
+    /**
+     * Register this listener for the entity and collection changes of Hibernate
+     */
+    @PostConstruct
+    public void registerListeners() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImpl.class).getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        entityChanged(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        entityChanged(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        entityChanged(event.getEntity());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // nothing was changed
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // nothing was changed
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // nothing was changed
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return true;
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        // e.g. the groups of a user (registration for a course) or the students of a team, collection events are sent on flush, so we wait for the commit
+        Object owner = event.getAffectedOwnerOrNull();
+        if (owner instanceof User || owner instanceof Team) {
+            event.getSession().getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, session) -> {
+                if (success) {
+                    entityChanged(owner);
+                }
+            });
+        }
+    }
+
+    private void entityChanged(Object entity) {
+        if (entity instanceof Course || entity instanceof Exercise || entity instanceof Lecture || entity instanceof Attachment || entity instanceof Team
+                || entity instanceof Exam || entity instanceof ExerciseGroup) {
+            courseDashboardCacheService.contentChanged();
+        }
+        else if (entity instanceof StudentParticipation) {
+            StudentParticipation participation = (StudentParticipation) entity;
+            if (participation.getStudent().isPresent()) {
+                courseDashboardCacheService.userChanged(participation.getStudent().get().getLogin());
+            }
+            else {
+                // we do not know the students of a team participation without loading them
+                courseDashboardCacheService.contentChanged();
+            }
+        }
+        else if (entity instanceof Result) {
+            participationChanged(((Result) entity).getParticipation());
+        }
+        else if (entity instanceof Submission) {
+            participationChanged(((Submission) entity).getParticipation());
+        }
+        else if (entity instanceof User) {
+            courseDashboardCacheService.userChanged(((User) entity).getLogin());
+        }
+    }
+
+    private void participationChanged(Participation participation) {
+        if (participation != null && participation.getId() != null) {
+            courseDashboardCacheService.participationChanged(participation.getId());
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package de.tum.in.www1.artemis.service;
+
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.Message;
+
+import de.tum.in.www1.artemis.domain.Course;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Caches the courses of the course dashboard (including exercises, lectures and the participations of the user) per user, so that repeated requests (e.g. at the start of
+ * a lecture) do not load the same data from the database again.
+ *
+ * The cache is invalidated with change stamps: every change of a course, exercise or lecture, of the user (e.g. the groups) or of a participation of the user (including its
+ * submissions and results) records the time of the change, see {@link CourseDashboardCacheInvalidator}. A cached dashboard is only used if it was loaded after all changes that
+ * concern it. The changes are published to the other servers of the cluster through a Hazelcast topic, each server records the time at which it received the change, so the
+ * stamps never depend on the clocks of other servers. Changes of the visibility of exercises (e.g. the release date passes) and changes that did not reach a server (e.g. during
+ * a network partition) take effect after the time to live.
+ */
+@Service
+public class CourseDashboardCacheService {
+
+    /**
+     * the change stamps of users and participations are cleaned up when there are more entries than this threshold
+     */
+    private static final int CHANGE_CLEANUP_THRESHOLD = 10000;
+
+    private static final String CHANGES_TOPIC = "course-dashboard-cache-changes";
+
+    private final long timeToLiveNanos;
+
+    private final int maxSize;
+
+    /**
+     * login -> cached dashboard, ordered by the last access (least recently used first)
+     */
+    private final LinkedHashMap<String, CachedDashboard> dashboards = new LinkedHashMap<>(16, 0.75f, true);
+
+    private volatile long lastContentChange = System.nanoTime();
+
+    /**
+     * login -> time of the last change of the user
+     */
+    private final Map<String, Long> userChanges = new ConcurrentHashMap<>();
+
+    /**
+     * participation id -> time of the last change of the participation, its submissions or results
+     */
+    private final Map<Long, Long> participationChanges = new ConcurrentHashMap<>();
+
+    /**
+     * random id of this server, the ETags contain it so that the ETags of different servers (or of this server after a restart) never match
+     */
+    private final String serverId = Long.toHexString(ThreadLocalRandom.current().nextLong());
+
+    private final AtomicLong eTagSequence = new AtomicLong();
+
+    private final ITopic<DashboardChange> changesTopic;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    public CourseDashboardCacheService(MeterRegistry meterRegistry, HazelcastInstance hazelcastInstance,
+            @Value("${artemis.dashboard-cache.time-to-live-seconds:60}") long timeToLiveSeconds, @Value("${artemis.dashboard-cache.max-size:2000}") int maxSize) {
+        this.timeToLiveNanos = TimeUnit.SECONDS.toNanos(timeToLiveSeconds);
+        this.maxSize = maxSize;
+        this.hits = meterRegistry.counter("artemis.dashboard_cache.hits");
+        this.misses = meterRegistry.counter("artemis.dashboard_cache.misses");
+        this.changesTopic = hazelcastInstance.getTopic(CHANGES_TOPIC);
+        this.changesTopic.addMessageListener(this::onChangeOfOtherServer);
+    }
+
+    /**
+     * @return the time stamp that has to be passed to {@link #put(String, List, Set, long)}, it has to be taken before the dashboard is loaded from the database
+     */
+    public long startLoading() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Get the cached dashboard of the user if it is still up to date
+     *
+     * @param login the login of the user
+     * @return the cached dashboard, or null if there is no up to date dashboard of the user
+     */
+    public CachedDashboard get(String login) {
+        CachedDashboard dashboard;
+        synchronized (this) {
+            dashboard = dashboards.get(login);
+        }
+        if (dashboard != null && isUpToDate(login, dashboard)) {
+            hits.increment();
+            return dashboard;
+        }
+        if (dashboard != null) {
+            synchronized (this) {
+                dashboards.remove(login, dashboard);
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Cache the dashboard of the user
+     *
+     * @param login            the login of the user
+     * @param courses          the courses of the dashboard, they must not be changed afterwards
+     * @param participationIds the ids of all participations of the user that are included in the courses
+     * @param loadingStart     the time stamp returned by {@link #startLoading()} before the courses were loaded
+     * @return the cached dashboard including its ETag
+     */
+    public CachedDashboard put(String login, List<Course> courses, Set<Long> participationIds, long loadingStart) {
+        CachedDashboard dashboard = new CachedDashboard(courses, participationIds, loadingStart, "\"" + serverId + "-" + Long.toHexString(eTagSequence.incrementAndGet()) + "\"");
+        synchronized (this) {
+            dashboards.put(login, dashboard);
+            Iterator<CachedDashboard> leastRecentlyUsed = dashboards.values().iterator();
+            while (dashboards.size() > maxSize && leastRecentlyUsed.hasNext()) {
+                leastRecentlyUsed.next();
+                leastRecentlyUsed.remove();
+            }
+        }
+        return dashboard;
+    }
+
+    /**
+     * Invalidate the dashboards of all users, e.g. because a course, exercise or lecture changed
+     */
+    public void contentChanged() {
+        DashboardChange change = new DashboardChange(serverId, null, null);
+        recordChange(change);
+        changesTopic.publish(change);
+    }
+
+    /**
+     * Invalidate the dashboard of the user, e.g. because the user was registered for a course or a new participation was started
+     *
+     * @param login the login of the user
+     */
+    public void userChanged(String login) {
+        DashboardChange change = new DashboardChange(serverId, login, null);
+        recordChange(change);
+        changesTopic.publish(change);
+    }
+
+    /**
+     * Invalidate the dashboards that include the participation, e.g. because a new submission or result was saved
+     *
+     * @param participationId the id of the participation
+     */
+    public void participationChanged(Long participationId) {
+        DashboardChange change = new DashboardChange(serverId, null, participationId);
+        recordChange(change);
+        changesTopic.publish(change);
+    }
+
+    private void onChangeOfOtherServer(Message<DashboardChange> message) {
+        // the changes of this server were already recorded when they were made
+        if (!serverId.equals(message.getMessageObject().origin)) {
+            recordChange(message.getMessageObject());
+        }
+    }
+
+    private void recordChange(DashboardChange change) {
+        if (change.login != null) {
+            cleanUpChanges(userChanges);
+            userChanges.put(change.login, System.nanoTime());
+        }
+        else if (change.participationId != null) {
+            cleanUpChanges(participationChanges);
+            participationChanges.put(change.participationId, System.nanoTime());
+        }
+        else {
+            lastContentChange = System.nanoTime();
+        }
+    }
+
+    private boolean isUpToDate(String login, CachedDashboard dashboard) {
+        long loadingStart = dashboard.loadingStart;
+        if (System.nanoTime() - loadingStart > timeToLiveNanos || !isBefore(lastContentChange, loadingStart) || !isBefore(userChanges.get(login), loadingStart)) {
+            return false;
+        }
+        for (Long participationId : dashboard.participationIds) {
+            if (!isBefore(participationChanges.get(participationId), loadingStart)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBefore(Long changeTime, long loadingStart) {
+        // System.nanoTime() may overflow, so we have to compare the difference
+        return changeTime == null || changeTime - loadingStart < 0;
+    }
+
+    private <K> void cleanUpChanges(Map<K, Long> changes) {
+        if (changes.size() > CHANGE_CLEANUP_THRESHOLD) {
+            // dashboards that were loaded before the time to live are outdated anyway, so older changes are not needed any more
+            long now = System.nanoTime();
+            changes.values().removeIf(changeTime -> now - changeTime > timeToLiveNanos);
+        }
+    }
+
+    /**
+     * A change that is published to the other servers: of a user if the login is set, of a participation if the participation id is set, otherwise of the content
+     */
+    private static final class DashboardChange implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * the random id of the server that made the change
+         */
+        private final String origin;
+
+        private final String login;
+
+        private final Long participationId;
+
+        private DashboardChange(String origin, String login, Long participationId) {
+            this.origin = origin;
+            this.login = login;
+            this.participationId = participationId;
+        }
+    }
+
+    public static class CachedDashboard {
+
+        private final List<Course> courses;
+
+        private final Set<Long> participationIds;
+
+        private final long loadingStart;
+
+        private final String eTag;
+
+        private CachedDashboard(List<Course> courses, Set<Long> participationIds, long loadingStart, String eTag) {
+            this.courses = courses;
+            this.participationIds = participationIds;
+            this.loadingStart = loadingStart;
+            this.eTag = eTag;
+        }
+
+        public List<Course> getCourses() {
+            return courses;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+    }
+}
@@ -41,14 +41,17 @@ public class CourseService {
 
     private final ExerciseGroupService exerciseGroupService;
 
+    private final SubscriptionAuthorizationCacheService subscriptionAuthorizationCacheService;
+
     public CourseService(CourseRepository courseRepository, ExerciseService exerciseService, AuthorizationCheckService authCheckService, UserRepository userRepository,
-            LectureService lectureService, ExerciseGroupService exerciseGroupService) {
+            LectureService lectureService, ExerciseGroupService exerciseGroupService, SubscriptionAuthorizationCacheService subscriptionAuthorizationCacheService) {
         this.courseRepository = courseRepository;
         this.exerciseService = exerciseService;
         this.authCheckService = authCheckService;
         this.userRepository = userRepository;
         this.lectureService = lectureService;
         this.exerciseGroupService = exerciseGroupService;
+        this.subscriptionAuthorizationCacheService = subscriptionAuthorizationCacheService;
     }
 
     @Autowired
@@ -65,6 +68,10 @@ public class CourseService {
      */
     public Course save(Course course) {
         log.debug("Request to save Course : {}", course);
+        if (course.getId() != null) {
+            // the group names of the course might have changed
+            subscriptionAuthorizationCacheService.invalidateAll();
+        }
         return courseRepository.save(course);
     }
 
@@ -196,6 +203,7 @@ public class CourseService {
     public void delete(Long id) {
         log.debug("Request to delete Course : {}", id);
         courseRepository.deleteById(id);
+        subscriptionAuthorizationCacheService.invalidateAll();
     }
 
     /**
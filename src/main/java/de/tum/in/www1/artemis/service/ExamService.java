@@ -1,31 +1,50 @@
 package de.tum.in.www1.artemis.service;
 
+import static de.tum.in.www1.artemis.domain.enumeration.InitializationState.INITIALIZED;
+
 import java.security.SecureRandom;
 import java.util.*;
+import java.util.concurrent.*;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.SessionFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 
 import de.tum.in.www1.artemis.domain.Exercise;
+import de.tum.in.www1.artemis.domain.ProgrammingExercise;
 import de.tum.in.www1.artemis.domain.User;
 import de.tum.in.www1.artemis.domain.exam.Exam;
 import de.tum.in.www1.artemis.domain.exam.ExerciseGroup;
 import de.tum.in.www1.artemis.domain.exam.StudentExam;
 import de.tum.in.www1.artemis.domain.participation.Participation;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
 import de.tum.in.www1.artemis.repository.ExamRepository;
+import de.tum.in.www1.artemis.repository.ProgrammingExerciseRepository;
 import de.tum.in.www1.artemis.repository.StudentExamRepository;
+import de.tum.in.www1.artemis.repository.StudentParticipationRepository;
+import de.tum.in.www1.artemis.security.SecurityUtils;
 import de.tum.in.www1.artemis.service.dto.StudentDTO;
 import de.tum.in.www1.artemis.web.rest.errors.BadRequestAlertException;
 import de.tum.in.www1.artemis.web.rest.errors.EntityNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 /**
  * Service Implementation for managing Course.
@@ -45,11 +64,69 @@ public class ExamService {
 
     private final ParticipationService participationService;
 
-    public ExamService(ExamRepository examRepository, StudentExamRepository studentExamRepository, UserService userService, ParticipationService participationService) {
+    private final StudentParticipationRepository studentParticipationRepository;
+
+    private final ProgrammingExerciseRepository programmingExerciseRepository;
+
+    private final int examStartBatchSize;
+
+    private final int maxProgrammingExerciseStartAttempts;
+
+    private final long programmingExerciseStartBackoffMillis;
+
+    /**
+     * Sets up the repositories and build plans of programming exercises when an exam is started, limits the number of concurrent requests to the VCS and CI server
+     */
+    private final ExecutorService programmingExerciseStartExecutor;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final int studentExamGenerationChunkSize;
+
+    /**
+     * Generates and inserts the chunks of student exams of an exam in parallel
+     */
+    private final ExecutorService studentExamGenerationExecutor;
+
+    private final Timer studentExamGenerationTimer;
+
+    public ExamService(ExamRepository examRepository, StudentExamRepository studentExamRepository, UserService userService, ParticipationService participationService,
+            StudentParticipationRepository studentParticipationRepository, ProgrammingExerciseRepository programmingExerciseRepository, JdbcTemplate jdbcTemplate,
+            NamedParameterJdbcTemplate namedParameterJdbcTemplate, PlatformTransactionManager transactionManager, EntityManagerFactory entityManagerFactory,
+            MeterRegistry meterRegistry, @Value("${artemis.exam.start.parallelism:4}") int examStartParallelism,
+            @Value("${artemis.exam.start.batch-size:100}") int examStartBatchSize, @Value("${artemis.exam.start.max-attempts:3}") int maxProgrammingExerciseStartAttempts,
+            @Value("${artemis.exam.start.retry-backoff-ms:1000}") long programmingExerciseStartBackoffMillis,
+            @Value("${artemis.exam.generation.chunk-size:500}") int studentExamGenerationChunkSize,
+            @Value("${artemis.exam.generation.parallelism:2}") int studentExamGenerationParallelism) {
         this.examRepository = examRepository;
         this.studentExamRepository = studentExamRepository;
         this.userService = userService;
         this.participationService = participationService;
+        this.studentParticipationRepository = studentParticipationRepository;
+        this.programmingExerciseRepository = programmingExerciseRepository;
+        this.examStartBatchSize = Math.max(1, examStartBatchSize);
+        this.maxProgrammingExerciseStartAttempts = Math.max(1, maxProgrammingExerciseStartAttempts);
+        this.programmingExerciseStartBackoffMillis = Math.max(0, programmingExerciseStartBackoffMillis);
+        this.programmingExerciseStartExecutor = Executors.newFixedThreadPool(Math.max(1, examStartParallelism));
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.studentExamGenerationChunkSize = Math.max(1, studentExamGenerationChunkSize);
+        this.studentExamGenerationExecutor = Executors.newFixedThreadPool(Math.max(1, studentExamGenerationParallelism));
+        this.studentExamGenerationTimer = meterRegistry.timer("artemis.exam.student_exam_generation");
+    }
+
+    @PreDestroy
+    public void shutdownExecutors() {
+        programmingExerciseStartExecutor.shutdownNow();
+        studentExamGenerationExecutor.shutdownNow();
     }
 
     @Autowired
@@ -149,18 +226,28 @@ public class ExamService {
     /**
      * Generates the student exams randomly based on the exam configuration and the exercise groups
      *
+     * The registered users are processed in chunks: the exercises of the student exams of a chunk are drawn in parallel, the student exams are inserted with JDBC batch inserts,
+     * so that neither the registered users nor the generated student exams are held in the persistence context. The existing student exams are deleted and the new ones are
+     * inserted in one transaction, so if the generation fails, the previous student exams are kept. The exercises of a student are drawn from a random generator that only
+     * depends on the seed of the run and the id of the student, so the chunks can be generated in any order and a generation can be reproduced with the same seed.
+     *
      * @param examId        the id of the exam
      * @return the list of student exams with their corresponding users
      */
     public List<StudentExam> generateStudentExams(Long examId) {
-        List<StudentExam> studentExams = new ArrayList<>();
-        SecureRandom random = new SecureRandom();
-
-        // Delete all existing student exams via orphan removal
-        Exam examWithExistingStudentExams = examRepository.findWithStudentExamsById(examId).get();
-        studentExamRepository.deleteInBatch(examWithExistingStudentExams.getStudentExams());
+        return generateStudentExams(examId, new SecureRandom().nextLong());
+    }
 
-        Exam exam = examRepository.findWithExercisesRegisteredUsersStudentExamsById(examId).get();
+    /**
+     * Generates the student exams randomly based on the exam configuration and the exercise groups, see {@link #generateStudentExams(Long)}.
+     *
+     * @param examId        the id of the exam
+     * @param seed          the seed of the random selection of the exercises, the same seed leads to the same student exams for the same exam configuration
+     * @return the list of student exams with their corresponding users
+     */
+    public List<StudentExam> generateStudentExams(Long examId, long seed) {
+        long start = System.nanoTime();
+        Exam exam = examRepository.findWithExerciseGroupsAndExercisesById(examId).orElseThrow(() -> new EntityNotFoundException("Exam with id: \"" + examId + "\" does not exist"));
 
         // Ensure that all exercise groups have at least one exercise
         for (ExerciseGroup exerciseGroup : exam.getExerciseGroups()) {
@@ -200,32 +287,137 @@ public class ExamService {
             }
         }
 
-        for (User registeredUser : exam.getRegisteredUsers()) {
-            // Create one student exam per user
-            StudentExam studentExam = new StudentExam();
-            studentExam.setExam(exam);
-            studentExam.setUser(registeredUser);
-
-            // Add a random exercise for each exercise group if the index of the exercise group is in assembledIndices
-            List<Integer> assembledIndices = assembleIndicesListWithRandomSelection(indicesOfMandatoryExerciseGroups, indicesOfOptionalExerciseGroups, numberOfOptionalExercises);
-            for (Integer index : assembledIndices) {
-                // we get one random exercise from all preselected exercise groups
-                studentExam.addExercise(selectRandomExercise(random, exerciseGroups.get(index)));
-            }
+        // the exercises of a group are a set, we sort them so that the same seed selects the same exercises
+        List<List<Long>> exerciseIdsOfGroups = exerciseGroups.stream()
+                .map(exerciseGroup -> exerciseGroup.getExercises().stream().map(Exercise::getId).sorted().collect(Collectors.toList())).collect(Collectors.toList());
+        boolean randomizeExerciseOrder = Boolean.TRUE.equals(exam.getRandomizeExerciseOrder());
+
+        List<Long> registeredUserIds = examRepository.findRegisteredUserIdsByExamId(examId);
+        List<List<Long>> userIdsOfChunks = new ArrayList<>();
+        List<Future<List<List<Long>>>> chunks = new ArrayList<>();
+        for (int from = 0; from < registeredUserIds.size(); from += studentExamGenerationChunkSize) {
+            List<Long> userIdsOfChunk = registeredUserIds.subList(from, Math.min(from + studentExamGenerationChunkSize, registeredUserIds.size()));
+            userIdsOfChunks.add(userIdsOfChunk);
+            chunks.add(studentExamGenerationExecutor.submit(() -> {
+                List<List<Long>> exerciseIdsOfStudentExams = new ArrayList<>(userIdsOfChunk.size());
+                for (Long userId : userIdsOfChunk) {
+                    Random random = randomForStudent(seed, userId);
+                    // Add a random exercise for each exercise group if the index of the exercise group is in assembledIndices
+                    List<Long> exerciseIds = new ArrayList<>();
+                    for (Integer index : assembleIndicesListWithRandomSelection(random, indicesOfMandatoryExerciseGroups, indicesOfOptionalExerciseGroups, numberOfOptionalExercises)) {
+                        // we get one random exercise from all preselected exercise groups
+                        List<Long> exerciseIdsOfGroup = exerciseIdsOfGroups.get(index);
+                        exerciseIds.add(exerciseIdsOfGroup.get(random.nextInt(exerciseIdsOfGroup.size())));
+                    }
+                    // Apply random exercise order
+                    if (randomizeExerciseOrder) {
+                        Collections.shuffle(exerciseIds, random);
+                    }
+                    exerciseIdsOfStudentExams.add(exerciseIds);
+                }
+                return exerciseIdsOfStudentExams;
+            }));
+        }
 
-            // Apply random exercise order
-            if (Boolean.TRUE.equals(exam.getRandomizeExerciseOrder())) {
-                Collections.shuffle(studentExam.getExercises());
-            }
+        int insertedRows;
+        try {
+            // Replace all existing student exams, the chunks are inserted in the order of the users while the following chunks are still generated
+            insertedRows = transactionTemplate.execute(status -> {
+                deleteStudentExamsOfExam(examId);
+                int rows = 0;
+                for (int i = 0; i < chunks.size(); i++) {
+                    rows += insertStudentExams(examId, userIdsOfChunks.get(i), getGeneratedChunk(examId, chunks.get(i)));
+                }
+                return rows;
+            });
+        }
+        finally {
+            // only relevant if the generation failed
+            chunks.forEach(chunk -> chunk.cancel(true));
+        }
+        evictCachedStudentExams(examId);
+
+        long durationNanos = System.nanoTime() - start;
+        studentExamGenerationTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+        log.info("Generated {} student exams ({} rows) for exam {} with seed {} in {}ms ({} rows/s)", registeredUserIds.size(), insertedRows, examId, seed,
+                TimeUnit.NANOSECONDS.toMillis(durationNanos), Math.round(insertedRows / Math.max(durationNanos / 1e9, 1e-3)));
+
+        return studentExamRepository.findWithExercisesAndUserByExamId(examId);
+    }
 
-            studentExams.add(studentExam);
+    /**
+     * The random generator for the exercises of a student only depends on the seed of the generation and the student, but not on the order in which the students are processed.
+     */
+    private Random randomForStudent(long seed, long userId) {
+        // mix the user id with the golden ratio constant, so that consecutive user ids lead to unrelated seeds
+        return new Random(seed ^ (userId * 0x9E3779B97F4A7C15L));
+    }
+
+    /**
+     * Waits for the exercises of the student exams of a chunk.
+     *
+     * @return the exercise ids of the student exams of the chunk
+     */
+    private List<List<Long>> getGeneratedChunk(Long examId, Future<List<List<Long>>> chunk) {
+        try {
+            return chunk.get();
         }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating the student exams of exam " + examId, ex);
+        }
+        catch (ExecutionException ex) {
+            throw new IllegalStateException("Generating the student exams of exam " + examId + " failed", ex.getCause());
+        }
+    }
 
-        studentExams = studentExamRepository.saveAll(studentExams);
+    /**
+     * Deletes the student exams of the exam with JDBC, has to be called within the transaction that inserts the new student exams.
+     */
+    private void deleteStudentExamsOfExam(Long examId) {
+        jdbcTemplate.update("delete from student_exam_exercise where student_exam_id in (select id from student_exam where exam_id = ?)", examId);
+        jdbcTemplate.update("delete from student_exam where exam_id = ?", examId);
+    }
 
-        // TODO: make sure the student exams still contain non proxy users
+    /**
+     * Insert the student exams of the given users and their exercises with JDBC batch inserts.
+     *
+     * @return the number of inserted rows
+     */
+    private int insertStudentExams(Long examId, List<Long> userIds, List<List<Long>> exerciseIdsOfStudentExams) {
+        jdbcTemplate.batchUpdate("insert into student_exam (exam_id, user_id) values (?, ?)", userIds, userIds.size(), (statement, userId) -> {
+            statement.setLong(1, examId);
+            statement.setLong(2, userId);
+        });
+
+        // all student exams of the exam were deleted before, so the user id identifies the new student exam
+        Map<Long, Long> studentExamIdsByUserId = new HashMap<>();
+        var parameters = new MapSqlParameterSource("examId", examId).addValue("userIds", userIds);
+        namedParameterJdbcTemplate.query("select id, user_id from student_exam where exam_id = :examId and user_id in (:userIds)", parameters,
+                (RowCallbackHandler) resultSet -> studentExamIdsByUserId.put(resultSet.getLong("user_id"), resultSet.getLong("id")));
+
+        List<Object[]> exerciseRows = new ArrayList<>();
+        for (int i = 0; i < userIds.size(); i++) {
+            Long studentExamId = studentExamIdsByUserId.get(userIds.get(i));
+            List<Long> exerciseIds = exerciseIdsOfStudentExams.get(i);
+            for (int order = 0; order < exerciseIds.size(); order++) {
+                exerciseRows.add(new Object[] { studentExamId, exerciseIds.get(order), order });
+            }
+        }
+        if (!exerciseRows.isEmpty()) {
+            jdbcTemplate.batchUpdate("insert into student_exam_exercise (student_exam_id, exercise_id, exercise_order) values (?, ?, ?)", exerciseRows);
+        }
+        return userIds.size() + exerciseRows.size();
+    }
 
-        return studentExams;
+    /**
+     * The student exams were changed with JDBC, so the second level cache of Hibernate has to be updated manually.
+     */
+    private void evictCachedStudentExams(Long examId) {
+        org.hibernate.Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(StudentExam.class);
+        cache.evictCollectionData(StudentExam.class.getName() + ".exercises");
+        cache.evictCollectionData(Exam.class.getName() + ".studentExams", examId);
     }
 
     /**
@@ -282,14 +474,15 @@ public class ExamService {
         return notFoundStudentsDtos;
     }
 
-    private List<Integer> assembleIndicesListWithRandomSelection(List<Integer> mandatoryIndices, List<Integer> optionalIndices, Long numberOfOptionalExercises) {
+    private List<Integer> assembleIndicesListWithRandomSelection(Random random, List<Integer> mandatoryIndices, List<Integer> optionalIndices, Long numberOfOptionalExercises) {
         // Add all mandatory indices
         List<Integer> indices = new ArrayList<>(mandatoryIndices);
 
         // Add as many optional indices as numberOfOptionalExercises
         if (numberOfOptionalExercises > 0) {
-            Collections.shuffle(optionalIndices);
-            indices = Stream.concat(indices.stream(), optionalIndices.stream().limit(numberOfOptionalExercises)).collect(Collectors.toList());
+            List<Integer> shuffledOptionalIndices = new ArrayList<>(optionalIndices);
+            Collections.shuffle(shuffledOptionalIndices, random);
+            indices = Stream.concat(indices.stream(), shuffledOptionalIndices.stream().limit(numberOfOptionalExercises)).collect(Collectors.toList());
         }
 
         // Sort the indices to preserve the original order
@@ -297,39 +490,158 @@ public class ExamService {
         return indices;
     }
 
-    private Exercise selectRandomExercise(SecureRandom random, ExerciseGroup exerciseGroup) {
-        List<Exercise> exercises = new ArrayList<>(exerciseGroup.getExercises());
-        int randomIndex = random.nextInt(exercises.size());
-        return exercises.get(randomIndex);
-    }
-
     /**
      * Starts all the exercises of all the student exams of an exam
      *
+     * The existing participations of the exam are loaded once and indexed by exercise and student, so that only the missing participations are created:
+     * - for text, modeling, file upload and quiz exercises, the participations and their empty submissions are created in batches of one transaction each, if a batch fails,
+     *   the exercise is started for every student of the batch individually
+     * - for programming exercises, the repositories and build plans are set up in parallel by a bounded number of workers, failed set ups are retried
+     *
+     * Every step of the set up of a programming exercise participation is persisted in its initialization state. If the start of an exam is interrupted, calling this method
+     * again continues the set up of all participations that are not initialized yet. The number of participations that could not be started is logged.
+     *
      * @param examId exam to which the student exams belong
      * @return list of generated participations
      */
-    @Transactional
-    // TODO IMPORTANT: do not use transactional here, but instead load the exam with all exercises, participations and submissions, in case they exist
     public List<Participation> startExercises(Long examId) {
-        List<StudentExam> studentExams = studentExamRepository.findByExamId(examId);
-        List<Participation> generatedParticipations = new ArrayList<>();
+        long start = System.nanoTime();
+        List<StudentExam> studentExams = studentExamRepository.findWithExercisesAndUserByExamId(examId);
+
+        // exercise id -> student id -> existing participation
+        Map<Long, Map<Long, StudentParticipation>> existingParticipations = new HashMap<>();
+        for (StudentParticipation participation : studentParticipationRepository.findByExamIdWithStudent(examId)) {
+            participation.getStudent().ifPresent(student -> existingParticipations.computeIfAbsent(participation.getExercise().getId(), exerciseId -> new HashMap<>())
+                    .put(student.getId(), participation));
+        }
 
+        // exercise -> students that still need a participation, or whose programming participation is not initialized yet
+        Map<Long, Exercise> exercises = new HashMap<>();
+        Map<Long, List<User>> studentsToStart = new HashMap<>();
         for (StudentExam studentExam : studentExams) {
             User student = studentExam.getUser();
             for (Exercise exercise : studentExam.getExercises()) {
-                if (exercise.getStudentParticipations().stream().noneMatch(studentParticipation -> studentParticipation.getParticipant().equals(student))) {
+                StudentParticipation existingParticipation = existingParticipations.getOrDefault(exercise.getId(), Collections.emptyMap()).get(student.getId());
+                boolean needsStart = existingParticipation == null || (exercise instanceof ProgrammingExercise && (existingParticipation.getInitializationState() == null
+                        || !existingParticipation.getInitializationState().hasCompletedState(INITIALIZED)));
+                if (needsStart) {
+                    exercises.putIfAbsent(exercise.getId(), exercise);
+                    studentsToStart.computeIfAbsent(exercise.getId(), exerciseId -> new ArrayList<>()).add(student);
+                }
+            }
+        }
+
+        List<Participation> generatedParticipations = new ArrayList<>();
+        int numberOfFailedStarts = 0;
+        List<Future<Optional<StudentParticipation>>> programmingExerciseStarts = new ArrayList<>();
+        for (Map.Entry<Long, List<User>> entry : studentsToStart.entrySet()) {
+            Exercise exercise = exercises.get(entry.getKey());
+            List<User> students = entry.getValue();
+            if (exercise instanceof ProgrammingExercise) {
+                // load the template participation needed to copy the repositories and build plans only once for all students
+                ProgrammingExercise programmingExercise = programmingExerciseRepository.findWithTemplateParticipationAndSolutionParticipationById(exercise.getId())
+                        .orElseThrow(() -> new EntityNotFoundException("Programming exercise with id " + exercise.getId() + " does not exist"));
+                for (User student : students) {
+                    programmingExerciseStarts.add(programmingExerciseStartExecutor.submit(() -> startProgrammingExerciseWithRetry(programmingExercise, student)));
+                }
+            }
+            else {
+                for (int from = 0; from < students.size(); from += examStartBatchSize) {
+                    List<User> batch = students.subList(from, Math.min(from + examStartBatchSize, students.size()));
                     try {
-                        var participation = participationService.startExercise(exercise, student);
-                        generatedParticipations.add(participation);
+                        generatedParticipations.addAll(participationService.startExerciseForStudents(exercise, batch));
                     }
                     catch (Exception ex) {
-                        log.warn("Start exercise for student exam {} and exercise {} and student {}", studentExam.getId(), exercise.getId(), student.getId());
+                        log.warn("Start exercise {} failed for {} students of exam {}, starting it for every student individually: {}", exercise.getId(), batch.size(), examId,
+                                ex.getMessage());
+                        numberOfFailedStarts += startExerciseForEveryStudent(exercise, batch, generatedParticipations);
                     }
                 }
             }
         }
 
+        for (Future<Optional<StudentParticipation>> programmingExerciseStart : programmingExerciseStarts) {
+            try {
+                Optional<StudentParticipation> participation = programmingExerciseStart.get();
+                if (participation.isPresent()) {
+                    generatedParticipations.add(participation.get());
+                }
+                else {
+                    numberOfFailedStarts++;
+                }
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                log.error("Interrupted while starting the programming exercises of exam {}", examId);
+                break;
+            }
+            catch (ExecutionException ex) {
+                numberOfFailedStarts++;
+                log.error("Unexpected error while starting a programming exercise of exam " + examId, ex.getCause());
+            }
+        }
+
+        if (numberOfFailedStarts > 0) {
+            log.error("{} participations of exam {} could not be started, start the exercises again to retry them", numberOfFailedStarts, examId);
+        }
+
+        log.info("Started {} participations for {} student exams of exam {} in {}ms", generatedParticipations.size(), studentExams.size(), examId,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
         return generatedParticipations;
     }
+
+    /**
+     * Start the exercise for every student of a batch that failed as a whole, so that only the students for whom the start fails again are left without a participation.
+     *
+     * @param exercise                the text, modeling, file upload or quiz exercise
+     * @param students                the students of the failed batch
+     * @param generatedParticipations the list to which the created participations are added
+     * @return the number of students for whom the exercise could not be started
+     */
+    private int startExerciseForEveryStudent(Exercise exercise, List<User> students, List<Participation> generatedParticipations) {
+        int numberOfFailedStarts = 0;
+        for (User student : students) {
+            try {
+                generatedParticipations.add(participationService.startExercise(exercise, student));
+            }
+            catch (Exception ex) {
+                numberOfFailedStarts++;
+                log.warn("Start exercise {} for student {} failed: {}", exercise.getId(), student.getLogin(), ex.getMessage());
+            }
+        }
+        return numberOfFailedStarts;
+    }
+
+    /**
+     * Start the programming exercise for the student, i.e. set up the repository and the build plan. If a step fails, the start is retried with a linearly growing delay and
+     * continues with the failed step.
+     *
+     * @param programmingExercise the programming exercise with its template participation
+     * @param student             the student
+     * @return the initialized participation or an empty optional if the exercise could not be started for the student
+     */
+    private Optional<StudentParticipation> startProgrammingExerciseWithRetry(ProgrammingExercise programmingExercise, User student) {
+        // The worker threads can't access the authentication object. The access of the instructor has been checked before.
+        SecurityUtils.setAuthorizationObject();
+        for (int attempt = 1;; attempt++) {
+            try {
+                return Optional.of(participationService.startExercise(programmingExercise, student));
+            }
+            catch (Exception ex) {
+                if (attempt >= maxProgrammingExerciseStartAttempts) {
+                    log.warn("Start programming exercise {} for student {} failed after {} attempts: {}", programmingExercise.getId(), student.getLogin(), attempt, ex.getMessage());
+                    return Optional.empty();
+                }
+                log.info("Start programming exercise {} for student {} failed in attempt {}, retrying: {}", programmingExercise.getId(), student.getLogin(), attempt,
+                        ex.getMessage());
+                try {
+                    Thread.sleep(programmingExerciseStartBackoffMillis * attempt);
+                }
+                catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    return Optional.empty();
+                }
+            }
+        }
+    }
 }
@@ -52,10 +52,12 @@ public class ExerciseService {
 
     private final TeamService teamService;
 
+    private final SubscriptionAuthorizationCacheService subscriptionAuthorizationCacheService;
+
     public ExerciseService(ExerciseRepository exerciseRepository, ParticipationService participationService, AuthorizationCheckService authCheckService,
             ProgrammingExerciseService programmingExerciseService, QuizExerciseService quizExerciseService, TutorParticipationRepository tutorParticipationRepository,
             ExampleSubmissionService exampleSubmissionService, AuditEventRepository auditEventRepository, ComplaintRepository complaintRepository,
-            ComplaintResponseRepository complaintResponseRepository, TeamService teamService) {
+            ComplaintResponseRepository complaintResponseRepository, TeamService teamService, SubscriptionAuthorizationCacheService subscriptionAuthorizationCacheService) {
         this.exerciseRepository = exerciseRepository;
         this.participationService = participationService;
         this.authCheckService = authCheckService;
@@ -67,6 +69,7 @@ public class ExerciseService {
         this.complaintResponseRepository = complaintResponseRepository;
         this.teamService = teamService;
         this.quizExerciseService = quizExerciseService;
+        this.subscriptionAuthorizationCacheService = subscriptionAuthorizationCacheService;
     }
 
     /**
@@ -276,6 +279,7 @@ public class ExerciseService {
         else {
             exerciseRepository.delete(exercise);
         }
+        subscriptionAuthorizationCacheService.invalidateExercise(exercise.getId());
     }
 
     /**
@@ -25,7 +25,6 @@ import org.apache.commons.io.filefilter.IOFileFilter;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.util.FileSystemUtils;
@@ -41,24 +40,6 @@ public class FileService {
 
     private final Logger log = LoggerFactory.getLogger(FileService.class);
 
-    /**
-     * Get the file for the given path as a byte[]
-     *
-     * @param path the path for the file to load
-     * @return file contents as a byte[], or null, if the file doesn't exist
-     * @throws IOException if the file can't be accessed.
-     */
-    @Cacheable(value = "files", unless = "#result == null")
-    public byte[] getFileForPath(String path) throws IOException {
-        File file = new File(path);
-        if (file.exists()) {
-            return Files.readAllBytes(file.toPath());
-        }
-        else {
-            return null;
-        }
-    }
-
     /**
      * Takes care of any changes that have to be made to the filesystem (deleting old files, moving temporary files into their proper location) and returns the public path for the
      * resulting file (as it might have been moved from newFilePath to another path)
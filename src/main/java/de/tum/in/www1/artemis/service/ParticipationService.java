@@ -4,13 +4,18 @@ import static de.tum.in.www1.artemis.domain.enumeration.InitializationState.*;
 
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+
 import de.tum.in.www1.artemis.domain.*;
 import de.tum.in.www1.artemis.domain.enumeration.AssessmentType;
 import de.tum.in.www1.artemis.domain.enumeration.BuildPlanType;
@@ -27,6 +32,7 @@ import de.tum.in.www1.artemis.service.connectors.ContinuousIntegrationService;
 import de.tum.in.www1.artemis.service.connectors.GitService;
 import de.tum.in.www1.artemis.service.connectors.VersionControlService;
 import de.tum.in.www1.artemis.service.scheduled.QuizScheduleService;
+import de.tum.in.www1.artemis.web.rest.dto.CourseParticipationDTO;
 import de.tum.in.www1.artemis.web.rest.errors.EntityNotFoundException;
 
 /**
@@ -37,6 +43,12 @@ public class ParticipationService {
 
     private final Logger log = LoggerFactory.getLogger(ParticipationService.class);
 
+    /**
+     * exercise class -> type name of the exercise in JSON (e.g. "programming")
+     */
+    private static final Map<Class<?>, String> EXERCISE_TYPE_NAMES = Arrays.stream(Exercise.class.getAnnotation(JsonSubTypes.class).value())
+            .collect(Collectors.toMap(JsonSubTypes.Type::value, JsonSubTypes.Type::name));
+
     private final ParticipationRepository participationRepository;
 
     private final StudentParticipationRepository studentParticipationRepository;
@@ -328,25 +340,68 @@ public class ParticipationService {
             return Optional.empty();
         }
 
-        Submission submission;
+        Submission submission = createEmptySubmission(exercise);
+        submission.setType(submissionType);
+        submission.setParticipation(participation);
+        submissionRepository.save(submission);
+        participation.addSubmissions(submission);
+        return Optional.of(submission);
+    }
+
+    private Submission createEmptySubmission(Exercise exercise) {
         if (exercise instanceof ProgrammingExercise) {
-            submission = new ProgrammingSubmission();
+            return new ProgrammingSubmission();
         }
         else if (exercise instanceof ModelingExercise) {
-            submission = new ModelingSubmission();
+            return new ModelingSubmission();
         }
         else if (exercise instanceof TextExercise) {
-            submission = new TextSubmission();
+            return new TextSubmission();
         }
         else {
-            submission = new FileUploadSubmission();
+            return new FileUploadSubmission();
         }
+    }
 
-        submission.setType(submissionType);
-        submission.setParticipation(participation);
-        submissionRepository.save(submission);
-        participation.addSubmissions(submission);
-        return Optional.of(submission);
+    /**
+     * Start a non-programming exercise for many students at once, e.g. at the start of an exam: creates an initialized participation and (except for quizzes) an empty
+     * submission for every student in one transaction. This has the same result as calling {@link #startExercise(Exercise, Participant)} for every student, but the caller has
+     * to make sure that none of the students has a participation in the exercise yet.
+     *
+     * @param exercise the text, modeling, file upload or quiz exercise
+     * @param students the students without a participation in the exercise
+     * @return the created participations
+     */
+    @Transactional
+    public List<StudentParticipation> startExerciseForStudents(Exercise exercise, List<User> students) {
+        if (exercise instanceof ProgrammingExercise) {
+            throw new IllegalArgumentException("Programming exercises have to be started for every student individually");
+        }
+        ZonedDateTime initializationDate = ZonedDateTime.now();
+        List<StudentParticipation> participations = new ArrayList<>(students.size());
+        for (User student : students) {
+            StudentParticipation participation = new StudentParticipation();
+            participation.setInitializationState(INITIALIZED);
+            participation.setInitializationDate(initializationDate);
+            participation.setExercise(exercise);
+            participation.setParticipant(student);
+            participations.add(participation);
+        }
+        participations = studentParticipationRepository.saveAll(participations);
+
+        if (!(exercise instanceof QuizExercise)) {
+            List<Submission> submissions = new ArrayList<>(participations.size());
+            for (StudentParticipation participation : participations) {
+                Submission submission = createEmptySubmission(exercise);
+                submission.setParticipation(participation);
+                submissions.add(submission);
+            }
+            submissionRepository.saveAll(submissions);
+            for (int i = 0; i < participations.size(); i++) {
+                participations.get(i).addSubmissions(submissions.get(i));
+            }
+        }
+        return participations;
     }
 
     /**
@@ -826,47 +881,41 @@ public class ParticipationService {
     }
 
     /**
-     * Get all participations belonging to course with relevant results.
+     * Pass all participations of the course that belong to a student or a team to the given consumer, one participation at a time and ordered by id. Each participation contains
+     * its relevant result, i.e. the latest rated result with completion date and score, which is selected in the database. The participations are read as projections, so that
+     * the participations of large courses can be exported with little memory.
      *
-     * @param courseId the id of the exercise
-     * @return list of participations belonging to course
+     * @param courseId the id of the course
+     * @param consumer the consumer that processes (e.g. serializes) the participations
      */
-    public List<StudentParticipation> findByCourseIdWithRelevantResult(Long courseId) {
-        List<StudentParticipation> participations = studentParticipationRepository.findByCourseIdWithEagerRatedResults(courseId);
-
-        return participations.stream()
-
-                // Filter out participations without Students
-                // These participations are used e.g. to store template and solution build plans in programming exercises
-                .filter(participation -> participation.getParticipant() != null)
-
-                // filter all irrelevant results, i.e. rated = false or no completion date or no score
-                .peek(participation -> {
-                    List<Result> relevantResults = new ArrayList<Result>();
-
-                    // search for the relevant result by filtering out irrelevant results using the continue keyword
-                    // this for loop is optimized for performance and thus not very easy to understand ;)
-                    for (Result result : participation.getResults()) {
-                        // this should not happen because the database call above only retrieves rated results
-                        if (Boolean.FALSE.equals(result.isRated())) {
-                            continue;
-                        }
-                        if (result.getCompletionDate() == null || result.getScore() == null) {
-                            // we are only interested in results with completion date and with score
-                            continue;
-                        }
-                        relevantResults.add(result);
-                    }
-                    // we take the last rated result
-                    if (!relevantResults.isEmpty()) {
-                        // make sure to take the latest result
-                        relevantResults.sort((r1, r2) -> r2.getCompletionDate().compareTo(r1.getCompletionDate()));
-                        Result correctResult = relevantResults.get(0);
-                        relevantResults.clear();
-                        relevantResults.add(correctResult);
-                    }
-                    participation.setResults(new HashSet<>(relevantResults));
-                }).collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public void forEachParticipationOfCourseWithRelevantResult(Long courseId, Consumer<CourseParticipationDTO> consumer) {
+        Map<Long, String> exerciseTypes = new HashMap<>();
+        for (Exercise exercise : exerciseRepository.findByCourseIdWithCategories(courseId)) {
+            exerciseTypes.put(exercise.getId(), EXERCISE_TYPE_NAMES.get(Hibernate.getClass(exercise)));
+        }
+        Map<Long, List<CourseParticipationDTO.ParticipantDTO>> teamStudents = new HashMap<>();
+        for (Team team : teamRepository.findAllByCourseIdWithEagerStudents(courseId)) {
+            teamStudents.put(team.getId(), team.getStudents().stream().map(student -> new CourseParticipationDTO.ParticipantDTO(student.getId(), student.getLogin(),
+                    student.getFirstName(), student.getLastName(), student.getEmail(), student.getRegistrationNumber())).collect(Collectors.toList()));
+        }
+
+        try (Stream<CourseParticipationDTO> participations = studentParticipationRepository.streamByCourseIdWithLatestRatedResult(courseId)) {
+            Long previousParticipationId = null;
+            for (Iterator<CourseParticipationDTO> iterator = participations.iterator(); iterator.hasNext();) {
+                CourseParticipationDTO participation = iterator.next();
+                // two latest results with the same completion date lead to the same participation twice, we only take the first one
+                if (participation.getId().equals(previousParticipationId)) {
+                    continue;
+                }
+                previousParticipationId = participation.getId();
+                participation.setExerciseType(exerciseTypes.get(participation.getExerciseId()));
+                if (participation.getTeamId() != null) {
+                    participation.setTeamStudents(teamStudents.get(participation.getTeamId()));
+                }
+                consumer.accept(participation);
+            }
+        }
     }
 
     /**
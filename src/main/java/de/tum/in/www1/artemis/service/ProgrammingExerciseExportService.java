@@ -7,15 +7,13 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.ZonedDateTime;
 import java.util.*;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import javax.annotation.PreDestroy;
 import javax.validation.constraints.NotNull;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
@@ -49,6 +47,7 @@ import de.tum.in.www1.artemis.exception.GitException;
 import de.tum.in.www1.artemis.repository.ProgrammingExerciseRepository;
 import de.tum.in.www1.artemis.service.connectors.GitService;
 import de.tum.in.www1.artemis.web.rest.dto.RepositoryExportOptionsDTO;
+import de.tum.in.www1.artemis.web.rest.dto.RepositoryExportProgressDTO;
 
 @Service
 public class ProgrammingExerciseExportService {
@@ -61,10 +60,28 @@ public class ProgrammingExerciseExportService {
 
     private final GitService gitService;
 
-    public ProgrammingExerciseExportService(ProgrammingExerciseRepository programmingExerciseRepository, FileService fileService, GitService gitService) {
+    private final WebsocketMessagingService websocketMessagingService;
+
+    /**
+     * Number of repositories that are checked out and prepared in parallel over all exports
+     */
+    private final int exportParallelism;
+
+    private final ExecutorService exportExecutor;
+
+    public ProgrammingExerciseExportService(ProgrammingExerciseRepository programmingExerciseRepository, FileService fileService, GitService gitService,
+            WebsocketMessagingService websocketMessagingService, @Value("${artemis.repo-export-parallelism:4}") int exportParallelism) {
         this.programmingExerciseRepository = programmingExerciseRepository;
         this.fileService = fileService;
         this.gitService = gitService;
+        this.websocketMessagingService = websocketMessagingService;
+        this.exportParallelism = Math.max(1, exportParallelism);
+        this.exportExecutor = Executors.newFixedThreadPool(this.exportParallelism);
+    }
+
+    @PreDestroy
+    public void shutdownExportExecutor() {
+        exportExecutor.shutdownNow();
     }
 
     // The downloaded repos should be cloned into another path in order to not interfere with the repo used by the student
@@ -92,131 +109,212 @@ public class ProgrammingExerciseExportService {
                     + "' of the following students or teams: " + participations.stream().map(StudentParticipation::getParticipantIdentifier).collect(Collectors.joining(", ")));
         }
 
-        List<Path> zippedRepoFiles = new ArrayList<>();
+        List<ProgrammingExerciseStudentParticipation> participationsToExport = new ArrayList<>();
         for (ProgrammingExerciseStudentParticipation participation : participations) {
-            Repository repo = null;
-            try {
-                if (participation.getRepositoryUrlAsUrl() == null) {
-                    log.warn("Ignore participation " + participation.getId() + " for export, because its repository URL is null");
-                    continue;
-                }
-                repo = zipRepositoryForParticipation(programmingExercise, participation, repositoryExportOptions, zippedRepoFiles);
-            }
-            catch (IOException | GitException | GitAPIException | InterruptedException ex) {
-                log.error("export student repository " + participation.getRepositoryUrlAsUrl() + " in exercise '" + programmingExercise.getTitle() + "' did not work as expected: "
-                        + ex.getMessage());
+            if (participation.getRepositoryUrlAsUrl() == null) {
+                log.warn("Ignore participation " + participation.getId() + " for export, because its repository URL is null");
+                continue;
             }
-            finally {
-                deleteTempLocalRepository(participation, repo);
+            participationsToExport.add(participation);
+        }
+
+        Path zipFilePath = Paths.get(REPO_DOWNLOAD_CLONE_PATH, "zippedRepos", programmingExercise.getCourseViaExerciseGroupOrCourseMember().getShortName() + "-"
+                + programmingExercise.getShortName() + "-" + System.currentTimeMillis() + ".zip");
+        int numberOfExportedRepositories;
+        try {
+            Files.createDirectories(zipFilePath.getParent());
+            try (ZipOutputStream zipOutputStream = new ZipOutputStream(Files.newOutputStream(zipFilePath))) {
+                numberOfExportedRepositories = exportRepositoriesToZip(programmingExercise, participationsToExport, repositoryExportOptions, zipOutputStream);
             }
         }
+        catch (IOException ex) {
+            log.error("Export students repositories for exercise '" + programmingExercise.getTitle() + "' did not work as expected: " + ex.getMessage());
+            deleteZipFile(zipFilePath);
+            return null;
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            log.error("Export students repositories for exercise '" + programmingExercise.getTitle() + "' was interrupted");
+            deleteZipFile(zipFilePath);
+            return null;
+        }
 
-        if (zippedRepoFiles.isEmpty()) {
+        if (numberOfExportedRepositories == 0) {
             log.warn("The zip file could not be created. Ignoring the request to export repositories for exercise " + programmingExercise.getTitle());
+            deleteZipFile(zipFilePath);
             return null;
         }
 
+        scheduleForDeletion(zipFilePath, 15);
+        log.info("Export student repositories of programming exercise " + programmingExerciseId + " with title '" + programmingExercise.getTitle() + "' was successful.");
+        return new File(zipFilePath.toString());
+    }
+
+    /**
+     * Checks out and prepares the repositories of the given participations in parallel and streams every prepared repository into its own folder of the given zip file. Only the
+     * calling thread writes to the zip file. At most twice as many repositories as export threads are checked out at the same time, so that the disk usage stays bounded even if
+     * zipping is slower than checking out. The progress is sent to the instructors over the websocket after every repository.
+     *
+     * @param programmingExercise     The programming exercise to which all repos belong to
+     * @param participations          The participations whose repositories should be exported
+     * @param repositoryExportOptions The options that should get applied to the exported repos
+     * @param zipOutputStream         The zip file to which the repositories are written
+     * @return the number of repositories that were written to the zip file
+     * @throws IOException          if the zip file could not be written
+     * @throws InterruptedException if the export was interrupted
+     */
+    private int exportRepositoriesToZip(ProgrammingExercise programmingExercise, List<ProgrammingExerciseStudentParticipation> participations,
+            RepositoryExportOptionsDTO repositoryExportOptions, ZipOutputStream zipOutputStream) throws IOException, InterruptedException {
+        CompletionService<Repository> preparedRepositories = new ExecutorCompletionService<>(exportExecutor);
+        Map<Future<Repository>, ProgrammingExerciseStudentParticipation> pendingExports = new HashMap<>();
+        Iterator<ProgrammingExerciseStudentParticipation> remainingParticipations = participations.iterator();
+        int maxRepositoriesInProgress = 2 * exportParallelism;
+        int numberOfExportedRepositories = 0;
+        int numberOfFailedRepositories = 0;
+        AtomicBoolean exportAborted = new AtomicBoolean(false);
+
         try {
-            // create a large zip file with all zipped repos and provide it for download
-            return createZipWithAllRepositories(programmingExercise, zippedRepoFiles);
-        }
-        catch (IOException ex) {
-            log.error("Export students repositories for exercise '" + programmingExercise.getTitle() + "' did not work as expected: " + ex.getMessage());
+            while (remainingParticipations.hasNext() || !pendingExports.isEmpty()) {
+                while (remainingParticipations.hasNext() && pendingExports.size() < maxRepositoriesInProgress) {
+                    ProgrammingExerciseStudentParticipation participation = remainingParticipations.next();
+                    pendingExports.put(preparedRepositories.submit(() -> prepareRepositoryForExport(programmingExercise, participation, repositoryExportOptions, exportAborted)),
+                            participation);
+                }
+
+                Future<Repository> preparedRepository = preparedRepositories.take();
+                ProgrammingExerciseStudentParticipation participation = pendingExports.remove(preparedRepository);
+                Repository repo = null;
+                try {
+                    repo = preparedRepository.get();
+                    log.debug("Add repository " + repo.getLocalPath() + " to the zip file");
+                    gitService.addRepositoryToZip(repo, zipOutputStream, gitService.getExportNameForRepository(repo) + "/");
+                    numberOfExportedRepositories++;
+                }
+                catch (ExecutionException ex) {
+                    numberOfFailedRepositories++;
+                    log.error("export student repository " + participation.getRepositoryUrlAsUrl() + " in exercise '" + programmingExercise.getTitle()
+                            + "' did not work as expected: " + ex.getCause().getMessage());
+                }
+                catch (IOException ex) {
+                    // the entries of the repository that were already written stay in the zip file, the other repositories are still exported
+                    numberOfFailedRepositories++;
+                    log.error("Could not add student repository " + participation.getRepositoryUrlAsUrl() + " in exercise '" + programmingExercise.getTitle()
+                            + "' to the zip file: " + ex.getMessage());
+                }
+                finally {
+                    deleteTempLocalRepository(participation, repo);
+                }
+                websocketMessagingService.sendMessage(getRepositoryExportProgressTopic(programmingExercise.getId()),
+                        new RepositoryExportProgressDTO(numberOfExportedRepositories, numberOfFailedRepositories, participations.size()));
+            }
         }
         finally {
-            // we do some cleanup here to prevent future errors with file handling
-            deleteTempZipRepoFiles(zippedRepoFiles);
+            // only relevant if the export was aborted: the checkouts that did not start yet are skipped, the running ones delete their repository when they are done
+            exportAborted.set(true);
+            pendingExports.forEach((pendingExport, participation) -> deleteTempLocalRepository(participation, awaitPreparedRepository(pendingExport)));
         }
-
-        return null;
+        return numberOfExportedRepositories;
     }
 
     /**
-     * Delete all temporary zipped repositories created during export
+     * Waits until the given checkout is finished, even if the current thread is interrupted, so that its repository can be deleted.
      *
-     * @param pathsToZipeedRepos A list of all paths to the zip files, that should be deleted
+     * @param pendingExport The future of a checkout of the aborted export
+     * @return the checked out repository or null if the checkout failed or was skipped
      */
-    private void deleteTempZipRepoFiles(List<Path> pathsToZipeedRepos) {
-        log.debug("Delete all temporary zip repo files");
-        // delete the temporary zipped repo files
-        for (Path zippedRepoFile : pathsToZipeedRepos) {
-            try {
-                Files.delete(zippedRepoFile);
+    private Repository awaitPreparedRepository(Future<Repository> pendingExport) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return pendingExport.get();
+                }
+                catch (InterruptedException ex) {
+                    interrupted = true;
+                }
+                catch (ExecutionException | CancellationException ex) {
+                    // a failed checkout already deleted its repository
+                    return null;
+                }
             }
-            catch (Exception ex) {
-                log.warn("Could not delete file " + zippedRepoFile + ". Error message: " + ex.getMessage());
+        }
+        finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
             }
         }
     }
 
+    private String getRepositoryExportProgressTopic(Long programmingExerciseId) {
+        return "/topic/programming-exercises/" + programmingExerciseId + "/export-repos-progress";
+    }
+
+    private void deleteZipFile(Path zipFilePath) {
+        try {
+            Files.deleteIfExists(zipFilePath);
+        }
+        catch (IOException ex) {
+            log.warn("Could not delete file " + zipFilePath + ". Error message: " + ex.getMessage());
+        }
+    }
+
     /**
-     * Checks out the repository fo the given participation, zips it and adds the path to the given list of already
-     * zipped repos.
+     * Checks out the repository of the given participation and applies the given export options to it. If this fails for any reason, the checked out repository is deleted again.
      *
      * @param programmingExercise The programming exercise for the participation
-     * @param participation The participation, for which the repository should get zipped
-     * @param repositoryExportOptions The options, that should get applied to the zipeed repo
-     * @param pathsToZippedRepos A list of already zipped repos. The path of the newly zip file will get added to this list
-     * @return The checked out and zipeed repository
+     * @param participation The participation, for which the repository should get exported
+     * @param repositoryExportOptions The options, that should get applied to the exported repo
+     * @param exportAborted Whether the export was aborted in the meantime, the repository is then not checked out or deleted again
+     * @return The checked out and prepared repository or null if the export was aborted before the checkout started
      * @throws GitAPIException If something went wrong checking out the repo
-     * @throws InterruptedException
-     * @throws IOException
+     * @throws InterruptedException If the checkout was interrupted or the export was aborted during the checkout
      */
-    private Repository zipRepositoryForParticipation(final ProgrammingExercise programmingExercise, final ProgrammingExerciseStudentParticipation participation,
-            final RepositoryExportOptionsDTO repositoryExportOptions, List<Path> pathsToZippedRepos) throws GitAPIException, InterruptedException, IOException {
+    private Repository prepareRepositoryForExport(final ProgrammingExercise programmingExercise, final ProgrammingExerciseStudentParticipation participation,
+            final RepositoryExportOptionsDTO repositoryExportOptions, final AtomicBoolean exportAborted) throws GitAPIException, InterruptedException {
+        if (exportAborted.get()) {
+            return null;
+        }
         final var repo = gitService.getOrCheckoutRepository(participation, REPO_DOWNLOAD_CLONE_PATH);
-        gitService.resetToOriginMaster(repo); // start with clean state
+        boolean prepared = false;
+        try {
+            gitService.resetToOriginMaster(repo); // start with clean state
 
-        if (repositoryExportOptions.isFilterLateSubmissions() && repositoryExportOptions.getFilterLateSubmissionsDate() != null) {
-            filterLateSubmissions(repositoryExportOptions.getFilterLateSubmissionsDate(), participation, repo);
-        }
+            if (repositoryExportOptions.isFilterLateSubmissions() && repositoryExportOptions.getFilterLateSubmissionsDate() != null) {
+                filterLateSubmissions(repositoryExportOptions.getFilterLateSubmissionsDate(), participation, repo);
+            }
 
-        if (repositoryExportOptions.isAddParticipantName()) {
-            log.debug("Adding student or team name to participation {}", participation.toString());
-            addParticipantIdentifierToProjectName(repo, programmingExercise, participation);
-        }
+            if (repositoryExportOptions.isAddParticipantName()) {
+                log.debug("Adding student or team name to participation {}", participation.toString());
+                addParticipantIdentifierToProjectName(repo, programmingExercise, participation);
+            }
 
-        if (repositoryExportOptions.isCombineStudentCommits()) {
-            log.debug("Combining commits for participation {}", participation.toString());
-            gitService.combineAllStudentCommits(repo, programmingExercise);
-        }
+            if (repositoryExportOptions.isCombineStudentCommits()) {
+                log.debug("Combining commits for participation {}", participation.toString());
+                gitService.combineAllStudentCommits(repo, programmingExercise);
+            }
 
-        if (repositoryExportOptions.isNormalizeCodeStyle()) {
-            try {
-                log.debug("Normalizing code style for participation {}", participation.toString());
-                fileService.normalizeLineEndingsDirectory(repo.getLocalPath().toString());
-                fileService.convertToUTF8Directory(repo.getLocalPath().toString());
+            if (repositoryExportOptions.isNormalizeCodeStyle()) {
+                try {
+                    log.debug("Normalizing code style for participation {}", participation.toString());
+                    fileService.normalizeLineEndingsDirectory(repo.getLocalPath().toString());
+                    fileService.convertToUTF8Directory(repo.getLocalPath().toString());
+                }
+                catch (Exception ex) {
+                    log.warn("Cannot normalize code style in the repo " + repo.getLocalPath() + " due to the following exception: " + ex.getMessage());
+                }
             }
-            catch (Exception ex) {
-                log.warn("Cannot normalize code style in the repo " + repo.getLocalPath() + " due to the following exception: " + ex.getMessage());
+            if (exportAborted.get()) {
+                // nobody takes the repository anymore
+                throw new InterruptedException("The export of the repository " + repo.getLocalPath() + " was cancelled");
+            }
+            prepared = true;
+            return repo;
+        }
+        finally {
+            if (!prepared) {
+                deleteTempLocalRepository(participation, repo);
             }
         }
-
-        log.debug("Create temporary zip file for repository " + repo.getLocalPath().toString());
-        Path zippedRepoFile = gitService.zipRepository(repo, REPO_DOWNLOAD_CLONE_PATH);
-        pathsToZippedRepos.add(zippedRepoFile);
-
-        return repo;
-    }
-
-    /**
-     * Creates one single zip archive containing all zipped repositories found under the given paths
-     *
-     * @param programmingExercise The programming exercise to which all repos belong to
-     * @param pathsToZippedRepos The paths to all zipped repositories
-     * @return
-     * @throws IOException
-     */
-    private File createZipWithAllRepositories(ProgrammingExercise programmingExercise, List<Path> pathsToZippedRepos) throws IOException {
-        log.debug("Create zip file for all repositories");
-        final var programmingExerciseId = programmingExercise.getId();
-        Path zipFilePath = Paths.get(pathsToZippedRepos.get(0).getParent().toString(), programmingExercise.getCourseViaExerciseGroupOrCourseMember().getShortName() + "-"
-                + programmingExercise.getShortName() + "-" + System.currentTimeMillis() + ".zip");
-        createZipFile(zipFilePath, pathsToZippedRepos);
-        scheduleForDeletion(zipFilePath, 15);
-        log.info("Export student repositories of programming exercise " + programmingExerciseId + " with title '" + programmingExercise.getTitle() + "' was successful.");
-
-        return new File(zipFilePath.toString());
     }
 
     /**
@@ -254,29 +352,6 @@ public class ProgrammingExerciseExportService {
         gitService.filterLateSubmissions(repo, lastValidSubmission, submissionDate);
     }
 
-    /**
-     * Create a zipfile of the given paths and save it in the zipFilePath
-     *
-     * @param zipFilePath path where the zip file should be saved
-     * @param paths the paths that should be zipped
-     * @throws IOException if an error occurred while zipping
-     */
-    private void createZipFile(Path zipFilePath, List<Path> paths) throws IOException {
-        try (ZipOutputStream zipOutputStream = new ZipOutputStream(Files.newOutputStream(zipFilePath))) {
-            paths.stream().filter(path -> !Files.isDirectory(path)).forEach(path -> {
-                ZipEntry zipEntry = new ZipEntry(path.toString());
-                try {
-                    zipOutputStream.putNextEntry(zipEntry);
-                    Files.copy(path, zipOutputStream);
-                    zipOutputStream.closeEntry();
-                }
-                catch (Exception e) {
-                    log.error("Create zip file error", e);
-                }
-            });
-        }
-    }
-
     /**
      * Adds the participant identifier (student login or team short name) of the given student participation to the project name in all .project (Eclipse)
      * and pom.xml (Maven) files found in the given repository.
@@ -1,12 +1,19 @@
 package de.tum.in.www1.artemis.service;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import de.tum.in.www1.artemis.domain.Feedback;
 import de.tum.in.www1.artemis.domain.ProgrammingExercise;
@@ -20,17 +27,36 @@ import de.tum.in.www1.artemis.web.rest.errors.EntityNotFoundException;
 @Service
 public class ProgrammingExerciseTestCaseService {
 
+    /**
+     * Cached entries are removed when the cache holds more entries than this, but only if they are expired
+     */
+    private static final int CACHE_CLEANUP_THRESHOLD = 1000;
+
     private final ProgrammingExerciseTestCaseRepository testCaseRepository;
 
     private final ProgrammingExerciseService programmingExerciseService;
 
     private final ProgrammingSubmissionService programmingSubmissionService;
 
+    private final Duration testCaseCacheTimeToLive;
+
+    /**
+     * exercise id -> active test cases of the exercise, used for the evaluation of incoming build results
+     */
+    private final Map<Long, CachedTestCases> activeTestCasesCache = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented on every invalidation, test cases that were loaded before an invalidation are not cached
+     */
+    private final AtomicLong testCaseCacheVersion = new AtomicLong();
+
     public ProgrammingExerciseTestCaseService(ProgrammingExerciseTestCaseRepository testCaseRepository, ProgrammingExerciseService programmingExerciseService,
-            ProgrammingSubmissionService programmingSubmissionService) {
+            ProgrammingSubmissionService programmingSubmissionService,
+            @Value("${artemis.continuous-integration.test-case-cache.time-to-live-seconds:300}") long testCaseCacheTimeToLiveSeconds) {
         this.testCaseRepository = testCaseRepository;
         this.programmingExerciseService = programmingExerciseService;
         this.programmingSubmissionService = programmingSubmissionService;
+        this.testCaseCacheTimeToLive = Duration.ofSeconds(testCaseCacheTimeToLiveSeconds);
     }
 
     /**
@@ -81,6 +107,7 @@ public class ProgrammingExerciseTestCaseService {
             matchingTestCase.setAfterDueDate(programmingExerciseTestCaseDTO.isAfterDueDate());
             updatedTests.add(matchingTestCase);
         }
+        invalidateCachedTestCases(exerciseId);
         // At least one test was updated with a new weight or runAfterDueDate flag. We use this flag to inform the instructor about outdated student results.
         programmingSubmissionService.setTestCasesChangedAndTriggerTestCaseUpdate(exerciseId);
         return updatedTests;
@@ -98,6 +125,7 @@ public class ProgrammingExerciseTestCaseService {
         for (ProgrammingExerciseTestCase testCase : testCases) {
             testCase.setWeight(1);
         }
+        invalidateCachedTestCases(exerciseId);
         // The tests' weights were updated. We use this flag to inform the instructor about outdated student results.
         programmingSubmissionService.setTestCasesChangedAndTriggerTestCaseUpdate(exerciseId);
         return testCases;
@@ -131,6 +159,7 @@ public class ProgrammingExerciseTestCaseService {
 
         if (testCasesToSave.size() > 0) {
             testCaseRepository.saveAll(testCasesToSave);
+            invalidateCachedTestCases(exercise.getId());
             return true;
         }
         return false;
@@ -152,7 +181,7 @@ public class ProgrammingExerciseTestCaseService {
     public Result updateResultFromTestCases(Result result, ProgrammingExercise exercise, boolean isStudentParticipation) {
         boolean shouldTestsWithAfterDueDateFlagBeRemoved = isStudentParticipation && exercise.getBuildAndTestStudentSubmissionsAfterDueDate() != null
                 && ZonedDateTime.now().isBefore(exercise.getBuildAndTestStudentSubmissionsAfterDueDate());
-        Set<ProgrammingExerciseTestCase> testCases = findActiveByExerciseId(exercise.getId());
+        Set<ProgrammingExerciseTestCase> testCases = getCachedActiveTestCases(exercise.getId());
         // Filter all test cases from the score calculation that are only executed after due date if the due date has not yet passed.
         // We also don't filter the test cases for the solution/template participation's results as they are used as indicators for the instructor!
         Set<ProgrammingExerciseTestCase> testCasesForCurrentDate = testCases.stream().filter(testCase -> !shouldTestsWithAfterDueDateFlagBeRemoved || !testCase.isAfterDueDate())
@@ -162,10 +191,13 @@ public class ProgrammingExerciseTestCaseService {
             // Remove feedbacks that the student should not see yet because of the due date.
             removeFeedbacksForAfterDueDateTests(result, testCasesForCurrentDate);
 
-            Set<ProgrammingExerciseTestCase> successfulTestCases = testCasesForCurrentDate.stream().filter(isSuccessful(result)).collect(Collectors.toSet());
+            // test name -> whether there is a positive feedback for the test, so that each test case is matched in constant time
+            Map<String, Boolean> feedbackIndex = createFeedbackIndex(result);
+
+            Set<ProgrammingExerciseTestCase> successfulTestCases = testCasesForCurrentDate.stream().filter(isSuccessful(feedbackIndex)).collect(Collectors.toSet());
 
             // Add feedbacks for tests that were not executed ("test was not executed").
-            createFeedbackForNotExecutedTests(result, testCasesForCurrentDate);
+            createFeedbackForNotExecutedTests(result, testCasesForCurrentDate, feedbackIndex);
 
             // Recalculate the achieved score by including the test cases individual weight.
             // The score is always calculated from ALL test cases, regardless of the current date!
@@ -183,30 +215,87 @@ public class ProgrammingExerciseTestCaseService {
     }
 
     /**
-     * Check if the provided test was found in the result's feedbacks with positive = true.
+     * Get the active test cases of the exercise from the cache or load and cache them. The returned set must not be modified.
+     *
+     * @param exerciseId of the programming exercise.
+     * @return active test cases of the programming exercise.
+     */
+    private Set<ProgrammingExerciseTestCase> getCachedActiveTestCases(Long exerciseId) {
+        CachedTestCases cachedTestCases = activeTestCasesCache.get(exerciseId);
+        if (cachedTestCases != null && cachedTestCases.loadedAt.plus(testCaseCacheTimeToLive).isAfter(Instant.now())) {
+            return cachedTestCases.testCases;
+        }
+        long version = testCaseCacheVersion.get();
+        Set<ProgrammingExerciseTestCase> testCases = Collections.unmodifiableSet(findActiveByExerciseId(exerciseId));
+        // only cache the test cases if they were not invalidated while they were loaded
+        activeTestCasesCache.compute(exerciseId, (id, existing) -> testCaseCacheVersion.get() == version ? new CachedTestCases(testCases) : existing);
+        if (activeTestCasesCache.size() > CACHE_CLEANUP_THRESHOLD) {
+            Instant oldestValidLoadDate = Instant.now().minus(testCaseCacheTimeToLive);
+            activeTestCasesCache.values().removeIf(cached -> cached.loadedAt.isBefore(oldestValidLoadDate));
+        }
+        return testCases;
+    }
+
+    /**
+     * Remove the cached test cases of the exercise. Within a transaction, they are removed again after the commit, so that the old test cases cannot be cached again in the
+     * meantime.
+     *
+     * @param exerciseId of the programming exercise whose test cases changed.
+     */
+    private void invalidateCachedTestCases(Long exerciseId) {
+        testCaseCacheVersion.incrementAndGet();
+        activeTestCasesCache.remove(exerciseId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+                @Override
+                public void afterCompletion(int status) {
+                    testCaseCacheVersion.incrementAndGet();
+                    activeTestCasesCache.remove(exerciseId);
+                }
+            });
+        }
+    }
+
+    /**
+     * Index the feedbacks of the result by their text, which is the name of the test.
      * @param result of the build run.
+     * @return test name -> true if there is a positive feedback for the test, false otherwise.
+     */
+    private Map<String, Boolean> createFeedbackIndex(Result result) {
+        Map<String, Boolean> feedbackIndex = new HashMap<>();
+        for (Feedback feedback : result.getFeedbacks()) {
+            feedbackIndex.merge(feedback.getText(), Boolean.TRUE.equals(feedback.isPositive()), Boolean::logicalOr);
+        }
+        return feedbackIndex;
+    }
+
+    /**
+     * Check if the provided test was found in the result's feedbacks with positive = true.
+     * @param feedbackIndex of the result of the build run.
      * @return true if there is a positive feedback for a given test.
      */
-    private Predicate<ProgrammingExerciseTestCase> isSuccessful(Result result) {
-        return testCase -> result.getFeedbacks().stream().anyMatch(feedback -> feedback.getText().equals(testCase.getTestName()) && feedback.isPositive());
+    private Predicate<ProgrammingExerciseTestCase> isSuccessful(Map<String, Boolean> feedbackIndex) {
+        return testCase -> Boolean.TRUE.equals(feedbackIndex.get(testCase.getTestName()));
     }
 
     /**
      * Check if the provided test was not found in the result's feedbacks.
-     * @param result of the build run.
+     * @param feedbackIndex of the result of the build run.
      * @return true if there is no feedback for a given test.
      */
-    private Predicate<ProgrammingExerciseTestCase> wasNotExecuted(Result result) {
-        return testCase -> result.getFeedbacks().stream().noneMatch(feedback -> feedback.getText().equals(testCase.getTestName()));
+    private Predicate<ProgrammingExerciseTestCase> wasNotExecuted(Map<String, Boolean> feedbackIndex) {
+        return testCase -> !feedbackIndex.containsKey(testCase.getTestName());
     }
 
     /**
      * Check which tests were not executed and add a new Feedback for them to the exercise.
      * @param result of the build run.
      * @param allTests of the given programming exercise.
+     * @param feedbackIndex of the result of the build run.
      */
-    private void createFeedbackForNotExecutedTests(Result result, Set<ProgrammingExerciseTestCase> allTests) {
-        List<Feedback> feedbacksForNotExecutedTestCases = allTests.stream().filter(wasNotExecuted(result))
+    private void createFeedbackForNotExecutedTests(Result result, Set<ProgrammingExerciseTestCase> allTests, Map<String, Boolean> feedbackIndex) {
+        List<Feedback> feedbacksForNotExecutedTestCases = allTests.stream().filter(wasNotExecuted(feedbackIndex))
                 .map(testCase -> new Feedback().type(FeedbackType.AUTOMATIC).text(testCase.getTestName()).detailText("Test was not executed.")).collect(Collectors.toList());
         result.addFeedbacks(feedbacksForNotExecutedTestCases);
     }
@@ -217,8 +306,9 @@ public class ProgrammingExerciseTestCaseService {
      * @param testCasesForCurrentDate of the given programming exercise.
      */
     private void removeFeedbacksForAfterDueDateTests(Result result, Set<ProgrammingExerciseTestCase> testCasesForCurrentDate) {
-        List<Feedback> feedbacksToFilterForCurrentDate = result.getFeedbacks().stream()
-                .filter(feedback -> testCasesForCurrentDate.stream().noneMatch(testCase -> testCase.getTestName().equals(feedback.getText()))).collect(Collectors.toList());
+        Set<String> testNamesForCurrentDate = testCasesForCurrentDate.stream().map(ProgrammingExerciseTestCase::getTestName).collect(Collectors.toSet());
+        List<Feedback> feedbacksToFilterForCurrentDate = result.getFeedbacks().stream().filter(feedback -> !testNamesForCurrentDate.contains(feedback.getText()))
+                .collect(Collectors.toList());
         feedbacksToFilterForCurrentDate.forEach(result::removeFeedback);
         // If there are no feedbacks left after filtering those not valid for the current date, also setHasFeedback to false.
         if (result.getFeedbacks().stream().noneMatch(feedback -> !feedback.isPositive()
@@ -263,4 +353,15 @@ public class ProgrammingExerciseTestCaseService {
         result.setScore(0L);
         result.setResultString("0 of 0 passed");
     }
+
+    private static class CachedTestCases {
+
+        private final Set<ProgrammingExerciseTestCase> testCases;
+
+        private final Instant loadedAt = Instant.now();
+
+        private CachedTestCases(Set<ProgrammingExerciseTestCase> testCases) {
+            this.testCases = testCases;
+        }
+    }
 }
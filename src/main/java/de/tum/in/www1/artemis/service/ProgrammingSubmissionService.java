@@ -3,20 +3,27 @@ package de.tum.in.www1.artemis.service;
 import static de.tum.in.www1.artemis.config.Constants.*;
 
 import java.net.URL;
+import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
+import javax.annotation.PreDestroy;
 
 import org.apache.http.HttpException;
 import org.eclipse.jgit.lib.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import de.tum.in.www1.artemis.domain.*;
@@ -28,6 +35,7 @@ import de.tum.in.www1.artemis.security.SecurityUtils;
 import de.tum.in.www1.artemis.service.connectors.ContinuousIntegrationService;
 import de.tum.in.www1.artemis.service.connectors.GitService;
 import de.tum.in.www1.artemis.service.connectors.VersionControlService;
+import de.tum.in.www1.artemis.web.rest.dto.BuildRunProgressDTO;
 import de.tum.in.www1.artemis.web.rest.errors.AccessForbiddenException;
 import de.tum.in.www1.artemis.web.rest.errors.EntityNotFoundException;
 import de.tum.in.www1.artemis.web.websocket.programmingSubmission.BuildTriggerWebsocketError;
@@ -37,6 +45,11 @@ public class ProgrammingSubmissionService extends SubmissionService {
 
     private final Logger log = LoggerFactory.getLogger(ProgrammingSubmissionService.class);
 
+    /**
+     * Build triggers that are still processing after this time are considered as interrupted (e.g. by a restart of the server) and are queued again
+     */
+    private static final Duration STALE_BUILD_TRIGGER_TIMEOUT = Duration.ofMinutes(10);
+
     @Value("${artemis.git.name}")
     private String ARTEMIS_GIT_NAME;
 
@@ -67,11 +80,38 @@ public class ProgrammingSubmissionService extends SubmissionService {
 
     private final StudentParticipationRepository studentParticipationRepository;
 
+    private final BuildTriggerJobRepository buildTriggerJobRepository;
+
+    private final BuildTriggerRateController buildTriggerRateController;
+
+    private final int maxBuildTriggerAttempts;
+
+    /**
+     * Triggers the queued builds one after another at the rate determined by the {@link #buildTriggerRateController}
+     */
+    private final ScheduledExecutorService buildTriggerExecutor = Executors.newSingleThreadScheduledExecutor();
+
+    /**
+     * true while the next queued build is scheduled on the {@link #buildTriggerExecutor}
+     */
+    private final AtomicBoolean processingBuildTriggerJobs = new AtomicBoolean(false);
+
+    /**
+     * exercise id -> progress of the currently running build run of the exercise
+     */
+    private final Map<Long, BuildRunProgressDTO> buildRunProgresses = new ConcurrentHashMap<>();
+
     public ProgrammingSubmissionService(ProgrammingSubmissionRepository programmingSubmissionRepository, ProgrammingExerciseRepository programmingExerciseRepository,
             GroupNotificationService groupNotificationService, SubmissionRepository submissionRepository, UserService userService, AuthorizationCheckService authCheckService,
             WebsocketMessagingService websocketMessagingService, Optional<VersionControlService> versionControlService, ResultRepository resultRepository,
             Optional<ContinuousIntegrationService> continuousIntegrationService, ParticipationService participationService, SimpMessageSendingOperations messagingTemplate,
-            ProgrammingExerciseParticipationService programmingExerciseParticipationService, GitService gitService, StudentParticipationRepository studentParticipationRepository) {
+            ProgrammingExerciseParticipationService programmingExerciseParticipationService, GitService gitService, StudentParticipationRepository studentParticipationRepository,
+            BuildTriggerJobRepository buildTriggerJobRepository, @Value("${artemis.continuous-integration.build-trigger.initial-rate:5}") double initialBuildTriggerRate,
+            @Value("${artemis.continuous-integration.build-trigger.min-rate:0.2}") double minBuildTriggerRate,
+            @Value("${artemis.continuous-integration.build-trigger.max-rate:20}") double maxBuildTriggerRate,
+            @Value("${artemis.continuous-integration.build-trigger.additive-increase:0.2}") double buildTriggerRateIncrease,
+            @Value("${artemis.continuous-integration.build-trigger.slow-response-ms:5000}") long slowBuildTriggerResponseMs,
+            @Value("${artemis.continuous-integration.build-trigger.max-attempts:3}") int maxBuildTriggerAttempts) {
         super(submissionRepository, userService, authCheckService, resultRepository);
         this.programmingSubmissionRepository = programmingSubmissionRepository;
         this.programmingExerciseRepository = programmingExerciseRepository;
@@ -85,6 +125,16 @@ public class ProgrammingSubmissionService extends SubmissionService {
         this.gitService = gitService;
         this.studentParticipationRepository = studentParticipationRepository;
         this.resultRepository = resultRepository;
+        this.buildTriggerJobRepository = buildTriggerJobRepository;
+        this.buildTriggerRateController = new BuildTriggerRateController(initialBuildTriggerRate, minBuildTriggerRate, maxBuildTriggerRate, buildTriggerRateIncrease,
+                Duration.ofMillis(slowBuildTriggerResponseMs));
+        this.maxBuildTriggerAttempts = Math.max(1, maxBuildTriggerAttempts);
+    }
+
+    @PreDestroy
+    public void shutdownBuildTriggerExecutor() {
+        // the queued jobs are persisted and will be continued after the next start
+        buildTriggerExecutor.shutdownNow();
     }
 
     /**
@@ -216,10 +266,14 @@ public class ProgrammingSubmissionService extends SubmissionService {
     }
 
     /**
-     * Trigger the CI of all student participations and the template participation of the given exercise.
+     * Trigger the CI of all student participations of the given exercise.
      * The build result will become rated regardless of the due date as the submission type is INSTRUCTOR.
      *
-     * The method is async because it would timeout a calling resource method.
+     * The builds are not triggered directly, but queued as {@link BuildTriggerJob}s. The queue is processed in the background at a rate that adapts to the response times and
+     * failures of the CI server (see {@link BuildTriggerRateController}). As the queue is persisted, a build run that was interrupted by a restart continues afterwards.
+     * A build run that is still queued for the exercise is replaced.
+     *
+     * The method is async because queueing the builds of a large course would timeout a calling resource method.
      *
      * @param exerciseId to identify the programming exercise.
      * @throws EntityNotFoundException if there is no programming exercise for the given exercise id.
@@ -237,30 +291,175 @@ public class ProgrammingSubmissionService extends SubmissionService {
 
         // Let the instructor know that a build run was triggered.
         notifyInstructorAboutStartedExerciseBuildRun(programmingExercise);
-        List<ProgrammingExerciseParticipation> participations = new LinkedList<>(programmingExerciseParticipationService.findByExerciseId(exerciseId));
-
-        var index = 0;
-        for (var participation : participations) {
-            // Execute requests in batches instead all at once.
-            if (index > 0 && index % EXTERNAL_SYSTEM_REQUEST_BATCH_SIZE == 0) {
-                try {
-                    log.info("Sleep for {}s during triggerBuild", EXTERNAL_SYSTEM_REQUEST_BATCH_WAIT_TIME_MS / 1000);
-                    Thread.sleep(EXTERNAL_SYSTEM_REQUEST_BATCH_WAIT_TIME_MS);
-                }
-                catch (InterruptedException ex) {
-                    log.error("Exception encountered when pausing before executing successive build for participation " + participation.getId(), ex);
+        List<BuildTriggerJob> jobs = programmingExerciseParticipationService.findByExerciseId(exerciseId).stream()
+                .map(participation -> new BuildTriggerJob(exerciseId, participation.getId())).collect(Collectors.toList());
+        int replacedJobs = buildTriggerJobRepository.deleteAllByExerciseIdAndGetCount(exerciseId);
+        if (replacedJobs > 0) {
+            log.info("Replaced {} queued builds of the previous build run of exercise {}", replacedJobs, exerciseId);
+        }
+        buildTriggerJobRepository.saveAll(jobs);
+
+        var progress = new BuildRunProgressDTO(BuildRunState.RUNNING, jobs.size(), 0, 0);
+        buildRunProgresses.put(exerciseId, progress);
+        notifyInstructorAboutBuildRunProgress(exerciseId, progress);
+        if (jobs.isEmpty()) {
+            completeExerciseBuildRun(exerciseId);
+        }
+        else {
+            startProcessingBuildTriggerJobs();
+        }
+    }
+
+    /**
+     * Continue the build runs that were interrupted by a restart of the server. Builds that were being triggered when the server was stopped are queued again.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeQueuedBuildTriggerJobs() {
+        int staleJobs = buildTriggerJobRepository.requeueStaleJobs(ZonedDateTime.now().minus(STALE_BUILD_TRIGGER_TIMEOUT));
+        if (staleJobs > 0) {
+            log.info("Queue {} build triggers whose processing was interrupted again", staleJobs);
+        }
+        List<Long> exerciseIds = buildTriggerJobRepository.findExerciseIdsWithQueuedJobs();
+        if (exerciseIds.isEmpty()) {
+            return;
+        }
+        for (Long exerciseId : exerciseIds) {
+            long queuedBuilds = buildTriggerJobRepository.countByExerciseId(exerciseId);
+            log.info("Resume build run of exercise {} with {} queued builds", exerciseId, queuedBuilds);
+            websocketMessagingService.sendMessage(getProgrammingExerciseAllExerciseBuildsTriggeredTopic(exerciseId), BuildRunState.RUNNING);
+            buildRunProgresses.put(exerciseId, new BuildRunProgressDTO(BuildRunState.RUNNING, queuedBuilds, 0, 0));
+        }
+        startProcessingBuildTriggerJobs();
+    }
+
+    /**
+     * Queue the build triggers again whose processing was interrupted (e.g. by a restart of another server of the cluster) after the server was started.
+     */
+    @Scheduled(fixedDelay = 5 * 60 * 1000, initialDelay = 5 * 60 * 1000)
+    public void requeueStaleBuildTriggerJobs() {
+        int staleJobs = buildTriggerJobRepository.requeueStaleJobs(ZonedDateTime.now().minus(STALE_BUILD_TRIGGER_TIMEOUT));
+        if (staleJobs > 0) {
+            log.info("Queue {} build triggers whose processing was interrupted again", staleJobs);
+            startProcessingBuildTriggerJobs();
+        }
+    }
+
+    private void startProcessingBuildTriggerJobs() {
+        if (processingBuildTriggerJobs.compareAndSet(false, true)) {
+            scheduleNextBuildTriggerJob(Duration.ZERO);
+        }
+    }
+
+    private void scheduleNextBuildTriggerJob(Duration delay) {
+        try {
+            buildTriggerExecutor.schedule(this::processNextBuildTriggerJob, delay.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        catch (RejectedExecutionException ex) {
+            // the server shuts down, the remaining jobs are processed after the next start
+            processingBuildTriggerJobs.set(false);
+        }
+    }
+
+    /**
+     * Trigger the build of the oldest queued job and schedule the next job according to the current rate. Runs on the {@link #buildTriggerExecutor}.
+     */
+    private void processNextBuildTriggerJob() {
+        Duration delay = Duration.ZERO;
+        try {
+            List<BuildTriggerJob> nextJobs = buildTriggerJobRepository.findNextJobs(PageRequest.of(0, 1));
+            if (nextJobs.isEmpty()) {
+                processingBuildTriggerJobs.set(false);
+                // a job might have been queued after the query, but before the flag was reset
+                if (buildTriggerJobRepository.findNextJobs(PageRequest.of(0, 1)).isEmpty() || !processingBuildTriggerJobs.compareAndSet(false, true)) {
+                    return;
                 }
             }
-            triggerBuildAndNotifyUser(participation);
-            index++;
+            // another server instance may have claimed the job in the meantime, only the instance that claims the job triggers the build
+            else if (buildTriggerJobRepository.claimQueuedJob(nextJobs.get(0).getId(), ZonedDateTime.now()) > 0) {
+                processBuildTriggerJob(nextJobs.get(0));
+                delay = buildTriggerRateController.getDelay();
+            }
+        }
+        catch (Exception ex) {
+            // a claimed job that was not deleted or queued again is queued again once its claim is stale
+            log.error("Processing the queued build triggers failed", ex);
+            delay = buildTriggerRateController.getDelay();
+        }
+        scheduleNextBuildTriggerJob(delay);
+    }
+
+    /**
+     * Trigger the build of the claimed job. The job is deleted afterwards, unless the build could not be triggered and is retried at the end of the queue.
+     * The build run of the exercise is completed when no jobs of the exercise are left.
+     */
+    private void processBuildTriggerJob(BuildTriggerJob job) {
+        // The executor thread can't access the authentication object of the instructor who triggered the build run.
+        SecurityUtils.setAuthorizationObject();
+        long start = System.nanoTime();
+        boolean participationExists = true;
+        boolean triggered = false;
+        try {
+            Optional<ProgrammingExerciseStudentParticipation> participation = programmingExerciseParticipationService.findStudentParticipation(job.getParticipationId());
+            participationExists = participation.isPresent();
+            if (participationExists) {
+                triggered = triggerBuildAndNotifyUser(participation.get());
+            }
+        }
+        catch (Exception ex) {
+            log.error("Could not trigger the build for participation " + job.getParticipationId() + ": " + ex.getMessage());
+        }
+
+        boolean failed = false;
+        if (triggered) {
+            buildTriggerRateController.onTriggered(Duration.ofNanos(System.nanoTime() - start));
+            buildTriggerJobRepository.deleteByIdAndGetCount(job.getId());
+        }
+        else if (participationExists) {
+            buildTriggerRateController.onFailure();
+            job.setAttempts(job.getAttempts() + 1);
+            if (job.getAttempts() < maxBuildTriggerAttempts) {
+                // retry the build at the end of the queue, so that the CI server has time to recover
+                buildTriggerJobRepository.requeueJob(job.getId(), job.getAttempts(), ZonedDateTime.now());
+            }
+            else {
+                failed = true;
+                buildTriggerJobRepository.deleteByIdAndGetCount(job.getId());
+            }
+        }
+        else {
+            // the participation was deleted in the meantime, there is nothing to build anymore
+            failed = true;
+            buildTriggerJobRepository.deleteByIdAndGetCount(job.getId());
         }
+        log.debug("Processed build trigger {} (triggered: {}), the build trigger rate is now {}/s", job, triggered, buildTriggerRateController.getRate());
 
+        long queuedBuilds = buildTriggerJobRepository.countByExerciseId(job.getExerciseId());
+        var progress = buildRunProgresses.computeIfAbsent(job.getExerciseId(), exerciseId -> new BuildRunProgressDTO(BuildRunState.RUNNING, queuedBuilds, 0, 0));
+        progress.setQueuedBuilds(queuedBuilds);
+        progress.setTriggeredBuilds(progress.getTriggeredBuilds() + (triggered ? 1 : 0));
+        progress.setFailedBuilds(progress.getFailedBuilds() + (failed ? 1 : 0));
+        notifyInstructorAboutBuildRunProgress(job.getExerciseId(), progress);
+        if (queuedBuilds == 0) {
+            completeExerciseBuildRun(job.getExerciseId());
+        }
+    }
+
+    private void completeExerciseBuildRun(Long exerciseId) {
+        var progress = buildRunProgresses.remove(exerciseId);
+        if (progress != null) {
+            progress.setState(BuildRunState.COMPLETED);
+            notifyInstructorAboutBuildRunProgress(exerciseId, progress);
+        }
         // When the instructor build was triggered for the programming exercise, it is not considered 'dirty' anymore.
-        setTestCasesChanged(programmingExercise.getId(), false);
+        ProgrammingExercise programmingExercise = setTestCasesChanged(exerciseId, false);
         // Let the instructor know that the build run is finished.
         notifyInstructorAboutCompletedExerciseBuildRun(programmingExercise);
     }
 
+    private void notifyInstructorAboutBuildRunProgress(Long exerciseId, BuildRunProgressDTO progress) {
+        websocketMessagingService.sendMessage(getProgrammingExerciseAllExerciseBuildsTriggeredTopic(exerciseId) + "/progress", progress);
+    }
+
     private void notifyInstructorAboutStartedExerciseBuildRun(ProgrammingExercise programmingExercise) {
         websocketMessagingService.sendMessage(getProgrammingExerciseAllExerciseBuildsTriggeredTopic(programmingExercise.getId()), BuildRunState.RUNNING);
         // Send a notification to the client to inform the instructor about the test case update.
@@ -383,10 +582,11 @@ public class ProgrammingSubmissionService extends SubmissionService {
      * Note: This call "resumes the exercise", i.e. re-creates the build plan if the build plan was already cleaned before
      *
      * @param participation the participation for which we create a new submission and new result
+     * @return true if the build was triggered, false if the communication with the CI failed
      */
-    public void triggerBuildAndNotifyUser(ProgrammingExerciseParticipation participation) {
+    public boolean triggerBuildAndNotifyUser(ProgrammingExerciseParticipation participation) {
         var submission = createSubmissionWithLastCommitHashForParticipation(participation, SubmissionType.INSTRUCTOR);
-        triggerBuildAndNotifyUser(submission);
+        return triggerBuildAndNotifyUser(submission);
     }
 
     /**
@@ -396,8 +596,9 @@ public class ProgrammingSubmissionService extends SubmissionService {
      * Note: This call "resumes the exercise", i.e. re-creates the build plan if the build plan was already cleaned before
      *
      * @param submission ProgrammingSubmission that was just created.
+     * @return true if the build was triggered, false if the communication with the CI failed
      */
-    public void triggerBuildAndNotifyUser(ProgrammingSubmission submission) {
+    public boolean triggerBuildAndNotifyUser(ProgrammingSubmission submission) {
         var programmingExerciseParticipation = (ProgrammingExerciseParticipation) submission.getParticipation();
         try {
             if (programmingExerciseParticipation instanceof ProgrammingExerciseStudentParticipation && (programmingExerciseParticipation.getBuildPlanId() == null
@@ -408,11 +609,13 @@ public class ProgrammingSubmissionService extends SubmissionService {
             }
             continuousIntegrationService.get().triggerBuild(programmingExerciseParticipation);
             notifyUserAboutSubmission(submission);
+            return true;
         }
         catch (Exception e) {
             log.error("Trigger build failed for " + programmingExerciseParticipation.getBuildPlanId() + " with the exception " + e.getMessage());
             BuildTriggerWebsocketError error = new BuildTriggerWebsocketError(e.getMessage(), submission.getParticipation().getId());
             notifyUserAboutSubmissionError(submission, error);
+            return false;
         }
     }
 
@@ -1,17 +1,17 @@
 package de.tum.in.www1.artemis.service;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import de.tum.in.www1.artemis.domain.*;
-import de.tum.in.www1.artemis.domain.participation.Participation;
 import de.tum.in.www1.artemis.domain.quiz.*;
 import de.tum.in.www1.artemis.repository.*;
 
@@ -20,8 +20,6 @@ public class QuizStatisticService {
 
     private final Logger log = LoggerFactory.getLogger(QuizStatisticService.class);
 
-    private final StudentParticipationRepository studentParticipationRepository;
-
     private final ResultRepository resultRepository;
 
     private final QuizPointStatisticRepository quizPointStatisticRepository;
@@ -30,9 +28,8 @@ public class QuizStatisticService {
 
     private SimpMessageSendingOperations messagingTemplate;
 
-    public QuizStatisticService(StudentParticipationRepository studentParticipationRepository, ResultRepository resultRepository,
-            QuizPointStatisticRepository quizPointStatisticRepository, QuizQuestionStatisticRepository quizQuestionStatisticRepository) {
-        this.studentParticipationRepository = studentParticipationRepository;
+    public QuizStatisticService(ResultRepository resultRepository, QuizPointStatisticRepository quizPointStatisticRepository,
+            QuizQuestionStatisticRepository quizQuestionStatisticRepository) {
         this.resultRepository = resultRepository;
         this.quizPointStatisticRepository = quizPointStatisticRepository;
         this.quizQuestionStatisticRepository = quizQuestionStatisticRepository;
@@ -44,11 +41,14 @@ public class QuizStatisticService {
     }
 
     /**
-     * 1. Go through all Results in the Participation and recalculate the score
-     * 2. Recalculate the statistics of the given quizExercise
+     * 1. Reset all statistics of the given quizExercise
+     * 2. Add the latest rated and the latest unrated Result of every participation to the statistics
+     *
+     * The results are loaded with one streaming query, so the number of queries does not depend on the number of participations.
      *
      * @param quizExercise the changed QuizExercise object which will be used to recalculate the existing Results and Statistics
      */
+    @Transactional
     public void recalculateStatistics(QuizExercise quizExercise) {
 
         // reset all statistics
@@ -67,27 +67,15 @@ public class QuizStatisticService {
             }
         }
 
-        // add the Results in every participation of the given quizExercise to the statistics
-        for (Participation participation : studentParticipationRepository.findByExerciseId(quizExercise.getId())) {
-
-            Result latestRatedResult = null;
-            Result latestUnratedResult = null;
-
-            // update all Results of a participation
-            for (Result result : resultRepository.findAllByParticipationIdOrderByCompletionDateDesc(participation.getId())) {
-
-                // find latest rated Result
-                if (Boolean.TRUE.equals(result.isRated()) && (latestRatedResult == null || latestRatedResult.getCompletionDate().isBefore(result.getCompletionDate()))) {
-                    latestRatedResult = result;
-                }
-                // find latest unrated Result
-                if (Boolean.FALSE.equals(result.isRated()) && (latestUnratedResult == null || latestUnratedResult.getCompletionDate().isBefore(result.getCompletionDate()))) {
-                    latestUnratedResult = result;
+        // add the latest rated and unrated Result of every participation of the given quizExercise to the statistics
+        // participationId-rated -> used to count at most one result per participation and rating, even if two results have the same completion date
+        Set<String> countedResults = new HashSet<>();
+        try (Stream<Result> latestResults = resultRepository.streamLatestRatedAndUnratedResultsWithSubmissionByExerciseId(quizExercise.getId())) {
+            latestResults.forEach(result -> {
+                if (countedResults.add(result.getParticipation().getId() + "-" + result.isRated())) {
+                    addResultToAllStatistics(quizExercise, result);
                 }
-            }
-            // update statistics with latest rated und unrated Result
-            this.addResultToAllStatistics(quizExercise, latestRatedResult);
-            this.addResultToAllStatistics(quizExercise, latestUnratedResult);
+            });
         }
 
         // save changed Statistics
@@ -105,6 +93,8 @@ public class QuizStatisticService {
      * 1. check for each result if it's rated -> true: check if there is an old Result -> true: remove the old Result from the statistics 2. add new Result to the
      * quiz-point-statistic and all question-statistics
      *
+     * The previous results of all unrated results are loaded with one query, so that only the deltas of the new results are applied to the statistics.
+     *
      * @param results the results, which will be added to the statistics
      * @param quiz    the quizExercise with Questions where the results should contain to
      */
@@ -113,11 +103,13 @@ public class QuizStatisticService {
         if (results != null && quiz != null && quiz.getQuizQuestions() != null) {
             log.debug("update statistics with " + results.size() + " new results");
 
+            Map<Long, List<Result>> previousResultsByParticipation = findAllResultsOfUnratedParticipations(results);
             for (Result result : results) {
                 // check if the result is rated
                 // NOTE: there is never an old Result if the new result is rated
                 if (Boolean.FALSE.equals(result.isRated())) {
-                    removeResultFromAllStatistics(quiz, getPreviousResult(result));
+                    var resultsOfParticipation = previousResultsByParticipation.getOrDefault(result.getParticipation().getId(), List.of());
+                    removeResultFromAllStatistics(quiz, getPreviousResult(result, resultsOfParticipation));
                 }
                 addResultToAllStatistics(quiz, result);
             }
@@ -137,16 +129,31 @@ public class QuizStatisticService {
         }
     }
 
+    /**
+     * Load all results (with submissions) of the participations of the given unrated results with one query
+     *
+     * @param results the new results
+     * @return participationId -> all results of the participation, only contains participations with unrated results
+     */
+    private Map<Long, List<Result>> findAllResultsOfUnratedParticipations(Set<Result> results) {
+        Set<Long> participationIds = results.stream().filter(result -> Boolean.FALSE.equals(result.isRated())).map(result -> result.getParticipation().getId())
+                .collect(Collectors.toSet());
+        if (participationIds.isEmpty()) {
+            return Map.of();
+        }
+        return resultRepository.findAllByParticipationIdIn(participationIds).stream().collect(Collectors.groupingBy(result -> result.getParticipation().getId()));
+    }
+
     /**
      * Go through all Results in the Participation and return the latest one before the new Result,
      *
-     * @param newResult the new result object which will replace the old Result in the Statistics
+     * @param newResult                  the new result object which will replace the old Result in the Statistics
+     * @param allResultsForParticipation all results of the participation of the new result
      * @return the previous Result, which is presented in the Statistics (null if where is no previous Result)
      */
-    private Result getPreviousResult(Result newResult) {
+    private Result getPreviousResult(Result newResult, List<Result> allResultsForParticipation) {
         Result oldResult = null;
 
-        List<Result> allResultsForParticipation = resultRepository.findAllByParticipationIdOrderByCompletionDateDesc(newResult.getParticipation().getId());
         for (Result result : allResultsForParticipation) {
             // find the latest Result, which is presented in the Statistics
             if (result.isRated() == newResult.isRated() && result.getCompletionDate().isBefore(newResult.getCompletionDate()) && !result.equals(newResult)
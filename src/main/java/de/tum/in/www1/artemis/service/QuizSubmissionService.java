@@ -2,7 +2,6 @@ package de.tum.in.www1.artemis.service;
 
 import java.time.ZonedDateTime;
 import java.util.List;
-import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,8 +31,6 @@ public class QuizSubmissionService {
 
     private QuizExerciseService quizExerciseService;
 
-    private ParticipationService participationService;
-
     public QuizSubmissionService(QuizSubmissionRepository quizSubmissionRepository, ResultRepository resultRepository) {
         this.quizSubmissionRepository = quizSubmissionRepository;
         this.resultRepository = resultRepository;
@@ -45,12 +42,6 @@ public class QuizSubmissionService {
         this.quizExerciseService = quizExerciseService;
     }
 
-    @Autowired
-    // break the dependency cycle
-    public void setParticipationService(ParticipationService participationService) {
-        this.participationService = participationService;
-    }
-
     public QuizSubmission findOne(Long id) {
         return quizSubmissionRepository.findById(id).get();
     }
@@ -108,6 +99,9 @@ public class QuizSubmissionService {
     /**
      * Saves a quiz submission into the hash maps for live quizzes. Submitted quizzes are marked to be saved into the database in the QuizScheduleService
      *
+     * The user may call this concurrently (e.g. from two tabs): the submit state is kept in the live session of the quiz, so only one submit of the user is accepted, and
+     * concurrent saves replace each other in the cache.
+     *
      * @param exerciseId the exerciseID to the corresponding QuizExercise
      * @param quizSubmission the submission which should be saved
      * @param username the username of the user who has initiated the request
@@ -118,21 +112,23 @@ public class QuizSubmissionService {
      */
     public QuizSubmission saveSubmissionForLiveMode(Long exerciseId, QuizSubmission quizSubmission, String username, boolean submitted) throws QuizSubmissionException {
 
-        // TODO: what happens if a user executes this call twice in the same moment (using 2 threads)
-
         String logText = submitted ? "submit quiz in live mode:" : "save quiz in live mode:";
 
         long start = System.nanoTime();
         // check if submission is still allowed
         QuizExercise quizExercise = QuizScheduleService.getQuizExercise(exerciseId);
         if (quizExercise == null) {
-            // Fallback solution
-            Optional<QuizExercise> optionalQuizExercise = quizExerciseService.findById(exerciseId);
-            if (optionalQuizExercise.isEmpty()) {
+            // Fallback solution: load the quiz once and start its live session, so that the following submissions are checked in memory
+            quizExercise = quizExerciseService.findOneWithQuestionsAndStatistics(exerciseId);
+            if (quizExercise == null) {
                 log.warn(logText + "Could not executre for user {} in quiz {} because the quizExercise could not be found.", username, exerciseId);
                 throw new QuizSubmissionException("The quiz could not be found");
             }
-            quizExercise = optionalQuizExercise.get();
+            // only start the live session of an active quiz, otherwise every submission for an inactive quiz would load and cache it
+            if (!quizExercise.isSubmissionAllowed()) {
+                throw new QuizSubmissionException("The quiz is not active");
+            }
+            QuizScheduleService.updateQuizExercise(quizExercise);
         }
         log.debug(logText + "Received quiz exercise for user {} in quiz {} in {} µs.", username, exerciseId, (System.nanoTime() - start) / 1000);
         if (!quizExercise.isSubmissionAllowed()) {
@@ -142,18 +138,15 @@ public class QuizSubmissionService {
         // TODO: add one additional check: fetch quizSubmission.getId() with the corresponding participation and check that the user of participation is the
         // same as the user who executes this call. This prevents injecting submissions to other users
 
-        // check if user already submitted for this quiz
-        Participation participation = participationService.participationForQuizWithResult(quizExercise, username);
-        log.debug(logText + "Received participation for user {} in quiz {} in {} µs.", username, exerciseId, (System.nanoTime() - start) / 1000);
-        if (!participation.getResults().isEmpty()) {
-            log.debug("Participation for user {} in quiz {} has results", username, exerciseId);
-            // NOTE: At this point, there can only be one Result because we already checked
-            // if the quiz is active, so there is no way the student could have already practiced
-            Result result = participation.getResults().iterator().next();
-            if (result.getSubmission().isSubmitted()) {
-                throw new QuizSubmissionException("You have already submitted the quiz");
-            }
+        // check if user already submitted for this quiz (in memory, the submit state is preloaded when the quiz is started)
+        if (QuizScheduleService.hasSubmitted(exerciseId, username)) {
+            throw new QuizSubmissionException("You have already submitted the quiz");
+        }
+        // only accept one of multiple concurrent submits of the same user
+        if (quizSubmission.isSubmitted() && !QuizScheduleService.markSubmitted(exerciseId, username)) {
+            throw new QuizSubmissionException("You have already submitted the quiz");
         }
+        log.debug(logText + "Checked submit state for user {} in quiz {} in {} µs.", username, exerciseId, (System.nanoTime() - start) / 1000);
 
         // recreate pointers back to submission in each submitted answer
         for (SubmittedAnswer submittedAnswer : quizSubmission.getSubmittedAnswers()) {
@@ -0,0 +1,126 @@
+package de.tum.in.www1.artemis.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Local, size-bounded cache for small files that are requested often, e.g. course icons and drag and drop images. Larger files (e.g. lecture slides) are never cached, they are
+ * streamed from disk for every request. A cached file is only used as long as its size and last modification date on disk did not change, so changed files are picked up
+ * without an explicit eviction.
+ */
+@Service
+public class SmallFileCacheService {
+
+    private final long maxFileSize;
+
+    private final long maxTotalSize;
+
+    /**
+     * absolute path -> cached file, ordered by the last access (least recently used first)
+     */
+    private final LinkedHashMap<String, CachedFile> files = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long totalSize = 0;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final Counter evictions;
+
+    public SmallFileCacheService(MeterRegistry meterRegistry, @Value("${artemis.file-cache.max-file-size-bytes:262144}") long maxFileSize,
+            @Value("${artemis.file-cache.max-total-size-bytes:67108864}") long maxTotalSize) {
+        this.maxFileSize = maxFileSize;
+        this.maxTotalSize = maxTotalSize;
+        this.hits = meterRegistry.counter("artemis.file_cache.hits");
+        this.misses = meterRegistry.counter("artemis.file_cache.misses");
+        this.evictions = meterRegistry.counter("artemis.file_cache.evictions");
+        Gauge.builder("artemis.file_cache.size_bytes", this, SmallFileCacheService::getTotalSize).register(meterRegistry);
+    }
+
+    /**
+     * Get a resource for the given file that can be used as the body of a response. Small files are read into memory once and served from the cache afterwards, larger files
+     * are streamed from disk.
+     *
+     * @param file the existing file
+     * @return the resource containing the content of the file
+     * @throws IOException if the file cannot be read
+     */
+    public Resource getFileResource(File file) throws IOException {
+        // the attributes are read before the content, so that a concurrent change of the file leads to a cache miss for the next request
+        long lastModified = file.lastModified();
+        long size = file.length();
+        if (size > maxFileSize) {
+            return new FileSystemResource(file);
+        }
+        String key = file.getAbsolutePath();
+        synchronized (this) {
+            CachedFile cachedFile = files.get(key);
+            if (cachedFile != null && cachedFile.lastModified == lastModified && cachedFile.content.length == size) {
+                hits.increment();
+                return new ByteArrayResource(cachedFile.content);
+            }
+        }
+        misses.increment();
+        byte[] content = Files.readAllBytes(file.toPath());
+        if (content.length <= maxFileSize) {
+            put(key, new CachedFile(content, lastModified));
+        }
+        return new ByteArrayResource(content);
+    }
+
+    /**
+     * Remove the file from the cache, e.g. because it is deleted.
+     *
+     * @param path the path of the file
+     */
+    public synchronized void evict(String path) {
+        CachedFile cachedFile = files.remove(new File(path).getAbsolutePath());
+        if (cachedFile != null) {
+            totalSize -= cachedFile.content.length;
+        }
+    }
+
+    private synchronized void put(String key, CachedFile cachedFile) {
+        CachedFile previousFile = files.put(key, cachedFile);
+        if (previousFile != null) {
+            totalSize -= previousFile.content.length;
+        }
+        totalSize += cachedFile.content.length;
+        Iterator<CachedFile> leastRecentlyUsed = files.values().iterator();
+        while (totalSize > maxTotalSize && leastRecentlyUsed.hasNext()) {
+            totalSize -= leastRecentlyUsed.next().content.length;
+            leastRecentlyUsed.remove();
+            evictions.increment();
+        }
+    }
+
+    private synchronized long getTotalSize() {
+        return totalSize;
+    }
+
+    private static class CachedFile {
+
+        private final byte[] content;
+
+        private final long lastModified;
+
+        private CachedFile(byte[] content, long lastModified) {
+            this.content = content;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package de.tum.in.www1.artemis.service;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+import com.hazelcast.topic.Message;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Short-lived cache for the authorization decisions of websocket subscriptions. When many clients (re)subscribe at the same time, e.g. at the start of an exam, the decision
+ * whether a user may subscribe to a destination is computed only once per user and destination instead of loading the exercise, participation and user for every subscription.
+ * Only granted subscriptions are cached, a denied subscription is authorized again the next time, so that e.g. a new team member does not have to wait for the time to live.
+ *
+ * The decisions of a user are invalidated when the groups or the teams of the user change, the decisions for an exercise when the exercise is deleted and all decisions when a
+ * course (and therefore possibly its group names) changes. The invalidations are published to the other servers of the cluster through a Hazelcast topic. Other changes take
+ * effect after the time to live at the latest.
+ */
+@Service
+public class SubscriptionAuthorizationCacheService {
+
+    private final Logger log = LoggerFactory.getLogger(SubscriptionAuthorizationCacheService.class);
+
+    private static final String INVALIDATIONS_TOPIC = "subscription-authorization-cache-invalidations";
+
+    private final Duration timeToLive;
+
+    private final int maxSize;
+
+    /**
+     * (login, destination) -> granted subscription
+     */
+    private final Map<DecisionKey, Decision> decisions = new ConcurrentHashMap<>();
+
+    /**
+     * incremented with every invalidation, a decision is only cached if no invalidation happened while it was computed
+     */
+    private final AtomicLong invalidationSequence = new AtomicLong();
+
+    private final ITopic<Invalidation> invalidationsTopic;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    public SubscriptionAuthorizationCacheService(MeterRegistry meterRegistry, HazelcastInstance hazelcastInstance,
+            @Value("${artemis.websocket.subscription-cache.time-to-live-seconds:60}") long timeToLiveSeconds,
+            @Value("${artemis.websocket.subscription-cache.max-size:100000}") int maxSize) {
+        this.timeToLive = Duration.ofSeconds(timeToLiveSeconds);
+        this.maxSize = maxSize;
+        this.hits = meterRegistry.counter("artemis.websocket.subscription_authorization_cache.hits");
+        this.misses = meterRegistry.counter("artemis.websocket.subscription_authorization_cache.misses");
+        Gauge.builder("artemis.websocket.subscription_authorization_cache.size", decisions, Map::size).register(meterRegistry);
+        this.invalidationsTopic = hazelcastInstance.getTopic(INVALIDATIONS_TOPIC);
+        this.invalidationsTopic.addMessageListener(this::onInvalidation);
+    }
+
+    /**
+     * Get the cached authorization decision of the user for the destination or compute it and cache it if the subscription is allowed.
+     *
+     * @param login       the login of the user who wants to subscribe
+     * @param destination the destination to which the user wants to subscribe
+     * @param exerciseId  the id of the exercise the destination belongs to, used for the invalidation, can be null
+     * @param authorizer  computes the decision if it is not cached
+     * @return whether the user is allowed to subscribe to the destination
+     */
+    public boolean isAllowed(String login, String destination, Long exerciseId, Supplier<Boolean> authorizer) {
+        DecisionKey key = new DecisionKey(login, destination);
+        long now = System.nanoTime();
+        Decision decision = decisions.get(key);
+        if (decision != null && decision.expiresAt - now > 0) {
+            hits.increment();
+            return true;
+        }
+        misses.increment();
+        long invalidationsBefore = invalidationSequence.get();
+        boolean allowed = authorizer.get();
+        // the decision might be based on data that was changed by an invalidation in the meantime
+        if (!allowed || invalidationSequence.get() != invalidationsBefore) {
+            return allowed;
+        }
+        if (decisions.size() >= maxSize) {
+            removeExpiredDecisions();
+            if (decisions.size() >= maxSize) {
+                log.warn("The subscription authorization cache is full with {} decisions and is cleared", decisions.size());
+                decisions.clear();
+            }
+        }
+        decisions.put(key, new Decision(exerciseId, now + timeToLive.toNanos()));
+        return true;
+    }
+
+    /**
+     * Invalidate all decisions of the user on all servers, e.g. because the groups or the teams of the user changed.
+     *
+     * @param login the login of the user
+     */
+    public void invalidateUser(String login) {
+        publish(new Invalidation(login, null));
+    }
+
+    /**
+     * Invalidate all decisions for destinations of the exercise on all servers.
+     *
+     * @param exerciseId the id of the exercise
+     */
+    public void invalidateExercise(Long exerciseId) {
+        publish(new Invalidation(null, exerciseId));
+    }
+
+    /**
+     * Invalidate all decisions on all servers, e.g. because the group names of a course changed.
+     */
+    public void invalidateAll() {
+        publish(new Invalidation(null, null));
+    }
+
+    private void publish(Invalidation invalidation) {
+        // invalidate the local decisions immediately, the message is applied again when it is received, which has no further effect
+        invalidate(invalidation);
+        invalidationsTopic.publish(invalidation);
+    }
+
+    private void onInvalidation(Message<Invalidation> message) {
+        invalidate(message.getMessageObject());
+    }
+
+    private void invalidate(Invalidation invalidation) {
+        invalidationSequence.incrementAndGet();
+        if (invalidation.login != null) {
+            decisions.keySet().removeIf(key -> key.login.equals(invalidation.login));
+        }
+        else if (invalidation.exerciseId != null) {
+            decisions.values().removeIf(decision -> invalidation.exerciseId.equals(decision.exerciseId));
+        }
+        else {
+            decisions.clear();
+        }
+    }
+
+    private void removeExpiredDecisions() {
+        long now = System.nanoTime();
+        decisions.values().removeIf(decision -> decision.expiresAt - now <= 0);
+    }
+
+    /**
+     * Only for testing
+     *
+     * @return the number of cached decisions
+     */
+    int size() {
+        return decisions.size();
+    }
+
+    /**
+     * An invalidation that is published to all servers: of a user if the login is set, of an exercise if the exercise id is set, otherwise of all decisions
+     */
+    private static final class Invalidation implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String login;
+
+        private final Long exerciseId;
+
+        private Invalidation(String login, Long exerciseId) {
+            this.login = login;
+            this.exerciseId = exerciseId;
+        }
+    }
+
+    private static final class DecisionKey {
+
+        private final String login;
+
+        private final String destination;
+
+        private DecisionKey(String login, String destination) {
+            this.login = login;
+            this.destination = destination;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof DecisionKey)) {
+                return false;
+            }
+            DecisionKey other = (DecisionKey) obj;
+            return login.equals(other.login) && destination.equals(other.destination);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(login, destination);
+        }
+    }
+
+    /**
+     * A granted subscription
+     */
+    private static final class Decision {
+
+        private final Long exerciseId;
+
+        private final long expiresAt;
+
+        private Decision(Long exerciseId, long expiresAt) {
+            this.exerciseId = exerciseId;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -37,15 +37,18 @@ public class TeamService {
 
     private final ParticipationService participationService;
 
+    private final SubscriptionAuthorizationCacheService subscriptionAuthorizationCacheService;
+
     public TeamService(TeamRepository teamRepository, UserRepository userRepository, AuthorizationCheckService authCheckService,
             Optional<VersionControlService> versionControlService, ProgrammingExerciseParticipationService programmingExerciseParticipationService,
-            ParticipationService participationService) {
+            ParticipationService participationService, SubscriptionAuthorizationCacheService subscriptionAuthorizationCacheService) {
         this.teamRepository = teamRepository;
         this.userRepository = userRepository;
         this.authCheckService = authCheckService;
         this.versionControlService = versionControlService;
         this.programmingExerciseParticipationService = programmingExerciseParticipationService;
         this.participationService = participationService;
+        this.subscriptionAuthorizationCacheService = subscriptionAuthorizationCacheService;
     }
 
     /**
@@ -163,13 +166,34 @@ public class TeamService {
         if (!conflicts.isEmpty()) {
             throw new StudentsAlreadyAssignedException(conflicts);
         }
+        // the cached websocket subscriptions of students who are removed from the team must not be used any more
+        Set<User> affectedStudents = new HashSet<>(team.getStudents());
         // audit information is normally updated automatically but since changes in the many-to-many relationships are not registered,
         // we need to trigger the audit explicitly by modifying a column of the team entity itself
         if (team.getId() != null) {
             team.setLastModifiedDate(Instant.now());
+            teamRepository.findById(team.getId()).ifPresent(existingTeam -> affectedStudents.addAll(existingTeam.getStudents()));
         }
         team.setExercise(exercise);
-        return teamRepository.save(team);
+        Team savedTeam = teamRepository.save(team);
+        invalidateSubscriptionsOfStudents(affectedStudents);
+        return savedTeam;
+    }
+
+    /**
+     * Deletes a team and all its participations
+     *
+     * @param team Team to be deleted
+     */
+    public void delete(Team team) {
+        // Delete all participations of the team first and then the team itself
+        participationService.deleteAllByTeamId(team.getId(), false, false);
+        teamRepository.delete(team);
+        invalidateSubscriptionsOfStudents(team.getStudents());
+    }
+
+    private void invalidateSubscriptionsOfStudents(Set<User> students) {
+        students.forEach(student -> subscriptionAuthorizationCacheService.invalidateUser(student.getLogin()));
     }
 
     /**
@@ -200,8 +224,12 @@ public class TeamService {
      */
     public List<Team> importTeamsFromSourceExerciseIntoDestinationExerciseUsingStrategy(Exercise sourceExercise, Exercise destinationExercise,
             TeamImportStrategyType importStrategyType) {
+        // existing teams of the destination exercise might be deleted by the import
+        Set<User> affectedStudents = teamRepository.findAllByExerciseId(destinationExercise.getId()).stream().flatMap(team -> team.getStudents().stream())
+                .collect(Collectors.toSet());
         TeamImportStrategy teamImportStrategy = getTeamImportStrategy(importStrategyType);
         teamImportStrategy.importTeams(sourceExercise, destinationExercise);
+        invalidateSubscriptionsOfStudents(affectedStudents);
         return teamRepository.findAllByExerciseId(destinationExercise.getId());
     }
 
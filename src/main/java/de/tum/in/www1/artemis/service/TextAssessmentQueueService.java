@@ -98,10 +98,8 @@ public class TextAssessmentQueueService {
         if (!cluster.getBlocks().contains(textBlock)) {
             throw new IllegalArgumentException("textBlock must be an element of the cluster");
         }
-        double[][] distanceMatrix = cluster.getDistanceMatrix();
-        int blockID = cluster.getBlocks().indexOf(textBlock);
         // subtract 1 because the statement also included the distance to itself, but it should't be included
-        return Arrays.stream(distanceMatrix[blockID]).map(distance -> 1.0 - distance).sum() - 1;
+        return cluster.getBlocks().stream().mapToDouble(otherBlock -> 1.0 - cluster.distanceBetweenBlocks(textBlock, otherBlock)).sum() - 1;
     }
 
     /**
@@ -137,33 +135,49 @@ public class TextAssessmentQueueService {
         if (textSubmissionList.stream().map(submission -> submission.getParticipation().getExercise()).anyMatch(elem -> elem != currentExercise)) {
             throw new IllegalArgumentException("All TextSubmissions have to be from the same Exercise");
         }
+        // the open block count of each cluster is only computed once, the sorted counts are used to find the number of smaller clusters by binary search
+        int[] sortedOpenTextBlockCounts = clusters.stream().mapToInt(TextCluster::openTextBlockCount).sorted().toArray();
+        Map<TextCluster, Integer> openTextBlockCountsOfBlockClusters = new HashMap<>();
         textSubmissionList.forEach(textSubmission -> {
             textSubmission.getBlocks().forEach(textBlock -> {
                 if (textBlock.getCluster() == null) {
                     return;
                 }
-                OptionalInt optionalLargestClusterSize = clusters.stream().mapToInt(TextCluster::openTextBlockCount).max();
-
                 // if cluster is empty
-                if (optionalLargestClusterSize.isEmpty()) {
+                if (sortedOpenTextBlockCounts.length == 0) {
                     result.put(textBlock, 0.0);
                     return;
                 }
+                int openTextBlockCount = openTextBlockCountsOfBlockClusters.computeIfAbsent(textBlock.getCluster(), TextCluster::openTextBlockCount);
                 // if cluster is the largest set to smaller percentage to 1
-                if (optionalLargestClusterSize.getAsInt() == textBlock.getCluster().openTextBlockCount()) {
+                if (sortedOpenTextBlockCounts[sortedOpenTextBlockCounts.length - 1] == openTextBlockCount) {
                     result.put(textBlock, 1.0);
                     return;
                 }
-
-                int smallerClusterCount = clusters.stream().mapToInt(TextCluster::openTextBlockCount).reduce(0, (sum, elem) -> {
-                    if (elem < textBlock.getCluster().openTextBlockCount()) {
-                        return sum + 1;
-                    }
-                    return sum;
-                });
+                int smallerClusterCount = countSmallerValues(sortedOpenTextBlockCounts, openTextBlockCount);
                 result.put(textBlock, (double) smallerClusterCount / clusters.size());
             });
         });
         return result;
     }
+
+    /**
+     * @param sortedValues values in ascending order
+     * @param value the value to compare with
+     * @return the number of values that are smaller than the given value
+     */
+    private static int countSmallerValues(int[] sortedValues, int value) {
+        int low = 0;
+        int high = sortedValues.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sortedValues[middle] < value) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+        return low;
+    }
 }
@@ -4,11 +4,14 @@ import static java.util.stream.Collectors.groupingBy;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
-
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
 import javax.validation.constraints.NotNull;
 
 import org.slf4j.Logger;
@@ -26,6 +29,8 @@ import de.tum.in.www1.artemis.repository.TextClusterRepository;
 import de.tum.in.www1.artemis.service.connectors.TextEmbeddingService;
 import de.tum.in.www1.artemis.service.connectors.TextSegmentationService;
 import de.tum.in.www1.artemis.service.connectors.TextSimilarityClusteringService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Service
 @Profile("automaticText")
@@ -49,12 +54,24 @@ public class TextClusteringService {
 
     private final TextSegmentationService textSegmentationService;
 
-    @Value("${artemis.automatic-text.embedding-chunk-size}")
-    private int embeddingChunkSize;
+    private final TextEmbeddingCache textEmbeddingCache;
+
+    private final int embeddingChunkSize;
+
+    /**
+     * sends the chunks of text blocks to the embedding service, the number of threads limits the number of concurrent requests of all clustering jobs
+     */
+    private final ExecutorService embeddingExecutor;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Counter failedEmbeddingChunksCounter;
 
     public TextClusteringService(TextBlockService textBlockService, TextSubmissionService textSubmissionService, TextClusterRepository textClusterRepository,
             TextBlockRepository textBlockRepository, TextSimilarityClusteringService textSimilarityClusteringService, TextEmbeddingService textEmbeddingService,
-            TextAssessmentQueueService textAssessmentQueueService, TextSegmentationService textSegmentationService) {
+            TextAssessmentQueueService textAssessmentQueueService, TextSegmentationService textSegmentationService, TextEmbeddingCache textEmbeddingCache,
+            MeterRegistry meterRegistry, @Value("${artemis.automatic-text.embedding-chunk-size}") int embeddingChunkSize,
+            @Value("${artemis.automatic-text.embedding-concurrency:4}") int embeddingConcurrency) {
         this.textBlockService = textBlockService;
         this.textSubmissionService = textSubmissionService;
         this.textClusterRepository = textClusterRepository;
@@ -63,50 +80,136 @@ public class TextClusteringService {
         this.textEmbeddingService = textEmbeddingService;
         this.textAssessmentQueueService = textAssessmentQueueService;
         this.textSegmentationService = textSegmentationService;
+        this.textEmbeddingCache = textEmbeddingCache;
+        this.embeddingChunkSize = Math.max(1, embeddingChunkSize);
+        this.embeddingExecutor = Executors.newFixedThreadPool(Math.max(1, embeddingConcurrency));
+        this.meterRegistry = meterRegistry;
+        this.failedEmbeddingChunksCounter = meterRegistry.counter("artemis.text_clustering.failed_embedding_chunks");
     }
 
-    private List<TextEmbedding> computeEmbeddings(List<TextBlock> blocks, TextExercise exercise) {
-        final AtomicInteger counter = new AtomicInteger();
+    @PreDestroy
+    public void shutdownExecutor() {
+        embeddingExecutor.shutdownNow();
+    }
 
-        Map<Integer, List<TextBlock>> chunks = blocks.stream().collect(groupingBy(block -> counter.getAndIncrement() / embeddingChunkSize, toList()));
-        log.debug("Splitted Text Blocks into " + chunks.size() + " chunks.");
+    /**
+     * Requests the embeddings of all text blocks that are not cached yet. Text blocks with the same text are only embedded once, the chunks of text blocks are embedded in
+     * parallel. The embeddings are requested asynchronously, so that the text blocks can be saved in the meantime.
+     *
+     * @param blocks   the text blocks to embed
+     * @param exercise the exercise of the text blocks
+     * @return the embeddings of all text blocks that could be embedded, text blocks of failed chunks are left out
+     */
+    private CompletableFuture<List<TextEmbedding>> computeEmbeddings(List<TextBlock> blocks, TextExercise exercise) {
+        final Long courseId = exercise.getCourseViaExerciseGroupOrCourseMember().getId();
+        final List<TextEmbedding> textEmbeddings = Collections.synchronizedList(new ArrayList<>(blocks.size()));
+
+        // text blocks with the same text (e.g. identical answers) get the same embedding, so we only request one block per text
+        final Map<String, List<TextBlock>> blocksByKey = blocks.stream().collect(groupingBy(block -> textEmbeddingCache.keyOf(courseId, block), LinkedHashMap::new, toList()));
+        final List<TextBlock> uncachedBlocks = new ArrayList<>();
+        final Map<String, String> keysOfUncachedBlocks = new HashMap<>();
+        blocksByKey.forEach((key, blocksWithKey) -> {
+            float[] vector = textEmbeddingCache.get(key);
+            if (vector != null) {
+                blocksWithKey.forEach(block -> textEmbeddings.add(embedding(block, vector)));
+            }
+            else {
+                uncachedBlocks.add(blocksWithKey.get(0));
+                keysOfUncachedBlocks.put(blocksWithKey.get(0).getId(), key);
+            }
+        });
+
+        final List<List<TextBlock>> chunks = new ArrayList<>();
+        for (int i = 0; i < uncachedBlocks.size(); i += embeddingChunkSize) {
+            chunks.add(uncachedBlocks.subList(i, Math.min(i + embeddingChunkSize, uncachedBlocks.size())));
+        }
+        log.debug("Splitted " + uncachedBlocks.size() + " uncached of " + blocks.size() + " Text Blocks into " + chunks.size() + " chunks.");
 
-        // Initialize Result Array with final size to prevent overhead of ArrayLists internal array resizing.
-        final List<TextEmbedding> textEmbeddings = new ArrayList<>(blocks.size());
-        chunks.forEach((i, chunk) -> {
-            log.debug("Computing Language Embeddigns for Chunk " + i + " / " + chunks.size() + ".");
+        final CompletableFuture<?>[] embeddedChunks = chunks.stream().map(chunk -> CompletableFuture.runAsync(() -> {
             try {
-                textEmbeddings.addAll(textEmbeddingService.embedTextBlocks(chunk, exercise, 2));
+                for (TextEmbedding embedding : textEmbeddingService.embedTextBlocks(chunk, exercise, 2)) {
+                    String key = keysOfUncachedBlocks.get(embedding.getId());
+                    if (key == null) {
+                        continue;
+                    }
+                    textEmbeddingCache.put(key, embedding.getVector());
+                    blocksByKey.get(key).forEach(block -> textEmbeddings.add(embedding(block, embedding.getVector())));
+                }
             }
             catch (NetworkingError networkingError) {
-                networkingError.printStackTrace();
+                failedEmbeddingChunksCounter.increment();
+                log.error("Computing the language embeddings of " + chunk.size() + " Text Blocks of Text Exercise #" + exercise.getId() + " failed, they are not clustered",
+                        networkingError);
             }
-        });
+        }, embeddingExecutor)).toArray(CompletableFuture[]::new);
 
-        return textEmbeddings;
+        return CompletableFuture.allOf(embeddedChunks).thenApply(ignored -> new ArrayList<>(textEmbeddings));
+    }
+
+    private static TextEmbedding embedding(TextBlock block, float[] vector) {
+        final TextEmbedding embedding = new TextEmbedding();
+        embedding.setId(block.getId());
+        embedding.setVector(vector);
+        return embedding;
+    }
+
+    /**
+     * Saves the text blocks in chunks, each chunk in its own transaction
+     *
+     * @param blocks the text blocks to save
+     * @return the saved text blocks
+     */
+    private List<TextBlock> saveBlocksInChunks(List<TextBlock> blocks) {
+        final List<TextBlock> savedBlocks = new ArrayList<>(blocks.size());
+        for (int i = 0; i < blocks.size(); i += embeddingChunkSize) {
+            savedBlocks.addAll(textBlockRepository.saveAll(blocks.subList(i, Math.min(i + embeddingChunkSize, blocks.size()))));
+        }
+        return savedBlocks;
     }
 
     /**
      * Calculates the similarity clusters for a given TextExercise
      * Can Take a long time and should not be called in the main Thread
+     *
+     * The text blocks are saved while their embeddings are computed, the text blocks and clusters are saved in small transactions, so that no long running transaction is
+     * necessary. The duration of each stage is recorded in the metric artemis.text_clustering.stage.
+     *
      * @param exercise the TextExercise
      */
-    @Transactional
     public void calculateClusters(TextExercise exercise) {
         long start = System.currentTimeMillis();
         log.debug("Start Clustering for Text Exercise \"" + exercise.getTitle() + "\" (#" + exercise.getId() + ").");
 
         // Find all submissions for Exercise and Split them into Blocks
         // Invoke segmentation for Submissions
-        final Map<String, TextBlock> textBlockMap;
+        long stageStart = System.nanoTime();
+        final List<TextBlock> textBlocks;
         try {
-            textBlockMap = textBlockRepository.saveAll(getTextBlocks(exercise.getId())).stream().collect(toMap(TextBlock::getId, block -> block));
+            textBlocks = getTextBlocks(exercise.getId());
         }
         catch (NetworkingError networkingError) {
-            networkingError.printStackTrace();
+            log.error("Segmentation of the submissions of Text Exercise #" + exercise.getId() + " failed, the clusters are not calculated", networkingError);
+            return;
+        }
+        stageStart = recordStage("segmentation", stageStart);
+
+        // the embeddings are computed while the text blocks are saved
+        final CompletableFuture<List<TextEmbedding>> embeddingsFuture = computeEmbeddings(textBlocks, exercise);
+        final Map<String, TextBlock> textBlockMap = saveBlocksInChunks(textBlocks).stream().collect(toMap(TextBlock::getId, block -> block, (first, second) -> second));
+        final List<TextEmbedding> embeddings;
+        try {
+            embeddings = embeddingsFuture.get();
+        }
+        catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+            log.warn("Clustering for Text Exercise #" + exercise.getId() + " was interrupted");
+            return;
+        }
+        catch (ExecutionException executionException) {
+            log.error("Computing the language embeddings for Text Exercise #" + exercise.getId() + " failed, the clusters are not calculated", executionException.getCause());
             return;
         }
-        List<TextEmbedding> embeddings = computeEmbeddings(new ArrayList<>(textBlockMap.values()), exercise);
+        stageStart = recordStage("embedding", stageStart);
 
         // Invoke clustering for Text Blocks
         final Map<Integer, TextCluster> clusters;
@@ -114,32 +217,48 @@ public class TextClusteringService {
             clusters = textSimilarityClusteringService.clusterTextBlocks(embeddings, 3);
         }
         catch (NetworkingError networkingError) {
-            networkingError.printStackTrace();
+            log.error("Clustering of the " + embeddings.size() + " embeddings of Text Exercise #" + exercise.getId() + " failed", networkingError);
             return;
         }
+        stageStart = recordStage("clustering", stageStart);
 
         // Remove Cluster with Key "-1" as it is only contains the blocks belonging to no cluster.
         clusters.remove(-1);
+        for (TextCluster cluster : clusters.values()) {
+            final List<TextBlock> blocks = new ArrayList<>(cluster.getBlocks().size());
+            for (TextBlock block : cluster.getBlocks()) {
+                final TextBlock savedBlock = textBlockMap.get(block.getId());
+                if (savedBlock == null) {
+                    // the probabilities and the distance matrix are indexed by the position of the block in the cluster, so we cannot leave out a block
+                    log.error("The clustering of Text Exercise #" + exercise.getId() + " returned the unknown Text Block " + block.getId() + ", the clusters are not saved");
+                    return;
+                }
+                blocks.add(savedBlock);
+            }
+            cluster.setExercise(exercise);
+            // the positions of the blocks are set here, so they are saved with the blocks
+            cluster.setBlocks(blocks);
+        }
+        // Store Clusters in Database
         final List<TextCluster> savedClusters = textClusterRepository.saveAll(clusters.values());
 
         for (TextCluster cluster : savedClusters) {
-            cluster.setExercise(exercise);
-            List<TextBlock> updatedBlockReferences = cluster.getBlocks().parallelStream().map(block -> textBlockMap.get(block.getId())).peek(block -> block.setCluster(cluster))
-                    .collect(toList());
-
-            textAssessmentQueueService.setAddedDistances(updatedBlockReferences, cluster);
-
-            updatedBlockReferences = textBlockRepository.saveAll(updatedBlockReferences);
-            cluster.setBlocks(updatedBlockReferences);
+            cluster.getBlocks().forEach(block -> block.setCluster(cluster));
+            textAssessmentQueueService.setAddedDistances(cluster.getBlocks(), cluster);
+            saveBlocksInChunks(cluster.getBlocks());
         }
-
-        // Store Clusters in Database
-        textClusterRepository.saveAll(savedClusters);
+        recordStage("persistence", stageStart);
 
         log.info("Found " + clusters.size() + " clusters for Text Exercise \"" + exercise.getTitle() + "\" (#" + exercise.getId() + ") in " + (System.currentTimeMillis() - start)
                 + "ms");
     }
 
+    private long recordStage(String stage, long stageStart) {
+        long now = System.nanoTime();
+        meterRegistry.timer("artemis.text_clustering.stage", "stage", stage).record(now - stageStart, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
     /**
      * Fetch all submissions for an exercise and split them up into TextBlocks.
      * Note: See `TextSubmissionService:getTextSubmissionsByExerciseId` for selection of Submissions.
@@ -0,0 +1,81 @@
+package de.tum.in.www1.artemis.service;
+
+import static org.apache.commons.codec.digest.DigestUtils.sha1Hex;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import de.tum.in.www1.artemis.domain.TextBlock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Caches the language embeddings of text blocks by the hash of their text, so that unchanged answers (and identical answers of different students) are not embedded again when
+ * the clusters of an exercise are recalculated. The embeddings are cached per course, because the embedding service may use different models for different courses. The least
+ * recently used embeddings are evicted when the cache is full.
+ */
+@Component
+@Profile("automaticText")
+public class TextEmbeddingCache {
+
+    private final int maxSize;
+
+    /**
+     * course id and text hash -> embedding vector, ordered by the last access (least recently used first)
+     */
+    private final LinkedHashMap<String, float[]> vectors = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    public TextEmbeddingCache(MeterRegistry meterRegistry, @Value("${artemis.automatic-text.embedding-cache-size:20000}") int maxSize) {
+        this.maxSize = maxSize;
+        this.hits = meterRegistry.counter("artemis.text_clustering.embedding_cache", "result", "hit");
+        this.misses = meterRegistry.counter("artemis.text_clustering.embedding_cache", "result", "miss");
+    }
+
+    /**
+     * @param courseId  the id of the course of the text block
+     * @param textBlock the text block
+     * @return the key of the text block in the cache, text blocks with the same text in the same course have the same key
+     */
+    public String keyOf(Long courseId, TextBlock textBlock) {
+        return courseId + ";" + sha1Hex(textBlock.getText());
+    }
+
+    /**
+     * @param key the key of the text block, see {@link #keyOf(Long, TextBlock)}
+     * @return the cached embedding vector, or null if the text was not embedded before
+     */
+    public float[] get(String key) {
+        float[] vector;
+        synchronized (this) {
+            vector = vectors.get(key);
+        }
+        if (vector != null) {
+            hits.increment();
+        }
+        else {
+            misses.increment();
+        }
+        return vector;
+    }
+
+    /**
+     * @param key    the key of the text block, see {@link #keyOf(Long, TextBlock)}
+     * @param vector the embedding vector of the text block, it must not be changed afterwards
+     */
+    public synchronized void put(String key, float[] vector) {
+        vectors.put(key, vector);
+        Iterator<float[]> leastRecentlyUsed = vectors.values().iterator();
+        while (vectors.size() > maxSize && leastRecentlyUsed.hasNext()) {
+            leastRecentlyUsed.next();
+            leastRecentlyUsed.remove();
+        }
+    }
+}
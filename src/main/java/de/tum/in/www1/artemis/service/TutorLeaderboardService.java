@@ -1,7 +1,9 @@
 package de.tum.in.www1.artemis.service;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.validation.constraints.NotNull;
 
@@ -86,88 +88,92 @@ public class TutorLeaderboardService {
                 tutorLeaderboardComplaintResponses, tutorLeaderboardAnsweredMoreFeedbackRequests);
     }
 
+    /**
+     * Aggregates the rows of the leaderboard views per tutor. The rows of every view are only iterated once and are joined with the tutors using a hash map, so that the
+     * aggregation is linear in the number of tutors and view rows. Rows of users who are no tutors of the course are ignored.
+     */
     @NotNull
     private List<TutorLeaderboardDTO> aggregateTutorLeaderboardData(List<User> tutors, List<TutorLeaderboardAssessmentView> tutorLeaderboardAssessments,
             List<TutorLeaderboardComplaintsView> tutorLeaderboardComplaints, List<TutorLeaderboardMoreFeedbackRequestsView> tutorLeaderboardMoreFeedbackRequests,
             List<TutorLeaderboardComplaintResponsesView> tutorLeaderboardComplaintResponses,
             List<TutorLeaderboardAnsweredMoreFeedbackRequestsView> tutorLeaderboardAnsweredMoreFeedbackRequests) {
 
-        List<TutorLeaderboardDTO> tutorLeaderBoardEntries = new ArrayList<>();
+        // tutor id -> leaderboard entry, in the order of the tutors
+        Map<Long, TutorLeaderboardDTO> tutorLeaderboardEntries = new LinkedHashMap<>();
         for (User tutor : tutors) {
+            tutorLeaderboardEntries.put(tutor.getId(), new TutorLeaderboardDTO(tutor.getId(), tutor.getName(), 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L));
+        }
 
-            long numberOfAssessments = 0L;
-            long numberOfAcceptedComplaints = 0L;
-            long numberOfTutorComplaints = 0L;
-            long numberOfNotAnsweredMoreFeedbackRequests = 0L;
-            long numberOfComplaintResponses = 0L;
-            long numberOfAnsweredMoreFeedbackRequests = 0L;
-            long numberOfTutorMoreFeedbackRequests = 0L;
-            Long points = 0L;
-
-            for (TutorLeaderboardAssessmentView assessmentsView : tutorLeaderboardAssessments) {
-                if (tutor.getId().equals(assessmentsView.getUserId())) {
-                    numberOfAssessments += assessmentsView.getAssessments();
-                    if (assessmentsView.getPoints() != null) {   // this can happen when max points is null, then we could simply count the assessments
-                        points += assessmentsView.getPoints();
-                    }
-                    else {
-                        points += assessmentsView.getAssessments();
-                    }
-                }
+        for (TutorLeaderboardAssessmentView assessmentsView : tutorLeaderboardAssessments) {
+            TutorLeaderboardDTO entry = tutorLeaderboardEntries.get(assessmentsView.getUserId());
+            if (entry == null) {
+                continue;
             }
-
-            for (TutorLeaderboardComplaintsView complaintsView : tutorLeaderboardComplaints) {
-                if (tutor.getId().equals(complaintsView.getUserId())) {
-                    numberOfTutorComplaints += complaintsView.getAllComplaints();
-                    numberOfAcceptedComplaints += complaintsView.getAcceptedComplaints();
-                    // accepted complaints count 2x negatively
-                    if (complaintsView.getPoints() != null) {   // this can happen when max points is null, then we could simply count the accepted complaints
-                        points -= 2 * complaintsView.getPoints();
-                    }
-                    else {
-                        points -= 2 * complaintsView.getAcceptedComplaints();
-                    }
-                }
+            entry.setNumberOfAssessments(entry.getNumberOfAssessments() + assessmentsView.getAssessments());
+            if (assessmentsView.getPoints() != null) {   // this can happen when max points is null, then we could simply count the assessments
+                entry.setPoints(entry.getPoints() + assessmentsView.getPoints());
+            }
+            else {
+                entry.setPoints(entry.getPoints() + assessmentsView.getAssessments());
             }
+        }
 
-            for (TutorLeaderboardMoreFeedbackRequestsView moreFeedbackRequestsView : tutorLeaderboardMoreFeedbackRequests) {
-                if (tutor.getId().equals(moreFeedbackRequestsView.getUserId())) {
-                    numberOfNotAnsweredMoreFeedbackRequests += moreFeedbackRequestsView.getNotAnsweredRequests();
-                    numberOfTutorMoreFeedbackRequests += moreFeedbackRequestsView.getAllRequests();
-                    // not answered requests count only 1x negatively
-                    if (moreFeedbackRequestsView.getPoints() != null) {   // this can happen when max points is null, then we could simply count the not answered
-                                                                          // requests
-                        points -= moreFeedbackRequestsView.getPoints();
-                    }
-                    else {
-                        points -= moreFeedbackRequestsView.getNotAnsweredRequests();
-                    }
-                }
+        for (TutorLeaderboardComplaintsView complaintsView : tutorLeaderboardComplaints) {
+            TutorLeaderboardDTO entry = tutorLeaderboardEntries.get(complaintsView.getUserId());
+            if (entry == null) {
+                continue;
+            }
+            entry.setNumberOfTutorComplaints(entry.getNumberOfTutorComplaints() + complaintsView.getAllComplaints());
+            entry.setNumberOfAcceptedComplaints(entry.getNumberOfAcceptedComplaints() + complaintsView.getAcceptedComplaints());
+            // accepted complaints count 2x negatively
+            if (complaintsView.getPoints() != null) {   // this can happen when max points is null, then we could simply count the accepted complaints
+                entry.setPoints(entry.getPoints() - 2 * complaintsView.getPoints());
             }
+            else {
+                entry.setPoints(entry.getPoints() - 2 * complaintsView.getAcceptedComplaints());
+            }
+        }
 
-            for (TutorLeaderboardComplaintResponsesView complaintResponsesView : tutorLeaderboardComplaintResponses) {
-                if (tutor.getId().equals(complaintResponsesView.getUserId())) {
-                    numberOfComplaintResponses += complaintResponsesView.getComplaintResponses();
-                    // resolved complaints count 2x
-                    if (complaintResponsesView.getPoints() != null) {   // this can happen when max points is null, then we could simply count the complaint responses
-                        points += 2 * complaintResponsesView.getPoints();
-                    }
-                    else {
-                        points += 2 * complaintResponsesView.getComplaintResponses();
-                    }
-                }
+        for (TutorLeaderboardMoreFeedbackRequestsView moreFeedbackRequestsView : tutorLeaderboardMoreFeedbackRequests) {
+            TutorLeaderboardDTO entry = tutorLeaderboardEntries.get(moreFeedbackRequestsView.getUserId());
+            if (entry == null) {
+                continue;
             }
+            entry.setNumberOfNotAnsweredMoreFeedbackRequests(entry.getNumberOfNotAnsweredMoreFeedbackRequests() + moreFeedbackRequestsView.getNotAnsweredRequests());
+            entry.setNumberOfTutorMoreFeedbackRequests(entry.getNumberOfTutorMoreFeedbackRequests() + moreFeedbackRequestsView.getAllRequests());
+            // not answered requests count only 1x negatively
+            if (moreFeedbackRequestsView.getPoints() != null) {   // this can happen when max points is null, then we could simply count the not answered requests
+                entry.setPoints(entry.getPoints() - moreFeedbackRequestsView.getPoints());
+            }
+            else {
+                entry.setPoints(entry.getPoints() - moreFeedbackRequestsView.getNotAnsweredRequests());
+            }
+        }
 
-            for (TutorLeaderboardAnsweredMoreFeedbackRequestsView moreFeedbackRequestsView : tutorLeaderboardAnsweredMoreFeedbackRequests) {
-                if (tutor.getId().equals(moreFeedbackRequestsView.getUserId())) {
-                    numberOfAnsweredMoreFeedbackRequests += moreFeedbackRequestsView.getAnsweredRequests();
-                    // answered requests doesn't count, because it only means that the tutor repaired the negative points
-                }
+        for (TutorLeaderboardComplaintResponsesView complaintResponsesView : tutorLeaderboardComplaintResponses) {
+            TutorLeaderboardDTO entry = tutorLeaderboardEntries.get(complaintResponsesView.getUserId());
+            if (entry == null) {
+                continue;
+            }
+            entry.setNumberOfComplaintResponses(entry.getNumberOfComplaintResponses() + complaintResponsesView.getComplaintResponses());
+            // resolved complaints count 2x
+            if (complaintResponsesView.getPoints() != null) {   // this can happen when max points is null, then we could simply count the complaint responses
+                entry.setPoints(entry.getPoints() + 2 * complaintResponsesView.getPoints());
             }
+            else {
+                entry.setPoints(entry.getPoints() + 2 * complaintResponsesView.getComplaintResponses());
+            }
+        }
 
-            tutorLeaderBoardEntries.add(new TutorLeaderboardDTO(tutor.getId(), tutor.getName(), numberOfAssessments, numberOfAcceptedComplaints, numberOfTutorComplaints,
-                    numberOfNotAnsweredMoreFeedbackRequests, numberOfComplaintResponses, numberOfAnsweredMoreFeedbackRequests, numberOfTutorMoreFeedbackRequests, points));
+        for (TutorLeaderboardAnsweredMoreFeedbackRequestsView moreFeedbackRequestsView : tutorLeaderboardAnsweredMoreFeedbackRequests) {
+            TutorLeaderboardDTO entry = tutorLeaderboardEntries.get(moreFeedbackRequestsView.getUserId());
+            if (entry == null) {
+                continue;
+            }
+            entry.setNumberOfAnsweredMoreFeedbackRequests(entry.getNumberOfAnsweredMoreFeedbackRequests() + moreFeedbackRequestsView.getAnsweredRequests());
+            // answered requests doesn't count, because it only means that the tutor repaired the negative points
         }
-        return tutorLeaderBoardEntries;
+
+        return new ArrayList<>(tutorLeaderboardEntries.values());
     }
 }
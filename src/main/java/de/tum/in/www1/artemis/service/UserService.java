@@ -77,6 +77,8 @@ public class UserService {
 
     private final CourseRepository courseRepository;
 
+    private final SubscriptionAuthorizationCacheService subscriptionAuthorizationCacheService;
+
     private final AuthorityRepository authorityRepository;
 
     private final GuidedTourSettingsRepository guidedTourSettingsRepository;
@@ -90,13 +92,15 @@ public class UserService {
     private ArtemisAuthenticationProvider artemisAuthenticationProvider;
 
     public UserService(UserRepository userRepository, AuthorityRepository authorityRepository, CacheManager cacheManager, Optional<LdapUserService> ldapUserService,
-            GuidedTourSettingsRepository guidedTourSettingsRepository, CourseRepository courseRepository) {
+            GuidedTourSettingsRepository guidedTourSettingsRepository, CourseRepository courseRepository,
+            SubscriptionAuthorizationCacheService subscriptionAuthorizationCacheService) {
         this.userRepository = userRepository;
         this.authorityRepository = authorityRepository;
         this.cacheManager = cacheManager;
         this.ldapUserService = ldapUserService;
         this.guidedTourSettingsRepository = guidedTourSettingsRepository;
         this.courseRepository = courseRepository;
+        this.subscriptionAuthorizationCacheService = subscriptionAuthorizationCacheService;
     }
 
     @Autowired
@@ -724,6 +728,7 @@ public class UserService {
 
     private void clearUserCaches(User user) {
         cacheManager.getCache(User.class.getName()).evict(user.getLogin());
+        subscriptionAuthorizationCacheService.invalidateUser(user.getLogin());
     }
 
     /**
@@ -847,6 +852,7 @@ public class UserService {
             user.getGroups().remove(groupName);
         }
         userRepository.saveAll(users);
+        subscriptionAuthorizationCacheService.invalidateAll();
     }
 
     public Long countUserInGroup(String groupName) {
@@ -860,6 +866,7 @@ public class UserService {
      */
     public void addUserToGroup(User user, String group) {
         artemisAuthenticationProvider.addUserToGroup(user, group);
+        subscriptionAuthorizationCacheService.invalidateUser(user.getLogin());
     }
 
     /**
@@ -870,6 +877,7 @@ public class UserService {
      */
     public void removeUserFromGroup(User user, String group) {
         artemisAuthenticationProvider.removeUserFromGroup(user, group);
+        subscriptionAuthorizationCacheService.invalidateUser(user.getLogin());
     }
 
     /**
@@ -3,11 +3,13 @@ package de.tum.in.www1.artemis.service.compass;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import com.google.gson.JsonObject;
 
 import de.tum.in.www1.artemis.domain.Feedback;
 import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.service.compass.controller.ModelIndexSnapshot;
 import de.tum.in.www1.artemis.service.compass.grade.Grade;
 
 public interface CalculationEngine {
@@ -47,6 +49,13 @@ public interface CalculationEngine {
      */
     void notifyNewModel(String model, long modelId);
 
+    /**
+     * Create a snapshot of the similarity sets of all models, so that they do not have to be calculated again when the engine is reloaded
+     *
+     * @return the snapshot or an empty optional if no consistent snapshot could be created
+     */
+    Optional<ModelIndexSnapshot> createSnapshot();
+
     /**
      * @return the time when the engine has been used last
      */
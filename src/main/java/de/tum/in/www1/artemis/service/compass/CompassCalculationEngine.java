@@ -6,6 +6,8 @@ import static de.tum.in.www1.artemis.service.compass.utils.CompassConfiguration.
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 
 import org.hibernate.Hibernate;
@@ -48,30 +50,94 @@ public class CompassCalculationEngine implements CalculationEngine {
 
     private LocalDateTime lastUsed;
 
+    /**
+     * submission id -> fingerprint of the model the diagram in the model index was built from, used to detect changed models when restoring a snapshot
+     */
+    private final Map<Long, Long> modelFingerprints = new ConcurrentHashMap<>();
+
     CompassCalculationEngine(Set<ModelingSubmission> modelingSubmissions) {
+        this(modelingSubmissions, null, null);
+    }
+
+    /**
+     * Create a new calculation engine for the given submissions. The models of the submissions are parsed in parallel if a parsing pool is given. The similarity analysis, which
+     * depends on the order of the models, is done sequentially afterwards. It is skipped for all models that did not change since the given snapshot was taken.
+     *
+     * @param modelingSubmissions all submissions of the exercise
+     * @param parsingPool         the pool used to parse the models in parallel, or null if the models should be parsed by the calling thread
+     * @param snapshot            a snapshot of the similarity sets of a previous engine of the same exercise, or null if all similarities should be calculated
+     */
+    CompassCalculationEngine(Set<ModelingSubmission> modelingSubmissions, ForkJoinPool parsingPool, ModelIndexSnapshot snapshot) {
         lastUsed = LocalDateTime.now();
         modelIndex = new ModelIndex();
         assessmentIndex = new AssessmentIndex();
         automaticAssessmentController = new AutomaticAssessmentController();
         modelSelector = new ModelSelector();
 
+        List<ModelingSubmission> submissionsWithModel = new ArrayList<>();
         for (Submission submission : modelingSubmissions) {
             // We have to unproxy here as sometimes the Submission is a Hibernate proxy resulting in a cast exception
             // when iterating over the ModelingSubmissions directly (i.e. for (ModelingSubmission submission : submissions)).
             ModelingSubmission modelingSubmission = (ModelingSubmission) Hibernate.unproxy(submission);
+            if (modelingSubmission.getModel() != null) {
+                submissionsWithModel.add(modelingSubmission);
+            }
+        }
 
-            String model = modelingSubmission.getModel();
-            if (model != null) {
-                buildModel(modelingSubmission);
+        Map<Long, UMLDiagram> models = parseModels(submissionsWithModel, parsingPool);
+        Set<Long> restoredModelIds = snapshot != null ? snapshot.restore(modelIndex, models, modelFingerprints) : Collections.emptySet();
+        if (snapshot != null) {
+            log.info("Restored the similarity sets of {} of {} models from the snapshot", restoredModelIds.size(), models.size());
+        }
 
-                if (hasCompletedManualAssessment(modelingSubmission)) {
-                    addManualAssessmentForSubmission(modelingSubmission);
-                }
+        for (ModelingSubmission modelingSubmission : submissionsWithModel) {
+            UMLDiagram model = models.get(modelingSubmission.getId());
+            if (model == null) {
+                continue;
+            }
+            if (!restoredModelIds.contains(modelingSubmission.getId())) {
+                SimilarityDetector.analyzeSimilarity(model, modelIndex);
+            }
+            modelIndex.addModel(model);
+
+            if (hasCompletedManualAssessment(modelingSubmission)) {
+                addManualAssessmentForSubmission(modelingSubmission);
             }
         }
         assessModelsAutomatically();
     }
 
+    /**
+     * Parse the models of the given submissions, in parallel if a parsing pool is given.
+     *
+     * @param modelingSubmissions the submissions containing the models as JSON strings
+     * @param parsingPool         the pool used to parse the models in parallel, or null
+     * @return submission id -> parsed model, submissions whose model could not be parsed are missing
+     */
+    private Map<Long, UMLDiagram> parseModels(List<ModelingSubmission> modelingSubmissions, ForkJoinPool parsingPool) {
+        Map<Long, UMLDiagram> models = new ConcurrentHashMap<>();
+        if (parsingPool == null) {
+            modelingSubmissions.forEach(submission -> parseModel(submission.getId(), submission.getModel()).ifPresent(model -> models.put(submission.getId(), model)));
+        }
+        else {
+            parsingPool.submit(() -> modelingSubmissions.parallelStream()
+                    .forEach(submission -> parseModel(submission.getId(), submission.getModel()).ifPresent(model -> models.put(submission.getId(), model)))).join();
+        }
+        return models;
+    }
+
+    private Optional<UMLDiagram> parseModel(long modelSubmissionId, String model) {
+        try {
+            UMLDiagram umlDiagram = JSONParser.buildModelFromJSON(parseString(model).getAsJsonObject(), modelSubmissionId);
+            modelFingerprints.put(modelSubmissionId, ModelIndexSnapshot.fingerprint(model));
+            return Optional.of(umlDiagram);
+        }
+        catch (IOException e) {
+            log.error("Error while building model!", e);
+            return Optional.empty();
+        }
+    }
+
     /**
      * Checks if the given modeling submission already has a completed manual assessment. The assessment is completed if the submission has a result with a completion date.
      *
@@ -133,6 +199,7 @@ public class CompassCalculationEngine implements CalculationEngine {
      */
     private void buildModel(ModelingSubmission modelingSubmission) {
         if (modelingSubmission.getModel() != null) {
+            modelFingerprints.put(modelingSubmission.getId(), ModelIndexSnapshot.fingerprint(modelingSubmission.getModel()));
             buildModel(modelingSubmission.getId(), parseString(modelingSubmission.getModel()).getAsJsonObject());
         }
     }
@@ -245,9 +312,15 @@ public class CompassCalculationEngine implements CalculationEngine {
         if (modelIndex.getModelMap().containsKey(modelId)) {
             return;
         }
+        modelFingerprints.put(modelId, ModelIndexSnapshot.fingerprint(model));
         buildModel(modelId, parseString(model).getAsJsonObject());
     }
 
+    @Override
+    public Optional<ModelIndexSnapshot> createSnapshot() {
+        return ModelIndexSnapshot.create(modelIndex, modelFingerprints);
+    }
+
     @Override
     public LocalDateTime getLastUsedAt() {
         return lastUsed;
@@ -4,16 +4,31 @@ import static de.tum.in.www1.artemis.service.compass.utils.CompassConfiguration.
 import static de.tum.in.www1.artemis.service.compass.utils.CompassConfiguration.NUMBER_OF_NEW_OPTIMAL_MODELS;
 import static de.tum.in.www1.artemis.service.compass.utils.CompassConfiguration.OPTIMAL_MODEL_THRESHOLD;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.annotation.PreDestroy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
@@ -33,8 +48,11 @@ import de.tum.in.www1.artemis.repository.ModelingSubmissionRepository;
 import de.tum.in.www1.artemis.repository.ResultRepository;
 import de.tum.in.www1.artemis.repository.StudentParticipationRepository;
 import de.tum.in.www1.artemis.service.ModelAssessmentConflictService;
+import de.tum.in.www1.artemis.service.compass.controller.ModelIndexSnapshot;
 import de.tum.in.www1.artemis.service.compass.grade.CompassGrade;
 import de.tum.in.www1.artemis.service.compass.grade.Grade;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 @Service
 public class CompassService {
@@ -63,13 +81,76 @@ public class CompassService {
      */
     private static Map<Long, CalculationEngine> compassCalculationEngines = new ConcurrentHashMap<>();
 
+    /**
+     * Map exerciseId to the lock that ensures that the calculation engine of an exercise is only loaded once at the same time
+     */
+    private static final Map<Long, Object> calculationEngineLoadLocks = new ConcurrentHashMap<>();
+
+    /**
+     * Bounded pool used to load calculation engines and to parse the models of an exercise in parallel
+     */
+    private final ForkJoinPool engineLoadingPool;
+
+    private final Timer modelSelectionTimer;
+
+    /**
+     * Number of days after the due date during which the calculation engine of an exercise is loaded on startup, 0 disables the warm-up
+     */
+    @Value("${artemis.compass.warm-up-days:7}")
+    private int warmUpDays;
+
+    /**
+     * Folder in which the snapshots of the calculation engines are stored, snapshots are disabled if empty
+     */
+    @Value("${artemis.compass.snapshot-path:}")
+    private String snapshotPath;
+
     public CompassService(ResultRepository resultRepository, ModelingExerciseRepository modelingExerciseRepository, ModelingSubmissionRepository modelingSubmissionRepository,
-            StudentParticipationRepository studentParticipationRepository, ModelAssessmentConflictService conflictService) {
+            StudentParticipationRepository studentParticipationRepository, ModelAssessmentConflictService conflictService,
+            MeterRegistry meterRegistry, @Value("${artemis.compass.warm-up-parallelism:2}") int warmUpParallelism) {
         this.resultRepository = resultRepository;
         this.modelingExerciseRepository = modelingExerciseRepository;
         this.modelingSubmissionRepository = modelingSubmissionRepository;
         this.studentParticipationRepository = studentParticipationRepository;
         this.conflictService = conflictService;
+        this.engineLoadingPool = new ForkJoinPool(Math.max(1, warmUpParallelism));
+        this.modelSelectionTimer = Timer.builder("artemis.compass.selection").description("Duration of selecting the next optimal models for the assessment")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Load the calculation engines of all supported modeling exercises that are currently assessed, so that the first tutor who starts assessing after a restart does not have
+     * to wait until all models are analyzed. The engines are loaded in the background in parallel.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpCalculationEngines() {
+        if (warmUpDays <= 0) {
+            return;
+        }
+        ZonedDateTime now = ZonedDateTime.now();
+        List<Long> exerciseIds = modelingExerciseRepository.findAllWithDueDateBetweenAndAssessmentDueDateNotOver(now.minusDays(warmUpDays), now).stream()
+                .filter(this::isSupported).map(ModelingExercise::getId).collect(Collectors.toList());
+        if (exerciseIds.isEmpty()) {
+            return;
+        }
+        log.info("Warming up Compass calculation engines for the exercises " + exerciseIds);
+        engineLoadingPool.execute(() -> exerciseIds.parallelStream().forEach(exerciseId -> {
+            try {
+                loadExerciseIfSuspended(exerciseId);
+            }
+            catch (Exception e) {
+                log.error("Could not warm up the Compass calculation engine for exercise " + exerciseId, e);
+            }
+        }));
+    }
+
+    /**
+     * Store a snapshot of all calculation engines before the server shuts down, so that they can be restored quickly after the restart.
+     */
+    @PreDestroy
+    public void storeSnapshotsOnShutdown() {
+        compassCalculationEngines.forEach(this::storeSnapshot);
+        engineLoadingPool.shutdownNow();
     }
 
     /**
@@ -112,7 +193,7 @@ public class CompassService {
      * @return Ids of the next optimal models, an empty list if all models have been assessed for the given exercise
      */
     private List<Long> getNextOptimalModels(long exerciseId) {
-        return compassCalculationEngines.get(exerciseId).getNextOptimalModels(NUMBER_OF_NEW_OPTIMAL_MODELS);
+        return modelSelectionTimer.record(() -> compassCalculationEngines.get(exerciseId).getNextOptimalModels(NUMBER_OF_NEW_OPTIMAL_MODELS));
     }
 
     /**
@@ -512,16 +593,78 @@ public class CompassService {
      * @param exerciseId the exerciseId of the exercise for which the calculation engine should be loaded
      */
     private void loadCalculationEngineForExercise(long exerciseId) {
-        if (compassCalculationEngines.containsKey(exerciseId)) {
-            return;
+        synchronized (calculationEngineLoadLocks.computeIfAbsent(exerciseId, id -> new Object())) {
+            if (compassCalculationEngines.containsKey(exerciseId)) {
+                return;
+            }
+            log.info("Loading Compass calculation engine for exercise " + exerciseId);
+
+            Set<ModelingSubmission> modelingSubmissions = getSubmissionsForExercise(exerciseId);
+            ModelIndexSnapshot snapshot = loadSnapshot(exerciseId).orElse(null);
+            CalculationEngine calculationEngine = new CompassCalculationEngine(modelingSubmissions, engineLoadingPool, snapshot);
+            compassCalculationEngines.put(exerciseId, calculationEngine);
+            if (snapshot == null) {
+                storeSnapshot(exerciseId, calculationEngine);
+            }
+
+            assessAllAutomatically(calculationEngine.getModelIds(), exerciseId);
+        }
+    }
+
+    private Optional<Path> getSnapshotFile(long exerciseId) {
+        if (snapshotPath == null || snapshotPath.isBlank()) {
+            return Optional.empty();
         }
-        log.info("Loading Compass calculation engine for exercise " + exerciseId);
+        return Optional.of(Path.of(snapshotPath, "exercise-" + exerciseId + ".snapshot"));
+    }
 
-        Set<ModelingSubmission> modelingSubmissions = getSubmissionsForExercise(exerciseId);
-        CalculationEngine calculationEngine = new CompassCalculationEngine(modelingSubmissions);
-        compassCalculationEngines.put(exerciseId, calculationEngine);
+    /**
+     * Load the snapshot of the calculation engine of the given exercise, if one has been stored before.
+     *
+     * @param exerciseId the id of the exercise
+     * @return the snapshot or an empty optional if snapshots are disabled or no readable snapshot exists
+     */
+    private Optional<ModelIndexSnapshot> loadSnapshot(long exerciseId) {
+        Optional<Path> snapshotFile = getSnapshotFile(exerciseId);
+        if (snapshotFile.isEmpty() || !Files.exists(snapshotFile.get())) {
+            return Optional.empty();
+        }
+        try (InputStream inputStream = new GZIPInputStream(Files.newInputStream(snapshotFile.get()))) {
+            return Optional.of(ModelIndexSnapshot.readFrom(inputStream));
+        }
+        catch (IOException e) {
+            log.warn("Could not read the Compass snapshot of exercise " + exerciseId + ", all similarities are calculated again", e);
+            return Optional.empty();
+        }
+    }
 
-        assessAllAutomatically(calculationEngine.getModelIds(), exerciseId);
+    /**
+     * Store a snapshot of the given calculation engine. The snapshot is first written to a temporary file that replaces the previous snapshot afterwards.
+     *
+     * @param exerciseId        the id of the exercise the engine belongs to
+     * @param calculationEngine the calculation engine
+     */
+    private void storeSnapshot(long exerciseId, CalculationEngine calculationEngine) {
+        Optional<Path> snapshotFile = getSnapshotFile(exerciseId);
+        if (snapshotFile.isEmpty()) {
+            return;
+        }
+        Optional<ModelIndexSnapshot> snapshot = calculationEngine.createSnapshot();
+        if (snapshot.isEmpty()) {
+            log.debug("No consistent Compass snapshot available for exercise " + exerciseId);
+            return;
+        }
+        try {
+            Files.createDirectories(snapshotFile.get().getParent());
+            Path temporaryFile = Files.createTempFile(snapshotFile.get().getParent(), "exercise-" + exerciseId, ".tmp");
+            try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(temporaryFile))) {
+                snapshot.get().writeTo(outputStream);
+            }
+            Files.move(temporaryFile, snapshotFile.get(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException e) {
+            log.warn("Could not store the Compass snapshot of exercise " + exerciseId, e);
+        }
     }
 
     /**
@@ -558,12 +701,17 @@ public class CompassService {
 
     // Call every night at 2:00 am to free memory for unused calculation engines (older than 1 day)
     @Scheduled(cron = "0 0 2 * * *") // execute this every night at 2:00:00 am
-    private static void cleanUpCalculationEngines() {
-        LoggerFactory.getLogger(CompassService.class).info("Compass evaluates the need of keeping " + compassCalculationEngines.size() + " calculation engines in memory");
-        compassCalculationEngines = compassCalculationEngines.entrySet().stream()
-                .filter(map -> Duration.between(map.getValue().getLastUsedAt(), LocalDateTime.now()).toDays() < DAYS_TO_KEEP_UNUSED_ENGINE)
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
-        LoggerFactory.getLogger(CompassService.class).info("After evaluation, there are still " + compassCalculationEngines.size() + " calculation engines in memory");
+    public void cleanUpCalculationEngines() {
+        log.info("Compass evaluates the need of keeping " + compassCalculationEngines.size() + " calculation engines in memory");
+        compassCalculationEngines.entrySet().removeIf(entry -> {
+            if (Duration.between(entry.getValue().getLastUsedAt(), LocalDateTime.now()).toDays() < DAYS_TO_KEEP_UNUSED_ENGINE) {
+                return false;
+            }
+            // keep the similarity sets of the dropped engine, so that it can be reloaded quickly when it is needed again
+            storeSnapshot(entry.getKey(), entry.getValue());
+            return true;
+        });
+        log.info("After evaluation, there are still " + compassCalculationEngines.size() + " calculation engines in memory");
     }
 
     /**
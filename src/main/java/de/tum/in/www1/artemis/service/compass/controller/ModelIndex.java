@@ -23,10 +23,27 @@ public class ModelIndex {
 
     private Map<UMLElement, Integer> modelElementMapping;
 
+    /**
+     * Only used if candidate pruning is enabled, null otherwise
+     */
+    private SimilarityCandidateIndex candidateIndex;
+
     public ModelIndex() {
+        this(CompassConfiguration.SIMILARITY_CANDIDATE_PRUNING);
+    }
+
+    /**
+     * Create a new model index.
+     *
+     * @param useCandidatePruning if true, new elements are only compared with the unique elements that can possibly be similar, otherwise with all unique elements
+     */
+    public ModelIndex(boolean useCandidatePruning) {
         modelElementMapping = new ConcurrentHashMap<>();
         uniqueModelElementList = new ConcurrentLinkedQueue<>();
         modelMap = new ConcurrentHashMap<>();
+        if (useCandidatePruning) {
+            candidateIndex = new SimilarityCandidateIndex();
+        }
     }
 
     /**
@@ -44,7 +61,8 @@ public class ModelIndex {
         // Pair of similarity value and similarity ID
         var bestSimilarityFit = Pair.of(-1.0, -1);
 
-        for (final var knownElement : uniqueModelElementList) {
+        final Collection<UMLElement> candidates = candidateIndex != null ? candidateIndex.getCandidates(element) : uniqueModelElementList;
+        for (final var knownElement : candidates) {
             final var similarity = knownElement.similarity(element);
             if (similarity > CompassConfiguration.EQUALITY_THRESHOLD && similarity > bestSimilarityFit.getFirst()) {
                 // element is similar to existing element and has a higher similarity than another element
@@ -59,10 +77,37 @@ public class ModelIndex {
 
         // element does not fit already known element / similarity set
         uniqueModelElementList.add(element);
+        if (candidateIndex != null) {
+            candidateIndex.add(element);
+        }
         modelElementMapping.put(element, uniqueModelElementList.size() - 1);
         return uniqueModelElementList.size() - 1;
     }
 
+    /**
+     * Restore the similarity ID of a model element from a {@link ModelIndexSnapshot} without comparing it with the unique elements.
+     *
+     * @param element      the model element
+     * @param similarityId the similarity ID the element had when the snapshot was taken
+     */
+    void restoreSimilarityId(UMLElement element, int similarityId) {
+        modelElementMapping.put(element, similarityId);
+        element.setSimilarityID(similarityId);
+    }
+
+    /**
+     * Restore a unique element from a {@link ModelIndexSnapshot}. The unique elements have to be restored in the order of their similarity IDs after their similarity IDs have
+     * been restored.
+     *
+     * @param element the unique element representing the next similarity set
+     */
+    void restoreUniqueElement(UMLElement element) {
+        uniqueModelElementList.add(element);
+        if (candidateIndex != null) {
+            candidateIndex.add(element);
+        }
+    }
+
     /**
      * Add a new model to the model map.
      *
@@ -0,0 +1,216 @@
+package de.tum.in.www1.artemis.service.compass.controller;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.CRC32;
+
+import de.tum.in.www1.artemis.service.compass.umlmodel.UMLDiagram;
+import de.tum.in.www1.artemis.service.compass.umlmodel.UMLElement;
+
+/**
+ * Compact snapshot of the similarity sets of a {@link ModelIndex}. For every model it stores the similarity ID of each model element (referenced by its JSON element ID) and
+ * for every similarity set the element that represents it. After a restart, the models only have to be parsed again, the expensive similarity analysis can be skipped for all
+ * models that did not change since the snapshot was taken.
+ */
+public class ModelIndexSnapshot {
+
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * submission id -> fingerprint of the model of the submission at the time the snapshot was taken
+     */
+    private final Map<Long, Long> modelFingerprints;
+
+    /**
+     * submission id -> (JSON element id -> similarity id)
+     */
+    private final Map<Long, Map<String, Integer>> similarityIds;
+
+    /**
+     * the element representing each similarity set, the position in the list is the similarity id
+     */
+    private final List<ElementReference> uniqueElements;
+
+    private ModelIndexSnapshot(Map<Long, Long> modelFingerprints, Map<Long, Map<String, Integer>> similarityIds, List<ElementReference> uniqueElements) {
+        this.modelFingerprints = modelFingerprints;
+        this.similarityIds = similarityIds;
+        this.uniqueElements = uniqueElements;
+    }
+
+    /**
+     * Create a snapshot of the given model index.
+     *
+     * @param modelIndex        the model index containing all models and unique elements of an exercise
+     * @param modelFingerprints submission id -> fingerprint of the model the diagram in the model index was built from
+     * @return the snapshot or an empty optional if a unique element of the model index does not belong to one of the models
+     */
+    public static Optional<ModelIndexSnapshot> create(ModelIndex modelIndex, Map<Long, Long> modelFingerprints) {
+        Map<Long, Long> fingerprints = new HashMap<>();
+        Map<Long, Map<String, Integer>> similarityIds = new HashMap<>();
+        Map<UMLElement, ElementReference> references = new IdentityHashMap<>();
+
+        for (UMLDiagram model : modelIndex.getModelCollection()) {
+            Long fingerprint = modelFingerprints.get(model.getModelSubmissionId());
+            if (fingerprint == null) {
+                continue;
+            }
+            Map<String, Integer> similarityIdsOfModel = new HashMap<>();
+            for (UMLElement element : model.getAllModelElements()) {
+                similarityIdsOfModel.put(element.getJSONElementID(), element.getSimilarityID());
+                references.put(element, new ElementReference(model.getModelSubmissionId(), element.getJSONElementID()));
+            }
+            fingerprints.put(model.getModelSubmissionId(), fingerprint);
+            similarityIds.put(model.getModelSubmissionId(), similarityIdsOfModel);
+        }
+
+        List<ElementReference> uniqueElements = new ArrayList<>();
+        for (UMLElement uniqueElement : modelIndex.getUniqueElements()) {
+            ElementReference reference = references.get(uniqueElement);
+            if (reference == null) {
+                return Optional.empty();
+            }
+            uniqueElements.add(reference);
+        }
+        return Optional.of(new ModelIndexSnapshot(fingerprints, similarityIds, uniqueElements));
+    }
+
+    /**
+     * Restore the similarity sets of the snapshot into the given (empty) model index. The similarity IDs and contexts of the elements of all models that did not change since
+     * the snapshot was taken are set and the unique elements are registered in the model index. The models themselves are not added to the model index.
+     *
+     * @param modelIndex        the empty model index into which the similarity sets are restored
+     * @param models            submission id -> freshly parsed model
+     * @param modelFingerprints submission id -> fingerprint of the model the diagram was parsed from
+     * @return the submission ids of all models that were restored, or an empty set if the snapshot does not fit the given models and nothing was restored
+     */
+    public Set<Long> restore(ModelIndex modelIndex, Map<Long, UMLDiagram> models, Map<Long, Long> modelFingerprints) {
+        Set<Long> restorableModelIds = new HashSet<>();
+        for (Map.Entry<Long, UMLDiagram> entry : models.entrySet()) {
+            Long submissionId = entry.getKey();
+            if (Objects.equals(this.modelFingerprints.get(submissionId), modelFingerprints.get(submissionId))
+                    && hasSimilarityIdForAllElements(entry.getValue(), similarityIds.get(submissionId))) {
+                restorableModelIds.add(submissionId);
+            }
+        }
+
+        // every similarity set needs its unique element, otherwise the snapshot cannot be used at all
+        List<UMLElement> resolvedUniqueElements = new ArrayList<>(uniqueElements.size());
+        for (ElementReference reference : uniqueElements) {
+            if (!restorableModelIds.contains(reference.submissionId)) {
+                return Collections.emptySet();
+            }
+            resolvedUniqueElements.add(models.get(reference.submissionId).getElementByJSONID(reference.jsonElementId));
+        }
+
+        for (Long submissionId : restorableModelIds) {
+            UMLDiagram model = models.get(submissionId);
+            Map<String, Integer> similarityIdsOfModel = similarityIds.get(submissionId);
+            for (UMLElement element : model.getAllModelElements()) {
+                modelIndex.restoreSimilarityId(element, similarityIdsOfModel.get(element.getJSONElementID()));
+            }
+            SimilarityDetector.setContextOfModelElements(model);
+        }
+        resolvedUniqueElements.forEach(modelIndex::restoreUniqueElement);
+        return restorableModelIds;
+    }
+
+    private boolean hasSimilarityIdForAllElements(UMLDiagram model, Map<String, Integer> similarityIdsOfModel) {
+        if (similarityIdsOfModel == null) {
+            return false;
+        }
+        for (UMLElement element : model.getAllModelElements()) {
+            Integer similarityId = similarityIdsOfModel.get(element.getJSONElementID());
+            if (similarityId == null || similarityId < 0 || similarityId >= uniqueElements.size()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Calculate the fingerprint of a model that is used to detect whether the model changed since the snapshot was taken.
+     *
+     * @param model the model as JSON string
+     * @return the fingerprint of the model
+     */
+    public static long fingerprint(String model) {
+        CRC32 crc = new CRC32();
+        byte[] bytes = model.getBytes(StandardCharsets.UTF_8);
+        crc.update(bytes);
+        return ((long) bytes.length << 32) ^ crc.getValue();
+    }
+
+    /**
+     * Write the snapshot in a compact binary format to the given stream.
+     *
+     * @param outputStream the stream to write to, it is not closed
+     * @throws IOException if the snapshot could not be written
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        DataOutputStream output = new DataOutputStream(outputStream);
+        output.writeInt(FORMAT_VERSION);
+        output.writeInt(similarityIds.size());
+        for (Map.Entry<Long, Map<String, Integer>> entry : similarityIds.entrySet()) {
+            output.writeLong(entry.getKey());
+            output.writeLong(modelFingerprints.get(entry.getKey()));
+            output.writeInt(entry.getValue().size());
+            for (Map.Entry<String, Integer> element : entry.getValue().entrySet()) {
+                output.writeUTF(element.getKey());
+                output.writeInt(element.getValue());
+            }
+        }
+        output.writeInt(uniqueElements.size());
+        for (ElementReference reference : uniqueElements) {
+            output.writeLong(reference.submissionId);
+            output.writeUTF(reference.jsonElementId);
+        }
+        output.flush();
+    }
+
+    /**
+     * Read a snapshot that was written with {@link #writeTo(OutputStream)}.
+     *
+     * @param inputStream the stream to read from, it is not closed
+     * @return the snapshot
+     * @throws IOException if the snapshot could not be read or was written in an unknown format
+     */
+    public static ModelIndexSnapshot readFrom(InputStream inputStream) throws IOException {
+        DataInputStream input = new DataInputStream(inputStream);
+        int version = input.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unknown snapshot format version " + version);
+        }
+        int numberOfModels = input.readInt();
+        Map<Long, Long> modelFingerprints = new HashMap<>(numberOfModels * 2);
+        Map<Long, Map<String, Integer>> similarityIds = new HashMap<>(numberOfModels * 2);
+        for (int i = 0; i < numberOfModels; i++) {
+            long submissionId = input.readLong();
+            modelFingerprints.put(submissionId, input.readLong());
+            int numberOfElements = input.readInt();
+            Map<String, Integer> similarityIdsOfModel = new HashMap<>(numberOfElements * 2);
+            for (int j = 0; j < numberOfElements; j++) {
+                similarityIdsOfModel.put(input.readUTF(), input.readInt());
+            }
+            similarityIds.put(submissionId, similarityIdsOfModel);
+        }
+        int numberOfUniqueElements = input.readInt();
+        List<ElementReference> uniqueElements = new ArrayList<>(numberOfUniqueElements);
+        for (int i = 0; i < numberOfUniqueElements; i++) {
+            uniqueElements.add(new ElementReference(input.readLong(), input.readUTF()));
+        }
+        return new ModelIndexSnapshot(modelFingerprints, similarityIds, uniqueElements);
+    }
+
+    private static class ElementReference {
+
+        private final long submissionId;
+
+        private final String jsonElementId;
+
+        private ElementReference(long submissionId, String jsonElementId) {
+            this.submissionId = submissionId;
+            this.jsonElementId = jsonElementId;
+        }
+    }
+}
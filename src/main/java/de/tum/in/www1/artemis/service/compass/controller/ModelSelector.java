@@ -37,6 +37,18 @@ public class ModelSelector {
      */
     private Set<Long> alreadyHandledModels = ConcurrentHashMap.newKeySet();
 
+    /**
+     * The unhandled models the cached similarity sums currently refer to. The key is the ModelSubmission id.
+     */
+    private Map<Long, UMLDiagram> trackedUnhandledModels = new HashMap<>();
+
+    /**
+     * Cache for the sum of the similarities of a candidate model to all models in trackedUnhandledModels. It contains only models that have been a candidate before and is updated
+     * incrementally when models are added to or removed from the unhandled models, so that the mean similarity of a candidate does not have to be calculated again against all
+     * models on every selection. The key is the ModelSubmission id.
+     */
+    private Map<Long, Double> similaritySums = new HashMap<>();
+
     /**
      * Calculate the given number of models which would mean the biggest knowledge gain to support the automatic assessment process. The selected models are currently unassessed
      * and not queued for assessment (i.e. in alreadyHandledModels). Which models mean the biggest knowledge gain is decided based on the coverage and the mean similarity of the
@@ -46,7 +58,7 @@ public class ModelSelector {
      * @param numberOfModels the number of models that should be loaded
      * @return the ids of the models which should be assessed next by an assessor, or an empty list if there are no unhandled models
      */
-    public List<Long> selectNextModels(ModelIndex modelIndex, int numberOfModels) {
+    public synchronized List<Long> selectNextModels(ModelIndex modelIndex, int numberOfModels) {
         double threshold = 0.15;
         int maxCandidateListSize = 10;
 
@@ -57,8 +69,9 @@ public class ModelSelector {
                 unhandledModels.add(umlModel);
             }
         }
+        updateSimilaritySums(unhandledModels);
 
-        List<UMLDiagram> candidates = unhandledModels;
+        List<UMLDiagram> candidates = new ArrayList<>(unhandledModels);
         candidates.sort(Comparator.comparingDouble(UMLDiagram::getLastAssessmentCoverage));
         // Make sure that the candidate list is not too big
         if (!candidates.isEmpty()) {
@@ -99,7 +112,7 @@ public class ModelSelector {
     /**
      * Computes and returns the given number of candidate models with the highest mean similarity, i.e. for every model in the given list of candidate models, it calculates the
      * mean similarity compared to all models in the given list of unhandled models and sorts the candidate models according to the calculated mean similarity. I then returns the
-     * given number of candidate models with the highest mean similarity.
+     * given number of candidate models with the highest mean similarity. The similarity sums of the candidates are taken from the cache if possible.
      *
      * @param numberOfModels  the number of models that should be returned
      * @param candidates      the candidate models for which to calculate the mean similarity
@@ -116,11 +129,13 @@ public class ModelSelector {
         double epsilon = EPSILON;
 
         for (UMLDiagram candidate : candidates) {
-            double similarity = 0;
-
-            for (UMLDiagram model : unhandledModels) {
-                similarity += model.similarity(candidate);
-            }
+            double similarity = similaritySums.computeIfAbsent(candidate.getModelSubmissionId(), candidateId -> {
+                double similaritySum = 0;
+                for (UMLDiagram model : unhandledModels) {
+                    similaritySum += model.similarity(candidate);
+                }
+                return similaritySum;
+            });
 
             similarity /= unhandledModels.size();
             // We add a small amount to every similarity to prevent duplicates. E.g if all models are exactly the same, their similarity is exactly the same as well. This would
@@ -134,6 +149,53 @@ public class ModelSelector {
         return sortedSimilarityMap.values().stream().limit(numberOfModels).collect(Collectors.toList());
     }
 
+    /**
+     * Bring the cached similarity sums up to date with the given unhandled models. Only the similarities between the cached candidates and the models that have been added to or
+     * removed from the unhandled models since the last selection are calculated. Candidates that are not unhandled anymore are removed from the cache.
+     *
+     * @param unhandledModels all models that are currently not handled by the model selector
+     */
+    private void updateSimilaritySums(List<UMLDiagram> unhandledModels) {
+        Map<Long, UMLDiagram> currentUnhandledModels = new HashMap<>();
+        unhandledModels.forEach(model -> currentUnhandledModels.put(model.getModelSubmissionId(), model));
+
+        similaritySums.keySet().retainAll(currentUnhandledModels.keySet());
+
+        List<UMLDiagram> removedModels = new ArrayList<>();
+        trackedUnhandledModels.forEach((modelId, model) -> {
+            if (!currentUnhandledModels.containsKey(modelId)) {
+                removedModels.add(model);
+            }
+        });
+        List<UMLDiagram> addedModels = new ArrayList<>();
+        currentUnhandledModels.forEach((modelId, model) -> {
+            if (!trackedUnhandledModels.containsKey(modelId)) {
+                addedModels.add(model);
+            }
+        });
+
+        if (!removedModels.isEmpty() || !addedModels.isEmpty()) {
+            similaritySums.replaceAll((candidateId, similaritySum) -> {
+                UMLDiagram candidate = currentUnhandledModels.get(candidateId);
+                for (UMLDiagram model : removedModels) {
+                    similaritySum -= model.similarity(candidate);
+                }
+                for (UMLDiagram model : addedModels) {
+                    similaritySum += model.similarity(candidate);
+                }
+                return similaritySum;
+            });
+        }
+        trackedUnhandledModels = currentUnhandledModels;
+    }
+
+    /**
+     * @return a copy of the cached similarity sums of the candidates, mapped by the ModelSubmission id
+     */
+    synchronized Map<Long, Double> getSimilaritySums() {
+        return new HashMap<>(similaritySums);
+    }
+
     public List<Long> getModelsWaitingForAssessment() {
         return new ArrayList<>(modelsWaitingForAssessment);
     }
@@ -0,0 +1,148 @@
+package de.tum.in.www1.artemis.service.compass.controller;
+
+import static de.tum.in.www1.artemis.service.compass.utils.CompassConfiguration.*;
+
+import java.util.*;
+
+import de.tum.in.www1.artemis.service.compass.umlmodel.UMLElement;
+import de.tum.in.www1.artemis.service.compass.umlmodel.activitydiagram.UMLActivity;
+import de.tum.in.www1.artemis.service.compass.umlmodel.activitydiagram.UMLActivityNode;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLClass;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLPackage;
+
+/**
+ * Index over the unique elements of a {@link ModelIndex} that returns only those unique elements that can possibly have a similarity greater than
+ * {@link de.tum.in.www1.artemis.service.compass.utils.CompassConfiguration#EQUALITY_THRESHOLD} with a given element. The pruning is exact, i.e. every element that is skipped
+ * would not have been considered similar by the linear scan either:
+ *
+ * 1. Blocking: elements of a different Java class always have the similarity 0. For classes and activity nodes, the class type / node type is part of the blocking key as well,
+ * because elements with a different type can never reach the equality threshold.
+ * 2. Name length: for elements whose similarity is dominated by the Levenshtein ratio of their names, the ratio of two names with the lengths l1 <= l2 is at most 2 * l1 / (l1 +
+ * l2). Elements whose name length is too different to reach the required ratio are skipped.
+ *
+ * The candidates are returned in the order in which they were added, so that the best fit is chosen exactly like in the linear scan.
+ */
+class SimilarityCandidateIndex {
+
+    /**
+     * Bucket for elements without a name
+     */
+    private static final int NO_NAME = -1;
+
+    /**
+     * The Levenshtein ratio is rounded to whole percents, so it can be up to 0.005 higher than the exact ratio. We additionally subtract a small epsilon for floating point errors.
+     */
+    private static final double ROUNDING_TOLERANCE = 0.005 + 1e-9;
+
+    /**
+     * blocking key -> name length -> unique elements with this name length in insertion order
+     */
+    private final Map<String, NavigableMap<Integer, List<IndexedElement>>> buckets = new HashMap<>();
+
+    private int numberOfElements = 0;
+
+    /**
+     * Add a new unique element to the index.
+     *
+     * @param element the unique element
+     */
+    synchronized void add(UMLElement element) {
+        int nameLength = minimalNameSimilarity(element) != null ? nameLength(element) : 0;
+        buckets.computeIfAbsent(blockingKey(element), key -> new TreeMap<>()).computeIfAbsent(nameLength, length -> new ArrayList<>())
+                .add(new IndexedElement(numberOfElements++, element));
+    }
+
+    /**
+     * Get all unique elements that could be similar to the given element in the order in which they were added to the index.
+     *
+     * @param element the element for which the candidates should be retrieved
+     * @return the candidates that have to be compared with the given element
+     */
+    synchronized List<UMLElement> getCandidates(UMLElement element) {
+        NavigableMap<Integer, List<IndexedElement>> elementsByNameLength = buckets.get(blockingKey(element));
+        if (elementsByNameLength == null) {
+            return Collections.emptyList();
+        }
+
+        Collection<List<IndexedElement>> candidateLists;
+        Double minimalNameSimilarity = minimalNameSimilarity(element);
+        if (minimalNameSimilarity == null) {
+            candidateLists = elementsByNameLength.values();
+        }
+        else {
+            int nameLength = nameLength(element);
+            if (nameLength == NO_NAME) {
+                // an element without name is only similar to other elements without name
+                candidateLists = elementsByNameLength.subMap(NO_NAME, true, NO_NAME, true).values();
+            }
+            else {
+                double minimalRatio = minimalNameSimilarity - ROUNDING_TOLERANCE;
+                int minimalLength = Math.max(0, (int) Math.floor(minimalRatio * nameLength / (2 - minimalRatio)));
+                int maximalLength = (int) Math.ceil(nameLength * (2 - minimalRatio) / minimalRatio);
+                candidateLists = elementsByNameLength.subMap(minimalLength, true, maximalLength, true).values();
+            }
+        }
+
+        if (candidateLists.size() == 1) {
+            List<UMLElement> candidates = new ArrayList<>();
+            candidateLists.iterator().next().forEach(indexedElement -> candidates.add(indexedElement.element));
+            return candidates;
+        }
+        List<IndexedElement> indexedCandidates = new ArrayList<>();
+        candidateLists.forEach(indexedCandidates::addAll);
+        indexedCandidates.sort(Comparator.comparingInt(indexedElement -> indexedElement.position));
+        List<UMLElement> candidates = new ArrayList<>(indexedCandidates.size());
+        indexedCandidates.forEach(indexedElement -> candidates.add(indexedElement.element));
+        return candidates;
+    }
+
+    private String blockingKey(UMLElement element) {
+        if (element instanceof UMLClass && CLASS_NAME_WEIGHT <= EQUALITY_THRESHOLD) {
+            // without the same class type, the similarity of two classes is at most CLASS_NAME_WEIGHT
+            return element.getClass().getName() + "#" + element.getType();
+        }
+        if (element instanceof UMLActivityNode) {
+            // activity nodes of different types always have the similarity 0
+            return element.getClass().getName() + "#" + element.getType();
+        }
+        return element.getClass().getName();
+    }
+
+    /**
+     * Get the minimal Levenshtein ratio of the names that two elements of the type of the given element need to have a similarity greater than the equality threshold.
+     *
+     * @param element the element
+     * @return the minimal name similarity or null if the similarity of the element type is not determined by the name
+     */
+    private Double minimalNameSimilarity(UMLElement element) {
+        double minimalNameSimilarity;
+        if (element instanceof UMLClass) {
+            minimalNameSimilarity = (EQUALITY_THRESHOLD - CLASS_TYPE_WEIGHT) / CLASS_NAME_WEIGHT;
+        }
+        else if (element instanceof UMLPackage || element instanceof UMLActivity || element instanceof UMLActivityNode) {
+            minimalNameSimilarity = EQUALITY_THRESHOLD;
+        }
+        else {
+            return null;
+        }
+        // without a positive lower bound, the name length does not allow to skip any element
+        return minimalNameSimilarity - ROUNDING_TOLERANCE > 0 ? minimalNameSimilarity : null;
+    }
+
+    private int nameLength(UMLElement element) {
+        String name = element.getName();
+        return name != null ? name.length() : NO_NAME;
+    }
+
+    private static class IndexedElement {
+
+        private final int position;
+
+        private final UMLElement element;
+
+        private IndexedElement(int position, UMLElement element) {
+            this.position = position;
+            this.element = element;
+        }
+    }
+}
@@ -30,7 +30,7 @@ public class SimilarityDetector {
      *
      * @param model the model containing the model elements for which the context should be set
      */
-    private static void setContextOfModelElements(UMLDiagram model) {
+    static void setContextOfModelElements(UMLDiagram model) {
         Context context;
 
         for (UMLElement element : model.getAllModelElements()) {
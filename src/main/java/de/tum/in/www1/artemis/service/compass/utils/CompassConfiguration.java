@@ -43,6 +43,10 @@ public class CompassConfiguration {
     // TODO CZ: decrease equality threshold again in the future
     public final static double EQUALITY_THRESHOLD = 0.95;
 
+    // If enabled, the model index only compares a new element with the unique elements that can possibly reach the EQUALITY_THRESHOLD (same element type and similar name
+    // length) instead of scanning all unique elements. Both variants produce the same similarity IDs.
+    public final static boolean SIMILARITY_CANDIDATE_PRUNING = true;
+
     // Threshold used for re-assessing poorly assessed models. If the confidence for a model is smaller than this threshold the model is send to the client for re-assessment.
     /* CURRENTLY DISABLED */
     public final static double POORLY_ASSESSED_MODEL_THRESHOLD = 0.8;
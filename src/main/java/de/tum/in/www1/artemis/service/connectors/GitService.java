@@ -8,11 +8,17 @@ import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
@@ -27,6 +33,8 @@ import org.eclipse.jgit.api.ResetCommand;
 import org.eclipse.jgit.api.Status;
 import org.eclipse.jgit.api.errors.GitAPIException;
 import org.eclipse.jgit.api.errors.JGitInternalException;
+import org.eclipse.jgit.lib.BranchTrackingStatus;
+import org.eclipse.jgit.lib.Constants;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.revwalk.RevCommit;
@@ -37,6 +45,7 @@ import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -45,6 +54,10 @@ import de.tum.in.www1.artemis.domain.participation.ProgrammingExerciseParticipat
 import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
 import de.tum.in.www1.artemis.exception.GitException;
 import de.tum.in.www1.artemis.web.rest.errors.EntityNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 @Service
 public class GitService {
@@ -66,15 +79,127 @@ public class GitService {
     @Value("${artemis.git.email}")
     private String ARTEMIS_GIT_EMAIL;
 
-    private final Map<Path, Repository> cachedRepositories = new ConcurrentHashMap<>();
+    /**
+     * Whether the working copies of repositories that are evicted from the cache because they have not been used for a long time are deleted from the disk
+     */
+    @Value("${artemis.git.repository-cache.delete-idle-working-copies:false}")
+    private boolean deleteIdleWorkingCopies;
+
+    private final RepositoryCache cachedRepositories;
+
+    private final Counter repositoryCacheHits;
+
+    private final Counter repositoryCacheMisses;
 
-    private final Map<Path, Path> cloneInProgressOperations = new ConcurrentHashMap<>();
+    private final Counter repositoryCacheEvictions;
 
-    public GitService() {
+    /**
+     * Clone operations that are currently in progress. Concurrent callers for the same repository wait for the same future instead of cloning the repository again.
+     */
+    private final Map<Path, CompletableFuture<Repository>> cloneInProgressOperations = new ConcurrentHashMap<>();
+
+    /**
+     * Limits the number of clone and pull operations that are executed at the same time
+     */
+    private final Semaphore remoteOperationPermits;
+
+    private final AtomicInteger waitingRemoteOperations = new AtomicInteger();
+
+    private final Timer cloneTimer;
+
+    private final Timer pullTimer;
+
+    public GitService(MeterRegistry meterRegistry, @Value("${artemis.git.max-concurrent-remote-operations:10}") int maxConcurrentRemoteOperations,
+            @Value("${artemis.git.repository-cache.max-size:1000}") int repositoryCacheMaxSize,
+            @Value("${artemis.git.repository-cache.max-idle-minutes:60}") long repositoryCacheMaxIdleMinutes) {
         log.info("file.encoding=" + System.getProperty("file.encoding"));
         log.info("sun.jnu.encoding=" + System.getProperty("sun.jnu.encoding"));
         log.info("Default Charset=" + Charset.defaultCharset());
         log.info("Default Charset in Use=" + new OutputStreamWriter(new ByteArrayOutputStream()).getEncoding());
+
+        this.remoteOperationPermits = new Semaphore(Math.max(1, maxConcurrentRemoteOperations), true);
+        this.cloneTimer = Timer.builder("artemis.git.clone").description("Duration of cloning a repository, without the time waiting for a free slot").register(meterRegistry);
+        this.pullTimer = Timer.builder("artemis.git.pull").description("Duration of pulling a repository on checkout, without the time waiting for a free slot")
+                .register(meterRegistry);
+        Gauge.builder("artemis.git.remote_operations.waiting", waitingRemoteOperations, AtomicInteger::get)
+                .description("Number of clone and pull operations waiting for a free slot").register(meterRegistry);
+        Gauge.builder("artemis.git.clones.in_progress", cloneInProgressOperations, Map::size).description("Number of repositories that are currently cloned")
+                .register(meterRegistry);
+
+        this.cachedRepositories = new RepositoryCache(repositoryCacheMaxSize, Duration.ofMinutes(repositoryCacheMaxIdleMinutes), this::onRepositoryEvicted);
+        this.repositoryCacheHits = Counter.builder("artemis.git.repository_cache.hits").description("Number of repositories retrieved from the repository cache")
+                .register(meterRegistry);
+        this.repositoryCacheMisses = Counter.builder("artemis.git.repository_cache.misses").description("Number of repositories that had to be opened from the disk")
+                .register(meterRegistry);
+        this.repositoryCacheEvictions = Counter.builder("artemis.git.repository_cache.evictions").description("Number of repositories evicted from the repository cache")
+                .register(meterRegistry);
+        Gauge.builder("artemis.git.repository_cache.size", cachedRepositories, RepositoryCache::size).description("Number of repositories in the repository cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Evicts all repositories from the cache that have not been used within the configured idle time, so that their file handles are released.
+     */
+    @Scheduled(fixedDelay = 5 * 60 * 1000, initialDelay = 5 * 60 * 1000)
+    public void evictIdleRepositories() {
+        int numberOfEvictedRepositories = cachedRepositories.evictIdleRepositories();
+        if (numberOfEvictedRepositories > 0) {
+            log.info("Evicted " + numberOfEvictedRepositories + " idle repositories from the repository cache");
+        }
+    }
+
+    /**
+     * Closes a repository that has been evicted from the cache. If configured, the working copies of idle repositories in the default clone path are deleted, as long as they
+     * do not contain uncommitted changes or commits that have not been pushed. Leased repositories are never evicted, and the working copy is only deleted if the repository has
+     * neither been leased nor opened again in the meantime.
+     *
+     * @param repository the evicted repository
+     * @param reason     why the repository was evicted
+     */
+    private void onRepositoryEvicted(Repository repository, RepositoryCache.EvictionReason reason) {
+        repositoryCacheEvictions.increment();
+        Path localPath = repository.getLocalPath();
+        boolean deleteWorkingCopy = deleteIdleWorkingCopies && reason == RepositoryCache.EvictionReason.IDLE && localPath != null
+                && localPath.toAbsolutePath().normalize().startsWith(Paths.get(REPO_CLONE_PATH).toAbsolutePath().normalize());
+        try {
+            // never delete uncommitted or unpushed changes of a student
+            deleteWorkingCopy = deleteWorkingCopy && isClean(repository) && !hasUnpushedCommits(repository);
+        }
+        catch (GitAPIException | IOException | RuntimeException e) {
+            log.warn("Could not determine the status of the evicted repository at " + localPath + ": " + e.getMessage());
+            deleteWorkingCopy = false;
+        }
+        // JGit only closes the repository once all leases have been released
+        repository.close();
+        if (deleteWorkingCopy && cachedRepositories.startDeletion(localPath, repository)) {
+            try {
+                FileUtils.deleteDirectory(localPath.toFile());
+                log.debug("Deleted idle working copy at " + localPath);
+            }
+            catch (IOException e) {
+                log.warn("Could not delete the idle working copy at " + localPath + ": " + e.getMessage());
+            }
+            finally {
+                cachedRepositories.finishDeletion(localPath);
+            }
+        }
+    }
+
+    /**
+     * Checks if a local branch of the repository contains commits that are not on its remote tracking branch.
+     *
+     * @param repo Local Repository Object.
+     * @return true if a local branch is ahead of its remote tracking branch or does not have one
+     * @throws IOException if the branches could not be read
+     */
+    private boolean hasUnpushedCommits(Repository repo) throws IOException {
+        for (Ref branch : repo.getRefDatabase().getRefsByPrefix(Constants.R_HEADS)) {
+            BranchTrackingStatus trackingStatus = BranchTrackingStatus.of(repo, branch.getName());
+            if (trackingStatus == null || trackingStatus.getAheadCount() > 0) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -139,49 +264,117 @@ public class GitService {
         Repository repository = getRepositoryByLocalPath(localPath);
         if (repository != null) {
             if (pullOnGet) {
-                pull(repository);
+                executeRemoteOperation(pullTimer, () -> pull(repository));
             }
             return repository;
         }
         // If the git repository can't be found on our server, clone it from the remote.
-        else {
-            int numberOfAttempts = 5;
-            // Make sure that multiple clone operations for the same repository cannot happen at the same time.
-            while (cloneInProgressOperations.containsKey(localPath)) {
-                log.warn("Clone is already in progress. This will lead to an error. Wait for a second");
-                Thread.sleep(1000);
-                if (numberOfAttempts == 0) {
-                    throw new GitException("Cannot clone the same repository multiple times");
-                }
-                else {
-                    numberOfAttempts--;
-                }
-            }
-            // Clone repository.
-            try {
-                log.debug("Cloning from " + repoUrl + " to " + localPath);
-                cloneInProgressOperations.put(localPath, localPath);
-                Git result = Git.cloneRepository().setURI(repoUrl.toString()).setCredentialsProvider(new UsernamePasswordCredentialsProvider(GIT_USER, GIT_PASSWORD))
-                        .setDirectory(localPath.toFile()).call();
-                result.close();
-            }
-            catch (GitAPIException | RuntimeException e) {
-                log.error("Exception during clone " + e);
-                // cleanup the folder to avoid problems in the future
-                localPath.toFile().delete();
-                throw new GitException(e);
+        // Make sure that multiple clone operations for the same repository cannot happen at the same time: the first caller clones, all others wait for its result.
+        CompletableFuture<Repository> cloneOperation = new CompletableFuture<>();
+        CompletableFuture<Repository> cloneInProgress = cloneInProgressOperations.putIfAbsent(localPath, cloneOperation);
+        if (cloneInProgress != null) {
+            log.debug("Clone of " + repoUrl + " is already in progress, wait for it to finish");
+            return awaitClone(cloneInProgress);
+        }
+        try {
+            // the repository might have been cloned by another caller between the first check and the registration of the clone operation
+            Repository clonedRepository = getRepositoryByLocalPath(localPath);
+            if (clonedRepository == null) {
+                clonedRepository = executeRemoteOperation(cloneTimer, () -> cloneRepository(repoUrl, localPath));
             }
-            finally {
-                // make sure that cloneInProgress is released
-                cloneInProgressOperations.remove(localPath);
+            cloneOperation.complete(clonedRepository);
+            return clonedRepository;
+        }
+        catch (Throwable e) {
+            // also inform the waiting callers about the failure
+            cloneOperation.completeExceptionally(e);
+            throw e;
+        }
+        finally {
+            // make sure that cloneInProgress is released
+            cloneInProgressOperations.remove(localPath, cloneOperation);
+        }
+    }
+
+    /**
+     * Clones the remote repository into the given local path.
+     *
+     * @param repoUrl   The remote repository.
+     * @param localPath path where the repo should be located on disk
+     * @return the cloned repository
+     */
+    private Repository cloneRepository(URL repoUrl, Path localPath) {
+        try {
+            log.debug("Cloning from " + repoUrl + " to " + localPath);
+            Git result = Git.cloneRepository().setURI(repoUrl.toString()).setCredentialsProvider(new UsernamePasswordCredentialsProvider(GIT_USER, GIT_PASSWORD))
+                    .setDirectory(localPath.toFile()).call();
+            result.close();
+        }
+        catch (GitAPIException | RuntimeException e) {
+            log.error("Exception during clone " + e);
+            // cleanup the folder to avoid problems in the future
+            localPath.toFile().delete();
+            throw new GitException(e);
+        }
+        return getRepositoryByLocalPath(localPath);
+    }
+
+    /**
+     * Waits until the clone operation of another caller is finished.
+     *
+     * @param cloneOperation the clone operation of the other caller
+     * @return the cloned repository
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    private Repository awaitClone(CompletableFuture<Repository> cloneOperation) throws InterruptedException {
+        try {
+            return cloneOperation.get();
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof GitException) {
+                throw (GitException) e.getCause();
             }
-            return getRepositoryByLocalPath(localPath);
+            throw new GitException(e.getCause());
         }
     }
 
+    /**
+     * Executes an operation on a remote repository (e.g. clone or pull). Only a limited number of these operations are executed at the same time, all others wait for a free slot.
+     *
+     * @param timer     the timer which records the duration of the operation
+     * @param operation the operation
+     * @param <T>       the result type of the operation
+     * @return the result of the operation
+     * @throws InterruptedException if the thread was interrupted while waiting for a free slot
+     * @throws GitAPIException if the operation failed
+     */
+    private <T> T executeRemoteOperation(Timer timer, RemoteOperation<T> operation) throws InterruptedException, GitAPIException {
+        waitingRemoteOperations.incrementAndGet();
+        try {
+            remoteOperationPermits.acquire();
+        }
+        finally {
+            waitingRemoteOperations.decrementAndGet();
+        }
+        Timer.Sample sample = Timer.start();
+        try {
+            return operation.execute();
+        }
+        finally {
+            sample.stop(timer);
+            remoteOperationPermits.release();
+        }
+    }
+
+    @FunctionalInterface
+    private interface RemoteOperation<T> {
+
+        T execute() throws GitAPIException;
+    }
+
     /**
      * Get a git repository that is checked out on the server. Throws immediately an exception if the localPath does not exist. Will first try to retrieve a cached repository from
-     * cachedRepositories. Side effect: This method caches retrieved repositories in a HashMap, so continuous retrievals can be avoided (reduces load).
+     * cachedRepositories. Side effect: This method caches retrieved repositories in a bounded LRU cache, so continuous retrievals can be avoided (reduces load).
      *
      * @param localPath to git repo on server.
      * @return the git repository in the localPath or null if it does not exist on the server.
@@ -196,8 +389,10 @@ public class GitService {
         // Check if the repository is already cached in the server's session.
         Repository cachedRepository = cachedRepositories.get(localPath);
         if (cachedRepository != null) {
+            repositoryCacheHits.increment();
             return cachedRepository;
         }
+        repositoryCacheMisses.increment();
         // Else try to retrieve the git repository from our server. It could e.g. be the case that the folder is there, but there is no .git folder in it!
         try {
             // Open the repository from the filesystem
@@ -211,8 +406,13 @@ public class GitService {
             repository.getConfig().setString("gc", null, "auto", "0");
             // Cache the JGit repository object for later use
             // Avoids the expensive re-opening of local repositories
-            cachedRepositories.put(localPath, repository);
-            return repository;
+            Repository cachedByOtherThread = cachedRepositories.putIfAbsent(localPath, repository);
+            // null if the idle working copy has been deleted in the meantime
+            if (cachedByOtherThread != repository) {
+                // another thread opened the same repository in the meantime, use its instance
+                repository.close();
+            }
+            return cachedByOtherThread;
         }
         catch (IOException ex) {
             return null;
@@ -227,9 +427,9 @@ public class GitService {
      * @throws GitAPIException if the commit failed.
      */
     public void commit(Repository repo, String message) throws GitAPIException {
-        Git git = new Git(repo);
-        git.commit().setMessage(message).setAllowEmpty(true).setCommitter(ARTEMIS_GIT_NAME, ARTEMIS_GIT_EMAIL).call();
-        git.close();
+        try (Git git = leaseGit(repo)) {
+            git.commit().setMessage(message).setAllowEmpty(true).setCommitter(ARTEMIS_GIT_NAME, ARTEMIS_GIT_EMAIL).call();
+        }
     }
 
     /**
@@ -243,10 +443,10 @@ public class GitService {
     public void commitAndPush(Repository repo, String message, @Nullable User user) throws GitAPIException {
         var name = user != null ? user.getName() : ARTEMIS_GIT_NAME;
         var email = user != null ? user.getEmail() : ARTEMIS_GIT_EMAIL;
-        Git git = new Git(repo);
-        git.commit().setMessage(message).setAllowEmpty(true).setCommitter(name, email).call();
-        git.push().setCredentialsProvider(new UsernamePasswordCredentialsProvider(GIT_USER, GIT_PASSWORD)).call();
-        git.close();
+        try (Git git = leaseGit(repo)) {
+            git.commit().setMessage(message).setAllowEmpty(true).setCommitter(name, email).call();
+            git.push().setCredentialsProvider(new UsernamePasswordCredentialsProvider(GIT_USER, GIT_PASSWORD)).call();
+        }
     }
 
     /**
@@ -256,12 +456,12 @@ public class GitService {
      * @throws GitAPIException if the staging failed.
      */
     public void stageAllChanges(Repository repo) throws GitAPIException {
-        Git git = new Git(repo);
-        // stage deleted files: http://stackoverflow.com/a/35601677/4013020
-        git.add().setUpdate(true).addFilepattern(".").call();
-        // stage new files
-        git.add().addFilepattern(".").call();
-        git.close();
+        try (Git git = leaseGit(repo)) {
+            // stage deleted files: http://stackoverflow.com/a/35601677/4013020
+            git.add().setUpdate(true).addFilepattern(".").call();
+            // stage new files
+            git.add().addFilepattern(".").call();
+        }
     }
 
     /**
@@ -272,9 +472,9 @@ public class GitService {
      * @throws GitAPIException if the reset failed.
      */
     public void reset(Repository repo, String ref) throws GitAPIException {
-        Git git = new Git(repo);
-        git.reset().setMode(ResetCommand.ResetType.HARD).setRef(ref).call();
-        git.close();
+        try (Git git = leaseGit(repo)) {
+            git.reset().setMode(ResetCommand.ResetType.HARD).setRef(ref).call();
+        }
     }
 
     /**
@@ -284,9 +484,9 @@ public class GitService {
      * @throws GitAPIException if the fetch failed.
      */
     public void fetchAll(Repository repo) throws GitAPIException {
-        Git git = new Git(repo);
-        git.fetch().setForceUpdate(true).setRemoveDeletedRefs(true).setCredentialsProvider(new UsernamePasswordCredentialsProvider(GIT_USER, GIT_PASSWORD)).call();
-        git.close();
+        try (Git git = leaseGit(repo)) {
+            git.fetch().setForceUpdate(true).setRemoveDeletedRefs(true).setCredentialsProvider(new UsernamePasswordCredentialsProvider(GIT_USER, GIT_PASSWORD)).call();
+        }
     }
 
     /**
@@ -295,8 +495,7 @@ public class GitService {
      * @param repo Local Repository Object.
      */
     public void pullIgnoreConflicts(Repository repo) {
-        try {
-            Git git = new Git(repo);
+        try (Git git = leaseGit(repo)) {
             // flush cache of files
             repo.setContent(null);
             git.pull().setCredentialsProvider(new UsernamePasswordCredentialsProvider(GIT_USER, GIT_PASSWORD)).call();
@@ -315,10 +514,11 @@ public class GitService {
      * @throws GitAPIException if the pull failed.
      */
     public PullResult pull(Repository repo) throws GitAPIException {
-        Git git = new Git(repo);
-        // flush cache of files
-        repo.setContent(null);
-        return git.pull().setCredentialsProvider(new UsernamePasswordCredentialsProvider(GIT_USER, GIT_PASSWORD)).call();
+        try (Git git = leaseGit(repo)) {
+            // flush cache of files
+            repo.setContent(null);
+            return git.pull().setCredentialsProvider(new UsernamePasswordCredentialsProvider(GIT_USER, GIT_PASSWORD)).call();
+        }
     }
 
     /**
@@ -342,10 +542,8 @@ public class GitService {
      * @param repo Local Repository Object.
      */
     public void checkoutBranch(Repository repo) {
-        try {
-            Git git = new Git(repo);
+        try (Git git = leaseGit(repo)) {
             git.checkout().setForceRefUpdate(true).setName("master").call();
-            git.close();
         }
         catch (GitAPIException ex) {
             log.error("Cannot checkout branch in repo " + repo.getLocalPath() + " due to the following exception: " + ex);
@@ -359,10 +557,8 @@ public class GitService {
      * @param branch to delete from the repo.
      */
     public void deleteLocalBranch(Repository repo, String branch) {
-        try {
-            Git git = new Git(repo);
+        try (Git git = leaseGit(repo)) {
             git.branchDelete().setBranchNames(branch).setForce(true).call();
-            git.close();
         }
         catch (GitAPIException ex) {
             log.error("Cannot remove branch " + branch + " from the repo " + repo.getLocalPath() + " due to the following exception: " + ex);
@@ -411,9 +607,7 @@ public class GitService {
             return;
         }
 
-        try {
-            Git git = new Git(repository);
-
+        try (Git git = leaseGit(repository)) {
             String commitHash;
 
             if (lastValidSubmission.isPresent()) {
@@ -433,8 +627,6 @@ public class GitService {
             }
             log.debug("Last commit hash is {}", commitHash);
 
-            git.close();
-
             reset(repository, commitHash);
         }
         catch (GitAPIException | JGitInternalException ex) {
@@ -449,8 +641,7 @@ public class GitService {
      * @param programmingExercise   ProgrammingExercise associated with this repo.
      */
     public void combineAllStudentCommits(Repository repository, ProgrammingExercise programmingExercise) {
-        try {
-            Git studentGit = new Git(repository);
+        try (Git studentGit = leaseGit(repository)) {
             // Get last commit hash from template repo
             ObjectId latestHash = getLastCommitHash(programmingExercise.getTemplateRepositoryUrlAsUrl());
 
@@ -560,9 +751,29 @@ public class GitService {
      * @throws GitAPIException if the state of the repository could not be retrieved.
      */
     public Boolean isClean(Repository repo) throws GitAPIException {
-        Git git = new Git(repo);
-        Status status = git.status().call();
-        return status.isClean();
+        try (Git git = leaseGit(repo)) {
+            Status status = git.status().call();
+            return status.isClean();
+        }
+    }
+
+    /**
+     * Create a Git object for an operation on the repository. The repository is leased from the repository cache until the Git object is closed, so that it is neither closed
+     * nor deleted because of an eviction in the meantime.
+     *
+     * @param repo Local Repository Object.
+     * @return the Git object, which has to be closed after the operation
+     */
+    private Git leaseGit(Repository repo) {
+        RepositoryCache.Lease lease = cachedRepositories.lease(repo);
+        return new Git(repo) {
+
+            @Override
+            public void close() {
+                super.close();
+                lease.close();
+            }
+        };
     }
 
     /**
@@ -573,8 +784,7 @@ public class GitService {
      * @throws IllegalStateException if there is no commit in the git repository.
      */
     public void combineAllCommitsIntoInitialCommit(Repository repo) throws IllegalStateException, GitAPIException {
-        Git git = new Git(repo);
-        try {
+        try (Git git = leaseGit(repo)) {
             resetToOriginMaster(repo);
             List<RevCommit> commits = StreamSupport.stream(git.log().call().spliterator(), false).collect(Collectors.toList());
             RevCommit firstCommit = commits.get(commits.size() - 1);
@@ -584,7 +794,6 @@ public class GitService {
                 git.add().addFilepattern(".").call();
                 git.commit().setAmend(true).setMessage(firstCommit.getFullMessage()).call();
                 git.push().setForce(true).setCredentialsProvider(new UsernamePasswordCredentialsProvider(GIT_USER, GIT_PASSWORD)).call();
-                git.close();
             }
             else {
                 // Normally there always has to be a commit, so we throw an error in case none can be found.
@@ -693,29 +902,52 @@ public class GitService {
      * @return path to zip file.
      */
     public Path zipRepository(Repository repo, String targetPath) throws IOException {
+        String zipRepoName = getExportNameForRepository(repo) + ".zip";
+        Path zipFilePath = Paths.get(targetPath, "zippedRepos", zipRepoName);
+        Files.createDirectories(Paths.get(targetPath, "zippedRepos"));
+        try (ZipOutputStream zs = new ZipOutputStream(Files.newOutputStream(zipFilePath))) {
+            addRepositoryToZip(repo, zs, "");
+        }
+        return zipFilePath;
+    }
+
+    /**
+     * Get the name under which the given repository is exported, i.e. the short name of the course followed by the last component of the repository url.
+     *
+     * @param repo Local Repository Object.
+     * @return the name of the repository for exports
+     */
+    public String getExportNameForRepository(Repository repo) {
         String[] repositoryUrlComponents = repo.getParticipation().getRepositoryUrl().split(File.separator);
         ProgrammingExercise exercise = repo.getParticipation().getProgrammingExercise();
         String courseShortName = exercise.getCourseViaExerciseGroupOrCourseMember().getShortName().replaceAll("\\s", "");
         // take the last component
-        String zipRepoName = courseShortName + "-" + repositoryUrlComponents[repositoryUrlComponents.length - 1] + ".zip";
+        return courseShortName + "-" + repositoryUrlComponents[repositoryUrlComponents.length - 1];
+    }
 
+    /**
+     * Writes all files of the given repository to the given zip output stream.
+     *
+     * @param repo            Local Repository Object.
+     * @param zipOutputStream the stream to which the files are written, it is not closed
+     * @param entryPrefix     the prefix of every zip entry, e.g. the name of the folder in the zip file in which the files should be stored (including the trailing slash)
+     * @throws IOException if the repository could not be read
+     */
+    public void addRepositoryToZip(Repository repo, ZipOutputStream zipOutputStream, String entryPrefix) throws IOException {
         Path repoPath = repo.getLocalPath();
-        Path zipFilePath = Paths.get(targetPath, "zippedRepos", zipRepoName);
-        Files.createDirectories(Paths.get(targetPath, "zippedRepos"));
-        try (ZipOutputStream zs = new ZipOutputStream(Files.newOutputStream(zipFilePath))) {
-            Files.walk(repoPath).filter(path -> !Files.isDirectory(path)).forEach(path -> {
-                ZipEntry zipEntry = new ZipEntry(repoPath.relativize(path).toString());
+        try (RepositoryCache.Lease lease = cachedRepositories.lease(repo); Stream<Path> files = Files.walk(repoPath)) {
+            files.filter(path -> !Files.isDirectory(path)).forEach(path -> {
+                ZipEntry zipEntry = new ZipEntry(entryPrefix + repoPath.relativize(path).toString());
                 try {
-                    zs.putNextEntry(zipEntry);
-                    Files.copy(path, zs);
-                    zs.closeEntry();
+                    zipOutputStream.putNextEntry(zipEntry);
+                    Files.copy(path, zipOutputStream);
+                    zipOutputStream.closeEntry();
                 }
                 catch (Exception e) {
                     log.error("Create zip file error", e);
                 }
             });
         }
-        return zipFilePath;
     }
 
     /**
@@ -0,0 +1,264 @@
+package de.tum.in.www1.artemis.service.connectors;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.imsglobal.pox.IMSPOXRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import de.tum.in.www1.artemis.domain.LtiOutcomeUrl;
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.repository.ResultRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Sends the scores of LTI students to the outcome service of the LTI consumer (e.g. edX) in the background.
+ *
+ * Outcomes are queued per student and exercise and sent after the flush interval, so that several results of the same student in quick succession (e.g. multiple pushes) only
+ * lead to one request with the latest score. The score is read from the database when the outcome is sent. Failed requests are queued again with exponential backoff until the
+ * maximum number of attempts is reached, a newer outcome of the student replaces the failed one. Outcomes that are still queued when Artemis shuts down are lost, they are sent
+ * with the next result of the student.
+ *
+ * The size of the queue and the number of sent, failed, retried and coalesced outcomes are exported as artemis.lti.outcomes metrics.
+ */
+@Service
+public class LtiOutcomeReporter {
+
+    private final Logger log = LoggerFactory.getLogger(LtiOutcomeReporter.class);
+
+    private final ResultRepository resultRepository;
+
+    private final String oauthKey;
+
+    private final String oauthSecret;
+
+    private final int maxAttempts;
+
+    private final long retryBackoffMillis;
+
+    /**
+     * user id and exercise id -> outcome that waits to be sent
+     */
+    private final Map<String, PendingOutcome> pendingOutcomes = new ConcurrentHashMap<>();
+
+    /**
+     * keys of the outcomes that are currently sent, a newer outcome of the same student waits until the request is finished so that the scores arrive in order
+     */
+    private final Set<String> outcomesInFlight = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService flushScheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private final ExecutorService senders;
+
+    private final CloseableHttpClient httpClient;
+
+    private final Counter sentCounter;
+
+    private final Counter failedCounter;
+
+    private final Counter retriedCounter;
+
+    private final Counter coalescedCounter;
+
+    private final Timer sendTimer;
+
+    public LtiOutcomeReporter(ResultRepository resultRepository, MeterRegistry meterRegistry, @Value("${artemis.lti.oauth-key}") String oauthKey,
+            @Value("${artemis.lti.oauth-secret}") String oauthSecret, @Value("${artemis.lti.outcome-reporting.flush-interval-ms:2000}") long flushIntervalMillis,
+            @Value("${artemis.lti.outcome-reporting.threads:4}") int threads, @Value("${artemis.lti.outcome-reporting.max-attempts:5}") int maxAttempts,
+            @Value("${artemis.lti.outcome-reporting.retry-backoff-ms:5000}") long retryBackoffMillis,
+            @Value("${artemis.lti.outcome-reporting.timeout-ms:10000}") int timeoutMillis) {
+        this.resultRepository = resultRepository;
+        this.oauthKey = oauthKey;
+        this.oauthSecret = oauthSecret;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoffMillis = Math.max(0, retryBackoffMillis);
+        this.senders = Executors.newFixedThreadPool(Math.max(1, threads));
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(Math.max(1, threads));
+        connectionManager.setDefaultMaxPerRoute(Math.max(1, threads));
+        connectionManager.setValidateAfterInactivity(2000);
+        RequestConfig requestConfig = RequestConfig.custom().setConnectTimeout(timeoutMillis).setSocketTimeout(timeoutMillis).setConnectionRequestTimeout(timeoutMillis).build();
+        // failed requests are retried with a new OAuth signature by this class
+        this.httpClient = HttpClients.custom().setConnectionManager(connectionManager).setDefaultRequestConfig(requestConfig).disableAutomaticRetries()
+                .evictIdleConnections(60, TimeUnit.SECONDS).useSystemProperties().build();
+
+        Gauge.builder("artemis.lti.outcomes.pending", pendingOutcomes, Map::size).description("Number of LTI outcomes waiting to be sent").register(meterRegistry);
+        this.sentCounter = meterRegistry.counter("artemis.lti.outcomes", "result", "sent");
+        this.failedCounter = meterRegistry.counter("artemis.lti.outcomes", "result", "failed");
+        this.retriedCounter = meterRegistry.counter("artemis.lti.outcomes", "result", "retried");
+        this.coalescedCounter = meterRegistry.counter("artemis.lti.outcomes", "result", "coalesced");
+        this.sendTimer = Timer.builder("artemis.lti.outcomes.requests").description("Latency of the requests to the LTI outcome services").register(meterRegistry);
+
+        long interval = Math.max(100, flushIntervalMillis);
+        flushScheduler.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queue the latest score of the participation for the student of the given outcome url. An outcome of the student for the exercise that is still queued is replaced.
+     *
+     * @param ltiOutcomeUrl   the outcome url of the student for the exercise
+     * @param participationId the id of the participation of the student, its latest result is reported
+     */
+    public void enqueue(LtiOutcomeUrl ltiOutcomeUrl, Long participationId) {
+        String key = ltiOutcomeUrl.getUser().getId() + ";" + ltiOutcomeUrl.getExercise().getId();
+        PendingOutcome outcome = new PendingOutcome(ltiOutcomeUrl.getUrl(), ltiOutcomeUrl.getSourcedId(), participationId, 1, 0);
+        if (pendingOutcomes.put(key, outcome) != null) {
+            coalescedCounter.increment();
+        }
+    }
+
+    /**
+     * Hand all queued outcomes that are due to the senders, except for students whose previous outcome is still being sent
+     */
+    private void flush() {
+        try {
+            long now = System.currentTimeMillis();
+            for (Map.Entry<String, PendingOutcome> entry : pendingOutcomes.entrySet()) {
+                String key = entry.getKey();
+                if (entry.getValue().notBefore > now || !outcomesInFlight.add(key)) {
+                    continue;
+                }
+                PendingOutcome outcome = pendingOutcomes.remove(key);
+                if (outcome == null) {
+                    outcomesInFlight.remove(key);
+                    continue;
+                }
+                try {
+                    senders.execute(() -> send(key, outcome));
+                }
+                catch (RejectedExecutionException ex) {
+                    // Artemis shuts down
+                    outcomesInFlight.remove(key);
+                    return;
+                }
+            }
+        }
+        catch (Exception ex) {
+            // an exception would cancel the scheduled flushes
+            log.error("Flushing the LTI outcomes failed", ex);
+        }
+    }
+
+    private void send(String key, PendingOutcome outcome) {
+        try {
+            String score = getLatestScore(outcome.participationId);
+            log.info("Reporting score {} for participation {} to LTI consumer with outcome URL {} using the source id {} (attempt {})", score, outcome.participationId,
+                    outcome.url, outcome.sourcedId, outcome.attempt);
+            long start = System.nanoTime();
+            HttpPost request = IMSPOXRequest.buildReplaceResult(outcome.url, oauthKey, oauthSecret, outcome.sourcedId, score, null, false);
+            try (CloseableHttpResponse response = httpClient.execute(request)) {
+                sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                int statusCode = response.getStatusLine().getStatusCode();
+                String responseString = response.getEntity() != null ? EntityUtils.toString(response.getEntity()) : "";
+                if (statusCode >= 500) {
+                    retryOrFail(key, outcome, "status " + statusCode);
+                }
+                else if (statusCode >= 400) {
+                    failedCounter.increment();
+                    log.error("Reporting to LTI consumer failed with status {}: {}", statusCode, responseString);
+                }
+                else {
+                    sentCounter.increment();
+                    log.info("Response from LTI consumer: {}", responseString);
+                }
+            }
+        }
+        catch (IOException ex) {
+            retryOrFail(key, outcome, ex.getMessage());
+        }
+        catch (Exception ex) {
+            failedCounter.increment();
+            log.error("Reporting to LTI consumer failed: {}", ex, ex);
+        }
+        finally {
+            outcomesInFlight.remove(key);
+        }
+    }
+
+    private String getLatestScore(Long participationId) {
+        Optional<Result> latestResult = resultRepository.findFirstByParticipationIdOrderByCompletionDateDesc(participationId);
+        if (latestResult.isPresent() && latestResult.get().getScore() != null) {
+            // LTI scores needs to be formatted as String between "0.00" and "1.00"
+            return String.format(Locale.ROOT, "%.2f", latestResult.get().getScore().floatValue() / 100);
+        }
+        return "0.00";
+    }
+
+    private void retryOrFail(String key, PendingOutcome outcome, String reason) {
+        if (outcome.attempt >= maxAttempts) {
+            failedCounter.increment();
+            log.error("Reporting to LTI consumer with outcome URL {} failed after {} attempts: {}", outcome.url, outcome.attempt, reason);
+            return;
+        }
+        // a newer outcome of the student already contains the latest score
+        long notBefore = System.currentTimeMillis() + (retryBackoffMillis << (outcome.attempt - 1));
+        if (pendingOutcomes.putIfAbsent(key, new PendingOutcome(outcome.url, outcome.sourcedId, outcome.participationId, outcome.attempt + 1, notBefore)) == null) {
+            retriedCounter.increment();
+        }
+        log.warn("Reporting to LTI consumer with outcome URL {} failed, retrying: {}", outcome.url, reason);
+    }
+
+    /**
+     * Stop sending outcomes and close the connection pool
+     */
+    @PreDestroy
+    public void shutdown() {
+        flushScheduler.shutdownNow();
+        senders.shutdownNow();
+        if (!pendingOutcomes.isEmpty()) {
+            log.warn("{} LTI outcomes were not sent before the shutdown", pendingOutcomes.size());
+        }
+        try {
+            httpClient.close();
+        }
+        catch (IOException ex) {
+            log.warn("Could not close HTTP client: {}", ex.getMessage());
+        }
+    }
+
+    private static final class PendingOutcome {
+
+        private final String url;
+
+        private final String sourcedId;
+
+        private final Long participationId;
+
+        private final int attempt;
+
+        private final long notBefore;
+
+        private PendingOutcome(String url, String sourcedId, Long participationId, int attempt, long notBefore) {
+            this.url = url;
+            this.sourcedId = sourcedId;
+            this.participationId = participationId;
+            this.attempt = attempt;
+            this.notBefore = notBefore;
+        }
+    }
+}
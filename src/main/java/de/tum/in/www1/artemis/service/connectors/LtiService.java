@@ -1,6 +1,8 @@
 package de.tum.in.www1.artemis.service.connectors;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -8,17 +10,10 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.commons.lang3.tuple.Pair;
-import org.apache.http.HttpResponse;
-import org.apache.http.client.HttpClient;
-import org.apache.http.client.HttpResponseException;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.impl.client.BasicResponseHandler;
-import org.apache.http.impl.client.HttpClientBuilder;
 import org.imsglobal.lti.launch.LtiOauthVerifier;
 import org.imsglobal.lti.launch.LtiVerificationException;
 import org.imsglobal.lti.launch.LtiVerificationResult;
 import org.imsglobal.lti.launch.LtiVerifier;
-import org.imsglobal.pox.IMSPOXRequest;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,12 +28,14 @@ import org.springframework.security.web.authentication.WebAuthenticationDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+
 import de.tum.in.www1.artemis.domain.*;
 import de.tum.in.www1.artemis.domain.participation.ProgrammingExerciseStudentParticipation;
 import de.tum.in.www1.artemis.exception.ArtemisAuthenticationException;
 import de.tum.in.www1.artemis.repository.LtiOutcomeUrlRepository;
 import de.tum.in.www1.artemis.repository.LtiUserIdRepository;
-import de.tum.in.www1.artemis.repository.ResultRepository;
 import de.tum.in.www1.artemis.repository.UserRepository;
 import de.tum.in.www1.artemis.security.ArtemisAuthenticationProvider;
 import de.tum.in.www1.artemis.security.AuthoritiesConstants;
@@ -54,6 +51,8 @@ public class LtiService {
 
     public static final String U4I = "U4I";
 
+    private static final String SAVED_OUTCOME_URLS_TOPIC = "lti-saved-outcome-urls";
+
     private final Logger log = LoggerFactory.getLogger(LtiService.class);
 
     @Value("${artemis.lti.oauth-key}")
@@ -62,6 +61,9 @@ public class LtiService {
     @Value("${artemis.lti.oauth-secret}")
     private String OAUTH_SECRET;
 
+    @Value("${artemis.lti.outcome-reporting.url-cache-ttl-ms:300000}")
+    private long OUTCOME_URL_CACHE_TTL_MS = 300000;
+
     @Value("${artemis.lti.user-prefix-edx}")
     private String USER_PREFIX_EDX = "edx";
 
@@ -80,7 +82,7 @@ public class LtiService {
 
     private final LtiOutcomeUrlRepository ltiOutcomeUrlRepository;
 
-    private final ResultRepository resultRepository;
+    private final LtiOutcomeReporter ltiOutcomeReporter;
 
     private final ArtemisAuthenticationProvider artemisAuthenticationProvider;
 
@@ -92,15 +94,39 @@ public class LtiService {
 
     public final Map<String, Pair<LtiLaunchRequestDTO, Exercise>> launchRequestForSession = new HashMap<>();
 
-    public LtiService(UserService userService, UserRepository userRepository, LtiOutcomeUrlRepository ltiOutcomeUrlRepository, ResultRepository resultRepository,
-            ArtemisAuthenticationProvider artemisAuthenticationProvider, LtiUserIdRepository ltiUserIdRepository, HttpServletResponse response) {
+    /**
+     * ids of the exercises that were started from an LTI consumer
+     */
+    private final Set<Long> exercisesWithOutcomeUrls = ConcurrentHashMap.newKeySet();
+
+    /**
+     * ids of the exercises without outcome urls -> time until which the lookup is valid. The entry of an exercise is removed on all Artemis instances when an outcome url is saved,
+     * the time only limits how long a lost message of another instance delays the reporting.
+     */
+    private final Map<Long, Long> exercisesWithoutOutcomeUrls = new ConcurrentHashMap<>();
+
+    /**
+     * number of outcome urls that were saved on any Artemis instance, a lookup without outcome urls is only cached if no outcome url was saved during the lookup
+     */
+    private final AtomicLong savedOutcomeUrls = new AtomicLong();
+
+    /**
+     * publishes the ids of the exercises for which an outcome url was saved to all Artemis instances
+     */
+    private final ITopic<Long> savedOutcomeUrlsTopic;
+
+    public LtiService(UserService userService, UserRepository userRepository, LtiOutcomeUrlRepository ltiOutcomeUrlRepository, LtiOutcomeReporter ltiOutcomeReporter,
+            ArtemisAuthenticationProvider artemisAuthenticationProvider, LtiUserIdRepository ltiUserIdRepository, HttpServletResponse response,
+            HazelcastInstance hazelcastInstance) {
         this.userService = userService;
         this.userRepository = userRepository;
         this.ltiOutcomeUrlRepository = ltiOutcomeUrlRepository;
-        this.resultRepository = resultRepository;
+        this.ltiOutcomeReporter = ltiOutcomeReporter;
         this.artemisAuthenticationProvider = artemisAuthenticationProvider;
         this.ltiUserIdRepository = ltiUserIdRepository;
         this.response = response;
+        this.savedOutcomeUrlsTopic = hazelcastInstance.getTopic(SAVED_OUTCOME_URLS_TOPIC);
+        this.savedOutcomeUrlsTopic.addMessageListener(message -> outcomeUrlSaved(message.getMessageObject()));
     }
 
     /**
@@ -335,6 +361,14 @@ public class LtiService {
         ltiOutcomeUrl.setUrl(url);
         ltiOutcomeUrl.setSourcedId(sourcedId);
         ltiOutcomeUrlRepository.save(ltiOutcomeUrl);
+        outcomeUrlSaved(exercise.getId());
+        savedOutcomeUrlsTopic.publish(exercise.getId());
+    }
+
+    private void outcomeUrlSaved(Long exerciseId) {
+        savedOutcomeUrls.incrementAndGet();
+        exercisesWithOutcomeUrls.add(exerciseId);
+        exercisesWithoutOutcomeUrls.remove(exerciseId);
     }
 
     /**
@@ -382,42 +416,40 @@ public class LtiService {
     }
 
     /**
-     * This method is pinged on new programming exercise results. It sends an message to the LTI consumer with the new score.
+     * This method is pinged on new programming exercise results. It queues a message with the new score for the LTI consumer, see {@link LtiOutcomeReporter}.
      *
      * @param participation The programming exercise participation for which a new build result is available
      */
     public void onNewResult(ProgrammingExerciseStudentParticipation participation) {
+        Exercise exercise = participation.getExercise();
+        if (exercise == null || !hasOutcomeUrls(exercise.getId())) {
+            // most exercises are not started from an LTI consumer, there is nothing to report for them
+            return;
+        }
         // Get the LTI outcome URL
-        participation.getStudents().forEach(student -> {
-            ltiOutcomeUrlRepository.findByUserAndExercise(student, participation.getExercise()).ifPresent(ltiOutcomeUrl -> {
-
-                String score = "0.00";
-
-                // Get the latest result
-                Optional<Result> latestResult = resultRepository.findFirstByParticipationIdOrderByCompletionDateDesc(participation.getId());
-
-                if (latestResult.isPresent() && latestResult.get().getScore() != null) {
-                    // LTI scores needs to be formatted as String between "0.00" and "1.00"
-                    score = String.format(Locale.ROOT, "%.2f", latestResult.get().getScore().floatValue() / 100);
-                }
+        participation.getStudents().forEach(student -> ltiOutcomeUrlRepository.findByUserAndExercise(student, exercise)
+                .ifPresent(ltiOutcomeUrl -> ltiOutcomeReporter.enqueue(ltiOutcomeUrl, participation.getId())));
+    }
 
-                try {
-                    log.info("Reporting score {} for participation {} to LTI consumer with outcome URL {} using the source id {}", score, participation, ltiOutcomeUrl.getUrl(),
-                            ltiOutcomeUrl.getSourcedId());
-                    HttpPost request = IMSPOXRequest.buildReplaceResult(ltiOutcomeUrl.getUrl(), OAUTH_KEY, OAUTH_SECRET, ltiOutcomeUrl.getSourcedId(), score, null, false);
-                    HttpClient client = HttpClientBuilder.create().build();
-                    HttpResponse response = client.execute(request);
-                    String responseString = new BasicResponseHandler().handleResponse(response);
-                    log.info("Response from LTI consumer: {}", responseString);
-                    if (response.getStatusLine().getStatusCode() >= 400) {
-                        throw new HttpResponseException(response.getStatusLine().getStatusCode(), response.getStatusLine().getReasonPhrase());
-                    }
-                }
-                catch (Exception e) {
-                    log.error("Reporting to LTI consumer failed: {}", e, e);
-                }
-            });
-        });
+    private boolean hasOutcomeUrls(Long exerciseId) {
+        if (exercisesWithOutcomeUrls.contains(exerciseId)) {
+            return true;
+        }
+        Long validUntil = exercisesWithoutOutcomeUrls.get(exerciseId);
+        if (validUntil != null && validUntil > System.currentTimeMillis()) {
+            return false;
+        }
+        long savedOutcomeUrlsBeforeLookup = savedOutcomeUrls.get();
+        if (ltiOutcomeUrlRepository.existsByExerciseId(exerciseId)) {
+            exercisesWithOutcomeUrls.add(exerciseId);
+            exercisesWithoutOutcomeUrls.remove(exerciseId);
+            return true;
+        }
+        // an outcome url that was saved during the lookup might not be visible to it
+        if (savedOutcomeUrls.get() == savedOutcomeUrlsBeforeLookup) {
+            exercisesWithoutOutcomeUrls.put(exerciseId, System.currentTimeMillis() + OUTCOME_URL_CACHE_TTL_MS);
+        }
+        return false;
     }
 
     /**
@@ -7,6 +7,7 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
 import de.tum.in.www1.artemis.exception.NetworkingError;
@@ -14,20 +15,27 @@ import de.tum.in.www1.artemis.exception.NetworkingError;
 /**
  * This class allows for an easy implementation of Connectors to Remote Artemis Services (e.g. the Text Clustering System).
  * As parameters, this class required DTO classes do serialize and deserialize POJOs to JSON and back.
+ * The RestTemplate should be the shared pooled RestTemplate of the remote Artemis services, so that connections are reused and requests time out.
  *
  * @param <RequestType> DTO class, describing the body of the network request.
  * @param <ResponseType> DTO class, describing the body of the network response.
  */
 class RemoteArtemisServiceConnector<RequestType, ResponseType> {
 
+    /**
+     * the waiting time before the first retry, it is doubled for every further retry
+     */
+    private static final long RETRY_BACKOFF_MILLIS = 1000;
+
     private final Logger log;
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
 
     private final Class<ResponseType> genericResponseType;
 
-    RemoteArtemisServiceConnector(Logger log, Class<ResponseType> genericResponseType) {
+    RemoteArtemisServiceConnector(Logger log, RestTemplate restTemplate, Class<ResponseType> genericResponseType) {
         this.log = log;
+        this.restTemplate = restTemplate;
         this.genericResponseType = genericResponseType;
     }
 
@@ -63,7 +71,14 @@ class RemoteArtemisServiceConnector<RequestType, ResponseType> {
 
         final HttpEntity<RequestType> httpRequestEntity = new HttpEntity<>(requestObject, headers);
 
-        final ResponseEntity<ResponseType> response = restTemplate.postForEntity(url, httpRequestEntity, genericResponseType);
+        final ResponseEntity<ResponseType> response;
+        try {
+            response = restTemplate.postForEntity(url, httpRequestEntity, genericResponseType);
+        }
+        catch (RestClientException ex) {
+            // e.g. timeouts, connection errors and error responses
+            throw new NetworkingError("An Error occurred while calling Remote Artemis Service: " + ex.getMessage(), ex);
+        }
 
         if (!response.getStatusCode().is2xxSuccessful() || !response.hasBody()) {
             throw new NetworkingError("An Error occurred while calling Remote Artemis Service. Check Remote Logs for debugging information.");
@@ -90,7 +105,8 @@ class RemoteArtemisServiceConnector<RequestType, ResponseType> {
     }
 
     /**
-     * Invoke the remove service with a network call, but retry the request n times in case of an unsuccessful request.
+     * Invoke the remove service with a network call, but retry the request n times in case of an unsuccessful request. The waiting time between the retries grows
+     * exponentially.
      *
      * @param url remote service api endpoint
      * @param requestObject request body as POJO
@@ -108,6 +124,14 @@ class RemoteArtemisServiceConnector<RequestType, ResponseType> {
                 if (retries >= maxRetries) {
                     throw error;
                 }
+                log.debug("Calling Remote Artemis Service failed, retrying: " + error.getMessage());
+                try {
+                    Thread.sleep(RETRY_BACKOFF_MILLIS << retries);
+                }
+                catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw error;
+                }
             }
         }
     }
@@ -0,0 +1,256 @@
+package de.tum.in.www1.artemis.service.connectors;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+import de.tum.in.www1.artemis.domain.Repository;
+
+/**
+ * Least recently used cache for the local git repositories opened by the {@link GitService}. The cache holds at most a configured number of repositories and evicts repositories
+ * that have not been accessed for a configured time. Evicted repositories are handed to the eviction listener, which is responsible for closing them. The eviction listener is
+ * called outside of the lock of the cache.
+ *
+ * Git operations lease the repository they work on (see {@link #lease(Repository)}). Leased repositories are never evicted, so the cache may temporarily hold more repositories
+ * than configured. A lease also increments the JGit use count of the repository, so that an evicted repository is only closed after its last lease has been released. The
+ * working copy of an evicted repository may only be deleted between {@link #startDeletion(Path, Repository)} and {@link #finishDeletion(Path)}, the repository of such a path
+ * cannot be cached or leased in the meantime.
+ */
+class RepositoryCache {
+
+    private final int maxSize;
+
+    private final Duration maxIdleTime;
+
+    /**
+     * Called for every evicted repository with the reason of the eviction
+     */
+    private final BiConsumer<Repository, EvictionReason> evictionListener;
+
+    /**
+     * Path -> cached repository, ordered by the last access (least recently used first)
+     */
+    private final LinkedHashMap<Path, CachedRepository> repositories = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * repository -> number of active leases, contains cached and evicted repositories
+     */
+    private final Map<Repository, Integer> leases = new IdentityHashMap<>();
+
+    /**
+     * paths of the working copies that are currently deleted after an eviction
+     */
+    private final Set<Path> pathsBeingDeleted = new HashSet<>();
+
+    enum EvictionReason {
+        SIZE, IDLE
+    }
+
+    RepositoryCache(int maxSize, Duration maxIdleTime, BiConsumer<Repository, EvictionReason> evictionListener) {
+        this.maxSize = Math.max(1, maxSize);
+        this.maxIdleTime = maxIdleTime;
+        this.evictionListener = evictionListener;
+    }
+
+    /**
+     * Get the cached repository for the given path and mark it as recently used.
+     *
+     * @param localPath the path of the repository on disk
+     * @return the cached repository or null if the repository is not cached
+     */
+    synchronized Repository get(Path localPath) {
+        CachedRepository cachedRepository = repositories.get(localPath);
+        if (cachedRepository == null) {
+            return null;
+        }
+        cachedRepository.lastAccess = Instant.now();
+        return cachedRepository.repository;
+    }
+
+    /**
+     * Add a repository to the cache, unless a repository for the same path is already cached. If the cache is full afterwards, the least recently used repositories are evicted.
+     *
+     * @param localPath  the path of the repository on disk
+     * @param repository the repository
+     * @return the repository that is cached for the path afterwards, i.e. the already cached repository if there was one, the given repository otherwise, or null if the working
+     *         copy has been deleted in the meantime
+     */
+    Repository putIfAbsent(Path localPath, Repository repository) {
+        List<Repository> evictedRepositories = new ArrayList<>();
+        Repository cachedRepository;
+        synchronized (this) {
+            if (awaitDeletion(localPath)) {
+                // the working copy was deleted while the repository was opened
+                return null;
+            }
+            CachedRepository existingRepository = repositories.get(localPath);
+            if (existingRepository != null) {
+                existingRepository.lastAccess = Instant.now();
+                return existingRepository.repository;
+            }
+            repositories.put(localPath, new CachedRepository(repository));
+            cachedRepository = repository;
+            Iterator<CachedRepository> leastRecentlyUsed = repositories.values().iterator();
+            while (repositories.size() > maxSize && leastRecentlyUsed.hasNext()) {
+                CachedRepository candidate = leastRecentlyUsed.next();
+                // the new repository is about to be used by the caller
+                if (candidate.repository != repository && !leases.containsKey(candidate.repository)) {
+                    evictedRepositories.add(candidate.repository);
+                    leastRecentlyUsed.remove();
+                }
+            }
+        }
+        evictedRepositories.forEach(evictedRepository -> evictionListener.accept(evictedRepository, EvictionReason.SIZE));
+        return cachedRepository;
+    }
+
+    /**
+     * Remove the repository from the cache without notifying the eviction listener, e.g. because it is deleted anyway.
+     *
+     * @param localPath the path of the repository on disk
+     * @return the removed repository or null if the repository was not cached
+     */
+    synchronized Repository remove(Path localPath) {
+        CachedRepository cachedRepository = repositories.remove(localPath);
+        return cachedRepository != null ? cachedRepository.repository : null;
+    }
+
+    /**
+     * Evict all repositories that have not been accessed within the max idle time.
+     *
+     * @return the number of evicted repositories
+     */
+    int evictIdleRepositories() {
+        Instant oldestAllowedAccess = Instant.now().minus(maxIdleTime);
+        List<Repository> evictedRepositories = new ArrayList<>();
+        synchronized (this) {
+            // the map is ordered by the last access, so we can stop at the first repository that was accessed recently
+            Iterator<CachedRepository> leastRecentlyUsed = repositories.values().iterator();
+            while (leastRecentlyUsed.hasNext()) {
+                CachedRepository cachedRepository = leastRecentlyUsed.next();
+                if (cachedRepository.lastAccess.isAfter(oldestAllowedAccess)) {
+                    break;
+                }
+                if (!leases.containsKey(cachedRepository.repository)) {
+                    evictedRepositories.add(cachedRepository.repository);
+                    leastRecentlyUsed.remove();
+                }
+            }
+        }
+        evictedRepositories.forEach(evictedRepository -> evictionListener.accept(evictedRepository, EvictionReason.IDLE));
+        return evictedRepositories.size();
+    }
+
+    /**
+     * Lease the repository for a git operation. The repository is not evicted and its working copy is not deleted until the lease is closed. If the working copy of the
+     * repository is currently deleted, this waits until the deletion has finished.
+     *
+     * @param repository the repository, it does not have to be cached
+     * @return the lease, which has to be closed after the operation
+     */
+    Lease lease(Repository repository) {
+        synchronized (this) {
+            awaitDeletion(repository.getLocalPath());
+            leases.merge(repository, 1, Integer::sum);
+            CachedRepository cachedRepository = repository.getLocalPath() != null ? repositories.get(repository.getLocalPath()) : null;
+            if (cachedRepository != null && cachedRepository.repository == repository) {
+                cachedRepository.lastAccess = Instant.now();
+            }
+        }
+        repository.incrementOpen();
+        return new Lease(repository);
+    }
+
+    private void release(Repository repository) {
+        synchronized (this) {
+            leases.computeIfPresent(repository, (leasedRepository, count) -> count > 1 ? count - 1 : null);
+        }
+        // closes the repository if it has been evicted in the meantime
+        repository.close();
+    }
+
+    /**
+     * Mark the working copy of an evicted repository as being deleted. Fails if the repository is leased or if the path has been cached again in the meantime.
+     *
+     * @param localPath  the path of the working copy
+     * @param repository the evicted repository
+     * @return true if the working copy may be deleted and {@link #finishDeletion(Path)} has to be called afterwards, false otherwise
+     */
+    synchronized boolean startDeletion(Path localPath, Repository repository) {
+        if (repositories.containsKey(localPath) || leases.containsKey(repository) || pathsBeingDeleted.contains(localPath)) {
+            return false;
+        }
+        pathsBeingDeleted.add(localPath);
+        return true;
+    }
+
+    /**
+     * Finish the deletion started with {@link #startDeletion(Path, Repository)}, threads waiting for the path continue afterwards.
+     *
+     * @param localPath the path of the deleted working copy
+     */
+    synchronized void finishDeletion(Path localPath) {
+        pathsBeingDeleted.remove(localPath);
+        notifyAll();
+    }
+
+    /**
+     * Wait until the working copy at the given path is not deleted anymore, must be called while holding the lock of the cache.
+     *
+     * @param localPath the path of the working copy, may be null
+     * @return true if the working copy was deleted in the meantime
+     */
+    private boolean awaitDeletion(Path localPath) {
+        boolean deleted = false;
+        while (localPath != null && pathsBeingDeleted.contains(localPath)) {
+            deleted = true;
+            try {
+                wait();
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return true;
+            }
+        }
+        return deleted;
+    }
+
+    synchronized int size() {
+        return repositories.size();
+    }
+
+    /**
+     * A lease of a repository for one git operation, see {@link #lease(Repository)}. Closing the lease more than once has no effect.
+     */
+    final class Lease implements AutoCloseable {
+
+        private final Repository repository;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Lease(Repository repository) {
+            this.repository = repository;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release(repository);
+            }
+        }
+    }
+
+    private static class CachedRepository {
+
+        private final Repository repository;
+
+        private Instant lastAccess = Instant.now();
+
+        private CachedRepository(Repository repository) {
+            this.repository = repository;
+        }
+    }
+}
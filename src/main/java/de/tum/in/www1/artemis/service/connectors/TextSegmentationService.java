@@ -11,9 +11,11 @@ import javax.validation.constraints.NotNull;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
 
 import de.tum.in.www1.artemis.domain.TextBlock;
 import de.tum.in.www1.artemis.domain.TextSubmission;
@@ -66,7 +68,11 @@ public class TextSegmentationService {
     @Value("${artemis.automatic-text.secret}")
     private String API_SECRET;
 
-    private RemoteArtemisServiceConnector<Request, Response> connector = new RemoteArtemisServiceConnector<>(log, Response.class);
+    private final RemoteArtemisServiceConnector<Request, Response> connector;
+
+    public TextSegmentationService(@Qualifier("remoteArtemisServiceRestTemplate") RestTemplate restTemplate) {
+        connector = new RemoteArtemisServiceConnector<>(log, restTemplate, Response.class);
+    }
 
     /**
      * Calls the remote text segmentation service to segment a List of Submissions into TextBlocks
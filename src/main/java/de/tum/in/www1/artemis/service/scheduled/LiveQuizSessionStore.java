@@ -0,0 +1,113 @@
+package de.tum.in.www1.artemis.service.scheduled;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
+import de.tum.in.www1.artemis.repository.StudentParticipationRepository;
+
+/**
+ * Keeps the state of running quizzes in memory, so that the live submissions of the students can be checked without accessing the database: the quiz exercise itself and the
+ * logins of all students who already submitted the quiz. The submit state is loaded from the database once when the session of a quiz is started (e.g. when the quiz is
+ * scheduled or started) and updated in memory with every submission afterwards.
+ */
+@Component
+public class LiveQuizSessionStore {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveQuizSessionStore.class);
+
+    private final StudentParticipationRepository studentParticipationRepository;
+
+    /**
+     * quizExerciseId -> session of the quiz
+     */
+    private final Map<Long, LiveQuizSession> sessions = new ConcurrentHashMap<>();
+
+    public LiveQuizSessionStore(StudentParticipationRepository studentParticipationRepository) {
+        this.studentParticipationRepository = studentParticipationRepository;
+    }
+
+    /**
+     * Start the session of the given quiz, or update the quiz exercise of an existing session. The logins of the students who already submitted the quiz are only loaded from the
+     * database when the session is started.
+     *
+     * @param quizExercise the quiz exercise, should include questions and statistics without Hibernate proxies!
+     */
+    public void startSession(QuizExercise quizExercise) {
+        sessions.compute(quizExercise.getId(), (quizExerciseId, session) -> {
+            if (session != null) {
+                session.quizExercise = quizExercise;
+                return session;
+            }
+            Set<String> submittedLogins = ConcurrentHashMap.newKeySet();
+            submittedLogins.addAll(studentParticipationRepository.findLoginsOfStudentsWithSubmittedSubmissionByExerciseId(quizExerciseId));
+            log.debug("Started live session of quiz {} with {} submitted students", quizExerciseId, submittedLogins.size());
+            return new LiveQuizSession(quizExercise, submittedLogins);
+        });
+    }
+
+    /**
+     * @param quizExerciseId the id of the quiz exercise
+     * @return the quiz exercise of the session, or null if there is no session for the quiz
+     */
+    public QuizExercise getQuizExercise(Long quizExerciseId) {
+        LiveQuizSession session = sessions.get(quizExerciseId);
+        return session != null ? session.quizExercise : null;
+    }
+
+    /**
+     * @param quizExerciseId the id of the quiz exercise
+     * @param username       the login of the student
+     * @return true if the session of the quiz knows that the student already submitted the quiz
+     */
+    public boolean hasSubmitted(Long quizExerciseId, String username) {
+        LiveQuizSession session = sessions.get(quizExerciseId);
+        return session != null && session.submittedLogins.contains(username);
+    }
+
+    /**
+     * Remember that the student submitted the quiz. Concurrent calls for the same student are only successful once.
+     *
+     * @param quizExerciseId the id of the quiz exercise
+     * @param username       the login of the student
+     * @return false if the student has already submitted the quiz before, true otherwise
+     */
+    public boolean markSubmitted(Long quizExerciseId, String username) {
+        LiveQuizSession session = sessions.get(quizExerciseId);
+        // without a session (e.g. the quiz was removed concurrently) the submit state is only checked with the submission buffer
+        return session == null || session.submittedLogins.add(username);
+    }
+
+    /**
+     * Remove the session of the quiz, e.g. because the quiz was changed or deleted
+     *
+     * @param quizExerciseId the id of the quiz exercise
+     */
+    public void removeSession(Long quizExerciseId) {
+        sessions.remove(quizExerciseId);
+    }
+
+    /**
+     * Remove the sessions of all quizzes
+     */
+    public void clear() {
+        sessions.clear();
+    }
+
+    private static class LiveQuizSession {
+
+        private volatile QuizExercise quizExercise;
+
+        private final Set<String> submittedLogins;
+
+        private LiveQuizSession(QuizExercise quizExercise, Set<String> submittedLogins) {
+            this.quizExercise = quizExercise;
+            this.submittedLogins = submittedLogins;
+        }
+    }
+}
@@ -3,31 +3,39 @@ package de.tum.in.www1.artemis.service.scheduled;
 import java.time.ZonedDateTime;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.stream.Collectors;
 
 import javax.validation.constraints.NotNull;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import de.tum.in.www1.artemis.domain.*;
 import de.tum.in.www1.artemis.domain.enumeration.AssessmentType;
 import de.tum.in.www1.artemis.domain.enumeration.InitializationState;
 import de.tum.in.www1.artemis.domain.enumeration.SubmissionType;
 import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
-import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
-import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
+import de.tum.in.www1.artemis.domain.quiz.*;
 import de.tum.in.www1.artemis.repository.QuizSubmissionRepository;
 import de.tum.in.www1.artemis.repository.ResultRepository;
 import de.tum.in.www1.artemis.repository.StudentParticipationRepository;
 import de.tum.in.www1.artemis.service.QuizExerciseService;
 import de.tum.in.www1.artemis.service.QuizStatisticService;
 import de.tum.in.www1.artemis.service.UserService;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizResultDistributor;
+import de.tum.in.www1.artemis.service.scheduled.quiz.QuizSubmissionBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 @Service
 public class QuizScheduleService {
@@ -35,26 +43,19 @@ public class QuizScheduleService {
     private static final Logger log = LoggerFactory.getLogger(QuizScheduleService.class);
 
     /**
-     * quizExerciseId -> Map<username -> QuizSubmission>
+     * buffers submissions, participations and results of running quizzes, either locally or distributed in the cluster
      */
-    private static Map<Long, Map<String, QuizSubmission>> submissionHashMap = new ConcurrentHashMap<>();
-
-    /**
-     * quizExerciseId -> Map<username -> StudentParticipation>
-     */
-    private static Map<Long, Map<String, StudentParticipation>> participationHashMap = new ConcurrentHashMap<>();
-
-    /**
-     * quizExerciseId -> [Result]
-     */
-    private static Map<Long, Set<Result>> resultHashMap = new ConcurrentHashMap<>();
+    private static QuizSubmissionBuffer quizSubmissionBuffer;
 
     /**
      * quizExerciseId -> ScheduledFuture
      */
     private static Map<Long, ScheduledFuture<?>> quizStartSchedules = new ConcurrentHashMap<>();
 
-    private static Map<Long, QuizExercise> quizExerciseMap = new ConcurrentHashMap<>();
+    /**
+     * the quiz exercises and the submit state of the students of running quizzes
+     */
+    private static LiveQuizSessionStore liveQuizSessionStore;
 
     private static ThreadPoolTaskScheduler threadPoolTaskScheduler;
 
@@ -72,15 +73,41 @@ public class QuizScheduleService {
 
     private QuizStatisticService quizStatisticService;
 
-    private SimpMessageSendingOperations messagingTemplate;
+    private final QuizResultDistributor quizResultDistributor;
 
-    public QuizScheduleService(SimpMessageSendingOperations messagingTemplate, StudentParticipationRepository studentParticipationRepository, ResultRepository resultRepository,
-            UserService userService, QuizSubmissionRepository quizSubmissionRepository) {
-        this.messagingTemplate = messagingTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * the number of submissions that are saved to the database within one transaction
+     */
+    @Value("${artemis.quiz.flush-chunk-size:100}")
+    private int flushChunkSize;
+
+    private final Counter savedSubmissionsCounter;
+
+    private final Counter failedChunksCounter;
+
+    private final Timer flushTimer;
+
+    public QuizScheduleService(StudentParticipationRepository studentParticipationRepository, ResultRepository resultRepository, UserService userService,
+            QuizSubmissionRepository quizSubmissionRepository, QuizSubmissionBuffer quizSubmissionBuffer, LiveQuizSessionStore liveQuizSessionStore,
+            QuizResultDistributor quizResultDistributor, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
         this.studentParticipationRepository = studentParticipationRepository;
         this.resultRepository = resultRepository;
         this.userService = userService;
         this.quizSubmissionRepository = quizSubmissionRepository;
+        QuizScheduleService.quizSubmissionBuffer = quizSubmissionBuffer;
+        QuizScheduleService.liveQuizSessionStore = liveQuizSessionStore;
+        this.quizResultDistributor = quizResultDistributor;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // the rate of this counter corresponds to the saved submissions per second
+        this.savedSubmissionsCounter = Counter.builder("artemis.quiz.submissions.saved").description("Number of quiz submissions saved to the database").register(meterRegistry);
+        this.failedChunksCounter = Counter.builder("artemis.quiz.submissions.failed_chunks").description("Number of submission chunks that could not be saved in one transaction")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("artemis.quiz.submissions.flush").description("Duration of saving the cached submissions of one quiz").register(meterRegistry);
+        Gauge.builder("artemis.quiz.submissions.backlog", quizSubmissionBuffer, QuizSubmissionBuffer::getSubmissionBacklogSize)
+                .description("Number of cached quiz submissions that have not yet been saved to the database").register(meterRegistry);
     }
 
     @EventListener(ApplicationReadyEvent.class)
@@ -102,7 +129,7 @@ public class QuizScheduleService {
     }
 
     /**
-     * add a quizSubmission to the submissionHashMap
+     * add a quizSubmission to the submission buffer
      *
      * @param quizExerciseId the quizExerciseId of the quiz the submission belongs to (first Key)
      * @param username       the username of the user, who submitted the submission (second Key)
@@ -111,16 +138,12 @@ public class QuizScheduleService {
     public static void updateSubmission(Long quizExerciseId, String username, QuizSubmission quizSubmission) {
 
         if (quizSubmission != null && quizExerciseId != null && username != null) {
-            // check if there is already a quizSubmission with the same quiz
-            if (!submissionHashMap.containsKey(quizExerciseId)) {
-                submissionHashMap.put(quizExerciseId, new ConcurrentHashMap<>());
-            }
-            submissionHashMap.get(quizExerciseId).put(username, quizSubmission);
+            quizSubmissionBuffer.putSubmission(quizExerciseId, username, quizSubmission);
         }
     }
 
     /**
-     * add a result to resultHashMap for a statistic-update
+     * add a result to the result buffer for a statistic-update
      * this should only be invoked once, when the quiz was submitted
      *
      * @param quizExerciseId the quizExerciseId of the quiz the result belongs to (first Key)
@@ -129,16 +152,12 @@ public class QuizScheduleService {
     public static void addResultForStatisticUpdate(Long quizExerciseId, Result result) {
         log.debug("add result for statistic update for quiz " + quizExerciseId + ": " + result);
         if (quizExerciseId != null && result != null) {
-            // check if there is already a result with the same quiz
-            if (!resultHashMap.containsKey(quizExerciseId)) {
-                resultHashMap.put(quizExerciseId, new HashSet<>());
-            }
-            resultHashMap.get(quizExerciseId).add(result);
+            quizSubmissionBuffer.addResult(quizExerciseId, result);
         }
     }
 
     /**
-     * add a participation to participationHashMap to send them back to the user when the quiz ends
+     * add a participation to the participation buffer to send them back to the user when the quiz ends
      *
      * @param quizExerciseId        the quizExerciseId of the quiz the result belongs to (first Key)
      * @param participation the result, which should be added
@@ -146,16 +165,12 @@ public class QuizScheduleService {
     private static void addParticipation(Long quizExerciseId, StudentParticipation participation) {
 
         if (quizExerciseId != null && participation != null) {
-            // check if there is already a result with the same quiz
-            if (!participationHashMap.containsKey(quizExerciseId)) {
-                participationHashMap.put(quizExerciseId, new ConcurrentHashMap<>());
-            }
-            participationHashMap.get(quizExerciseId).put(participation.getParticipantIdentifier(), participation);
+            quizSubmissionBuffer.putParticipation(quizExerciseId, participation);
         }
     }
 
     /**
-     * get a quizSubmission from the submissionHashMap by quizExerciseId and username
+     * get a quizSubmission from the submission buffer by quizExerciseId and username
      *
      * @param quizExerciseId   the quizExerciseId of the quiz the submission belongs to (first Key)
      * @param username the username of the user, who submitted the submission (second Key)
@@ -167,21 +182,16 @@ public class QuizScheduleService {
         if (quizExerciseId == null || username == null) {
             return null;
         }
-        QuizSubmission quizSubmission;
-        // check if the the map contains submissions with the quizExerciseId
-        if (submissionHashMap.containsKey(quizExerciseId)) {
-            // return the quizSubmission with the username-Key
-            quizSubmission = submissionHashMap.get(quizExerciseId).get(username);
-            if (quizSubmission != null) {
-                return quizSubmission;
-            }
+        QuizSubmission quizSubmission = quizSubmissionBuffer.getSubmission(quizExerciseId, username);
+        if (quizSubmission != null) {
+            return quizSubmission;
         }
-        // return an empty quizSubmission if the maps contain no mapping for the keys
+        // return an empty quizSubmission if the buffer contains no mapping for the keys
         return new QuizSubmission().submittedAnswers(new HashSet<>());
     }
 
     /**
-     * get a participation from the participationHashMap by quizExerciseId and username
+     * get a participation from the participation buffer by quizExerciseId and username
      *
      * @param quizExerciseId   the quizExerciseId of the quiz, the participation belongs to (first Key)
      * @param username the username of the user, the participation belongs to (second Key)
@@ -191,29 +201,49 @@ public class QuizScheduleService {
         if (quizExerciseId == null || username == null) {
             return null;
         }
-        // check if the the map contains participations with the quizExerciseId
-        if (participationHashMap.containsKey(quizExerciseId)) {
-            // return the participation with the username-Key
-            return participationHashMap.get(quizExerciseId).get(username);
-        }
-        // return null if the maps contain no mapping for the keys
-        return null;
+        return quizSubmissionBuffer.getParticipation(quizExerciseId, username);
     }
 
     public static QuizExercise getQuizExercise(Long quizExerciseId) {
         if (quizExerciseId == null) {
             return null;
         }
-        return quizExerciseMap.get(quizExerciseId);
+        return liveQuizSessionStore.getQuizExercise(quizExerciseId);
     }
 
     /**
-     * stores the quiz exercise in a HashMap for faster retrieval during the quiz
+     * stores the quiz exercise in the live quiz session store for faster retrieval during the quiz, the submit state of the students is loaded when the session is started
      * @param quizExercise should include questions and statistics without Hibernate proxies!
      */
     public static void updateQuizExercise(QuizExercise quizExercise) {
-        log.debug("Quiz exercise {} updated in quiz exercise map: {}", quizExercise.getId(), quizExercise);
-        quizExerciseMap.put(quizExercise.getId(), quizExercise);
+        log.debug("Quiz exercise {} updated in live quiz session store: {}", quizExercise.getId(), quizExercise);
+        liveQuizSessionStore.startSession(quizExercise);
+    }
+
+    /**
+     * check in memory whether the user already submitted the quiz, either on this node (live quiz session) or in the submission buffer
+     *
+     * @param quizExerciseId the id of the quiz exercise
+     * @param username       the username of the user
+     * @return true if the user already submitted the quiz
+     */
+    public static boolean hasSubmitted(Long quizExerciseId, String username) {
+        if (liveQuizSessionStore.hasSubmitted(quizExerciseId, username) || quizSubmissionBuffer.getParticipation(quizExerciseId, username) != null) {
+            return true;
+        }
+        QuizSubmission bufferedSubmission = quizSubmissionBuffer.getSubmission(quizExerciseId, username);
+        return bufferedSubmission != null && bufferedSubmission.isSubmitted();
+    }
+
+    /**
+     * remember that the user submitted the quiz, concurrent submissions of the same user are only accepted once
+     *
+     * @param quizExerciseId the id of the quiz exercise
+     * @param username       the username of the user
+     * @return false if the user already submitted the quiz, true otherwise
+     */
+    public static boolean markSubmitted(Long quizExerciseId, String username) {
+        return liveQuizSessionStore.markSubmitted(quizExerciseId, username);
     }
 
     /**
@@ -299,134 +329,152 @@ public class QuizScheduleService {
             boolean cancelSuccess = scheduledFuture.cancel(true);
             log.info("Stop scheduled quiz start for quiz " + quizExerciseId + " was successful: " + cancelSuccess);
         }
-        quizExerciseMap.remove(quizExerciseId);
+        liveQuizSessionStore.removeSession(quizExerciseId);
     }
 
     /*
-     * Clears all quiz data for all quiz exercises from the 4 hash maps for quizzes
+     * Clears all quiz data for all quiz exercises from the submission buffer and the live quiz session store
      */
     public void clearAllQuizData() {
-        participationHashMap.clear();
-        submissionHashMap.clear();
-        resultHashMap.clear();
-        quizExerciseMap.clear();
+        quizSubmissionBuffer.clearAll();
+        liveQuizSessionStore.clear();
     }
 
     /**
-     * Clears all quiz data for one specific quiz exercise from the 4 hash maps for quizzes
+     * Clears all quiz data for one specific quiz exercise from the submission buffer and the live quiz session store
      * @param quizExerciseId refers to one specific quiz exercise for which the data should be cleared
      */
     public void clearQuizData(Long quizExerciseId) {
-        // delete all participation, submission, and result hashmap entries that correspond to this quiz
-        participationHashMap.remove(quizExerciseId);
-        submissionHashMap.remove(quizExerciseId);
-        resultHashMap.remove(quizExerciseId);
-        quizExerciseMap.remove(quizExerciseId);
+        // delete all participation, submission, and result buffer entries that correspond to this quiz
+        quizSubmissionBuffer.clear(quizExerciseId);
+        liveQuizSessionStore.removeSession(quizExerciseId);
     }
 
     /**
      * // @formatter:off
-     * 1. Check SubmissionHashMap for new submissions with “isSubmitted() == true”
-     *      a. Process each Submission (set submissionType to “SubmissionType.MANUAL”) and create Participation and Result and save them to Database (DB WRITE)
-     *      b. Remove processed Submissions from SubmissionHashMap and write Participation with Result into ParticipationHashMap and write Result into ResultHashMap
+     * 1. Check the submission buffer for new submissions with “isSubmitted() == true”
+     *      a. Process each Submission (set submissionType to “SubmissionType.MANUAL”) and create Participation and Result and save them to Database in chunks (DB WRITE)
+     *      b. Remove processed Submissions from the submission buffer and write Participation with Result into the participation buffer and write Result into the result buffer
      * 2. If Quiz has ended:
-     *      a. Process all Submissions in SubmissionHashMap that belong to this quiz i. set “isSubmitted” to “true” and submissionType to “SubmissionType.TIMEOUT”
-     *          ii. Create Participation and Result and save to Database (DB WRITE)
-     *          iii. Remove processed Submissions from SubmissionHashMap and write Participations with Result into ParticipationHashMap and Results into ResultHashMap
-     *      b. Send out Participations (including QuizExercise and Result) from ParticipationHashMap to each participant and remove them from ParticipationHashMap (WEBSOCKET SEND)
-     * 3. Update Statistics with Results from ResultHashMap (DB READ and DB WRITE) and remove from ResultHashMap
+     *      a. Process all Submissions in the submission buffer that belong to this quiz i. set “isSubmitted” to “true” and submissionType to “SubmissionType.TIMEOUT”
+     *          ii. Create Participation and Result and save to Database in chunks (DB WRITE)
+     *          iii. Remove processed Submissions from the submission buffer and write Participations with Result into the participation buffer and Results into the result buffer
+     *      b. Send out Participations (including QuizExercise and Result) from the participation buffer to each participant and remove them from the buffer (WEBSOCKET SEND)
+     * 3. Update Statistics with Results from the result buffer (DB READ and DB WRITE) and remove them from the buffer
      * 4. Send out new Statistics to instructors (WEBSOCKET SEND)
+     *
+     * Each quiz is locked in the buffer while it is processed, so that a quiz is only processed by one node at a time if the buffer is distributed across the cluster.
+     * // @formatter:on
      */
     public void processCachedQuizSubmissions() {
         log.debug("Process cached quiz submissions");
         // global try-catch for error logging
         try {
-            long start = System.nanoTime();
-
             // create Participations and Results if the submission was submitted or if the quiz has ended and save them to Database (DB Write)
-            for (long quizExerciseId : submissionHashMap.keySet()) {
-
-                QuizExercise quizExercise = quizExerciseService.findOneWithQuestions(quizExerciseId);
-                // check if quiz has been deleted
-                if (quizExercise == null) {
-                    submissionHashMap.remove(quizExerciseId);
-                    continue;
-                }
-
-                // if quiz has ended, all submissions will be processed => we can remove the inner HashMap for this quiz
-                // if quiz hasn't ended, some submissions (those that are not submitted) will stay in HashMap => keep inner HashMap
-                Map<String, QuizSubmission> submissions;
-                if (quizExercise.isEnded()) {
-                    submissions = submissionHashMap.remove(quizExerciseId);
-                }
-                else {
-                    submissions = submissionHashMap.get(quizExerciseId);
-                }
+            for (long quizExerciseId : quizSubmissionBuffer.getQuizExerciseIdsWithSubmissions()) {
+                processWithLock(quizExerciseId, () -> processCachedSubmissions(quizExerciseId));
+            }
 
-                int numberOfSubmittedSubmissions = saveQuizSubmissionWithParticipationAndResultToDatabase(quizExercise, submissions);
+            // Send out Participations from the participation buffer to each user if the quiz has ended
+            for (long quizExerciseId : quizSubmissionBuffer.getQuizExerciseIdsWithParticipations()) {
+                processWithLock(quizExerciseId, () -> sendCachedParticipations(quizExerciseId));
+            }
 
-                if (numberOfSubmittedSubmissions > 0) {
-                    log.info("Saved {} submissions to database in {} in quiz {}", numberOfSubmittedSubmissions, printDuration(start), quizExercise.getTitle());
-                }
+            // Update Statistics with Results from the result buffer (DB Read and DB Write) and remove them from the buffer
+            for (long quizExerciseId : quizSubmissionBuffer.getQuizExerciseIdsWithResults()) {
+                processWithLock(quizExerciseId, () -> updateStatisticsWithCachedResults(quizExerciseId));
             }
+        }
+        catch (Exception e) {
+            log.error("Exception in Quiz Schedule: {}", e.getMessage(), e);
+        }
+    }
 
-            start = System.nanoTime();
-            // Send out Participations from ParticipationHashMap to each user if the quiz has ended
-            for (long quizExerciseId : participationHashMap.keySet()) {
+    private void processWithLock(long quizExerciseId, Runnable processing) {
+        if (!quizSubmissionBuffer.tryLock(quizExerciseId)) {
+            log.debug("Quiz {} is currently processed by another node, skip it in this run", quizExerciseId);
+            return;
+        }
+        try {
+            processing.run();
+        }
+        finally {
+            quizSubmissionBuffer.unlock(quizExerciseId);
+        }
+    }
 
-                // get the quiz exercise with questions but without the statistics from the database
-                QuizExercise quizExercise = quizExerciseService.findOneWithQuestions(quizExerciseId);
-                // check if quiz has been deleted
-                if (quizExercise == null) {
-                    participationHashMap.remove(quizExerciseId);
-                    continue;
-                }
+    private void processCachedSubmissions(long quizExerciseId) {
+        long start = System.nanoTime();
+        QuizExercise quizExercise = quizExerciseService.findOneWithQuestions(quizExerciseId);
+        // check if quiz has been deleted
+        if (quizExercise == null) {
+            quizSubmissionBuffer.removeSubmissions(quizExerciseId);
+            return;
+        }
 
-                // check if the quiz has ended
-                if (quizExercise.isEnded()) {
-                    // send the participation with containing result and quiz back to the users via websocket and remove the participation from the ParticipationHashMap
-                    Collection<StudentParticipation> finishedParticipations = participationHashMap.remove(quizExerciseId).values();
-                    // TODO: use an executor service with e.g. X parallel threads
-                    finishedParticipations.parallelStream().forEach(participation -> {
-                        if (participation.getParticipant() == null || participation.getParticipantIdentifier() == null) {
-                            log.error("Participation is missing student (or student is missing username): {}", participation);
-                        }
-                        else {
-                            sendQuizResultToUser(quizExerciseId, participation);
-                        }
-                    });
-                    if (finishedParticipations.size() > 0) {
-                        log.info("Sent out {} participations in {} for quiz {}", finishedParticipations.size(), printDuration(start), quizExercise.getTitle());
-                    }
-                }
-            }
+        Map<String, QuizSubmission> submissions = quizSubmissionBuffer.getSubmissions(quizExerciseId);
+        int numberOfSubmittedSubmissions = flushTimer.record(() -> saveQuizSubmissionWithParticipationAndResultToDatabase(quizExercise, submissions));
 
-            start = System.nanoTime();
-            // Update Statistics with Results from ResultHashMap (DB Read and DB Write) and remove from ResultHashMap
-            for (long quizExerciseId : resultHashMap.keySet()) {
+        // if quiz has ended, all submissions have been processed => we can remove the submissions of this quiz from the buffer
+        // if quiz hasn't ended, some submissions (those that are not submitted) stay in the buffer
+        if (quizExercise.isEnded()) {
+            quizSubmissionBuffer.removeSubmissions(quizExerciseId);
+        }
 
-                // get the quiz exercise with the statistic from the database
-                QuizExercise quizExercise = quizExerciseService.findOneWithQuestionsAndStatistics(quizExerciseId);
-                // check if quiz has been deleted (edge case), then do nothing!
-                if (quizExercise == null) {
-                    log.debug("Remove quiz " + quizExerciseId + " from resultHashMap");
-                    resultHashMap.remove(quizExerciseId);
-                    continue;
-                }
+        if (numberOfSubmittedSubmissions > 0) {
+            log.info("Saved {} submissions to database in {} in quiz {}", numberOfSubmittedSubmissions, printDuration(start), quizExercise.getTitle());
+        }
+    }
+
+    private void sendCachedParticipations(long quizExerciseId) {
+        long start = System.nanoTime();
+        // get the quiz exercise with questions but without the statistics from the database
+        QuizExercise quizExercise = quizExerciseService.findOneWithQuestions(quizExerciseId);
+        // check if quiz has been deleted
+        if (quizExercise == null) {
+            quizSubmissionBuffer.removeParticipations(quizExerciseId);
+            return;
+        }
 
-                // update statistic with all results of the quizExercise
-                try {
-                    Set<Result> newResultsForQuiz = resultHashMap.remove(quizExerciseId);
-                    quizStatisticService.updateStatistics(newResultsForQuiz, quizExercise);
-                    log.info("Updated statistics with {} new results in {} for quiz {}", newResultsForQuiz.size(), printDuration(start), quizExercise.getTitle());
+        // check if the quiz has ended
+        if (quizExercise.isEnded()) {
+            // send the participation with containing result and quiz back to the users via websocket and remove the participation from the buffer
+            Collection<StudentParticipation> finishedParticipations = quizSubmissionBuffer.removeParticipations(quizExerciseId);
+            List<StudentParticipation> participationsToSend = new ArrayList<>();
+            for (StudentParticipation participation : finishedParticipations) {
+                if (participation.getParticipant() == null || participation.getParticipantIdentifier() == null) {
+                    log.error("Participation is missing student (or student is missing username): {}", participation);
                 }
-                catch (Exception e) {
-                    log.error("Exception in StatisticService.updateStatistics(): {}", e.getMessage(), e);
+                else {
+                    participationsToSend.add(participation);
                 }
             }
+            int sentParticipations = quizResultDistributor.distributeResults(quizExercise, participationsToSend);
+            if (finishedParticipations.size() > 0) {
+                log.info("Sent out {} participations in {} for quiz {}", sentParticipations, printDuration(start), quizExercise.getTitle());
+            }
+        }
+    }
+
+    private void updateStatisticsWithCachedResults(long quizExerciseId) {
+        long start = System.nanoTime();
+        // get the quiz exercise with the statistic from the database
+        QuizExercise quizExercise = quizExerciseService.findOneWithQuestionsAndStatistics(quizExerciseId);
+        // check if quiz has been deleted (edge case), then do nothing!
+        if (quizExercise == null) {
+            log.debug("Remove quiz " + quizExerciseId + " from result buffer");
+            quizSubmissionBuffer.removeResults(quizExerciseId);
+            return;
+        }
+
+        // update statistic with all results of the quizExercise
+        try {
+            Set<Result> newResultsForQuiz = quizSubmissionBuffer.removeResults(quizExerciseId);
+            quizStatisticService.updateStatistics(newResultsForQuiz, quizExercise);
+            log.info("Updated statistics with {} new results in {} for quiz {}", newResultsForQuiz.size(), printDuration(start), quizExercise.getTitle());
         }
         catch (Exception e) {
-            log.error("Exception in Quiz Schedule: {}", e.getMessage(), e);
+            log.error("Exception in StatisticService.updateStatistics(): {}", e.getMessage(), e);
         }
     }
 
@@ -447,42 +495,12 @@ public class QuizScheduleService {
         return String.format("%.2f", val);
     }
 
-    private void sendQuizResultToUser(long quizExerciseId, StudentParticipation participation) {
-        var user = participation.getParticipantIdentifier();
-        removeUnnecessaryObjectsBeforeSendingToClient(participation);
-        messagingTemplate.convertAndSendToUser(user, "/topic/exercise/" + quizExerciseId + "/participation", participation);
-    }
-
-    private void removeUnnecessaryObjectsBeforeSendingToClient(StudentParticipation participation) {
-        if (participation.getExercise() != null) {
-            var quizExercise = (QuizExercise) participation.getExercise();
-            // we do not need the course and lectures
-            quizExercise.setCourse(null);
-            // students should not see statistics
-            // TODO: this would be useful, but leads to problems when the quiz schedule service wants to access the statistics again later on
-            // quizExercise.setQuizPointStatistic(null);
-            // quizExercise.getQuizQuestions().forEach(quizQuestion -> quizQuestion.setQuizQuestionStatistic(null));
-        }
-        // submissions are part of results, so we do not need them twice
-        participation.setSubmissions(null);
-        participation.setParticipant(null);
-        if (participation.getResults() != null && participation.getResults().size() > 0) {
-            QuizSubmission quizSubmission = (QuizSubmission) participation.getResults().iterator().next().getSubmission();
-            if (quizSubmission != null && quizSubmission.getSubmittedAnswers() != null) {
-                for (SubmittedAnswer submittedAnswer : quizSubmission.getSubmittedAnswers()) {
-                    if (submittedAnswer.getQuizQuestion() != null) {
-                        // we do not need all information of the questions again, they are already stored in the exercise
-                        var question = submittedAnswer.getQuizQuestion();
-                        submittedAnswer.setQuizQuestion(question.copyQuestionId());
-                    }
-                }
-            }
-        }
-    }
-
     /**
      * check if the user submitted the submission or if the quiz has ended: if true: -> Create Participation and Result and save to Database (DB Write) Remove processed Submissions
-     * from SubmissionHashMap and write Participations with Result into ParticipationHashMap and Results into ResultHashMap
+     * from the submission buffer and write Participations with Result into the participation buffer and Results into the result buffer
+     *
+     * The submissions are saved in chunks of {@link #flushChunkSize} within one transaction each. If a chunk fails (e.g. because of a duplicated key), the submissions of this
+     * chunk are saved individually, so that one exception cannot destroy the answers of other students.
      *
      * @param quizExercise      the quiz which should be checked
      * @param userSubmissionMap a Map with all submissions for the given quizExercise mapped by the username
@@ -490,12 +508,13 @@ public class QuizScheduleService {
      */
     private int saveQuizSubmissionWithParticipationAndResultToDatabase(@NotNull QuizExercise quizExercise, Map<String, QuizSubmission> userSubmissionMap) {
 
-        int count = 0;
+        List<PendingQuizSubmission> pendingSubmissions = new ArrayList<>();
 
-        for (String username : userSubmissionMap.keySet()) {
+        for (var entry : userSubmissionMap.entrySet()) {
+            String username = entry.getKey();
             try {
                 // first case: the user submitted the quizSubmission
-                QuizSubmission quizSubmission = userSubmissionMap.get(username);
+                QuizSubmission quizSubmission = entry.getValue();
                 if (quizSubmission.isSubmitted()) {
                     if (quizSubmission.getType() == null) {
                         quizSubmission.setType(SubmissionType.MANUAL);
@@ -510,57 +529,147 @@ public class QuizScheduleService {
                     // the quiz is running and the submission was not yet submitted.
                     continue;
                 }
+                pendingSubmissions.add(createParticipationAndResult(quizExercise, username, quizSubmission));
+            }
+            catch (Exception e) {
+                log.error("Exception in saveQuizSubmissionWithParticipationAndResultToDatabase() for user {} in quiz {}: {}", username, quizExercise.getId(), e.getMessage(), e);
+            }
+        }
+
+        int count = 0;
+        int chunkSize = Math.max(1, flushChunkSize);
+        for (int index = 0; index < pendingSubmissions.size(); index += chunkSize) {
+            List<PendingQuizSubmission> chunk = pendingSubmissions.subList(index, Math.min(index + chunkSize, pendingSubmissions.size()));
+            List<PendingQuizSubmission> savedSubmissions = saveChunk(quizExercise, chunk);
+            for (PendingQuizSubmission savedSubmission : savedSubmissions) {
+                // add the participation to the participation buffer for the send out at the end of the quiz
+                addParticipation(quizExercise.getId(), savedSubmission.participation);
+                // remove the submission only after the participation has been added to the participation buffer to avoid duplicated key exceptions for multiple
+                // participations for the same user
+                quizSubmissionBuffer.removeSubmission(quizExercise.getId(), savedSubmission.username);
+                // add the result of the participation to the result buffer for the statistic-Update
+                addResultForStatisticUpdate(quizExercise.getId(), savedSubmission.result);
+            }
+            count += chunk.size();
+            savedSubmissionsCounter.increment(savedSubmissions.size());
+        }
 
-                count++;
-                // Create Participation and Result and save to Database (DB Write)
-                // Remove processed Submissions from SubmissionHashMap and write Participations with Result into ParticipationHashMap and Results into ResultHashMap
+        return count;
+    }
 
-                StudentParticipation participation = new StudentParticipation();
-                // TODO: when this is set earlier for the individual quiz start of a student, we don't need to set this here anymore
-                participation.setInitializationDate(quizSubmission.getSubmissionDate());
-                Optional<User> user = userService.getUserByLogin(username);
-                user.ifPresent(participation::setParticipant);
-                // add the quizExercise to the participation
-                participation.setExercise(quizExercise);
-                participation.setInitializationState(InitializationState.FINISHED);
+    /**
+     * Create Participation and Result for the given submission and calculate the scores. Nothing is saved to the database.
+     */
+    private PendingQuizSubmission createParticipationAndResult(QuizExercise quizExercise, String username, QuizSubmission quizSubmission) {
+        StudentParticipation participation = new StudentParticipation();
+        // TODO: when this is set earlier for the individual quiz start of a student, we don't need to set this here anymore
+        participation.setInitializationDate(quizSubmission.getSubmissionDate());
+        Optional<User> user = userService.getUserByLogin(username);
+        user.ifPresent(participation::setParticipant);
+        // add the quizExercise to the participation
+        participation.setExercise(quizExercise);
+        participation.setInitializationState(InitializationState.FINISHED);
+
+        // create new result
+        Result result = new Result().participation(participation).submission(quizSubmission);
+        result.setRated(true);
+        result.setAssessmentType(AssessmentType.AUTOMATIC);
+        result.setCompletionDate(quizSubmission.getSubmissionDate());
+        result.setSubmission(quizSubmission);
+
+        // calculate scores and update result and submission accordingly
+        quizSubmission.calculateAndUpdateScores(quizExercise);
+        result.evaluateSubmission();
+
+        // add result to participation
+        participation.addResult(result);
+
+        // add submission to participation
+        participation.addSubmissions(quizSubmission);
+
+        return new PendingQuizSubmission(username, participation, quizSubmission, result);
+    }
 
-                // create new result
-                Result result = new Result().participation(participation).submission(quizSubmission);
-                result.setRated(true);
-                result.setAssessmentType(AssessmentType.AUTOMATIC);
-                result.setCompletionDate(quizSubmission.getSubmissionDate());
-                result.setSubmission(quizSubmission);
+    /**
+     * Saves participations, submissions and results of one chunk within a single transaction. If this fails, the transaction is rolled back and the submissions of the chunk are
+     * saved one by one, so that only the submissions that actually cause an error are lost.
+     *
+     * @return the successfully saved submissions
+     */
+    private List<PendingQuizSubmission> saveChunk(QuizExercise quizExercise, List<PendingQuizSubmission> chunk) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<StudentParticipation> participations = studentParticipationRepository
+                        .saveAll(chunk.stream().map(pendingSubmission -> pendingSubmission.participation).collect(Collectors.toList()));
+                quizSubmissionRepository.saveAll(chunk.stream().map(pendingSubmission -> pendingSubmission.submission).collect(Collectors.toList()));
+                List<Result> results = resultRepository.saveAll(chunk.stream().map(pendingSubmission -> pendingSubmission.result).collect(Collectors.toList()));
+                for (int i = 0; i < chunk.size(); i++) {
+                    chunk.get(i).participation = participations.get(i);
+                    chunk.get(i).result = results.get(i);
+                }
+            });
+            return chunk;
+        }
+        catch (Exception chunkException) {
+            failedChunksCounter.increment();
+            log.warn("Could not save chunk of {} submissions in quiz {}, save them individually: {}", chunk.size(), quizExercise.getId(), chunkException.getMessage());
+        }
 
-                // calculate scores and update result and submission accordingly
-                quizSubmission.calculateAndUpdateScores(quizExercise);
-                result.evaluateSubmission();
+        List<PendingQuizSubmission> savedSubmissions = new ArrayList<>();
+        for (PendingQuizSubmission pendingSubmission : chunk) {
+            try {
+                // the rolled back transaction might have assigned ids that do not exist in the database
+                pendingSubmission.resetIds();
+                // NOTE: we save participation, submission and result here individually so that one exception (e.g. duplicated key) cannot destroy multiple student answers
+                pendingSubmission.participation = studentParticipationRepository.save(pendingSubmission.participation);
+                quizSubmissionRepository.save(pendingSubmission.submission);
+                pendingSubmission.result = resultRepository.save(pendingSubmission.result);
+                savedSubmissions.add(pendingSubmission);
+            }
+            catch (Exception e) {
+                log.error("Exception in saveQuizSubmissionWithParticipationAndResultToDatabase() for user {} in quiz {}: {}", pendingSubmission.username, quizExercise.getId(),
+                        e.getMessage(), e);
+            }
+        }
+        return savedSubmissions;
+    }
 
-                // add result to participation
-                participation.addResult(result);
+    /**
+     * A submission together with the participation and result that are created for it when it is saved to the database
+     */
+    private static class PendingQuizSubmission {
 
-                // add submission to participation
-                participation.addSubmissions(quizSubmission);
+        private final String username;
 
-                // NOTE: we save participation, submission and result here individually so that one exception (e.g. duplicated key) cannot destroy multiple student answers
-                participation = studentParticipationRepository.save(participation);
-                quizSubmissionRepository.save(quizSubmission);
-                result = resultRepository.save(result);
+        private StudentParticipation participation;
 
-                // add the participation to the participationHashMap for the send out at the end of the quiz
-                addParticipation(quizExercise.getId(), participation);
+        private final QuizSubmission submission;
 
-                // remove the submission only after the participation has been added to the participation hashmap to avoid duplicated key exceptions for multiple participations for
-                // the same user
-                userSubmissionMap.remove(username);
+        private Result result;
 
-                // add the result of the participation resultHashMap for the statistic-Update
-                addResultForStatisticUpdate(quizExercise.getId(), result);
+        private PendingQuizSubmission(String username, StudentParticipation participation, QuizSubmission submission, Result result) {
+            this.username = username;
+            this.participation = participation;
+            this.submission = submission;
+            this.result = result;
+        }
+
+        private void resetIds() {
+            participation.setId(null);
+            submission.setId(null);
+            result.setId(null);
+            if (submission.getSubmittedAnswers() == null) {
+                return;
             }
-            catch (Exception e) {
-                log.error("Exception in saveQuizSubmissionWithParticipationAndResultToDatabase() for user {} in quiz {}: {}", username, quizExercise.getId(), e.getMessage(), e);
+            for (SubmittedAnswer submittedAnswer : submission.getSubmittedAnswers()) {
+                submittedAnswer.setId(null);
+                if (submittedAnswer instanceof DragAndDropSubmittedAnswer) {
+                    ((DragAndDropSubmittedAnswer) submittedAnswer).getMappings().forEach(mapping -> mapping.setId(null));
+                }
+                else if (submittedAnswer instanceof ShortAnswerSubmittedAnswer) {
+                    ((ShortAnswerSubmittedAnswer) submittedAnswer).getSubmittedTexts().forEach(submittedText -> submittedText.setId(null));
+                }
             }
         }
-
-        return count;
     }
 }
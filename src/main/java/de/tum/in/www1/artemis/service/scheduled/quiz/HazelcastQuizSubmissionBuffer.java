@@ -0,0 +1,196 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import java.util.*;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.hazelcast.collection.ISet;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
+
+/**
+ * Distributes all buffered quiz data across the Hazelcast cluster, so that a submission received by one node can be saved by any other node and every node sees whether a
+ * user has already submitted. The processing of one quiz is guarded by a cluster wide lock, so that a quiz is only flushed by one node at a time.
+ */
+@Component
+@ConditionalOnProperty(name = "artemis.quiz.submission-buffer", havingValue = "hazelcast")
+public class HazelcastQuizSubmissionBuffer implements QuizSubmissionBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(HazelcastQuizSubmissionBuffer.class);
+
+    private static final String SUBMISSIONS_PREFIX = "quiz-submissions-";
+
+    private static final String PARTICIPATIONS_PREFIX = "quiz-participations-";
+
+    private static final String RESULTS_PREFIX = "quiz-results-";
+
+    private final HazelcastInstance hazelcastInstance;
+
+    /**
+     * quizExerciseIds for which the corresponding distributed map contains data
+     */
+    private final ISet<Long> quizExerciseIdsWithSubmissions;
+
+    private final ISet<Long> quizExerciseIdsWithParticipations;
+
+    private final ISet<Long> quizExerciseIdsWithResults;
+
+    /**
+     * quizExerciseId -> lock owner, only used for the cluster wide locking of a quiz
+     */
+    private final IMap<Long, Long> processingLocks;
+
+    public HazelcastQuizSubmissionBuffer(HazelcastInstance hazelcastInstance) {
+        this.hazelcastInstance = hazelcastInstance;
+        this.quizExerciseIdsWithSubmissions = hazelcastInstance.getSet("quiz-submission-exercise-ids");
+        this.quizExerciseIdsWithParticipations = hazelcastInstance.getSet("quiz-participation-exercise-ids");
+        this.quizExerciseIdsWithResults = hazelcastInstance.getSet("quiz-result-exercise-ids");
+        this.processingLocks = hazelcastInstance.getMap("quiz-processing-locks");
+        log.info("Quiz submissions are buffered in the Hazelcast cluster");
+    }
+
+    private IMap<String, QuizSubmission> submissionMap(Long quizExerciseId) {
+        return hazelcastInstance.getMap(SUBMISSIONS_PREFIX + quizExerciseId);
+    }
+
+    private IMap<String, StudentParticipation> participationMap(Long quizExerciseId) {
+        return hazelcastInstance.getMap(PARTICIPATIONS_PREFIX + quizExerciseId);
+    }
+
+    private IMap<String, Result> resultMap(Long quizExerciseId) {
+        return hazelcastInstance.getMap(RESULTS_PREFIX + quizExerciseId);
+    }
+
+    @Override
+    public void putSubmission(Long quizExerciseId, String username, QuizSubmission quizSubmission) {
+        quizExerciseIdsWithSubmissions.add(quizExerciseId);
+        submissionMap(quizExerciseId).set(username, quizSubmission);
+    }
+
+    @Override
+    public QuizSubmission getSubmission(Long quizExerciseId, String username) {
+        if (!quizExerciseIdsWithSubmissions.contains(quizExerciseId)) {
+            return null;
+        }
+        return submissionMap(quizExerciseId).get(username);
+    }
+
+    @Override
+    public Map<String, QuizSubmission> getSubmissions(Long quizExerciseId) {
+        if (!quizExerciseIdsWithSubmissions.contains(quizExerciseId)) {
+            return new HashMap<>();
+        }
+        return new HashMap<>(submissionMap(quizExerciseId));
+    }
+
+    @Override
+    public void removeSubmission(Long quizExerciseId, String username) {
+        submissionMap(quizExerciseId).delete(username);
+    }
+
+    @Override
+    public void removeSubmissions(Long quizExerciseId) {
+        quizExerciseIdsWithSubmissions.remove(quizExerciseId);
+        submissionMap(quizExerciseId).destroy();
+    }
+
+    @Override
+    public Set<Long> getQuizExerciseIdsWithSubmissions() {
+        return new HashSet<>(quizExerciseIdsWithSubmissions);
+    }
+
+    @Override
+    public void putParticipation(Long quizExerciseId, StudentParticipation participation) {
+        quizExerciseIdsWithParticipations.add(quizExerciseId);
+        participationMap(quizExerciseId).set(participation.getParticipantIdentifier(), participation);
+    }
+
+    @Override
+    public StudentParticipation getParticipation(Long quizExerciseId, String username) {
+        if (!quizExerciseIdsWithParticipations.contains(quizExerciseId)) {
+            return null;
+        }
+        return participationMap(quizExerciseId).get(username);
+    }
+
+    @Override
+    public Collection<StudentParticipation> removeParticipations(Long quizExerciseId) {
+        quizExerciseIdsWithParticipations.remove(quizExerciseId);
+        return removeAllEntries(participationMap(quizExerciseId));
+    }
+
+    @Override
+    public Set<Long> getQuizExerciseIdsWithParticipations() {
+        return new HashSet<>(quizExerciseIdsWithParticipations);
+    }
+
+    @Override
+    public void addResult(Long quizExerciseId, Result result) {
+        quizExerciseIdsWithResults.add(quizExerciseId);
+        String key = result.getId() != null ? result.getId().toString() : UUID.randomUUID().toString();
+        resultMap(quizExerciseId).set(key, result);
+    }
+
+    @Override
+    public Set<Result> removeResults(Long quizExerciseId) {
+        quizExerciseIdsWithResults.remove(quizExerciseId);
+        return new HashSet<>(removeAllEntries(resultMap(quizExerciseId)));
+    }
+
+    @Override
+    public Set<Long> getQuizExerciseIdsWithResults() {
+        return new HashSet<>(quizExerciseIdsWithResults);
+    }
+
+    /**
+     * Removes the entries one by one instead of clearing the whole map, so that entries that are added by other nodes in the meantime are not lost but processed in the next run.
+     */
+    private <T> List<T> removeAllEntries(IMap<String, T> map) {
+        List<T> removedValues = new ArrayList<>();
+        for (String key : map.keySet()) {
+            T value = map.remove(key);
+            if (value != null) {
+                removedValues.add(value);
+            }
+        }
+        return removedValues;
+    }
+
+    @Override
+    public boolean tryLock(Long quizExerciseId) {
+        return processingLocks.tryLock(quizExerciseId);
+    }
+
+    @Override
+    public void unlock(Long quizExerciseId) {
+        processingLocks.unlock(quizExerciseId);
+    }
+
+    @Override
+    public int getSubmissionBacklogSize() {
+        return quizExerciseIdsWithSubmissions.stream().mapToInt(quizExerciseId -> submissionMap(quizExerciseId).size()).sum();
+    }
+
+    @Override
+    public void clear(Long quizExerciseId) {
+        removeSubmissions(quizExerciseId);
+        quizExerciseIdsWithParticipations.remove(quizExerciseId);
+        participationMap(quizExerciseId).destroy();
+        quizExerciseIdsWithResults.remove(quizExerciseId);
+        resultMap(quizExerciseId).destroy();
+    }
+
+    @Override
+    public void clearAll() {
+        new HashSet<>(quizExerciseIdsWithSubmissions).forEach(this::clear);
+        new HashSet<>(quizExerciseIdsWithParticipations).forEach(this::clear);
+        new HashSet<>(quizExerciseIdsWithResults).forEach(this::clear);
+    }
+}
@@ -0,0 +1,142 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
+
+/**
+ * Keeps all buffered quiz data in the memory of the current node. This is the default and only works if Artemis runs on a single node.
+ */
+@Component
+@ConditionalOnProperty(name = "artemis.quiz.submission-buffer", havingValue = "local", matchIfMissing = true)
+public class LocalQuizSubmissionBuffer implements QuizSubmissionBuffer {
+
+    /**
+     * quizExerciseId -> Map<username -> QuizSubmission>
+     */
+    private final Map<Long, Map<String, QuizSubmission>> submissions = new ConcurrentHashMap<>();
+
+    /**
+     * quizExerciseId -> Map<username -> StudentParticipation>
+     */
+    private final Map<Long, Map<String, StudentParticipation>> participations = new ConcurrentHashMap<>();
+
+    /**
+     * quizExerciseId -> [Result]
+     */
+    private final Map<Long, Set<Result>> results = new ConcurrentHashMap<>();
+
+    private final Map<Long, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    @Override
+    public void putSubmission(Long quizExerciseId, String username, QuizSubmission quizSubmission) {
+        submissions.computeIfAbsent(quizExerciseId, id -> new ConcurrentHashMap<>()).put(username, quizSubmission);
+    }
+
+    @Override
+    public QuizSubmission getSubmission(Long quizExerciseId, String username) {
+        Map<String, QuizSubmission> submissionsOfQuiz = submissions.get(quizExerciseId);
+        return submissionsOfQuiz != null ? submissionsOfQuiz.get(username) : null;
+    }
+
+    @Override
+    public Map<String, QuizSubmission> getSubmissions(Long quizExerciseId) {
+        Map<String, QuizSubmission> submissionsOfQuiz = submissions.get(quizExerciseId);
+        return submissionsOfQuiz != null ? new HashMap<>(submissionsOfQuiz) : new HashMap<>();
+    }
+
+    @Override
+    public void removeSubmission(Long quizExerciseId, String username) {
+        Map<String, QuizSubmission> submissionsOfQuiz = submissions.get(quizExerciseId);
+        if (submissionsOfQuiz != null) {
+            submissionsOfQuiz.remove(username);
+        }
+    }
+
+    @Override
+    public void removeSubmissions(Long quizExerciseId) {
+        submissions.remove(quizExerciseId);
+    }
+
+    @Override
+    public Set<Long> getQuizExerciseIdsWithSubmissions() {
+        return new HashSet<>(submissions.keySet());
+    }
+
+    @Override
+    public void putParticipation(Long quizExerciseId, StudentParticipation participation) {
+        participations.computeIfAbsent(quizExerciseId, id -> new ConcurrentHashMap<>()).put(participation.getParticipantIdentifier(), participation);
+    }
+
+    @Override
+    public StudentParticipation getParticipation(Long quizExerciseId, String username) {
+        Map<String, StudentParticipation> participationsOfQuiz = participations.get(quizExerciseId);
+        return participationsOfQuiz != null ? participationsOfQuiz.get(username) : null;
+    }
+
+    @Override
+    public Collection<StudentParticipation> removeParticipations(Long quizExerciseId) {
+        Map<String, StudentParticipation> participationsOfQuiz = participations.remove(quizExerciseId);
+        return participationsOfQuiz != null ? participationsOfQuiz.values() : List.of();
+    }
+
+    @Override
+    public Set<Long> getQuizExerciseIdsWithParticipations() {
+        return new HashSet<>(participations.keySet());
+    }
+
+    @Override
+    public void addResult(Long quizExerciseId, Result result) {
+        results.computeIfAbsent(quizExerciseId, id -> ConcurrentHashMap.newKeySet()).add(result);
+    }
+
+    @Override
+    public Set<Result> removeResults(Long quizExerciseId) {
+        Set<Result> resultsOfQuiz = results.remove(quizExerciseId);
+        return resultsOfQuiz != null ? resultsOfQuiz : Set.of();
+    }
+
+    @Override
+    public Set<Long> getQuizExerciseIdsWithResults() {
+        return new HashSet<>(results.keySet());
+    }
+
+    @Override
+    public boolean tryLock(Long quizExerciseId) {
+        return locks.computeIfAbsent(quizExerciseId, id -> new ReentrantLock()).tryLock();
+    }
+
+    @Override
+    public void unlock(Long quizExerciseId) {
+        ReentrantLock lock = locks.get(quizExerciseId);
+        if (lock != null && lock.isHeldByCurrentThread()) {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getSubmissionBacklogSize() {
+        return submissions.values().stream().mapToInt(Map::size).sum();
+    }
+
+    @Override
+    public void clear(Long quizExerciseId) {
+        participations.remove(quizExerciseId);
+        submissions.remove(quizExerciseId);
+        results.remove(quizExerciseId);
+    }
+
+    @Override
+    public void clearAll() {
+        participations.clear();
+        submissions.clear();
+        results.clear();
+    }
+}
@@ -0,0 +1,198 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.tum.in.www1.artemis.domain.Exercise;
+import de.tum.in.www1.artemis.domain.SubmittedAnswer;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
+import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Sends the participations (including the result) of a finished quiz to the participants. The quiz exercise is the same for all participants, so it is serialized only once and
+ * combined with the small serialized participation of each user. The messages are serialized and sent on a bounded pool of threads, if all threads are busy and the queue is full,
+ * the calling thread sends the next message itself (backpressure), so that no result is lost.
+ */
+@Component
+public class QuizResultDistributor {
+
+    private static final Logger log = LoggerFactory.getLogger(QuizResultDistributor.class);
+
+    /**
+     * messages that are rejected because the server shuts down are never sent, so we do not wait longer than this time for all messages
+     */
+    private static final long MAX_DISTRIBUTION_MINUTES = 10;
+
+    private final SimpMessageSendingOperations messagingTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final ThreadPoolExecutor outboundExecutor;
+
+    /**
+     * time from the start of the distribution until the message of one participant was sent, the percentiles show how far apart the first and the last student see their result
+     */
+    private final Timer deliveryLatencyTimer;
+
+    private final Timer distributionTimer;
+
+    private final Counter failedMessagesCounter;
+
+    public QuizResultDistributor(SimpMessageSendingOperations messagingTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            @Value("${artemis.quiz.result-distribution.threads:8}") int threads, @Value("${artemis.quiz.result-distribution.queue-capacity:1000}") int queueCapacity) {
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        int poolSize = Math.max(1, threads);
+        this.outboundExecutor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.deliveryLatencyTimer = Timer.builder("artemis.quiz.results.delivery_latency")
+                .description("Time from the start of the distribution until the result was sent to a participant").publishPercentiles(0.5, 0.95, 0.99).register(meterRegistry);
+        this.distributionTimer = Timer.builder("artemis.quiz.results.distribution").description("Duration of sending the results of a quiz to all participants")
+                .register(meterRegistry);
+        this.failedMessagesCounter = Counter.builder("artemis.quiz.results.failed").description("Number of quiz results that could not be sent to the participant")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        outboundExecutor.shutdownNow();
+    }
+
+    /**
+     * Send each participation with its result and the quiz exercise to the participant. Returns when all messages were sent.
+     *
+     * @param quizExercise   the finished quiz exercise (including the questions)
+     * @param participations the finished participations of the quiz, the participant of each participation has to be available
+     * @return the number of messages that were sent
+     */
+    public int distributeResults(QuizExercise quizExercise, Collection<StudentParticipation> participations) {
+        long start = System.nanoTime();
+        // we do not need the course and lectures
+        quizExercise.setCourse(null);
+        byte[] exerciseFragment;
+        try {
+            exerciseFragment = objectMapper.writeValueAsBytes(new ExerciseHolder(quizExercise));
+        }
+        catch (JsonProcessingException ex) {
+            log.error("The quiz exercise " + quizExercise.getId() + " could not be serialized, the results are not sent to the participants", ex);
+            failedMessagesCounter.increment(participations.size());
+            return 0;
+        }
+
+        String destination = "/topic/exercise/" + quizExercise.getId() + "/participation";
+        CountDownLatch remainingMessages = new CountDownLatch(participations.size());
+        AtomicInteger sentMessages = new AtomicInteger();
+        for (StudentParticipation participation : participations) {
+            outboundExecutor.execute(() -> {
+                try {
+                    sendResult(participation, destination, exerciseFragment);
+                    sentMessages.incrementAndGet();
+                }
+                catch (Exception ex) {
+                    failedMessagesCounter.increment();
+                    log.error("The result of quiz " + quizExercise.getId() + " could not be sent to " + participation.getParticipantIdentifier(), ex);
+                }
+                finally {
+                    deliveryLatencyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    remainingMessages.countDown();
+                }
+            });
+        }
+        try {
+            if (!remainingMessages.await(MAX_DISTRIBUTION_MINUTES, TimeUnit.MINUTES)) {
+                log.warn("{} results of quiz {} were not sent within {} minutes", remainingMessages.getCount(), quizExercise.getId(), MAX_DISTRIBUTION_MINUTES);
+            }
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while sending the results of quiz {}, {} results are still being sent", quizExercise.getId(), remainingMessages.getCount());
+        }
+        distributionTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return sentMessages.get();
+    }
+
+    private void sendResult(StudentParticipation participation, String destination, byte[] exerciseFragment) throws JsonProcessingException {
+        String user = participation.getParticipantIdentifier();
+        // the exercise is not serialized for each participation, it is taken from the shared fragment
+        participation.setExercise(null);
+        removeUnnecessaryObjectsBeforeSendingToClient(participation);
+        byte[] payload = combine(exerciseFragment, objectMapper.writeValueAsBytes(participation));
+        // same destination and content type as SimpMessageSendingOperations.convertAndSendToUser, the payload is already serialized
+        messagingTemplate.send("/user/" + user.replace("/", "%2F") + destination,
+                MessageBuilder.withPayload(payload).setHeader(MessageHeaders.CONTENT_TYPE, MimeTypeUtils.APPLICATION_JSON).build());
+    }
+
+    private void removeUnnecessaryObjectsBeforeSendingToClient(StudentParticipation participation) {
+        // submissions are part of results, so we do not need them twice
+        participation.setSubmissions(null);
+        participation.setParticipant(null);
+        if (participation.getResults() != null && participation.getResults().size() > 0) {
+            QuizSubmission quizSubmission = (QuizSubmission) participation.getResults().iterator().next().getSubmission();
+            if (quizSubmission != null && quizSubmission.getSubmittedAnswers() != null) {
+                for (SubmittedAnswer submittedAnswer : quizSubmission.getSubmittedAnswers()) {
+                    if (submittedAnswer.getQuizQuestion() != null) {
+                        // we do not need all information of the questions again, they are already stored in the exercise
+                        var question = submittedAnswer.getQuizQuestion();
+                        submittedAnswer.setQuizQuestion(question.copyQuestionId());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Combine the serialized exercise <code>{"exercise":{...}}</code> and the serialized participation without exercise <code>{"id":1,...}</code> to one JSON object
+     * <code>{"exercise":{...},"id":1,...}</code>
+     */
+    static byte[] combine(byte[] exerciseFragment, byte[] participationJson) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(exerciseFragment.length + participationJson.length);
+        // the fragment without its closing brace
+        payload.write(exerciseFragment, 0, exerciseFragment.length - 1);
+        if (participationJson.length > 2) {
+            payload.write(',');
+            // the participation without its opening brace
+            payload.write(participationJson, 1, participationJson.length - 1);
+        }
+        else {
+            payload.write('}');
+        }
+        return payload.toByteArray();
+    }
+
+    /**
+     * Serializes the exercise in the same way as {@link de.tum.in.www1.artemis.domain.participation.Participation#getExercise()} within a participation
+     */
+    private static class ExerciseHolder {
+
+        @JsonIgnoreProperties("studentParticipations")
+        public final Exercise exercise;
+
+        private ExerciseHolder(Exercise exercise) {
+            this.exercise = exercise;
+        }
+    }
+}
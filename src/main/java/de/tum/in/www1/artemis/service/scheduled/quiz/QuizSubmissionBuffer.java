@@ -0,0 +1,142 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
+
+/**
+ * Buffers live quiz submissions, finished participations and results until the {@link de.tum.in.www1.artemis.service.scheduled.QuizScheduleService} flushes them to the
+ * database, sends them to the students or updates the statistics.
+ *
+ * Two implementations exist: {@link LocalQuizSubmissionBuffer} keeps everything in the memory of the current node, {@link HazelcastQuizSubmissionBuffer} distributes the data
+ * across all nodes of the cluster. The implementation is selected with the property <code>artemis.quiz.submission-buffer</code> (<code>local</code> or <code>hazelcast</code>).
+ */
+public interface QuizSubmissionBuffer {
+
+    /**
+     * add or replace the quiz submission of the given user
+     *
+     * @param quizExerciseId the id of the quiz the submission belongs to
+     * @param username       the username of the user who submitted the submission
+     * @param quizSubmission the submission that should be buffered
+     */
+    void putSubmission(Long quizExerciseId, String username, QuizSubmission quizSubmission);
+
+    /**
+     * @param quizExerciseId the id of the quiz the submission belongs to
+     * @param username       the username of the user who submitted the submission
+     * @return the buffered submission or null if there is none
+     */
+    QuizSubmission getSubmission(Long quizExerciseId, String username);
+
+    /**
+     * @param quizExerciseId the id of the quiz
+     * @return a snapshot of all buffered submissions of the quiz mapped by username, empty if there are none
+     */
+    Map<String, QuizSubmission> getSubmissions(Long quizExerciseId);
+
+    /**
+     * remove the buffered submission of the given user, e.g. after it has been saved to the database
+     *
+     * @param quizExerciseId the id of the quiz the submission belongs to
+     * @param username       the username of the user who submitted the submission
+     */
+    void removeSubmission(Long quizExerciseId, String username);
+
+    /**
+     * remove all buffered submissions of the given quiz
+     *
+     * @param quizExerciseId the id of the quiz
+     */
+    void removeSubmissions(Long quizExerciseId);
+
+    /**
+     * @return the ids of all quizzes for which submissions are buffered
+     */
+    Set<Long> getQuizExerciseIdsWithSubmissions();
+
+    /**
+     * add a participation which should be sent to the user when the quiz ends
+     *
+     * @param quizExerciseId the id of the quiz the participation belongs to
+     * @param participation  the participation including the result
+     */
+    void putParticipation(Long quizExerciseId, StudentParticipation participation);
+
+    /**
+     * @param quizExerciseId the id of the quiz the participation belongs to
+     * @param username       the username of the user the participation belongs to
+     * @return the buffered participation or null if there is none
+     */
+    StudentParticipation getParticipation(Long quizExerciseId, String username);
+
+    /**
+     * remove and return all buffered participations of the given quiz
+     *
+     * @param quizExerciseId the id of the quiz
+     * @return the removed participations, empty if there were none
+     */
+    Collection<StudentParticipation> removeParticipations(Long quizExerciseId);
+
+    /**
+     * @return the ids of all quizzes for which participations are buffered
+     */
+    Set<Long> getQuizExerciseIdsWithParticipations();
+
+    /**
+     * add a result which should be included in the next statistic update
+     *
+     * @param quizExerciseId the id of the quiz the result belongs to
+     * @param result         the result
+     */
+    void addResult(Long quizExerciseId, Result result);
+
+    /**
+     * remove and return all buffered results of the given quiz
+     *
+     * @param quizExerciseId the id of the quiz
+     * @return the removed results, empty if there were none
+     */
+    Set<Result> removeResults(Long quizExerciseId);
+
+    /**
+     * @return the ids of all quizzes for which results are buffered
+     */
+    Set<Long> getQuizExerciseIdsWithResults();
+
+    /**
+     * Try to acquire the exclusive right to process the buffered data of the given quiz. Only one thread (and in a cluster only one node) may process a quiz at the same time.
+     *
+     * @param quizExerciseId the id of the quiz
+     * @return true if the lock was acquired and {@link #unlock(Long)} has to be called afterwards, false if another thread or node currently processes the quiz
+     */
+    boolean tryLock(Long quizExerciseId);
+
+    /**
+     * release the lock acquired with {@link #tryLock(Long)}
+     *
+     * @param quizExerciseId the id of the quiz
+     */
+    void unlock(Long quizExerciseId);
+
+    /**
+     * @return the number of buffered submissions over all quizzes that have not yet been saved to the database
+     */
+    int getSubmissionBacklogSize();
+
+    /**
+     * remove all buffered submissions, participations and results of the given quiz
+     *
+     * @param quizExerciseId the id of the quiz
+     */
+    void clear(Long quizExerciseId);
+
+    /**
+     * remove all buffered submissions, participations and results of all quizzes
+     */
+    void clearAll();
+}
@@ -20,6 +20,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.audit.AuditEvent;
 import org.springframework.boot.actuate.audit.AuditEventRepository;
 import org.springframework.core.env.Environment;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -41,6 +42,7 @@ import de.tum.in.www1.artemis.repository.ComplaintResponseRepository;
 import de.tum.in.www1.artemis.repository.CourseRepository;
 import de.tum.in.www1.artemis.repository.ExampleSubmissionRepository;
 import de.tum.in.www1.artemis.security.ArtemisAuthenticationProvider;
+import de.tum.in.www1.artemis.security.SecurityUtils;
 import de.tum.in.www1.artemis.service.*;
 import de.tum.in.www1.artemis.service.connectors.VcsUserManagementService;
 import de.tum.in.www1.artemis.web.rest.dto.DueDateStat;
@@ -113,6 +115,8 @@ public class CourseResource {
 
     private final Optional<VcsUserManagementService> vcsUserManagementService;
 
+    private final CourseDashboardCacheService courseDashboardCacheService;
+
     private final Environment env;
 
     public CourseResource(UserService userService, CourseService courseService, ParticipationService participationService, CourseRepository courseRepository,
@@ -121,7 +125,8 @@ public class CourseResource {
             ArtemisAuthenticationProvider artemisAuthenticationProvider, ComplaintRepository complaintRepository, ComplaintResponseRepository complaintResponseRepository,
             LectureService lectureService, NotificationService notificationService, SubmissionService submissionService, ResultService resultService,
             ComplaintService complaintService, TutorLeaderboardService tutorLeaderboardService, ExampleSubmissionRepository exampleSubmissionRepository,
-            ProgrammingExerciseService programmingExerciseService, AuditEventRepository auditEventRepository, Optional<VcsUserManagementService> vcsUserManagementService) {
+            ProgrammingExerciseService programmingExerciseService, AuditEventRepository auditEventRepository, Optional<VcsUserManagementService> vcsUserManagementService,
+            CourseDashboardCacheService courseDashboardCacheService) {
         this.userService = userService;
         this.courseService = courseService;
         this.participationService = participationService;
@@ -145,6 +150,7 @@ public class CourseResource {
         this.exampleSubmissionRepository = exampleSubmissionRepository;
         this.vcsUserManagementService = vcsUserManagementService;
         this.auditEventRepository = auditEventRepository;
+        this.courseDashboardCacheService = courseDashboardCacheService;
         this.env = env;
     }
 
@@ -452,14 +458,15 @@ public class CourseResource {
      * @param courses the courses for which the participations should be fetched
      * @param user  the user for which the participations should be fetched
      * @param startTimeInMillis start time for logging purposes
+     * @return the participations of the user in the exercises of the courses
      */
-    public void fetchParticipationsWithSubmissionsAndResultsForCourses(List<Course> courses, User user, long startTimeInMillis) {
+    public List<StudentParticipation> fetchParticipationsWithSubmissionsAndResultsForCourses(List<Course> courses, User user, long startTimeInMillis) {
         Map<ExerciseMode, List<Exercise>> activeExercises = courses.stream().flatMap(course -> course.getExercises().stream()).collect(Collectors.groupingBy(Exercise::getMode));
         List<Exercise> activeIndividualExercises = Optional.ofNullable(activeExercises.get(ExerciseMode.INDIVIDUAL)).orElse(List.of());
         List<Exercise> activeTeamExercises = Optional.ofNullable(activeExercises.get(ExerciseMode.TEAM)).orElse(List.of());
 
         if (activeIndividualExercises.isEmpty() && activeTeamExercises.isEmpty()) {
-            return;
+            return List.of();
         }
 
         // Note: we need two database calls here, because of performance reasons: the entity structure for team is significantly different and a combined database call
@@ -488,24 +495,36 @@ public class CourseResource {
         }
         log.info("/courses/for-dashboard.done in " + (System.currentTimeMillis() - startTimeInMillis) + "ms for " + courses.size() + " courses with "
                 + activeIndividualExercises.size() + " individual exercises and " + activeTeamExercises.size() + " team exercises for user " + user.getLogin());
+        return participations;
     }
 
     /**
      * GET /courses/for-dashboard
      *
+     * The dashboard is cached per user until something changes that is shown on it. The response contains an ETag, so the client can send it in the If-None-Match header and
+     * gets 304 (Not Modified) without a body as long as the cached dashboard is still up to date.
+     *
      * @return the list of courses (the user has access to) including all exercises with participation and result for the user
      */
     @GetMapping("/courses/for-dashboard")
     @PreAuthorize("hasAnyRole('USER', 'TA', 'INSTRUCTOR', 'ADMIN')")
-    public List<Course> getAllCoursesForDashboard() {
+    public ResponseEntity<List<Course>> getAllCoursesForDashboard() {
         long start = System.currentTimeMillis();
         log.debug("REST request to get all Courses the user has access to with exercises, participations and results");
-        User user = userService.getUserWithGroupsAndAuthorities();
-
-        // get all courses with exercises for this user
-        List<Course> courses = courseService.findAllActiveWithExercisesAndLecturesForUser(user);
-        fetchParticipationsWithSubmissionsAndResultsForCourses(courses, user, start);
-        return courses;
+        String login = SecurityUtils.getCurrentUserLogin().orElseThrow();
+        CourseDashboardCacheService.CachedDashboard dashboard = courseDashboardCacheService.get(login);
+        if (dashboard == null) {
+            long loadingStart = courseDashboardCacheService.startLoading();
+            User user = userService.getUserWithGroupsAndAuthorities();
+
+            // get all courses with exercises for this user
+            List<Course> courses = courseService.findAllActiveWithExercisesAndLecturesForUser(user);
+            List<StudentParticipation> participations = fetchParticipationsWithSubmissionsAndResultsForCourses(courses, user, start);
+            Set<Long> participationIds = participations.stream().map(StudentParticipation::getId).collect(Collectors.toSet());
+            dashboard = courseDashboardCacheService.put(login, courses, participationIds, loadingStart);
+        }
+        // Spring answers with 304 (Not Modified) if the ETag matches the If-None-Match header of the request
+        return ResponseEntity.ok().eTag(dashboard.getETag()).cacheControl(CacheControl.noCache().cachePrivate()).body(dashboard.getCourses());
     }
 
     /**
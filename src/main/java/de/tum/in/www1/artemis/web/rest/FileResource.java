@@ -17,6 +17,7 @@ import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.io.support.ResourcePatternUtils;
@@ -36,7 +37,7 @@ import de.tum.in.www1.artemis.repository.FileUploadExerciseRepository;
 import de.tum.in.www1.artemis.repository.FileUploadSubmissionRepository;
 import de.tum.in.www1.artemis.repository.LectureRepository;
 import de.tum.in.www1.artemis.security.jwt.TokenProvider;
-import de.tum.in.www1.artemis.service.FileService;
+import de.tum.in.www1.artemis.service.SmallFileCacheService;
 
 /**
  * REST controller for managing Course.
@@ -47,8 +48,6 @@ public class FileResource {
 
     private final Logger log = LoggerFactory.getLogger(FileResource.class);
 
-    private final FileService fileService;
-
     private final ResourceLoader resourceLoader;
 
     private final LectureRepository lectureRepository;
@@ -59,6 +58,8 @@ public class FileResource {
 
     private final FileUploadExerciseRepository fileUploadExerciseRepository;
 
+    private final SmallFileCacheService smallFileCacheService;
+
     // NOTE: this list has to be the same as in file-uploader.service.ts
     private List<String> allowedFileExtensions = new ArrayList<>(Arrays.asList("png", "jpg", "jpeg", "svg", "pdf", "zip"));
 
@@ -70,14 +71,14 @@ public class FileResource {
         this.allowedFileExtensions.remove(fileExtension);
     }
 
-    public FileResource(FileService fileService, ResourceLoader resourceLoader, LectureRepository lectureRepository, TokenProvider tokenProvider,
-            FileUploadSubmissionRepository fileUploadSubmissionRepository, FileUploadExerciseRepository fileUploadExerciseRepository) {
-        this.fileService = fileService;
+    public FileResource(ResourceLoader resourceLoader, LectureRepository lectureRepository, TokenProvider tokenProvider,
+            FileUploadSubmissionRepository fileUploadSubmissionRepository, FileUploadExerciseRepository fileUploadExerciseRepository, SmallFileCacheService smallFileCacheService) {
         this.resourceLoader = resourceLoader;
         this.lectureRepository = lectureRepository;
         this.tokenProvider = tokenProvider;
         this.fileUploadSubmissionRepository = fileUploadSubmissionRepository;
         this.fileUploadExerciseRepository = fileUploadExerciseRepository;
+        this.smallFileCacheService = smallFileCacheService;
     }
 
     /**
@@ -156,7 +157,7 @@ public class FileResource {
      */
     @GetMapping("/files/temp/{filename:.+}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'TA')")
-    public ResponseEntity<byte[]> getTempFile(@PathVariable String filename) {
+    public ResponseEntity<Resource> getTempFile(@PathVariable String filename) {
         log.debug("REST request to get file : {}", filename);
         return responseEntityForFilePath(Constants.TEMP_FILEPATH + filename);
     }
@@ -196,7 +197,7 @@ public class FileResource {
      */
     @GetMapping("/files/drag-and-drop/backgrounds/{questionId}/{filename:.+}")
     @PreAuthorize("hasAnyRole('USER', 'TA', 'INSTRUCTOR', 'ADMIN')")
-    public ResponseEntity<byte[]> getDragAndDropBackgroundFile(@PathVariable Long questionId, @PathVariable String filename) {
+    public ResponseEntity<Resource> getDragAndDropBackgroundFile(@PathVariable Long questionId, @PathVariable String filename) {
         log.debug("REST request to get file : {}", filename);
         return responseEntityForFilePath(Constants.DRAG_AND_DROP_BACKGROUND_FILEPATH + filename);
     }
@@ -210,7 +211,7 @@ public class FileResource {
      */
     @GetMapping("/files/drag-and-drop/drag-items/{dragItemId}/{filename:.+}")
     @PreAuthorize("hasAnyRole('USER', 'TA', 'INSTRUCTOR', 'ADMIN')")
-    public ResponseEntity<byte[]> getDragItemFile(@PathVariable Long dragItemId, @PathVariable String filename) {
+    public ResponseEntity<Resource> getDragItemFile(@PathVariable Long dragItemId, @PathVariable String filename) {
         log.debug("REST request to get file : {}", filename);
         return responseEntityForFilePath(Constants.DRAG_ITEM_FILEPATH + filename);
     }
@@ -226,7 +227,7 @@ public class FileResource {
      */
     @GetMapping("/files/file-upload-exercises/{exerciseId}/submissions/{submissionId}/{filename:.+}")
     @PreAuthorize("permitAll()")
-    public ResponseEntity<byte[]> getFileUploadSubmission(@PathVariable Long exerciseId, @PathVariable Long submissionId, @PathVariable String filename,
+    public ResponseEntity<Resource> getFileUploadSubmission(@PathVariable Long exerciseId, @PathVariable Long submissionId, @PathVariable String filename,
             @RequestParam("access_token") String temporaryAccessToken) {
         log.debug("REST request to get file : {}", filename);
         Optional<FileUploadSubmission> optionalSubmission = fileUploadSubmissionRepository.findById(submissionId);
@@ -237,7 +238,7 @@ public class FileResource {
         if (!validateTemporaryAccessToken(temporaryAccessToken, filename)) {
             // NOTE: this is a special case, because we like to show this error message directly in the browser (without the angular client being active)
             String errorMessage = "You don't have the access rights for this file! Please login to Artemis and download the file in the corresponding exercise";
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorMessage.getBytes());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(new ByteArrayResource(errorMessage.getBytes()));
         }
         return buildFileResponse(FileUploadSubmission.buildFilePath(optionalFileUploadExercise.get().getId(), optionalSubmission.get().getId()), filename);
     }
@@ -251,7 +252,7 @@ public class FileResource {
      */
     @GetMapping("/files/course/icons/{courseId}/{filename:.+}")
     @PreAuthorize("hasAnyRole('USER', 'TA', 'INSTRUCTOR', 'ADMIN')")
-    public ResponseEntity<byte[]> getCourseIcon(@PathVariable Long courseId, @PathVariable String filename) {
+    public ResponseEntity<Resource> getCourseIcon(@PathVariable Long courseId, @PathVariable String filename) {
         log.debug("REST request to get file : {}", filename);
         return responseEntityForFilePath(Constants.COURSE_ICON_FILEPATH + filename);
     }
@@ -283,7 +284,7 @@ public class FileResource {
      */
     @GetMapping("files/attachments/lecture/{lectureId}/{filename:.+}")
     @PreAuthorize("permitAll()")
-    public ResponseEntity<byte[]> getLectureAttachment(@PathVariable Long lectureId, @PathVariable String filename, @RequestParam("access_token") String temporaryAccessToken) {
+    public ResponseEntity<Resource> getLectureAttachment(@PathVariable Long lectureId, @PathVariable String filename, @RequestParam("access_token") String temporaryAccessToken) {
         log.debug("REST request to get file : {}", filename);
         Optional<Lecture> optionalLecture = lectureRepository.findById(lectureId);
         if (optionalLecture.isEmpty()) {
@@ -292,7 +293,7 @@ public class FileResource {
         if (!validateTemporaryAccessToken(temporaryAccessToken, filename)) {
             // NOTE: this is a special case, because we like to show this error message directly in the browser (without the angular client being active)
             String errorMessage = "You don't have the access rights for this file! Please login to Artemis and download the attachment in the corresponding lecture";
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorMessage.getBytes());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(new ByteArrayResource(errorMessage.getBytes()));
         }
         return buildFileResponse(Constants.LECTURE_ATTACHMENT_FILEPATH + optionalLecture.get().getId(), filename);
     }
@@ -318,15 +319,15 @@ public class FileResource {
      * @param filename the name of the file
      * @return response entity
      */
-    private ResponseEntity<byte[]> buildFileResponse(String path, String filename) {
+    private ResponseEntity<Resource> buildFileResponse(String path, String filename) {
         try {
-            var file = fileService.getFileForPath(path + '/' + filename);
-            if (file == null) {
+            File file = new File(path + '/' + filename);
+            if (!file.isFile()) {
                 return ResponseEntity.notFound().build();
             }
 
             ContentDisposition contentDisposition = ContentDisposition.builder("inline").filename(filename).build();
-            HttpHeaders headers = new HttpHeaders();
+            HttpHeaders headers = createCachingHeaders(file);
             headers.setContentDisposition(contentDisposition);
             FileNameMap fileNameMap = URLConnection.getFileNameMap();
             String mimeType = fileNameMap.getContentTypeFor(filename);
@@ -337,7 +338,8 @@ public class FileResource {
                 MimetypesFileTypeMap fileTypeMap = new MimetypesFileTypeMap();
                 mimeType = fileTypeMap.getContentType(filename);
             }
-            return ResponseEntity.ok().headers(headers).contentType(MediaType.parseMediaType(mimeType)).header("filename", filename).body(file);
+            return ResponseEntity.ok().headers(headers).contentType(MediaType.parseMediaType(mimeType)).header("filename", filename)
+                    .body(smallFileCacheService.getFileResource(file));
         }
         catch (IOException ex) {
             log.error("Download of file: " + filename + "on path: " + path + " let to the following exception", ex);
@@ -346,18 +348,19 @@ public class FileResource {
     }
 
     /**
-     * Reads the file and turns it into a ResponseEntity
+     * Reads the file and turns it into a ResponseEntity. The file is streamed to the client, conditional and range requests are handled by Spring based on the ETag and
+     * Last-Modified headers.
      *
      * @param path the path for the file to read
      * @return ResponseEntity with status 200 and the file as byte stream, status 404 if the file doesn't exist, or status 500 if there is an error while reading the file
      */
-    private ResponseEntity<byte[]> responseEntityForFilePath(String path) {
+    private ResponseEntity<Resource> responseEntityForFilePath(String path) {
         try {
-            var file = fileService.getFileForPath(path);
-            if (file == null) {
+            File file = new File(path);
+            if (!file.isFile()) {
                 return ResponseEntity.notFound().build();
             }
-            return ResponseEntity.ok(file);
+            return ResponseEntity.ok().headers(createCachingHeaders(file)).body(smallFileCacheService.getFileResource(file));
         }
         catch (IOException e) {
             e.printStackTrace();
@@ -365,4 +368,17 @@ public class FileResource {
         }
     }
 
+    /**
+     * Creates the ETag and Last-Modified headers for the file, so that clients can revalidate their cached copy without downloading the file again.
+     *
+     * @param file the file that is sent to the client
+     * @return the headers for the response
+     */
+    private HttpHeaders createCachingHeaders(File file) {
+        HttpHeaders headers = new HttpHeaders();
+        long lastModified = file.lastModified();
+        headers.setETag("\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(file.length()) + "\"");
+        headers.setLastModified(lastModified);
+        return headers;
+    }
 }
@@ -6,11 +6,13 @@ import java.util.Map;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import de.tum.in.www1.artemis.service.BuildResultIngestionService;
 import de.tum.in.www1.artemis.service.feature.Feature;
 import de.tum.in.www1.artemis.service.feature.FeatureToggleService;
 
@@ -22,10 +24,15 @@ public class ManagementResource {
 
     private static final String SUB_FEATURE_TOGGLE = "/feature-toggle";
 
+    private static final String SUB_BUILD_RESULTS_REPLAY = "/build-results/replay";
+
     private final FeatureToggleService featureToggleService;
 
-    public ManagementResource(FeatureToggleService featureToggleService) {
+    private final BuildResultIngestionService buildResultIngestionService;
+
+    public ManagementResource(FeatureToggleService featureToggleService, BuildResultIngestionService buildResultIngestionService) {
         this.featureToggleService = featureToggleService;
+        this.buildResultIngestionService = buildResultIngestionService;
     }
 
     /**
@@ -42,4 +49,16 @@ public class ManagementResource {
 
         return new ResponseEntity<>(Feature.enabledFeatures(), HttpStatus.OK);
     }
+
+    /**
+     * POST -- Queues all build results of the CI server that could not be processed (or whose processing was interrupted) again.
+     *
+     * @see BuildResultIngestionService
+     * @return The number of build results that were queued again
+     */
+    @PostMapping(SUB_BUILD_RESULTS_REPLAY)
+    @PreAuthorize("hasAnyRole('ADMIN')")
+    public ResponseEntity<Integer> replayFailedBuildResults() {
+        return new ResponseEntity<>(buildResultIngestionService.replayFailedJobs(), HttpStatus.OK);
+    }
 }
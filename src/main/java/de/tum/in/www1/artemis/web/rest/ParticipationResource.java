@@ -3,30 +3,39 @@ package de.tum.in.www1.artemis.web.rest;
 import static de.tum.in.www1.artemis.web.rest.util.ResponseUtil.forbidden;
 import static java.time.ZonedDateTime.now;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.security.Principal;
 import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.audit.AuditEvent;
 import org.springframework.boot.actuate.audit.AuditEventRepository;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
 import de.tum.in.www1.artemis.config.Constants;
 import de.tum.in.www1.artemis.config.GuidedTourConfiguration;
 import de.tum.in.www1.artemis.domain.*;
 import de.tum.in.www1.artemis.domain.enumeration.AssessmentType;
-import de.tum.in.www1.artemis.domain.modeling.ModelingExercise;
 import de.tum.in.www1.artemis.domain.participation.*;
 import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
 import de.tum.in.www1.artemis.service.*;
@@ -82,11 +91,13 @@ public class ParticipationResource {
 
     private final TeamService teamService;
 
+    private final ObjectMapper objectMapper;
+
     public ParticipationResource(ParticipationService participationService, ProgrammingExerciseParticipationService programmingExerciseParticipationService,
             CourseService courseService, QuizExerciseService quizExerciseService, ExerciseService exerciseService, AuthorizationCheckService authCheckService,
             Optional<ContinuousIntegrationService> continuousIntegrationService, AuthorizationCheckService authorizationCheckService, TextSubmissionService textSubmissionService,
             ResultService resultService, UserService userService, AuditEventRepository auditEventRepository, GuidedTourConfiguration guidedTourConfiguration,
-            TeamService teamService) {
+            TeamService teamService, ObjectMapper objectMapper) {
         this.participationService = participationService;
         this.programmingExerciseParticipationService = programmingExerciseParticipationService;
         this.quizExerciseService = quizExerciseService;
@@ -101,6 +112,7 @@ public class ParticipationResource {
         this.auditEventRepository = auditEventRepository;
         this.guidedTourConfiguration = guidedTourConfiguration;
         this.teamService = teamService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -297,12 +309,16 @@ public class ParticipationResource {
     /**
      * GET /courses/:courseId/participations : get all the participations for a course
      *
+     * The participations are written to the response one by one while they are read from the database. They only include the values that are needed on the course scores page
+     * (e.g. the id of the exercise, the students with their registration number and the relevant result), so that also the participations of large courses can be sent.
+     *
      * @param courseId The participationId of the course
-     * @return A list of all participations for the given course
+     * @param response the response to which the list of all participations for the given course is written
+     * @throws IOException if the participations cannot be written to the response
      */
     @GetMapping(value = "/courses/{courseId}/participations")
     @PreAuthorize("hasAnyRole('INSTRUCTOR', 'ADMIN')")
-    public ResponseEntity<List<StudentParticipation>> getAllParticipationsForCourse(@PathVariable Long courseId) {
+    public void getAllParticipationsForCourse(@PathVariable Long courseId, HttpServletResponse response) throws IOException {
         long start = System.currentTimeMillis();
         log.debug("REST request to get all Participations for Course {}", courseId);
         Course course = courseService.findOne(courseId);
@@ -310,55 +326,27 @@ public class ParticipationResource {
         if (!authorizationCheckService.isAtLeastInstructorInCourse(course, user)) {
             throw new AccessForbiddenException("You are not allowed to access this resource");
         }
-        List<StudentParticipation> participations = participationService.findByCourseIdWithRelevantResult(courseId);
-        int resultCount = 0;
-        for (StudentParticipation participation : participations) {
-            // make sure the registration number is explicitly shown in the client
-            participation.getStudents().forEach(student -> student.setVisibleRegistrationNumber(student.getRegistrationNumber()));
-            // we only need participationId, title, dates and max points
-            // remove unnecessary elements
-            Exercise exercise = participation.getExercise();
-            exercise.setCourse(null);
-            exercise.setStudentParticipations(null);
-            exercise.setTutorParticipations(null);
-            exercise.setExampleSubmissions(null);
-            exercise.setAttachments(null);
-            exercise.setCategories(null);
-            exercise.setProblemStatement(null);
-            exercise.setStudentQuestions(null);
-            exercise.setGradingInstructions(null);
-            exercise.setDifficulty(null);
-            exercise.setMode(null);
-            if (exercise instanceof ProgrammingExercise) {
-                ProgrammingExercise programmingExercise = (ProgrammingExercise) exercise;
-                programmingExercise.setSolutionParticipation(null);
-                programmingExercise.setTemplateParticipation(null);
-                programmingExercise.setTestRepositoryUrl(null);
-                programmingExercise.setShortName(null);
-                programmingExercise.setPublishBuildPlanUrl(null);
-                programmingExercise.setProgrammingLanguage(null);
-                programmingExercise.setPackageName(null);
-                programmingExercise.setAllowOnlineEditor(null);
-            }
-            else if (exercise instanceof QuizExercise) {
-                QuizExercise quizExercise = (QuizExercise) exercise;
-                quizExercise.setQuizQuestions(null);
-                quizExercise.setQuizPointStatistic(null);
-            }
-            else if (exercise instanceof TextExercise) {
-                TextExercise textExercise = (TextExercise) exercise;
-                textExercise.setSampleSolution(null);
-            }
-            else if (exercise instanceof ModelingExercise) {
-                ModelingExercise modelingExercise = (ModelingExercise) exercise;
-                modelingExercise.setSampleSolutionModel(null);
-                modelingExercise.setSampleSolutionExplanation(null);
-            }
-            resultCount += participation.getResults().size();
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        AtomicInteger participationCount = new AtomicInteger();
+        AtomicInteger resultCount = new AtomicInteger();
+        try (SequenceWriter writer = objectMapper.writer().writeValuesAsArray(response.getOutputStream())) {
+            participationService.forEachParticipationOfCourseWithRelevantResult(courseId, participation -> {
+                try {
+                    writer.write(participation);
+                }
+                catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                participationCount.incrementAndGet();
+                resultCount.addAndGet(participation.getResults().size());
+            });
+        }
+        catch (UncheckedIOException ex) {
+            throw ex.getCause();
         }
         long end = System.currentTimeMillis();
-        log.info("Found " + participations.size() + " particpations with " + resultCount + " results in " + (end - start) + " ms");
-        return ResponseEntity.ok().body(participations);
+        log.info("Found " + participationCount.get() + " particpations with " + resultCount.get() + " results in " + (end - start) + " ms");
     }
 
     /**
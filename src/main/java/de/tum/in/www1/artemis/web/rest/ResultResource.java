@@ -20,18 +20,17 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+
 import de.tum.in.www1.artemis.config.Constants;
 import de.tum.in.www1.artemis.domain.*;
 import de.tum.in.www1.artemis.domain.enumeration.AssessmentType;
-import de.tum.in.www1.artemis.domain.enumeration.BuildPlanType;
 import de.tum.in.www1.artemis.domain.enumeration.SubmissionType;
 import de.tum.in.www1.artemis.domain.participation.*;
 import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
 import de.tum.in.www1.artemis.repository.ResultRepository;
-import de.tum.in.www1.artemis.security.SecurityUtils;
 import de.tum.in.www1.artemis.service.*;
 import de.tum.in.www1.artemis.service.connectors.ContinuousIntegrationService;
-import de.tum.in.www1.artemis.service.connectors.LtiService;
 import de.tum.in.www1.artemis.web.rest.errors.AccessForbiddenException;
 import de.tum.in.www1.artemis.web.rest.errors.BadRequestAlertException;
 import de.tum.in.www1.artemis.web.rest.util.HeaderUtil;
@@ -70,18 +69,16 @@ public class ResultResource {
 
     private final ProgrammingExerciseParticipationService programmingExerciseParticipationService;
 
-    private final WebsocketMessagingService messagingService;
-
-    private final LtiService ltiService;
+    private final BuildResultIngestionService buildResultIngestionService;
 
     private final ProgrammingSubmissionService programmingSubmissionService;
 
     private final AssessmentService assessmentService;
 
     public ResultResource(ProgrammingExerciseParticipationService programmingExerciseParticipationService, ParticipationService participationService, ResultService resultService,
-            ExerciseService exerciseService, AuthorizationCheckService authCheckService, Optional<ContinuousIntegrationService> continuousIntegrationService, LtiService ltiService,
-            ResultRepository resultRepository, WebsocketMessagingService messagingService, ProgrammingSubmissionService programmingSubmissionService, UserService userService,
-            AssessmentService assessmentService) {
+            ExerciseService exerciseService, AuthorizationCheckService authCheckService, Optional<ContinuousIntegrationService> continuousIntegrationService,
+            ResultRepository resultRepository, BuildResultIngestionService buildResultIngestionService, ProgrammingSubmissionService programmingSubmissionService,
+            UserService userService, AssessmentService assessmentService) {
         this.resultRepository = resultRepository;
         this.participationService = participationService;
         this.resultService = resultService;
@@ -89,8 +86,7 @@ public class ResultResource {
         this.authCheckService = authCheckService;
         this.continuousIntegrationService = continuousIntegrationService;
         this.programmingExerciseParticipationService = programmingExerciseParticipationService;
-        this.messagingService = messagingService;
-        this.ltiService = ltiService;
+        this.buildResultIngestionService = buildResultIngestionService;
         this.programmingSubmissionService = programmingSubmissionService;
         this.assessmentService = assessmentService;
         this.userService = userService;
@@ -219,7 +215,7 @@ public class ResultResource {
 
     /**
      * This method is used by the CI system to inform Artemis about a new programming exercise build result.
-     * It will make sure to:
+     * The build result is queued and acknowledged immediately, the {@link BuildResultIngestionService} will make sure to:
      * - Create a result from the build result including its feedbacks
      * - Assign the result to an existing submission OR create a new submission if needed
      * - Update the result's score based on the exercise's test cases (weights, etc.)
@@ -237,10 +233,6 @@ public class ResultResource {
             return forbidden(); // Only allow endpoint when using correct token
         }
 
-        // The 'user' is not properly logged into Artemis, this leads to an issue when accessing custom repository methods.
-        // Therefore a mock auth object has to be created.
-        SecurityUtils.setAuthorizationObject();
-
         // Retrieving the plan key can fail if e.g. the requestBody is malformated. In this case nothing else can be done.
         String planKey;
         try {
@@ -253,82 +245,17 @@ public class ResultResource {
         }
         log.info("Artemis received a new result for build plan {}", planKey);
 
-        // Try to retrieve the participation with the build plan key.
-        Optional<ProgrammingExerciseParticipation> optionalParticipation = getParticipationWithResults(planKey);
-        if (optionalParticipation.isEmpty()) {
-            log.warn("Participation is missing for notifyResultNew (PlanKey: {}).", planKey);
-            return notFound();
+        // The result is created asynchronously, so that the CI server does not have to wait until it is processed
+        try {
+            buildResultIngestionService.enqueue(planKey, requestBody);
         }
-
-        ProgrammingExerciseParticipation participation = optionalParticipation.get();
-        Optional<Result> result;
-        // Process the new result from the build result.
-        result = resultService.processNewProgrammingExerciseResult((Participation) participation, requestBody);
-
-        // Only notify the user about the new result if the result was created successfully.
-        if (result.isPresent()) {
-            log.debug("Send result to client over websocket. Result: {}, Submission: {}, Participation: {}", result.get(), result.get().getSubmission(),
-                    result.get().getParticipation());
-            // notify user via websocket
-            messagingService.broadcastNewResult((Participation) participation, result.get());
-
-            // TODO: can we avoid to invoke this code for non LTI students? (to improve performance)
-            // if (participation.isLti()) {
-            // }
-            // handles new results and sends them to LTI consumers
-            if (participation instanceof ProgrammingExerciseStudentParticipation) {
-                ltiService.onNewResult((ProgrammingExerciseStudentParticipation) participation);
-            }
-            log.info("The new result for {} was saved successfully", planKey);
+        catch (JsonProcessingException ex) {
+            log.error("The new result for build plan {} could not be queued: {}", planKey, ex.getMessage());
+            return badRequest();
         }
         return ResponseEntity.ok().build();
     }
 
-    private Optional<ProgrammingExerciseParticipation> getParticipationWithResults(String planKey) {
-        // we have to support template, solution and student build plans here
-        if (planKey.contains(BuildPlanType.TEMPLATE.getName())) {
-            Optional<TemplateProgrammingExerciseParticipation> templateParticipation = participationService.findTemplateParticipationByBuildPlanId(planKey);
-            // we have to convert the optional type here to make Java happy
-            if (templateParticipation.isPresent()) {
-                return Optional.of(templateParticipation.get());
-            }
-            else {
-                return Optional.empty();
-            }
-        }
-        else if (planKey.contains(BuildPlanType.SOLUTION.getName())) {
-            Optional<SolutionProgrammingExerciseParticipation> solutionParticipation = participationService.findSolutionParticipationByBuildPlanId(planKey);
-            // we have to convert the optional type here to make Java happy
-            if (solutionParticipation.isPresent()) {
-                return Optional.of(solutionParticipation.get());
-            }
-            else {
-                return Optional.empty();
-            }
-        }
-        List<ProgrammingExerciseStudentParticipation> participations = participationService.findByBuildPlanIdWithEagerResults(planKey);
-        Optional<ProgrammingExerciseStudentParticipation> participation = Optional.empty();
-        if (participations.size() > 0) {
-            participation = Optional.of(participations.get(0));
-            if (participations.size() > 1) {
-                // in the rare case of multiple participations, take the latest one.
-                for (ProgrammingExerciseStudentParticipation otherParticipation : participations) {
-                    if (otherParticipation.getInitializationDate().isAfter(participation.get().getInitializationDate())) {
-                        participation = Optional.of(otherParticipation);
-                    }
-                }
-            }
-        }
-
-        // we have to convert the optional type here to make Java happy
-        if (participation.isPresent()) {
-            return Optional.of(participation.get());
-        }
-        else {
-            return Optional.empty();
-        }
-    }
-
     /**
      * GET /exercises/:exerciseId/results : get the successful results for an exercise, ordered ascending by build completion date.
      *
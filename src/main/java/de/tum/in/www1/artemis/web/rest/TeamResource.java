@@ -264,9 +264,7 @@ public class TeamResource {
         var logMessage = "Delete Team with id " + id + " in exercise with id " + exerciseId;
         var auditEvent = new AuditEvent(user.getLogin(), Constants.DELETE_TEAM, logMessage);
         auditEventRepository.add(auditEvent);
-        // Delete all participations of the team first and then the team itself
-        participationService.deleteAllByTeamId(id, false, false);
-        teamRepository.delete(team);
+        teamService.delete(team);
 
         teamWebsocketService.sendTeamAssignmentUpdate(exercise, team, null);
         return ResponseEntity.ok().headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, Long.toString(id))).build();
@@ -0,0 +1,56 @@
+package de.tum.in.www1.artemis.web.rest.dto;
+
+import de.tum.in.www1.artemis.domain.BuildRunState;
+
+/**
+ * Progress of a build run of all participations of a programming exercise, sent to the instructors over the websocket after every triggered build.
+ */
+public class BuildRunProgressDTO {
+
+    private BuildRunState state;
+
+    private long queuedBuilds;
+
+    private int triggeredBuilds;
+
+    private int failedBuilds;
+
+    public BuildRunProgressDTO(BuildRunState state, long queuedBuilds, int triggeredBuilds, int failedBuilds) {
+        this.state = state;
+        this.queuedBuilds = queuedBuilds;
+        this.triggeredBuilds = triggeredBuilds;
+        this.failedBuilds = failedBuilds;
+    }
+
+    public BuildRunState getState() {
+        return state;
+    }
+
+    public void setState(BuildRunState state) {
+        this.state = state;
+    }
+
+    public long getQueuedBuilds() {
+        return queuedBuilds;
+    }
+
+    public void setQueuedBuilds(long queuedBuilds) {
+        this.queuedBuilds = queuedBuilds;
+    }
+
+    public int getTriggeredBuilds() {
+        return triggeredBuilds;
+    }
+
+    public void setTriggeredBuilds(int triggeredBuilds) {
+        this.triggeredBuilds = triggeredBuilds;
+    }
+
+    public int getFailedBuilds() {
+        return failedBuilds;
+    }
+
+    public void setFailedBuilds(int failedBuilds) {
+        this.failedBuilds = failedBuilds;
+    }
+}
@@ -0,0 +1,222 @@
+package de.tum.in.www1.artemis.web.rest.dto;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * A participation of a course with the latest rated result, as shown on the course scores page. The DTO is created directly by the database query (one row per participation),
+ * it is serialized in the same structure as a {@link de.tum.in.www1.artemis.domain.participation.StudentParticipation}, but only contains the values the course scores page needs.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class CourseParticipationDTO {
+
+    private final Long id;
+
+    private final Integer presentationScore;
+
+    private final Long exerciseId;
+
+    private final ParticipantDTO student;
+
+    private final Long teamId;
+
+    private final ResultDTO result;
+
+    private String exerciseType;
+
+    private List<ParticipantDTO> teamStudents;
+
+    public CourseParticipationDTO(Long id, Integer presentationScore, Long exerciseId, Long studentId, String studentLogin, String studentFirstName, String studentLastName,
+            String studentEmail, String studentRegistrationNumber, Long teamId, Long resultId, Long score, ZonedDateTime completionDate, Boolean successful) {
+        this.id = id;
+        this.presentationScore = presentationScore;
+        this.exerciseId = exerciseId;
+        this.student = studentId != null ? new ParticipantDTO(studentId, studentLogin, studentFirstName, studentLastName, studentEmail, studentRegistrationNumber) : null;
+        this.teamId = teamId;
+        this.result = resultId != null ? new ResultDTO(resultId, score, completionDate, successful) : null;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Integer getPresentationScore() {
+        return presentationScore;
+    }
+
+    public ExerciseDTO getExercise() {
+        return new ExerciseDTO(exerciseId, exerciseType);
+    }
+
+    @JsonIgnore
+    public Long getExerciseId() {
+        return exerciseId;
+    }
+
+    public void setExerciseType(String exerciseType) {
+        this.exerciseType = exerciseType;
+    }
+
+    public ParticipantDTO getStudent() {
+        return student;
+    }
+
+    @JsonIgnore
+    public Long getTeamId() {
+        return teamId;
+    }
+
+    public TeamDTO getTeam() {
+        return teamId != null ? new TeamDTO(teamId, teamStudents) : null;
+    }
+
+    public void setTeamStudents(List<ParticipantDTO> teamStudents) {
+        this.teamStudents = teamStudents;
+    }
+
+    public List<ResultDTO> getResults() {
+        return result != null ? List.of(result) : List.of();
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public static class ExerciseDTO {
+
+        private final Long id;
+
+        private final String type;
+
+        public ExerciseDTO(Long id, String type) {
+            this.id = id;
+            this.type = type;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public Long getId() {
+            return id;
+        }
+    }
+
+    /**
+     * A student of a participation, the registration number is always visible on the course scores page
+     */
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public static class ParticipantDTO {
+
+        private final Long id;
+
+        private final String login;
+
+        private final String firstName;
+
+        private final String lastName;
+
+        private final String email;
+
+        private final String visibleRegistrationNumber;
+
+        public ParticipantDTO(Long id, String login, String firstName, String lastName, String email, String visibleRegistrationNumber) {
+            this.id = id;
+            this.login = login;
+            this.firstName = firstName;
+            this.lastName = lastName;
+            this.email = email;
+            this.visibleRegistrationNumber = visibleRegistrationNumber;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getLogin() {
+            return login;
+        }
+
+        public String getName() {
+            if (lastName != null && !lastName.equals("")) {
+                return firstName + " " + lastName;
+            }
+            return firstName;
+        }
+
+        public String getFirstName() {
+            return firstName;
+        }
+
+        public String getLastName() {
+            return lastName;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public String getVisibleRegistrationNumber() {
+            return visibleRegistrationNumber;
+        }
+    }
+
+    public static class TeamDTO {
+
+        private final Long id;
+
+        private final List<ParticipantDTO> students;
+
+        public TeamDTO(Long id, List<ParticipantDTO> students) {
+            this.id = id;
+            this.students = students != null ? students : List.of();
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public List<ParticipantDTO> getStudents() {
+            return students;
+        }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class ResultDTO {
+
+        private final Long id;
+
+        private final Long score;
+
+        private final ZonedDateTime completionDate;
+
+        private final Boolean successful;
+
+        public ResultDTO(Long id, Long score, ZonedDateTime completionDate, Boolean successful) {
+            this.id = id;
+            this.score = score;
+            this.completionDate = completionDate;
+            this.successful = successful;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public Long getScore() {
+            return score;
+        }
+
+        public ZonedDateTime getCompletionDate() {
+            return completionDate;
+        }
+
+        public Boolean getSuccessful() {
+            return successful;
+        }
+
+        public boolean isRated() {
+            return true;
+        }
+    }
+}
@@ -1,9 +1,15 @@
 package de.tum.in.www1.artemis.web.websocket;
 
 import java.security.Principal;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
@@ -16,6 +22,9 @@ import de.tum.in.www1.artemis.security.SecurityUtils;
 import de.tum.in.www1.artemis.service.ParticipationService;
 import de.tum.in.www1.artemis.service.QuizExerciseService;
 import de.tum.in.www1.artemis.service.QuizSubmissionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 
 @SuppressWarnings("unused")
 @Controller
@@ -31,12 +40,35 @@ public class QuizSubmissionWebsocketService {
 
     private final SimpMessageSendingOperations messagingTemplate;
 
+    /**
+     * sends the replies to the users, so that the outbound channel (e.g. a slow client) does not block the inbound channel. Replies that do not fit into the bounded queue are
+     * dropped instead of creating more and more threads under load.
+     */
+    private final ThreadPoolExecutor outboundExecutor;
+
+    private final Timer inboundLatencyTimer;
+
+    private final Counter droppedRepliesCounter;
+
     public QuizSubmissionWebsocketService(QuizExerciseService quizExerciseService, ParticipationService participationService, SimpMessageSendingOperations messagingTemplate,
-            QuizSubmissionService quizSubmissionService) {
+            QuizSubmissionService quizSubmissionService, MeterRegistry meterRegistry, @Value("${artemis.quiz.outbound.threads:4}") int outboundThreads,
+            @Value("${artemis.quiz.outbound.queue-capacity:10000}") int outboundQueueCapacity) {
         this.quizExerciseService = quizExerciseService;
         this.participationService = participationService;
         this.messagingTemplate = messagingTemplate;
         this.quizSubmissionService = quizSubmissionService;
+        this.inboundLatencyTimer = Timer.builder("artemis.quiz.websocket.inbound_latency").description("Duration of handling a quiz submission received over websocket")
+                .publishPercentiles(0.5, 0.95, 0.99).register(meterRegistry);
+        this.droppedRepliesCounter = Counter.builder("artemis.quiz.websocket.dropped_replies").description("Number of replies that were dropped because the outbound queue was full")
+                .register(meterRegistry);
+        int threads = Math.max(1, outboundThreads);
+        this.outboundExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(Math.max(1, outboundQueueCapacity)),
+                (reply, executor) -> droppedRepliesCounter.increment());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        outboundExecutor.shutdownNow();
     }
 
     // TODO it would be nice to have some kind of startQuiz call that creates the participation with an initialization date. This should happen when the quiz is first shown
@@ -51,6 +83,7 @@ public class QuizSubmissionWebsocketService {
      */
     @MessageMapping("/topic/quizExercise/{exerciseId}/submission")
     public void saveSubmission(@DestinationVariable Long exerciseId, @Payload QuizSubmission quizSubmission, Principal principal) {
+        long start = System.nanoTime();
         // Without this, custom jpa repository methods don't work in websocket channel.
         SecurityUtils.setAuthorizationObject();
         String username = principal.getName();
@@ -58,18 +91,22 @@ public class QuizSubmissionWebsocketService {
             QuizSubmission updatedQuizSubmission = quizSubmissionService.saveSubmissionForLiveMode(exerciseId, quizSubmission, username, false);
             // send updated submission over websocket (use a thread to prevent that the outbound channel blocks the inbound channel (e.g. due a slow client))
             // to improve the performance, this is currently deactivated: slow clients might lead to bottlenecks so that more important messages can not be distributed any more
-            // new Thread(() -> sendSubmissionToUser(username, exerciseId, quizSubmission)).start();
+            // outboundExecutor.execute(() -> sendSubmissionToUser(username, exerciseId, quizSubmission));
 
             // log.info("WS.Inbound: Sent quiz submission (async) back to user {} in quiz {} after {} µs ", principal.getName(), exerciseId, (System.nanoTime() - start) / 1000);
         }
         catch (QuizSubmissionException ex) {
-            // send error message over websocket (use a thread to prevent that the outbound channel blocks the inbound channel (e.g. due a slow client))
-            new Thread(() -> messagingTemplate.convertAndSendToUser(username, "/topic/quizExercise/" + exerciseId + "/submission", new WebsocketError(ex.getMessage()))).start();
+            // send error message over websocket (use the outbound executor to prevent that the outbound channel blocks the inbound channel (e.g. due a slow client))
+            outboundExecutor.execute(
+                    () -> messagingTemplate.convertAndSendToUser(username, "/topic/quizExercise/" + exerciseId + "/submission", new WebsocketError(ex.getMessage())));
+        }
+        finally {
+            inboundLatencyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
     }
 
     /**
-     * Should be invoked using a thread asynchronously
+     * Should be invoked asynchronously using the outbound executor
      *
      * @param username the user who saved / submitted the quiz submission
      * @param exerciseId the quiz exercise id
@@ -1,21 +1,22 @@
-import { Component, Input, OnInit } from '@angular/core';
+import { Component, Input, OnDestroy, OnInit } from '@angular/core';
 import { NgbActiveModal } from '@ng-bootstrap/ng-bootstrap';
 import { AlertService } from 'app/core/alert/alert.service';
 import { WindowRef } from 'app/core/websocket/window.service';
 import { ProgrammingAssessmentRepoExportService, RepositoryExportOptions } from 'app/exercises/programming/assess/repo-export/programming-assessment-repo-export.service';
 import { catchError, tap } from 'rxjs/operators';
-import { of } from 'rxjs';
+import { of, Subscription } from 'rxjs';
 import { HttpResponse } from '@angular/common/http';
 import { FeatureToggle } from 'app/shared/feature-toggle/feature-toggle.service';
 import { Exercise } from 'app/entities/exercise.model';
 import { ExerciseService } from 'app/exercises/shared/exercise/exercise.service';
+import { ProgrammingExerciseWebsocketService, RepositoryExportProgress } from 'app/exercises/programming/manage/services/programming-exercise-websocket.service';
 
 @Component({
     selector: 'jhi-exercise-scores-repo-export-dialog',
     templateUrl: './programming-assessment-repo-export-dialog.component.html',
     styles: ['textarea { width: 100%; }'],
 })
-export class ProgrammingAssessmentRepoExportDialogComponent implements OnInit {
+export class ProgrammingAssessmentRepoExportDialogComponent implements OnInit, OnDestroy {
     @Input() exerciseId: number;
     // Either a participationId list or a participantIdentifier (student login or team short name) list can be provided that is used for exporting the repos.
     // Priority: participationId >> participantIdentifier.
@@ -25,8 +26,10 @@ export class ProgrammingAssessmentRepoExportDialogComponent implements OnInit {
     readonly FeatureToggle = FeatureToggle;
     exercise: Exercise;
     exportInProgress: boolean;
+    exportProgress?: RepositoryExportProgress;
     repositoryExportOptions: RepositoryExportOptions;
     isLoading = false;
+    private exportProgressSubscription?: Subscription;
 
     constructor(
         private $window: WindowRef,
@@ -34,6 +37,7 @@ export class ProgrammingAssessmentRepoExportDialogComponent implements OnInit {
         private repoExportService: ProgrammingAssessmentRepoExportService,
         public activeModal: NgbActiveModal,
         private jhiAlertService: AlertService,
+        private programmingExerciseWebsocketService: ProgrammingExerciseWebsocketService,
     ) {}
 
     ngOnInit() {
@@ -64,18 +68,27 @@ export class ProgrammingAssessmentRepoExportDialogComponent implements OnInit {
             });
     }
 
+    ngOnDestroy() {
+        this.stopExportProgressUpdates();
+    }
+
     clear() {
         this.activeModal.dismiss('cancel');
     }
 
     exportRepos(exerciseId: number) {
         this.exportInProgress = true;
+        this.exportProgress = undefined;
+        // The server sends the progress after every exported repository.
+        this.exportProgressSubscription = this.programmingExerciseWebsocketService
+            .getRepositoryExportProgress(exerciseId)
+            .subscribe((exportProgress) => (this.exportProgress = exportProgress));
         // The inputted participation ids take priority over the participant identifiers (student login or team names).
         if (this.participationIdList) {
             // We anonymize the assessment process ("double-blind").
             this.repositoryExportOptions.addParticipantName = false;
             this.repoExportService.exportReposByParticipations(exerciseId, this.participationIdList, this.repositoryExportOptions).subscribe(this.handleExportRepoResponse, () => {
-                this.exportInProgress = false;
+                this.stopExportProgressUpdates();
             });
             return;
         }
@@ -85,14 +98,14 @@ export class ProgrammingAssessmentRepoExportDialogComponent implements OnInit {
         this.repoExportService
             .exportReposByParticipantIdentifiers(exerciseId, participantIdentifierList, this.repositoryExportOptions)
             .subscribe(this.handleExportRepoResponse, () => {
-                this.exportInProgress = false;
+                this.stopExportProgressUpdates();
             });
     }
 
     handleExportRepoResponse = (response: HttpResponse<Blob>) => {
         this.jhiAlertService.success('artemisApp.programmingExercise.export.successMessage');
         this.activeModal.dismiss(true);
-        this.exportInProgress = false;
+        this.stopExportProgressUpdates();
         if (response.body) {
             const zipFile = new Blob([response.body], { type: 'application/zip' });
             const url = this.$window.nativeWindow.URL.createObjectURL(zipFile);
@@ -104,4 +117,12 @@ export class ProgrammingAssessmentRepoExportDialogComponent implements OnInit {
             window.URL.revokeObjectURL(url);
         }
     };
+
+    private stopExportProgressUpdates() {
+        this.exportInProgress = false;
+        if (this.exportProgressSubscription) {
+            this.exportProgressSubscription.unsubscribe();
+            this.exportProgressSubscription = undefined;
+        }
+    }
 }
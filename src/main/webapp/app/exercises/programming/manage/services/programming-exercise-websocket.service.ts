@@ -18,8 +18,20 @@ export interface IProgrammingExerciseWebsocketService {
      * @param programmingExerciseId of the particular programming exercise
      */
     getTestCaseState(programmingExerciseId: number): Observable<boolean>;
+
+    /**
+     * Gets the progress of the repository exports of a particular programming exercise, sent after every exported repository.
+     * @param programmingExerciseId of the particular programming exercise
+     */
+    getRepositoryExportProgress(programmingExerciseId: number): Observable<RepositoryExportProgress>;
 }
 
+export type RepositoryExportProgress = {
+    exportedRepositories: number;
+    failedRepositories: number;
+    totalRepositories: number;
+};
+
 @Injectable({ providedIn: 'root' })
 export class ProgrammingExerciseWebsocketService implements OnDestroy, IProgrammingExerciseWebsocketService {
     private connections: string[] = [];
@@ -70,4 +82,21 @@ export class ProgrammingExerciseWebsocketService implements OnDestroy, IProgramm
         const existingSubject = this.subjects[programmingExerciseId];
         return (existingSubject || this.initTestCaseStateSubscription(programmingExerciseId)).asObservable().pipe(filter((val) => val !== undefined)) as Observable<boolean>;
     }
+
+    /**
+     * Gets the progress of the repository exports of a particular programming exercise, sent after every exported repository.
+     * The subscription to the websocket topic is closed when the returned observable is unsubscribed.
+     * @param programmingExerciseId of the particular programming exercise
+     */
+    getRepositoryExportProgress(programmingExerciseId: number): Observable<RepositoryExportProgress> {
+        const exportProgressTopic = `/topic/programming-exercises/${programmingExerciseId}/export-repos-progress`;
+        return new Observable<RepositoryExportProgress>((subscriber) => {
+            this.websocketService.subscribe(exportProgressTopic);
+            const subscription = this.websocketService.receive(exportProgressTopic).subscribe((progress: RepositoryExportProgress) => subscriber.next(progress));
+            return () => {
+                subscription.unsubscribe();
+                this.websocketService.unsubscribe(exportProgressTopic);
+            };
+        });
+    }
 }
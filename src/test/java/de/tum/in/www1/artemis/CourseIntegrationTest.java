@@ -15,8 +15,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.actuate.audit.AuditEvent;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.util.LinkedMultiValueMap;
 
 import de.tum.in.www1.artemis.config.Constants;
 import de.tum.in.www1.artemis.connector.jira.JiraRequestMockProvider;
@@ -28,6 +30,7 @@ import de.tum.in.www1.artemis.domain.modeling.ModelingSubmission;
 import de.tum.in.www1.artemis.domain.participation.Participation;
 import de.tum.in.www1.artemis.domain.participation.TutorParticipation;
 import de.tum.in.www1.artemis.repository.*;
+import de.tum.in.www1.artemis.service.CourseDashboardCacheService;
 import de.tum.in.www1.artemis.service.UserService;
 import de.tum.in.www1.artemis.util.DatabaseUtilService;
 import de.tum.in.www1.artemis.util.ModelFactory;
@@ -69,6 +72,9 @@ public class CourseIntegrationTest extends AbstractSpringIntegrationBambooBitbuc
     @Autowired
     UserService userService;
 
+    @Autowired
+    CourseDashboardCacheService courseDashboardCacheService;
+
     @Autowired
     NotificationRepository notificationRepo;
 
@@ -455,6 +461,59 @@ public class CourseIntegrationTest extends AbstractSpringIntegrationBambooBitbuc
         }
     }
 
+    @Test
+    @WithMockUser(username = "student1", roles = "USER")
+    public void testGetAllCoursesForDashboard_cachedUntilNewResult() throws Exception {
+        database.createCoursesWithExercisesAndLectures(true);
+        List<Course> courses = request.getList("/api/courses/for-dashboard", HttpStatus.OK, Course.class);
+        Participation participation = courses.get(0).getExercises().stream().flatMap(exercise -> exercise.getStudentParticipations().stream()).findFirst().get();
+
+        // the dashboard did not change, so the client does not get it again
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(courseDashboardCacheService.get("student1").getETag());
+        request.get("/api/courses/for-dashboard", HttpStatus.NOT_MODIFIED, String.class, new LinkedMultiValueMap<>(), headers);
+
+        // a new result invalidates the cached dashboard
+        database.addResultToParticipation(participationRepo.findById(participation.getId()).get());
+        assertThat(courseDashboardCacheService.get("student1")).as("Cached dashboard was invalidated").isNull();
+        request.get("/api/courses/for-dashboard", HttpStatus.OK, String.class, new LinkedMultiValueMap<>(), headers);
+    }
+
+    @Test
+    @WithMockUser(username = "student1", roles = "USER")
+    public void testGetAllCoursesForDashboard_cachedUntilNewSubmission() throws Exception {
+        database.createCoursesWithExercisesAndLectures(true);
+        List<Course> courses = request.getList("/api/courses/for-dashboard", HttpStatus.OK, Course.class);
+        Participation participation = courses.get(0).getExercises().stream().filter(exercise -> exercise instanceof ModelingExercise)
+                .flatMap(exercise -> exercise.getStudentParticipations().stream()).findFirst().get();
+        assertThat(courseDashboardCacheService.get("student1")).as("Dashboard is cached").isNotNull();
+
+        // a new submission invalidates the cached dashboard
+        ModelingSubmission submission = ModelFactory.generateModelingSubmission("model2", true);
+        submission.setParticipation(participationRepo.findById(participation.getId()).get());
+        submissionRepo.save(submission);
+        assertThat(courseDashboardCacheService.get("student1")).as("Cached dashboard was invalidated").isNull();
+    }
+
+    @Test
+    @WithMockUser(username = "student1", roles = "USER")
+    public void testGetAllCoursesForDashboard_cachedUntilExerciseChanged() throws Exception {
+        database.createCoursesWithExercisesAndLectures(true);
+        List<Course> courses = request.getList("/api/courses/for-dashboard", HttpStatus.OK, Course.class);
+        String eTag = courseDashboardCacheService.get("student1").getETag();
+
+        // a changed exercise invalidates the cached dashboards of all users
+        Exercise exercise = exerciseRepo.findById(courses.get(0).getExercises().iterator().next().getId()).get();
+        exercise.setTitle("Changed title");
+        exerciseRepo.save(exercise);
+        assertThat(courseDashboardCacheService.get("student1")).as("Cached dashboard was invalidated").isNull();
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(eTag);
+        request.get("/api/courses/for-dashboard", HttpStatus.OK, String.class, new LinkedMultiValueMap<>(), headers);
+        assertThat(courseDashboardCacheService.get("student1").getETag()).as("Dashboard is cached again with a new ETag").isNotEqualTo(eTag);
+    }
+
     @Test
     @WithMockUser(username = "tutor1", roles = "TA")
     public void testGetCoursesWithoutActiveExercises() throws Exception {
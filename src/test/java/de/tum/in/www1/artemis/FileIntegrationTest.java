@@ -8,9 +8,12 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.util.LinkedMultiValueMap;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
@@ -192,6 +195,23 @@ public class FileIntegrationTest extends AbstractSpringIntegrationBambooBitbucke
         request.get(attachmentPath + "?access_token=random_non_valid_token", HttpStatus.FORBIDDEN, String.class);
     }
 
+    @Test
+    @WithMockUser(value = "instructor1", roles = "INSTRUCTOR")
+    public void testGetLectureAttachment_conditionalAndRangeRequests() throws Exception {
+        String filename = "attachment.pdf";
+        String attachmentPath = createLectureWithAttachment(filename, HttpStatus.CREATED);
+        String accessToken = request.get("/api/files/attachments/access-token/" + filename, HttpStatus.OK, String.class);
+        // the file was not modified since it was uploaded, so the client can keep its cached copy
+        HttpHeaders ifModifiedSinceHeaders = new HttpHeaders();
+        ifModifiedSinceHeaders.setIfModifiedSince(System.currentTimeMillis());
+        request.get(attachmentPath + "?access_token=" + accessToken, HttpStatus.NOT_MODIFIED, String.class, new LinkedMultiValueMap<>(), ifModifiedSinceHeaders);
+
+        HttpHeaders rangeHeaders = new HttpHeaders();
+        rangeHeaders.setRange(HttpRange.parseRanges("bytes=5-8"));
+        String receivedRange = request.get(attachmentPath + "?access_token=" + accessToken, HttpStatus.PARTIAL_CONTENT, String.class, new LinkedMultiValueMap<>(), rangeHeaders);
+        assertThat(receivedRange).isEqualTo("data");
+    }
+
     @Test
     @WithMockUser(value = "instructor1", roles = "INSTRUCTOR")
     public void testGetLectureAttachment_unsupportedFileType() throws Exception {
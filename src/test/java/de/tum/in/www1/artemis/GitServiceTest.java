@@ -4,8 +4,14 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.StreamSupport;
 
 import org.eclipse.jgit.api.errors.GitAPIException;
@@ -16,6 +22,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import de.tum.in.www1.artemis.domain.Repository;
 import de.tum.in.www1.artemis.util.GitUtilService;
 
 public class GitServiceTest extends AbstractSpringIntegrationBambooBitbucketJiraTest {
@@ -68,6 +75,31 @@ public class GitServiceTest extends AbstractSpringIntegrationBambooBitbucketJira
         assertThat(gitUtilService.isLocalEqualToRemote()).isTrue();
     }
 
+    @Test
+    public void checkoutRepositoryNotOnServerConcurrently() throws Exception {
+        URL localPath = gitUtilService.getLocalRepoUrlByType(GitUtilService.REPOS.REMOTE);
+        gitUtilService.deleteRepo(GitUtilService.REPOS.LOCAL);
+
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            List<Future<Repository>> checkouts = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                checkouts.add(executor.submit(() -> gitService.getOrCheckoutRepository(localPath, false)));
+            }
+            // all callers get the same repository from the single clone operation
+            Repository repository = checkouts.get(0).get(30, TimeUnit.SECONDS);
+            for (Future<Repository> checkout : checkouts) {
+                assertThat(checkout.get(30, TimeUnit.SECONDS)).isSameAs(repository);
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        gitUtilService.reinitializeRepo(GitUtilService.REPOS.LOCAL);
+
+        assertThat(gitUtilService.isLocalEqualToRemote()).isTrue();
+    }
+
     @Test
     public void combineAllCommitsIntoInitialCommitTest() throws GitAPIException {
         String newFileContent1 = "lorem ipsum";
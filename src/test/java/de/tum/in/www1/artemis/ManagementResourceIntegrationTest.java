@@ -1,6 +1,7 @@
 package de.tum.in.www1.artemis;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 import static org.mockito.Mockito.*;
 
 import java.time.Instant;
@@ -19,12 +20,16 @@ import org.springframework.http.HttpStatus;
 import org.springframework.security.test.context.support.WithMockUser;
 
 import de.tum.in.www1.artemis.config.audit.AuditEventConverter;
+import de.tum.in.www1.artemis.domain.BuildResultIngestionJob;
 import de.tum.in.www1.artemis.domain.PersistentAuditEvent;
 import de.tum.in.www1.artemis.domain.ProgrammingSubmission;
 import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.enumeration.BuildResultIngestionState;
+import de.tum.in.www1.artemis.repository.BuildResultIngestionJobRepository;
 import de.tum.in.www1.artemis.repository.PersistenceAuditEventRepository;
 import de.tum.in.www1.artemis.repository.ProgrammingExerciseRepository;
 import de.tum.in.www1.artemis.service.AuditEventService;
+import de.tum.in.www1.artemis.service.BuildResultIngestionService;
 import de.tum.in.www1.artemis.service.feature.Feature;
 import de.tum.in.www1.artemis.util.DatabaseUtilService;
 import de.tum.in.www1.artemis.util.ModelFactory;
@@ -50,6 +55,12 @@ public class ManagementResourceIntegrationTest extends AbstractSpringIntegration
     @Autowired
     ProgrammingExerciseRepository programmingExerciseRepository;
 
+    @Autowired
+    BuildResultIngestionJobRepository buildResultIngestionJobRepository;
+
+    @Autowired
+    BuildResultIngestionService buildResultIngestionService;
+
     private PersistentAuditEvent persAuditEvent;
 
     @BeforeEach
@@ -142,4 +153,37 @@ public class ManagementResourceIntegrationTest extends AbstractSpringIntegration
         var auditEventInDb = persistenceAuditEventRepository.findById(persAuditEvent.getId()).get();
         assertThat(auditEventInDb.getPrincipal()).isEqualTo(auditEvent.getPrincipal());
     }
+
+    @Test
+    @WithMockUser(username = "admin", roles = "ADMIN")
+    public void replayFailedBuildResults() throws Exception {
+        buildResultIngestionJobRepository.deleteAll();
+        // the build plan does not exist, so the replayed build results are processed without creating a result
+        var failedJob = new BuildResultIngestionJob("UNKNOWN-STUDENT1", "{}");
+        failedJob.setState(BuildResultIngestionState.FAILED);
+        failedJob.setAttempts(3);
+        failedJob = buildResultIngestionJobRepository.save(failedJob);
+        var interruptedJob = new BuildResultIngestionJob("UNKNOWN-STUDENT2", "{}");
+        interruptedJob.setState(BuildResultIngestionState.PROCESSING);
+        interruptedJob.setProcessingStartDate(ZonedDateTime.now().minusHours(1));
+        buildResultIngestionJobRepository.save(interruptedJob);
+        var runningJob = new BuildResultIngestionJob("UNKNOWN-STUDENT3", "{}");
+        runningJob.setState(BuildResultIngestionState.PROCESSING);
+        runningJob.setProcessingStartDate(ZonedDateTime.now());
+        runningJob = buildResultIngestionJobRepository.save(runningJob);
+
+        Integer replayedJobs = request.postWithResponseBody("/api/management/build-results/replay", null, Integer.class, HttpStatus.OK);
+
+        assertThat(replayedJobs).isEqualTo(2);
+        await().until(() -> buildResultIngestionService.getNumberOfPendingJobs() == 0);
+        assertThat(buildResultIngestionJobRepository.findAll()).extracting(BuildResultIngestionJob::getId).containsExactly(runningJob.getId());
+        assertThat(buildResultIngestionJobRepository.findById(failedJob.getId())).isEmpty();
+        buildResultIngestionJobRepository.deleteAll();
+    }
+
+    @Test
+    @WithMockUser(username = "student1", roles = "USER")
+    public void replayFailedBuildResults_forbiddenForStudents() throws Exception {
+        request.postWithResponseBody("/api/management/build-results/replay", null, Integer.class, HttpStatus.FORBIDDEN);
+    }
 }
@@ -388,6 +388,29 @@ public class ParticipationIntegrationTest extends AbstractSpringIntegrationBambo
         });
     }
 
+    @Test
+    @WithMockUser(username = "instructor1", roles = "INSTRUCTOR")
+    public void getAllParticipationsForCourse_onlyLatestRatedResult() throws Exception {
+        var participation = database.addParticipationForExercise(textExercise, "student1");
+        database.addParticipationForExercise(modelingExercise, "student1");
+        resultRepository.save(new Result().participation(participation).rated(true).score(50L).completionDate(ZonedDateTime.now().minusDays(2)));
+        var latestRatedResult = resultRepository.save(new Result().participation(participation).rated(true).score(80L).completionDate(ZonedDateTime.now().minusDays(1)));
+        resultRepository.save(new Result().participation(participation).rated(false).score(100L).completionDate(ZonedDateTime.now()));
+        resultRepository.save(new Result().participation(participation).rated(true).score(90L));
+
+        var participations = request.getList("/api/courses/" + course.getId() + "/participations", HttpStatus.OK, StudentParticipation.class);
+        assertThat(participations).hasSize(2);
+        var participationWithResult = participations.stream().filter(p -> p.getId().equals(participation.getId())).findFirst().get();
+        assertThat(participationWithResult.getResults()).hasSize(1);
+        var result = participationWithResult.getResults().iterator().next();
+        assertThat(result.getId()).isEqualTo(latestRatedResult.getId());
+        assertThat(result.getScore()).isEqualTo(80L);
+        assertThat(participationWithResult.getStudent().get().getLogin()).isEqualTo("student1");
+        assertThat(participationWithResult.getExercise()).isInstanceOf(TextExercise.class);
+        var participationWithoutResult = participations.stream().filter(p -> !p.getId().equals(participation.getId())).findFirst().get();
+        assertThat(participationWithoutResult.getResults()).isEmpty();
+    }
+
     @Test
     @WithMockUser(username = "instructor3", roles = "INSTRUCTOR")
     public void getAllParticipationsForCourse_noInstructorInCourse() throws Exception {
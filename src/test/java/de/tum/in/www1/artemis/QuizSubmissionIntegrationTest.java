@@ -4,7 +4,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.security.Principal;
 import java.time.ZonedDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,10 +20,12 @@ import de.tum.in.www1.artemis.domain.Result;
 import de.tum.in.www1.artemis.domain.quiz.*;
 import de.tum.in.www1.artemis.repository.*;
 import de.tum.in.www1.artemis.service.QuizExerciseService;
+import de.tum.in.www1.artemis.service.QuizStatisticService;
 import de.tum.in.www1.artemis.service.scheduled.QuizScheduleService;
 import de.tum.in.www1.artemis.util.DatabaseUtilService;
 import de.tum.in.www1.artemis.util.RequestUtilService;
 import de.tum.in.www1.artemis.web.websocket.QuizSubmissionWebsocketService;
+import io.micrometer.core.instrument.MeterRegistry;
 
 public class QuizSubmissionIntegrationTest extends AbstractSpringIntegrationBambooBitbucketJiraTest {
 
@@ -58,6 +62,12 @@ public class QuizSubmissionIntegrationTest extends AbstractSpringIntegrationBamb
     @Autowired
     ResultRepository resultRepository;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    QuizStatisticService quizStatisticService;
+
     int multiplier = 100;
 
     @BeforeEach
@@ -163,6 +173,85 @@ public class QuizSubmissionIntegrationTest extends AbstractSpringIntegrationBamb
         }
     }
 
+    @Test
+    public void testRecalculateStatistics_sameAsIncrementalUpdates() throws Exception {
+        List<Course> courses = database.createCoursesWithExercisesAndLectures(false);
+        QuizExercise quizExercise = database.createQuiz(courses.get(0), ZonedDateTime.now().minusSeconds(10), null);
+        quizExercise.setDueDate(ZonedDateTime.now().minusSeconds(8));
+        quizExercise.setDuration(2);
+        quizExercise.setIsPlannedToStart(true);
+        quizExercise.setIsVisibleBeforeStart(true);
+        quizExercise.setIsOpenForPractice(true);
+        quizExerciseService.save(quizExercise);
+
+        // the first five students submit twice, so that their previous unrated results are replaced in the statistics
+        for (int round = 0; round < 2; round++) {
+            for (int i = 1; i <= (round == 0 ? 10 : 5); i++) {
+                QuizSubmission quizSubmission = database.generateSubmission(quizExercise, i + round, true, null);
+                database.changeUser("student" + i);
+                request.postWithResponseBody("/api/exercises/" + quizExercise.getId() + "/submissions/practice", quizSubmission, Result.class, HttpStatus.OK);
+            }
+            quizScheduleService.processCachedQuizSubmissions();
+        }
+        Map<String, Integer> incrementalStatistics = statisticCounters(quizExerciseService.findOneWithQuestionsAndStatistics(quizExercise.getId()));
+        assertThat(incrementalStatistics.get("participants-unrated")).isGreaterThan(0);
+
+        quizStatisticService.recalculateStatistics(quizExerciseService.findOneWithQuestionsAndStatistics(quizExercise.getId()));
+
+        assertThat(statisticCounters(quizExerciseService.findOneWithQuestionsAndStatistics(quizExercise.getId()))).isEqualTo(incrementalStatistics);
+    }
+
+    private Map<String, Integer> statisticCounters(QuizExercise quizExercise) {
+        Map<String, Integer> counters = new HashMap<>();
+        QuizPointStatistic quizPointStatistic = quizExercise.getQuizPointStatistic();
+        counters.put("participants-rated", quizPointStatistic.getParticipantsRated());
+        counters.put("participants-unrated", quizPointStatistic.getParticipantsUnrated());
+        for (PointCounter pointCounter : quizPointStatistic.getPointCounters()) {
+            counters.put("points-" + pointCounter.getPoints() + "-rated", pointCounter.getRatedCounter());
+            counters.put("points-" + pointCounter.getPoints() + "-unrated", pointCounter.getUnRatedCounter());
+        }
+        for (QuizQuestion question : quizExercise.getQuizQuestions()) {
+            QuizQuestionStatistic statistic = question.getQuizQuestionStatistic();
+            counters.put("question-" + question.getId() + "-participants-rated", statistic.getParticipantsRated());
+            counters.put("question-" + question.getId() + "-participants-unrated", statistic.getParticipantsUnrated());
+            counters.put("question-" + question.getId() + "-correct-rated", statistic.getRatedCorrectCounter());
+            counters.put("question-" + question.getId() + "-correct-unrated", statistic.getUnRatedCorrectCounter());
+        }
+        return counters;
+    }
+
+    @Test
+    public void testQuizSubmit_failedChunkSavedIndividually() {
+        List<Course> courses = database.createCoursesWithExercisesAndLectures(true);
+        QuizExercise quizExercise = database.createQuiz(courses.get(0), ZonedDateTime.now(), null);
+        quizExercise.setDuration(60);
+        quizExercise.setIsPlannedToStart(true);
+        quizExercise.setIsVisibleBeforeStart(true);
+        quizExerciseService.save(quizExercise);
+
+        // more than one chunk (artemis.quiz.flush-chunk-size is 100), the second chunk contains one submission that cannot be saved
+        int numberOfParticipants = 250;
+        for (int i = 1; i <= numberOfParticipants; i++) {
+            QuizSubmission quizSubmission = database.generateSubmission(quizExercise, i, true, ZonedDateTime.now());
+            if (i == 150) {
+                MultipleChoiceQuestion deletedQuestion = new MultipleChoiceQuestion();
+                deletedQuestion.setId(Long.MAX_VALUE);
+                quizSubmission.addSubmittedAnswers(new MultipleChoiceSubmittedAnswer().question(deletedQuestion));
+            }
+            QuizScheduleService.updateSubmission(quizExercise.getId(), "student" + i, quizSubmission);
+        }
+        double failedChunksBefore = meterRegistry.get("artemis.quiz.submissions.failed_chunks").counter().count();
+
+        quizScheduleService.processCachedQuizSubmissions();
+
+        // only the broken submission is lost, the other submissions of its chunk are saved individually
+        assertThat(meterRegistry.get("artemis.quiz.submissions.failed_chunks").counter().count()).isEqualTo(failedChunksBefore + 1);
+        assertThat(resultRepository.findAll()).hasSize(numberOfParticipants - 1);
+        assertThat(quizSubmissionRepository.findAll()).hasSize(numberOfParticipants - 1);
+        QuizExercise quizExerciseWithStatistic = quizExerciseService.findOneWithQuestionsAndStatistics(quizExercise.getId());
+        assertThat(quizExerciseWithStatistic.getQuizPointStatistic().getParticipantsRated()).isEqualTo(numberOfParticipants - 1);
+    }
+
     @Test
     @WithMockUser(value = "student1", roles = "USER")
     public void testQuizSubmitPractice() throws Exception {
@@ -239,6 +328,47 @@ public class QuizSubmissionIntegrationTest extends AbstractSpringIntegrationBamb
         }
     }
 
+    @Test
+    @WithMockUser(value = "student1", roles = "USER")
+    public void testQuizSubmitLive_alreadySubmitted_badRequest() throws Exception {
+        List<Course> courses = database.createCoursesWithExercisesAndLectures(true);
+        Course course = courses.get(0);
+        QuizExercise quizExercise = database.createQuiz(course, ZonedDateTime.now(), null);
+        quizExercise.setDueDate(ZonedDateTime.now().plusMinutes(1));
+        quizExercise.setDuration(60);
+        quizExercise.setIsPlannedToStart(true);
+        quizExercise.setIsVisibleBeforeStart(true);
+        quizExerciseService.save(quizExercise);
+
+        QuizSubmission quizSubmission = database.generateSubmission(quizExercise, 1, true, null);
+        request.postWithResponseBody("/api/exercises/" + quizExercise.getId() + "/submissions/live", quizSubmission, QuizSubmission.class, HttpStatus.OK);
+        // the second submit is rejected in memory, before the first submission is saved to the database
+        QuizSubmission secondSubmission = request.postWithResponseBody("/api/exercises/" + quizExercise.getId() + "/submissions/live",
+                database.generateSubmission(quizExercise, 1, true, null), QuizSubmission.class, HttpStatus.BAD_REQUEST);
+        assertThat(secondSubmission).isNull();
+        assertThat(quizSubmissionRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    @WithMockUser(value = "student1", roles = "USER")
+    public void testQuizSubmitLive_notStarted_badRequest() throws Exception {
+        List<Course> courses = database.createCoursesWithExercisesAndLectures(true);
+        Course course = courses.get(0);
+        QuizExercise quizExercise = database.createQuiz(course, ZonedDateTime.now().plusHours(1), null);
+        quizExercise.setDuration(60);
+        quizExercise.setIsPlannedToStart(true);
+        quizExercise.setIsVisibleBeforeStart(true);
+        quizExerciseService.save(quizExercise);
+        // e.g. the quiz was saved on another server, so this server does not have a live session of the quiz
+        quizScheduleService.cancelScheduledQuizStart(quizExercise.getId());
+
+        QuizSubmission quizSubmission = database.generateSubmission(quizExercise, 1, true, null);
+        request.postWithResponseBody("/api/exercises/" + quizExercise.getId() + "/submissions/live", quizSubmission, QuizSubmission.class, HttpStatus.BAD_REQUEST);
+        // the live session is only started for an active quiz
+        assertThat(QuizScheduleService.getQuizExercise(quizExercise.getId())).isNull();
+        assertThat(quizSubmissionRepository.findAll()).isEmpty();
+    }
+
     @Test
     @WithMockUser(value = "student1", roles = "USER")
     public void testQuizSubmitPractice_badRequest() throws Exception {
@@ -0,0 +1,206 @@
+package de.tum.in.www1.artemis.config.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ResilientHttpRequestInterceptorTest {
+
+    private static final byte[] BODY = new byte[0];
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * the outcomes of the next requests, a status code or an exception
+     */
+    private final Deque<Object> outcomes = new ArrayDeque<>();
+
+    private int executedRequests;
+
+    private final ClientHttpRequestExecution execution = (request, body) -> {
+        executedRequests++;
+        Object outcome = outcomes.isEmpty() ? HttpStatus.OK : outcomes.poll();
+        if (outcome instanceof IOException) {
+            throw (IOException) outcome;
+        }
+        return new MockClientHttpResponse(BODY, (HttpStatus) outcome);
+    };
+
+    private ResilientHttpRequestInterceptor interceptor(int maxAttempts, long retryBackoffMillis, int failureThreshold, long openDurationMillis) {
+        return new ResilientHttpRequestInterceptor("bitbucket", maxAttempts, retryBackoffMillis, failureThreshold, openDurationMillis, meterRegistry);
+    }
+
+    private static HttpRequest request(HttpMethod method) {
+        return new MockClientHttpRequest(method, URI.create("https://bitbucket.example.com/rest/api/latest/projects"));
+    }
+
+    private double retries() {
+        return meterRegistry.get("artemis.http_client.retries").tag("target", "bitbucket").counter().count();
+    }
+
+    private double rejected() {
+        return meterRegistry.get("artemis.http_client.rejected").tag("target", "bitbucket").counter().count();
+    }
+
+    private boolean circuitOpen() {
+        return meterRegistry.get("artemis.http_client.circuit_open").tag("target", "bitbucket").gauge().value() == 1;
+    }
+
+    @Test
+    public void idempotentRequest_isRetriedWithBackoffAfterConnectionError() throws Exception {
+        ResilientHttpRequestInterceptor interceptor = interceptor(3, 100, 10, 1000);
+        outcomes.add(new IOException("Connection reset"));
+        outcomes.add(new IOException("Connection reset"));
+
+        long start = System.currentTimeMillis();
+        ClientHttpResponse response = interceptor.intercept(request(HttpMethod.GET), BODY, execution);
+
+        // the delays before the second and third attempt are 100ms and 200ms
+        assertThat(System.currentTimeMillis() - start).isGreaterThanOrEqualTo(300);
+        assertThat(response.getRawStatusCode()).isEqualTo(200);
+        assertThat(executedRequests).isEqualTo(3);
+        assertThat(retries()).isEqualTo(2);
+    }
+
+    @Test
+    public void idempotentRequest_failsAfterMaxAttempts() {
+        ResilientHttpRequestInterceptor interceptor = interceptor(2, 0, 10, 1000);
+        outcomes.add(new IOException("Connection reset"));
+        outcomes.add(new IOException("Connection refused"));
+
+        IOException exception = assertThrows(IOException.class, () -> interceptor.intercept(request(HttpMethod.PUT), BODY, execution));
+
+        assertThat(exception).hasMessage("Connection refused");
+        assertThat(executedRequests).isEqualTo(2);
+    }
+
+    @Test
+    public void nonIdempotentRequest_isNotRetried() throws Exception {
+        ResilientHttpRequestInterceptor interceptor = interceptor(3, 0, 10, 1000);
+        outcomes.add(new IOException("Connection reset"));
+        assertThrows(IOException.class, () -> interceptor.intercept(request(HttpMethod.POST), BODY, execution));
+        assertThat(executedRequests).isEqualTo(1);
+
+        outcomes.add(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(interceptor.intercept(request(HttpMethod.POST), BODY, execution).getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(executedRequests).isEqualTo(2);
+        assertThat(retries()).isZero();
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = HttpStatus.class, names = { "BAD_GATEWAY", "SERVICE_UNAVAILABLE", "GATEWAY_TIMEOUT" })
+    public void retryableStatus_isRetried(HttpStatus status) throws Exception {
+        ResilientHttpRequestInterceptor interceptor = interceptor(3, 0, 10, 1000);
+        outcomes.add(status);
+
+        assertThat(interceptor.intercept(request(HttpMethod.GET), BODY, execution).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(executedRequests).isEqualTo(2);
+        assertThat(retries()).isEqualTo(1);
+    }
+
+    @Test
+    public void retryableStatus_isReturnedAfterMaxAttempts() throws Exception {
+        ResilientHttpRequestInterceptor interceptor = interceptor(3, 0, 10, 1000);
+        outcomes.add(HttpStatus.SERVICE_UNAVAILABLE);
+        outcomes.add(HttpStatus.BAD_GATEWAY);
+        outcomes.add(HttpStatus.GATEWAY_TIMEOUT);
+
+        assertThat(interceptor.intercept(request(HttpMethod.GET), BODY, execution).getStatusCode()).isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+        assertThat(executedRequests).isEqualTo(3);
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = HttpStatus.class, names = { "INTERNAL_SERVER_ERROR", "NOT_FOUND", "CONFLICT" })
+    public void otherStatus_isNotRetried(HttpStatus status) throws Exception {
+        ResilientHttpRequestInterceptor interceptor = interceptor(3, 0, 10, 1000);
+        outcomes.add(status);
+
+        assertThat(interceptor.intercept(request(HttpMethod.GET), BODY, execution).getStatusCode()).isEqualTo(status);
+        assertThat(executedRequests).isEqualTo(1);
+        assertThat(retries()).isZero();
+    }
+
+    @Test
+    public void circuit_opensAfterConsecutiveFailuresAndClosesAfterSuccess() throws Exception {
+        ResilientHttpRequestInterceptor interceptor = interceptor(1, 0, 3, 200);
+        outcomes.add(new IOException("Connection refused"));
+        outcomes.add(HttpStatus.INTERNAL_SERVER_ERROR);
+        // a success resets the consecutive failures
+        outcomes.add(HttpStatus.OK);
+        outcomes.add(new IOException("Connection refused"));
+        outcomes.add(HttpStatus.SERVICE_UNAVAILABLE);
+        for (int i = 0; i < 5; i++) {
+            sendIgnoringErrors(interceptor);
+        }
+        assertThat(circuitOpen()).isFalse();
+
+        outcomes.add(HttpStatus.BAD_GATEWAY);
+        sendIgnoringErrors(interceptor);
+        assertThat(circuitOpen()).isTrue();
+
+        // the open circuit rejects the requests without sending them
+        IOException exception = assertThrows(IOException.class, () -> interceptor.intercept(request(HttpMethod.GET), BODY, execution));
+        assertThat(exception.getMessage()).contains("circuit for bitbucket is open");
+        assertThat(executedRequests).isEqualTo(6);
+        assertThat(rejected()).isEqualTo(1);
+
+        // after the open duration the next request is sent (half open), its failure opens the circuit again immediately
+        await().until(() -> !circuitOpen());
+        outcomes.add(new IOException("Connection refused"));
+        sendIgnoringErrors(interceptor);
+        assertThat(executedRequests).isEqualTo(7);
+        assertThat(circuitOpen()).isTrue();
+        assertThrows(IOException.class, () -> interceptor.intercept(request(HttpMethod.GET), BODY, execution));
+        assertThat(executedRequests).isEqualTo(7);
+        assertThat(rejected()).isEqualTo(2);
+
+        // a success after the open duration closes the circuit, a single failure does not open it again
+        await().until(() -> !circuitOpen());
+        assertThat(interceptor.intercept(request(HttpMethod.GET), BODY, execution).getStatusCode()).isEqualTo(HttpStatus.OK);
+        outcomes.add(new IOException("Connection refused"));
+        sendIgnoringErrors(interceptor);
+        assertThat(circuitOpen()).isFalse();
+        assertThat(interceptor.intercept(request(HttpMethod.GET), BODY, execution).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(executedRequests).isEqualTo(10);
+    }
+
+    @Test
+    public void circuit_rejectsRetriesOfRequestThatOpenedIt() {
+        ResilientHttpRequestInterceptor interceptor = interceptor(5, 0, 2, 1000);
+        outcomes.add(new IOException("Connection refused"));
+        outcomes.add(new IOException("Connection refused"));
+
+        IOException exception = assertThrows(IOException.class, () -> interceptor.intercept(request(HttpMethod.GET), BODY, execution));
+
+        assertThat(exception.getMessage()).contains("circuit for bitbucket is open");
+        assertThat(executedRequests).isEqualTo(2);
+    }
+
+    private void sendIgnoringErrors(ResilientHttpRequestInterceptor interceptor) {
+        try {
+            interceptor.intercept(request(HttpMethod.GET), BODY, execution).close();
+        }
+        catch (IOException ex) {
+            // the failure is counted by the interceptor
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package de.tum.in.www1.artemis.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TextClusterTest {
+
+    private final double[][] distanceMatrix = new double[][] { { 0, 0.1, 0.2 }, { 0.1, 0, 0.4 }, { 0.2, 0.4, 0 } };
+
+    private final List<TextBlock> textBlocks = new ArrayList<>();
+
+    private TextCluster textCluster;
+
+    @BeforeEach
+    public void setUp() {
+        textCluster = new TextCluster();
+        for (int i = 0; i < distanceMatrix.length; i++) {
+            TextBlock textBlock = new TextBlock();
+            textBlock.setId("block" + i);
+            textBlocks.add(textBlock);
+            textCluster.addBlocks(textBlock);
+        }
+    }
+
+    @Test
+    public void distanceMatrix_compactFormat() {
+        textCluster.setDistanceMatrix(distanceMatrix);
+
+        assertThat(textCluster.getDistanceMatrix()).isEqualTo(distanceMatrix);
+        assertThat(textCluster.distanceBetweenBlocks(textBlocks.get(0), textBlocks.get(2))).isEqualTo(0.2);
+        assertThat(textCluster.distanceBetweenBlocks(textBlocks.get(2), textBlocks.get(1))).isEqualTo(0.4);
+        // only the upper triangle is stored
+        assertThat(DistanceMatrix.of(distanceMatrix).toBytes()).hasSize(1 + 4 + 6 * 8);
+    }
+
+    @Test
+    public void distanceMatrix_legacyFormat() throws Exception {
+        ByteArrayOutputStream serializedMatrix = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(serializedMatrix)) {
+            objectOutputStream.writeObject(distanceMatrix);
+        }
+        byte[] legacyData = serializedMatrix.toByteArray();
+
+        assertThat(DistanceMatrix.isLegacyFormat(legacyData)).isTrue();
+        DistanceMatrix matrix = DistanceMatrix.fromBytes(legacyData);
+        assertThat(matrix.toArray()).isEqualTo(distanceMatrix);
+        assertThat(DistanceMatrix.isLegacyFormat(matrix.toBytes())).isFalse();
+        assertThat(DistanceMatrix.fromBytes(matrix.toBytes()).get(1, 0)).isEqualTo(0.1);
+    }
+}
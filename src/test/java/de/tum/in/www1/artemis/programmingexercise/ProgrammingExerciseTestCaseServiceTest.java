@@ -204,6 +204,31 @@ public class ProgrammingExerciseTestCaseServiceTest extends AbstractSpringIntegr
         assertThat(result.isSuccessful()).isFalse();
     }
 
+    @Test
+    public void shouldRecalculateScoreWithResetWeightsAfterCachingTestCases() throws Exception {
+        when(gitService.getLastCommitHash(ArgumentMatchers.any())).thenReturn(ObjectId.fromString("9b3a9bd71a0d80e5bbc42204c319ed3d1d4f0d6d"));
+        bambooRequestMockProvider.mockTriggerBuild(programmingExercise.getSolutionParticipation());
+
+        Result resultBeforeReset = new Result().feedbacks(createFeedbacksWithOneFailedTest()).successful(false);
+        testCaseService.updateResultFromTestCases(resultBeforeReset, programmingExercise, true);
+        assertThat(resultBeforeReset.getScore()).isEqualTo(25L);
+
+        testCaseService.resetWeights(programmingExercise.getId());
+
+        // the cached test cases must not be used after the weights were reset
+        Result resultAfterReset = new Result().feedbacks(createFeedbacksWithOneFailedTest()).successful(false);
+        testCaseService.updateResultFromTestCases(resultAfterReset, programmingExercise, true);
+        assertThat(resultAfterReset.getScore()).isEqualTo(50L);
+    }
+
+    private List<Feedback> createFeedbacksWithOneFailedTest() {
+        List<Feedback> feedbacks = new ArrayList<>();
+        feedbacks.add(new Feedback().text("test1").positive(true).type(FeedbackType.AUTOMATIC));
+        feedbacks.add(new Feedback().text("test2").positive(true).type(FeedbackType.AUTOMATIC));
+        feedbacks.add(new Feedback().text("test3").positive(false).type(FeedbackType.AUTOMATIC));
+        return feedbacks;
+    }
+
     @Test
     public void shouldRemoveTestsWithAfterDueDateFlagIfDueDateHasNotPassed() {
         // Set programming exercise due date in future.
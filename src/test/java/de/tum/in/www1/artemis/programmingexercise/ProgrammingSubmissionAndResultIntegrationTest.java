@@ -4,6 +4,7 @@ import static de.tum.in.www1.artemis.config.Constants.*;
 import static de.tum.in.www1.artemis.constants.ProgrammingSubmissionConstants.*;
 import static de.tum.in.www1.artemis.util.TestConstants.COMMIT_HASH_OBJECT_ID;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
 import static org.mockito.Mockito.doReturn;
 
 import java.net.URL;
@@ -39,6 +40,7 @@ import de.tum.in.www1.artemis.domain.participation.Participation;
 import de.tum.in.www1.artemis.domain.participation.ProgrammingExerciseParticipation;
 import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
 import de.tum.in.www1.artemis.repository.*;
+import de.tum.in.www1.artemis.service.BuildResultIngestionService;
 import de.tum.in.www1.artemis.util.DatabaseUtilService;
 import de.tum.in.www1.artemis.util.RequestUtilService;
 import de.tum.in.www1.artemis.web.rest.ProgrammingSubmissionResource;
@@ -92,6 +94,9 @@ class ProgrammingSubmissionAndResultIntegrationTest extends AbstractSpringIntegr
     @Autowired
     private BambooRequestMockProvider bambooRequestMockProvider;
 
+    @Autowired
+    private BuildResultIngestionService buildResultIngestionService;
+
     private Long exerciseId;
 
     private Long templateParticipationId;
@@ -541,6 +546,8 @@ class ProgrammingSubmissionAndResultIntegrationTest extends AbstractSpringIntegr
         HttpHeaders httpHeaders = new HttpHeaders();
         httpHeaders.add("Authorization", ARTEMIS_AUTHENTICATION_TOKEN_VALUE);
         request.postWithoutLocation("/api" + NEW_RESULT_RESOURCE_PATH, obj, expectedStatus, httpHeaders);
+        // the result is created asynchronously
+        await().until(() -> buildResultIngestionService.getNumberOfPendingJobs() == 0);
     }
 
     private String getStudentLoginFromParticipation(int participationNumber) {
@@ -8,14 +8,17 @@ import static org.mockito.Mockito.*;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
+import org.apache.http.HttpException;
 import org.eclipse.jgit.lib.ObjectId;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
+import org.mockito.ArgumentMatcher;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -25,14 +28,18 @@ import org.springframework.util.LinkedMultiValueMap;
 import de.tum.in.www1.artemis.AbstractSpringIntegrationBambooBitbucketJiraTest;
 import de.tum.in.www1.artemis.config.Constants;
 import de.tum.in.www1.artemis.connector.bamboo.BambooRequestMockProvider;
+import de.tum.in.www1.artemis.domain.BuildRunState;
+import de.tum.in.www1.artemis.domain.BuildTriggerJob;
 import de.tum.in.www1.artemis.domain.ProgrammingExercise;
 import de.tum.in.www1.artemis.domain.ProgrammingSubmission;
 import de.tum.in.www1.artemis.domain.enumeration.AssessmentType;
+import de.tum.in.www1.artemis.domain.enumeration.BuildTriggerJobState;
 import de.tum.in.www1.artemis.domain.enumeration.Language;
 import de.tum.in.www1.artemis.domain.enumeration.SubmissionType;
 import de.tum.in.www1.artemis.domain.participation.ProgrammingExerciseParticipation;
 import de.tum.in.www1.artemis.domain.participation.ProgrammingExerciseStudentParticipation;
 import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.repository.BuildTriggerJobRepository;
 import de.tum.in.www1.artemis.repository.ProgrammingExerciseRepository;
 import de.tum.in.www1.artemis.repository.ProgrammingExerciseStudentParticipationRepository;
 import de.tum.in.www1.artemis.repository.ProgrammingSubmissionRepository;
@@ -40,6 +47,7 @@ import de.tum.in.www1.artemis.util.DatabaseUtilService;
 import de.tum.in.www1.artemis.util.ModelFactory;
 import de.tum.in.www1.artemis.util.RequestUtilService;
 import de.tum.in.www1.artemis.util.TestConstants;
+import de.tum.in.www1.artemis.web.rest.dto.BuildRunProgressDTO;
 
 public class ProgrammingSubmissionIntegrationTest extends AbstractSpringIntegrationBambooBitbucketJiraTest {
 
@@ -61,6 +69,9 @@ public class ProgrammingSubmissionIntegrationTest extends AbstractSpringIntegrat
     @Autowired
     private ProgrammingExerciseStudentParticipationRepository programmingExerciseStudentParticipationRepository;
 
+    @Autowired
+    private BuildTriggerJobRepository buildTriggerJobRepository;
+
     ProgrammingExercise exercise;
 
     @BeforeEach
@@ -82,6 +93,7 @@ public class ProgrammingSubmissionIntegrationTest extends AbstractSpringIntegrat
 
     @AfterEach
     public void tearDown() {
+        buildTriggerJobRepository.deleteAll();
         database.resetDatabase();
     }
 
@@ -162,6 +174,8 @@ public class ProgrammingSubmissionIntegrationTest extends AbstractSpringIntegrat
         request.postWithoutLocation("/api/programming-exercises/" + exercise.getId() + "/trigger-instructor-build-all", null, HttpStatus.OK, new HttpHeaders());
 
         await().until(() -> submissionRepository.count() == 3);
+        // the build run is completed asynchronously after the last queued build was triggered
+        await().until(() -> !programmingExerciseRepository.findById(exercise.getId()).get().getTestCasesChanged());
 
         List<ProgrammingSubmission> submissions = submissionRepository.findAll();
 
@@ -194,6 +208,129 @@ public class ProgrammingSubmissionIntegrationTest extends AbstractSpringIntegrat
         request.postWithoutLocation("/api/programming-exercises/" + 1L + "/trigger-instructor-build-all", null, HttpStatus.FORBIDDEN, new HttpHeaders());
     }
 
+    @Test
+    void queuedBuilds_areTriggeredInQueueOrder() throws Exception {
+        doReturn(COMMIT_HASH_OBJECT_ID).when(gitService).getLastCommitHash(any());
+        List<Long> triggeredParticipationIds = recordTriggeredBuilds();
+        final var participation1 = database.addStudentParticipationForProgrammingExercise(exercise, "student1");
+        final var participation2 = database.addStudentParticipationForProgrammingExercise(exercise, "student2");
+        final var participation3 = database.addStudentParticipationForProgrammingExercise(exercise, "student3");
+        queueBuild(participation2.getId(), 3);
+        queueBuild(participation3.getId(), 2);
+        queueBuild(participation1.getId(), 1);
+
+        programmingSubmissionService.resumeQueuedBuildTriggerJobs();
+
+        awaitCompletedBuildRun(3, 0);
+        assertThat(triggeredParticipationIds).containsExactly(participation2.getId(), participation3.getId(), participation1.getId());
+    }
+
+    @Test
+    @WithMockUser(username = "instructor1", roles = "INSTRUCTOR")
+    void triggerBuildForExercise_failedTriggerIsRetriedUntilMaxAttempts() throws Exception {
+        doReturn(COMMIT_HASH_OBJECT_ID).when(gitService).getLastCommitHash(any());
+        List<Long> triggeredParticipationIds = recordTriggeredBuilds();
+        final var participation1 = database.addStudentParticipationForProgrammingExercise(exercise, "student1");
+        final var participation2 = database.addStudentParticipationForProgrammingExercise(exercise, "student2");
+        final var participation3 = database.addStudentParticipationForProgrammingExercise(exercise, "student3");
+        // the CI server never accepts the build of the second participation
+        doAnswer(invocation -> {
+            triggeredParticipationIds.add(participation2.getId());
+            throw new HttpException("Bamboo is not reachable");
+        }).when(continuousIntegrationService).triggerBuild(argThat(participation -> participation.getId().equals(participation2.getId())));
+        // the first attempt of the third participation fails with an unexpected exception before the build is triggered
+        doThrow(new RuntimeException("Bitbucket is not reachable")).doReturn(COMMIT_HASH_OBJECT_ID).when(gitService).getLastCommitHash(participation3.getRepositoryUrlAsUrl());
+
+        request.postWithoutLocation("/api/programming-exercises/" + exercise.getId() + "/trigger-instructor-build-all", null, HttpStatus.OK, new HttpHeaders());
+
+        awaitCompletedBuildRun(2, 1);
+        assertThat(Collections.frequency(triggeredParticipationIds, participation1.getId())).isEqualTo(1);
+        assertThat(Collections.frequency(triggeredParticipationIds, participation2.getId())).isEqualTo(3);
+        assertThat(Collections.frequency(triggeredParticipationIds, participation3.getId())).isEqualTo(1);
+        verify(gitService, times(2)).getLastCommitHash(participation3.getRepositoryUrlAsUrl());
+        assertThat(programmingExerciseRepository.findById(exercise.getId()).get().getTestCasesChanged()).isFalse();
+    }
+
+    @Test
+    void interruptedBuildRun_isResumedAfterRestart() throws Exception {
+        doReturn(COMMIT_HASH_OBJECT_ID).when(gitService).getLastCommitHash(any());
+        List<Long> triggeredParticipationIds = recordTriggeredBuilds();
+        final var participation1 = database.addStudentParticipationForProgrammingExercise(exercise, "student1");
+        final var participation2 = database.addStudentParticipationForProgrammingExercise(exercise, "student2");
+        final var participation3 = database.addStudentParticipationForProgrammingExercise(exercise, "student3");
+        // the server was stopped while it triggered the build of the first participation
+        claimBuild(queueBuild(participation1.getId(), 3), ZonedDateTime.now().minusHours(1));
+        // another server of the cluster triggers the build of the second participation right now
+        BuildTriggerJob jobOfOtherServer = claimBuild(queueBuild(participation2.getId(), 2), ZonedDateTime.now());
+        queueBuild(participation3.getId(), 1);
+
+        programmingSubmissionService.resumeQueuedBuildTriggerJobs();
+
+        String topic = "/topic/programming-exercises/" + exercise.getId() + "/all-builds-triggered";
+        await().untilAsserted(
+                () -> verify(websocketMessagingService, atLeastOnce()).sendMessage(eq(topic + "/progress"), argThat(buildRunProgress(BuildRunState.RUNNING, 1, 2, 0))));
+        assertThat(triggeredParticipationIds).containsExactly(participation1.getId(), participation3.getId());
+        // the build run is completed by the server that processes the last job
+        assertThat(buildTriggerJobRepository.findAll()).extracting(BuildTriggerJob::getId).containsExactly(jobOfOtherServer.getId());
+        verify(websocketMessagingService, never()).sendMessage(topic, BuildRunState.COMPLETED);
+    }
+
+    @Test
+    void queuedBuildOfDeletedParticipation_isSkipped() throws Exception {
+        doReturn(COMMIT_HASH_OBJECT_ID).when(gitService).getLastCommitHash(any());
+        List<Long> triggeredParticipationIds = recordTriggeredBuilds();
+        final var participation2 = database.addStudentParticipationForProgrammingExercise(exercise, "student2");
+        final var deletedParticipation = database.addStudentParticipationForProgrammingExercise(exercise, "student3");
+        queueBuild(deletedParticipation.getId(), 2);
+        queueBuild(participation2.getId(), 1);
+        programmingExerciseStudentParticipationRepository.deleteById(deletedParticipation.getId());
+
+        programmingSubmissionService.resumeQueuedBuildTriggerJobs();
+
+        awaitCompletedBuildRun(1, 1);
+        assertThat(triggeredParticipationIds).containsExactly(participation2.getId());
+    }
+
+    /**
+     * Records the ids of the participations whose builds are triggered on the CI server, in the order of the triggers
+     */
+    private List<Long> recordTriggeredBuilds() throws HttpException {
+        List<Long> triggeredParticipationIds = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            triggeredParticipationIds.add(invocation.<ProgrammingExerciseParticipation>getArgument(0).getId());
+            return null;
+        }).when(continuousIntegrationService).triggerBuild(any());
+        return triggeredParticipationIds;
+    }
+
+    private BuildTriggerJob queueBuild(Long participationId, int queuedMinutesAgo) {
+        BuildTriggerJob job = new BuildTriggerJob(exercise.getId(), participationId);
+        job.setQueuedDate(ZonedDateTime.now().minusMinutes(queuedMinutesAgo));
+        return buildTriggerJobRepository.save(job);
+    }
+
+    private BuildTriggerJob claimBuild(BuildTriggerJob job, ZonedDateTime processingStartDate) {
+        job.setState(BuildTriggerJobState.PROCESSING);
+        job.setProcessingStartDate(processingStartDate);
+        return buildTriggerJobRepository.save(job);
+    }
+
+    private static ArgumentMatcher<Object> buildRunProgress(BuildRunState state, long queuedBuilds, int triggeredBuilds, int failedBuilds) {
+        return message -> message instanceof BuildRunProgressDTO && ((BuildRunProgressDTO) message).getState() == state
+                && ((BuildRunProgressDTO) message).getQueuedBuilds() == queuedBuilds && ((BuildRunProgressDTO) message).getTriggeredBuilds() == triggeredBuilds
+                && ((BuildRunProgressDTO) message).getFailedBuilds() == failedBuilds;
+    }
+
+    /**
+     * Waits until the build run of the exercise is completed and checks the final progress that was sent to the instructor
+     */
+    private void awaitCompletedBuildRun(int triggeredBuilds, int failedBuilds) {
+        String topic = "/topic/programming-exercises/" + exercise.getId() + "/all-builds-triggered";
+        await().untilAsserted(() -> verify(websocketMessagingService).sendMessage(topic, BuildRunState.COMPLETED));
+        verify(websocketMessagingService, atLeastOnce()).sendMessage(eq(topic + "/progress"), argThat(buildRunProgress(BuildRunState.COMPLETED, 0, triggeredBuilds, failedBuilds)));
+        assertThat(buildTriggerJobRepository.count()).isZero();
+    }
+
     @Test
     @WithMockUser(username = "instructor1", roles = "INSTRUCTOR")
     void triggerBuildForParticipations_instructor() throws Exception {
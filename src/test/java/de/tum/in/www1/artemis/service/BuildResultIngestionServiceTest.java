@@ -0,0 +1,204 @@
+package de.tum.in.www1.artemis.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.tum.in.www1.artemis.domain.BuildResultIngestionJob;
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.enumeration.BuildResultIngestionState;
+import de.tum.in.www1.artemis.domain.participation.ProgrammingExerciseStudentParticipation;
+import de.tum.in.www1.artemis.repository.BuildResultIngestionJobRepository;
+import de.tum.in.www1.artemis.service.connectors.LtiService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class BuildResultIngestionServiceTest {
+
+    private static final String PLAN_KEY = "EXERCISE-STUDENT1";
+
+    private final BuildResultIngestionJobRepository jobRepository = mock(BuildResultIngestionJobRepository.class);
+
+    private final ParticipationService participationService = mock(ParticipationService.class);
+
+    private final ResultService resultService = mock(ResultService.class);
+
+    private final WebsocketMessagingService messagingService = mock(WebsocketMessagingService.class);
+
+    private final LtiService ltiService = mock(LtiService.class);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ProgrammingExerciseStudentParticipation participation = new ProgrammingExerciseStudentParticipation();
+
+    /**
+     * job id -> job, the state of the jobs in the database
+     */
+    private final Map<Long, BuildResultIngestionJob> jobs = new ConcurrentSkipListMap<>();
+
+    private final AtomicLong jobIds = new AtomicLong();
+
+    private BuildResultIngestionService ingestionService;
+
+    @BeforeEach
+    public void init() {
+        when(jobRepository.save(any())).thenAnswer(invocation -> {
+            BuildResultIngestionJob job = invocation.getArgument(0);
+            if (job.getId() == null) {
+                job.setId(jobIds.incrementAndGet());
+            }
+            jobs.put(job.getId(), job);
+            return job;
+        });
+        when(jobRepository.claimQueuedJob(anyLong(), any())).thenAnswer(invocation -> {
+            synchronized (jobs) {
+                BuildResultIngestionJob job = jobs.get(invocation.<Long>getArgument(0));
+                if (job == null || job.getState() != BuildResultIngestionState.QUEUED) {
+                    return 0;
+                }
+                job.setState(BuildResultIngestionState.PROCESSING);
+                job.setProcessingStartDate(invocation.getArgument(1));
+                return 1;
+            }
+        });
+        when(jobRepository.findById(anyLong())).thenAnswer(invocation -> Optional.ofNullable(jobs.get(invocation.<Long>getArgument(0))));
+        doAnswer(invocation -> jobs.remove(invocation.<Long>getArgument(0))).when(jobRepository).deleteById(anyLong());
+        when(jobRepository.findAllByStateOrderByIdAsc(any()))
+                .thenAnswer(invocation -> jobs.values().stream().filter(job -> job.getState() == invocation.getArgument(0)).collect(Collectors.toList()));
+        when(jobRepository.requeueStaleJobs(any())).thenAnswer(invocation -> {
+            ZonedDateTime processingStartedBefore = invocation.getArgument(0);
+            List<BuildResultIngestionJob> staleJobs = jobs.values().stream()
+                    .filter(job -> job.getState() == BuildResultIngestionState.PROCESSING && job.getProcessingStartDate().isBefore(processingStartedBefore))
+                    .collect(Collectors.toList());
+            staleJobs.forEach(job -> job.setState(BuildResultIngestionState.QUEUED));
+            return staleJobs.size();
+        });
+
+        when(participationService.findByBuildPlanIdWithEagerResults(PLAN_KEY)).thenReturn(List.of(participation));
+        ingestionService = new BuildResultIngestionService(jobRepository, participationService, resultService, messagingService, ltiService, new ObjectMapper(),
+                meterRegistry, 2, 3, 100);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ingestionService.shutdown();
+    }
+
+    private void awaitProcessed() {
+        await().until(() -> ingestionService.getNumberOfPendingJobs() == 0);
+    }
+
+    private BuildResultIngestionJob job(BuildResultIngestionState state, ZonedDateTime processingStartDate) {
+        BuildResultIngestionJob job = new BuildResultIngestionJob(PLAN_KEY, "{\"plan\":\"" + PLAN_KEY + "\"}");
+        job.setState(state);
+        job.setProcessingStartDate(processingStartDate);
+        return jobRepository.save(job);
+    }
+
+    @Test
+    public void enqueue_resultIsProcessedAndJobIsDeleted() throws Exception {
+        Result result = new Result();
+        when(resultService.processNewProgrammingExerciseResult(eq(participation), any())).thenReturn(Optional.of(result));
+
+        ingestionService.enqueue(PLAN_KEY, Map.of("plan", PLAN_KEY));
+        awaitProcessed();
+
+        verify(resultService).processNewProgrammingExerciseResult(participation, Map.of("plan", PLAN_KEY));
+        verify(messagingService).broadcastNewResult(participation, result);
+        verify(ltiService).onNewResult(participation);
+        assertThat(jobs).isEmpty();
+    }
+
+    @Test
+    public void dispatchedTwice_jobIsOnlyProcessedOnce() throws Exception {
+        CountDownLatch firstResultBlocked = new CountDownLatch(1);
+        CountDownLatch releaseFirstResult = new CountDownLatch(1);
+        when(resultService.processNewProgrammingExerciseResult(eq(participation), any())).thenAnswer(invocation -> {
+            firstResultBlocked.countDown();
+            releaseFirstResult.await(5, TimeUnit.SECONDS);
+            return Optional.empty();
+        }).thenReturn(Optional.empty());
+        // the worker of the build plan is busy with the first result while the second one is dispatched twice
+        ingestionService.enqueue(PLAN_KEY, Map.of("plan", PLAN_KEY));
+        firstResultBlocked.await(5, TimeUnit.SECONDS);
+        BuildResultIngestionJob queuedJob = job(BuildResultIngestionState.QUEUED, null);
+        ingestionService.resumeQueuedJobs();
+        ingestionService.replayFailedJobs();
+        releaseFirstResult.countDown();
+        awaitProcessed();
+
+        // only the first dispatch can claim the job
+        verify(jobRepository, times(2)).claimQueuedJob(eq(queuedJob.getId()), any());
+        verify(resultService, times(2)).processNewProgrammingExerciseResult(eq(participation), any());
+        assertThat(jobs).isEmpty();
+    }
+
+    @Test
+    public void failedResult_isRetriedWithBackoff() throws Exception {
+        when(resultService.processNewProgrammingExerciseResult(eq(participation), any())).thenThrow(new IllegalStateException("deadlock"))
+                .thenThrow(new IllegalStateException("deadlock")).thenReturn(Optional.empty());
+
+        long start = System.currentTimeMillis();
+        ingestionService.enqueue(PLAN_KEY, Map.of("plan", PLAN_KEY));
+        awaitProcessed();
+
+        // the delays before the second and third attempt are 100ms and 200ms
+        assertThat(System.currentTimeMillis() - start).isGreaterThanOrEqualTo(300);
+        verify(resultService, times(3)).processNewProgrammingExerciseResult(eq(participation), any());
+        assertThat(jobs).isEmpty();
+        assertThat(meterRegistry.counter("artemis.build_result.failed").count()).isZero();
+    }
+
+    @Test
+    public void failedResult_isKeptAsFailedJobAfterMaxAttempts() throws Exception {
+        when(resultService.processNewProgrammingExerciseResult(eq(participation), any())).thenThrow(new IllegalStateException("deadlock"));
+
+        ingestionService.enqueue(PLAN_KEY, Map.of("plan", PLAN_KEY));
+        awaitProcessed();
+
+        verify(resultService, times(3)).processNewProgrammingExerciseResult(eq(participation), any());
+        assertThat(jobs).hasSize(1);
+        BuildResultIngestionJob failedJob = jobs.values().iterator().next();
+        assertThat(failedJob.getState()).isEqualTo(BuildResultIngestionState.FAILED);
+        assertThat(failedJob.getAttempts()).isEqualTo(3);
+        assertThat(failedJob.getLastError()).contains("deadlock");
+        assertThat(meterRegistry.counter("artemis.build_result.failed").count()).isEqualTo(1);
+    }
+
+    @Test
+    public void resumeQueuedJobs_processesQueuedAndInterruptedJobs() throws Exception {
+        when(resultService.processNewProgrammingExerciseResult(eq(participation), any())).thenReturn(Optional.empty());
+        job(BuildResultIngestionState.QUEUED, null);
+        // the server was stopped while these jobs were processed
+        job(BuildResultIngestionState.PROCESSING, ZonedDateTime.now().minusHours(1));
+        // this job could be processed by another server of the cluster right now
+        BuildResultIngestionJob recentJob = job(BuildResultIngestionState.PROCESSING, ZonedDateTime.now());
+        BuildResultIngestionJob failedJob = job(BuildResultIngestionState.FAILED, ZonedDateTime.now().minusHours(1));
+
+        ingestionService.resumeQueuedJobs();
+        awaitProcessed();
+
+        verify(resultService, times(2)).processNewProgrammingExerciseResult(eq(participation), any());
+        assertThat(jobs).containsOnlyKeys(recentJob.getId(), failedJob.getId());
+        assertThat(recentJob.getState()).isEqualTo(BuildResultIngestionState.PROCESSING);
+        assertThat(failedJob.getState()).isEqualTo(BuildResultIngestionState.FAILED);
+    }
+}
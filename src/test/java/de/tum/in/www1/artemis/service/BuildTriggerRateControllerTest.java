@@ -0,0 +1,40 @@
+package de.tum.in.www1.artemis.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+public class BuildTriggerRateControllerTest {
+
+    private final BuildTriggerRateController rateController = new BuildTriggerRateController(4, 1, 5, 0.5, Duration.ofSeconds(1));
+
+    @Test
+    public void onTriggered_fastResponse_increasesRateUpToMaximum() {
+        rateController.onTriggered(Duration.ofMillis(100));
+        assertThat(rateController.getRate()).isEqualTo(4.5);
+
+        rateController.onTriggered(Duration.ofMillis(100));
+        rateController.onTriggered(Duration.ofMillis(100));
+        assertThat(rateController.getRate()).isEqualTo(5);
+        assertThat(rateController.getDelay()).isEqualTo(Duration.ofMillis(200));
+    }
+
+    @Test
+    public void onTriggered_slowResponse_halvesRate() {
+        rateController.onTriggered(Duration.ofSeconds(2));
+        assertThat(rateController.getRate()).isEqualTo(2);
+    }
+
+    @Test
+    public void onFailure_halvesRateDownToMinimum() {
+        rateController.onFailure();
+        assertThat(rateController.getRate()).isEqualTo(2);
+
+        rateController.onFailure();
+        rateController.onFailure();
+        assertThat(rateController.getRate()).isEqualTo(1);
+        assertThat(rateController.getDelay()).isEqualTo(Duration.ofSeconds(1));
+    }
+}
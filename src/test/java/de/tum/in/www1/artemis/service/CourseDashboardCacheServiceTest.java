@@ -0,0 +1,88 @@
+package de.tum.in.www1.artemis.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class CourseDashboardCacheServiceTest {
+
+    private static HazelcastInstance hazelcastInstance;
+
+    /**
+     * two servers of a cluster that share the Hazelcast topic of the changes
+     */
+    private final CourseDashboardCacheService server1 = new CourseDashboardCacheService(new SimpleMeterRegistry(), hazelcastInstance, 60, 100);
+
+    private final CourseDashboardCacheService server2 = new CourseDashboardCacheService(new SimpleMeterRegistry(), hazelcastInstance, 60, 100);
+
+    @BeforeAll
+    public static void startHazelcast() {
+        Config config = new Config();
+        config.setInstanceName("course-dashboard-cache-test");
+        config.setClusterName("course-dashboard-cache-test");
+        config.setProperty("hazelcast.phone.home.enabled", "false");
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getTcpIpConfig().setEnabled(false);
+        hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+    }
+
+    @AfterAll
+    public static void stopHazelcast() {
+        hazelcastInstance.shutdown();
+    }
+
+    private static void cacheDashboards(CourseDashboardCacheService server) {
+        server.put("student1", List.of(), Set.of(1L, 2L), server.startLoading());
+        server.put("student2", List.of(), Set.of(3L), server.startLoading());
+    }
+
+    @Test
+    public void participationChanged_invalidatesDashboardsWithParticipationOnAllServers() {
+        cacheDashboards(server1);
+        cacheDashboards(server2);
+
+        server1.participationChanged(2L);
+
+        assertThat(server1.get("student1")).isNull();
+        await().until(() -> server2.get("student1") == null);
+        assertThat(server1.get("student2")).isNotNull();
+        assertThat(server2.get("student2")).isNotNull();
+    }
+
+    @Test
+    public void userChanged_invalidatesDashboardOfUserOnAllServers() {
+        cacheDashboards(server1);
+        cacheDashboards(server2);
+
+        server2.userChanged("student2");
+
+        assertThat(server2.get("student2")).isNull();
+        await().until(() -> server1.get("student2") == null);
+        assertThat(server1.get("student1")).isNotNull();
+        assertThat(server2.get("student1")).isNotNull();
+    }
+
+    @Test
+    public void contentChanged_invalidatesAllDashboardsOnAllServers() {
+        cacheDashboards(server1);
+        cacheDashboards(server2);
+
+        server1.contentChanged();
+
+        assertThat(server1.get("student1")).isNull();
+        assertThat(server1.get("student2")).isNull();
+        await().until(() -> server2.get("student1") == null && server2.get("student2") == null);
+    }
+}
@@ -0,0 +1,230 @@
+package de.tum.in.www1.artemis.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import de.tum.in.www1.artemis.domain.Exercise;
+import de.tum.in.www1.artemis.domain.ProgrammingExercise;
+import de.tum.in.www1.artemis.domain.TextExercise;
+import de.tum.in.www1.artemis.domain.User;
+import de.tum.in.www1.artemis.domain.enumeration.InitializationState;
+import de.tum.in.www1.artemis.domain.exam.StudentExam;
+import de.tum.in.www1.artemis.domain.participation.Participation;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.repository.ExamRepository;
+import de.tum.in.www1.artemis.repository.ProgrammingExerciseRepository;
+import de.tum.in.www1.artemis.repository.StudentExamRepository;
+import de.tum.in.www1.artemis.repository.StudentParticipationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ExamServiceStartExercisesTest {
+
+    private static final long EXAM_ID = 1L;
+
+    private final StudentExamRepository studentExamRepository = mock(StudentExamRepository.class);
+
+    private final StudentParticipationRepository studentParticipationRepository = mock(StudentParticipationRepository.class);
+
+    private final ProgrammingExerciseRepository programmingExerciseRepository = mock(ProgrammingExerciseRepository.class);
+
+    private final ParticipationService participationService = mock(ParticipationService.class);
+
+    private final List<StudentExam> studentExams = new ArrayList<>();
+
+    private final List<StudentParticipation> existingParticipations = new ArrayList<>();
+
+    private ExamService examService;
+
+    private ExamService createExamService(int parallelism, int batchSize, int maxAttempts, long backoffMillis) {
+        when(studentExamRepository.findWithExercisesAndUserByExamId(EXAM_ID)).thenReturn(studentExams);
+        when(studentParticipationRepository.findByExamIdWithStudent(EXAM_ID)).thenReturn(existingParticipations);
+        examService = new ExamService(mock(ExamRepository.class), studentExamRepository, mock(UserService.class), participationService, studentParticipationRepository,
+                programmingExerciseRepository, mock(JdbcTemplate.class), mock(NamedParameterJdbcTemplate.class), mock(PlatformTransactionManager.class),
+                mock(EntityManagerFactory.class), new SimpleMeterRegistry(), parallelism, batchSize, maxAttempts, backoffMillis, 500, 1);
+        return examService;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (examService != null) {
+            examService.shutdownExecutors();
+        }
+    }
+
+    private static User student(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setLogin("student" + id);
+        return user;
+    }
+
+    private ProgrammingExercise programmingExercise(long id) {
+        ProgrammingExercise programmingExercise = new ProgrammingExercise();
+        programmingExercise.setId(id);
+        when(programmingExerciseRepository.findWithTemplateParticipationAndSolutionParticipationById(id)).thenReturn(Optional.of(programmingExercise));
+        return programmingExercise;
+    }
+
+    private static TextExercise textExercise(long id) {
+        TextExercise textExercise = new TextExercise();
+        textExercise.setId(id);
+        return textExercise;
+    }
+
+    private void addStudentExam(User student, Exercise... exercises) {
+        StudentExam studentExam = new StudentExam();
+        studentExam.setUser(student);
+        for (Exercise exercise : exercises) {
+            studentExam.addExercise(exercise);
+        }
+        studentExams.add(studentExam);
+    }
+
+    private static StudentParticipation participation(Exercise exercise, User student, InitializationState initializationState) {
+        StudentParticipation participation = new StudentParticipation();
+        participation.setExercise(exercise);
+        participation.setParticipant(student);
+        participation.setInitializationState(initializationState);
+        return participation;
+    }
+
+    private void startExerciseReturnsParticipation() {
+        when(participationService.startExercise(any(), any()))
+                .thenAnswer(invocation -> participation(invocation.getArgument(0), invocation.getArgument(1), InitializationState.INITIALIZED));
+    }
+
+    @Test
+    public void startExercises_programmingExercisesAreStartedByBoundedWorkerPool() {
+        ProgrammingExercise programmingExercise = programmingExercise(10L);
+        for (long id = 1; id <= 6; id++) {
+            addStudentExam(student(id), programmingExercise);
+        }
+        AtomicInteger runningStarts = new AtomicInteger();
+        AtomicInteger maxRunningStarts = new AtomicInteger();
+        CountDownLatch allWorkersBusy = new CountDownLatch(3);
+        when(participationService.startExercise(eq(programmingExercise), any())).thenAnswer(invocation -> {
+            maxRunningStarts.accumulateAndGet(runningStarts.incrementAndGet(), Math::max);
+            allWorkersBusy.countDown();
+            // wait until all workers set up a participation at the same time
+            allWorkersBusy.await(5, TimeUnit.SECONDS);
+            runningStarts.decrementAndGet();
+            return participation(programmingExercise, invocation.getArgument(1), InitializationState.INITIALIZED);
+        });
+
+        List<Participation> participations = createExamService(3, 100, 3, 0).startExercises(EXAM_ID);
+
+        assertThat(participations).hasSize(6);
+        assertThat(maxRunningStarts.get()).isEqualTo(3);
+        verify(participationService, times(6)).startExercise(eq(programmingExercise), any());
+        verify(programmingExerciseRepository, times(1)).findWithTemplateParticipationAndSolutionParticipationById(10L);
+    }
+
+    @Test
+    public void startExercises_failedProgrammingExerciseStartIsRetriedWithBackoff() {
+        ProgrammingExercise programmingExercise = programmingExercise(10L);
+        User student = student(1L);
+        addStudentExam(student, programmingExercise);
+        when(participationService.startExercise(programmingExercise, student)).thenThrow(new IllegalStateException("VCS not reachable"))
+                .thenThrow(new IllegalStateException("VCS not reachable")).thenReturn(participation(programmingExercise, student, InitializationState.INITIALIZED));
+
+        long start = System.currentTimeMillis();
+        List<Participation> participations = createExamService(1, 100, 3, 100).startExercises(EXAM_ID);
+
+        // the delays before the second and third attempt are 100ms and 200ms
+        assertThat(System.currentTimeMillis() - start).isGreaterThanOrEqualTo(300);
+        assertThat(participations).hasSize(1);
+        verify(participationService, times(3)).startExercise(programmingExercise, student);
+    }
+
+    @Test
+    public void startExercises_programmingExerciseStartGivesUpAfterMaxAttempts() {
+        ProgrammingExercise programmingExercise = programmingExercise(10L);
+        User failingStudent = student(1L);
+        User student = student(2L);
+        addStudentExam(failingStudent, programmingExercise);
+        addStudentExam(student, programmingExercise);
+        startExerciseReturnsParticipation();
+        when(participationService.startExercise(programmingExercise, failingStudent)).thenThrow(new IllegalStateException("VCS not reachable"));
+
+        List<Participation> participations = createExamService(2, 100, 2, 0).startExercises(EXAM_ID);
+
+        assertThat(participations).extracting(participation -> ((StudentParticipation) participation).getParticipantIdentifier()).containsExactly("student2");
+        verify(participationService, times(2)).startExercise(programmingExercise, failingStudent);
+    }
+
+    @Test
+    public void startExercises_resumesOnlyParticipationsThatAreNotInitialized() {
+        ProgrammingExercise programmingExercise = programmingExercise(10L);
+        TextExercise textExercise = textExercise(20L);
+        User interruptedStudent = student(1L);
+        User initializedStudent = student(2L);
+        User newStudent = student(3L);
+        addStudentExam(interruptedStudent, programmingExercise, textExercise);
+        addStudentExam(initializedStudent, programmingExercise, textExercise);
+        addStudentExam(newStudent, programmingExercise, textExercise);
+        // the start of the exam was interrupted after the repository of the first student was copied
+        existingParticipations.add(participation(programmingExercise, interruptedStudent, InitializationState.REPO_COPIED));
+        existingParticipations.add(participation(textExercise, interruptedStudent, InitializationState.INITIALIZED));
+        existingParticipations.add(participation(programmingExercise, initializedStudent, InitializationState.INITIALIZED));
+        existingParticipations.add(participation(textExercise, initializedStudent, InitializationState.INITIALIZED));
+        startExerciseReturnsParticipation();
+        when(participationService.startExerciseForStudents(eq(textExercise), anyList()))
+                .thenAnswer(invocation -> List.of(participation(textExercise, newStudent, InitializationState.INITIALIZED)));
+
+        List<Participation> participations = createExamService(2, 100, 3, 0).startExercises(EXAM_ID);
+
+        assertThat(participations).hasSize(3);
+        verify(participationService).startExercise(programmingExercise, interruptedStudent);
+        verify(participationService).startExercise(programmingExercise, newStudent);
+        verify(participationService, never()).startExercise(programmingExercise, initializedStudent);
+        verify(participationService).startExerciseForStudents(textExercise, List.of(newStudent));
+    }
+
+    @Test
+    public void startExercises_createsParticipationsInBatchesAndStartsFailedBatchIndividually() {
+        TextExercise textExercise = textExercise(20L);
+        List<User> students = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            students.add(student(id));
+            addStudentExam(students.get(students.size() - 1), textExercise);
+        }
+        when(participationService.startExerciseForStudents(eq(textExercise), anyList())).thenAnswer(invocation -> {
+            List<User> batch = invocation.getArgument(1);
+            List<StudentParticipation> participations = new ArrayList<>();
+            batch.forEach(student -> participations.add(participation(textExercise, student, InitializationState.INITIALIZED)));
+            return participations;
+        });
+        // the transaction of the second batch fails, e.g. because of a deadlock
+        when(participationService.startExerciseForStudents(textExercise, students.subList(2, 4))).thenThrow(new IllegalStateException("deadlock"));
+        startExerciseReturnsParticipation();
+        when(participationService.startExercise(textExercise, students.get(3))).thenThrow(new IllegalStateException("deadlock"));
+
+        List<Participation> participations = createExamService(1, 2, 3, 0).startExercises(EXAM_ID);
+
+        verify(participationService).startExerciseForStudents(textExercise, students.subList(0, 2));
+        verify(participationService).startExerciseForStudents(textExercise, students.subList(2, 4));
+        verify(participationService).startExerciseForStudents(textExercise, students.subList(4, 5));
+        verify(participationService).startExercise(textExercise, students.get(2));
+        verify(participationService).startExercise(textExercise, students.get(3));
+        assertThat(participations).extracting(participation -> ((StudentParticipation) participation).getParticipantIdentifier()).containsExactlyInAnyOrder("student1",
+                "student2", "student3", "student5");
+    }
+}
@@ -2,16 +2,31 @@ package de.tum.in.www1.artemis.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import de.tum.in.www1.artemis.AbstractSpringIntegrationBambooBitbucketJiraTest;
 import de.tum.in.www1.artemis.domain.Course;
+import de.tum.in.www1.artemis.domain.Exercise;
+import de.tum.in.www1.artemis.domain.TextExercise;
 import de.tum.in.www1.artemis.domain.exam.Exam;
 import de.tum.in.www1.artemis.domain.exam.ExerciseGroup;
+import de.tum.in.www1.artemis.domain.exam.StudentExam;
+import de.tum.in.www1.artemis.repository.ExamRepository;
+import de.tum.in.www1.artemis.repository.ExerciseRepository;
+import de.tum.in.www1.artemis.repository.StudentExamRepository;
 import de.tum.in.www1.artemis.util.DatabaseUtilService;
+import de.tum.in.www1.artemis.util.ModelFactory;
 
 public class ExamServiceTest extends AbstractSpringIntegrationBambooBitbucketJiraTest {
 
@@ -21,19 +36,31 @@ public class ExamServiceTest extends AbstractSpringIntegrationBambooBitbucketJir
     @Autowired
     ExamService examService;
 
+    @Autowired
+    ExamRepository examRepository;
+
+    @Autowired
+    ExerciseRepository exerciseRepository;
+
+    @Autowired
+    StudentExamRepository studentExamRepository;
+
+    private Course course1;
+
     private Exam exam1;
 
     private ExerciseGroup exerciseGroup1;
 
     @BeforeEach
     void init() {
-        Course course1 = database.addEmptyCourse();
+        course1 = database.addEmptyCourse();
         exam1 = database.addExamWithExerciseGroup(course1, true);
         exerciseGroup1 = exam1.getExerciseGroups().get(0);
     }
 
     @AfterEach
     public void resetDatabase() {
+        ReflectionTestUtils.setField(examService, "studentExamGenerationChunkSize", 500);
         // TODO: something is broken with resetting the repositories. We might find a better solution for this.
         exam1.removeExerciseGroup(exerciseGroup1);
         examService.save(exam1);
@@ -48,4 +75,69 @@ public class ExamServiceTest extends AbstractSpringIntegrationBambooBitbucketJir
         assertThat(examResult).isEqualTo(exam1);
         assertThat(examResult.getExerciseGroups().get(0)).isEqualTo(exerciseGroup1);
     }
+
+    @Test
+    public void testGenerateStudentExams_sameSeedGeneratesSameStudentExams() {
+        Exam exam = addExamWithRegisteredUsers(10);
+
+        Map<String, List<Long>> firstGeneration = exerciseIdsByStudent(examService.generateStudentExams(exam.getId(), 42L));
+        Map<String, List<Long>> secondGeneration = exerciseIdsByStudent(examService.generateStudentExams(exam.getId(), 42L));
+
+        assertThat(firstGeneration).hasSize(10);
+        assertThat(secondGeneration).isEqualTo(firstGeneration);
+        assertThat(studentExamRepository.findByExamId(exam.getId())).hasSize(10);
+    }
+
+    @Test
+    public void testGenerateStudentExams_multipleChunks() {
+        Exam exam = addExamWithRegisteredUsers(10);
+        ReflectionTestUtils.setField(examService, "studentExamGenerationChunkSize", 3);
+
+        List<StudentExam> studentExams = examService.generateStudentExams(exam.getId(), 42L);
+
+        assertThat(studentExams).hasSize(10);
+        assertThat(studentExams.stream().map(studentExam -> studentExam.getUser().getLogin()).collect(Collectors.toSet())).hasSize(10);
+        for (StudentExam studentExam : studentExams) {
+            // one exercise of each of the two mandatory exercise groups and one of the optional ones
+            assertThat(studentExam.getExercises()).hasSize(3);
+            assertThat(new HashSet<>(studentExam.getExercises())).hasSize(3);
+        }
+        // the generation with the same seed does not depend on the chunk size
+        ReflectionTestUtils.setField(examService, "studentExamGenerationChunkSize", 500);
+        assertThat(exerciseIdsByStudent(examService.generateStudentExams(exam.getId(), 42L))).isEqualTo(exerciseIdsByStudent(studentExams));
+        assertThat(studentExamRepository.findByExamId(exam.getId())).hasSize(10);
+    }
+
+    /**
+     * Adds an exam with two mandatory and two optional exercise groups of three text exercises each, and the given number of registered students
+     */
+    private Exam addExamWithRegisteredUsers(int numberOfStudents) {
+        Exam exam = ModelFactory.generateExam(course1);
+        exam.setStartDate(ZonedDateTime.now().plusHours(1));
+        exam.setEndDate(ZonedDateTime.now().plusHours(2));
+        exam.setNumberOfExercisesInExam(3);
+        exam.setRandomizeExerciseOrder(true);
+        ModelFactory.generateExerciseGroup(true, exam);
+        ModelFactory.generateExerciseGroup(true, exam);
+        ModelFactory.generateExerciseGroup(false, exam);
+        ModelFactory.generateExerciseGroup(false, exam);
+        exam = examRepository.save(exam);
+        for (ExerciseGroup exerciseGroup : exam.getExerciseGroups()) {
+            for (int i = 0; i < 3; i++) {
+                TextExercise textExercise = ModelFactory.generateTextExerciseForExam(exam.getStartDate(), exam.getEndDate(), exam.getEndDate(), exerciseGroup);
+                exerciseRepository.save(textExercise);
+            }
+        }
+        // the admin is added as well
+        exam.setRegisteredUsers(new HashSet<>(database.addUsers(numberOfStudents, 0, 0).subList(0, numberOfStudents)));
+        return examRepository.save(exam);
+    }
+
+    private static Map<String, List<Long>> exerciseIdsByStudent(List<StudentExam> studentExams) {
+        Map<String, List<Long>> exerciseIdsByStudent = new HashMap<>();
+        for (StudentExam studentExam : studentExams) {
+            exerciseIdsByStudent.put(studentExam.getUser().getLogin(), studentExam.getExercises().stream().map(Exercise::getId).collect(Collectors.toList()));
+        }
+        return exerciseIdsByStudent;
+    }
 }
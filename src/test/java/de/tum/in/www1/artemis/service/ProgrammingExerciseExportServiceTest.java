@@ -0,0 +1,149 @@
+package de.tum.in.www1.artemis.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.eclipse.jgit.api.errors.InvalidRemoteException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import de.tum.in.www1.artemis.domain.Course;
+import de.tum.in.www1.artemis.domain.ProgrammingExercise;
+import de.tum.in.www1.artemis.domain.Repository;
+import de.tum.in.www1.artemis.domain.participation.ProgrammingExerciseStudentParticipation;
+import de.tum.in.www1.artemis.exception.GitException;
+import de.tum.in.www1.artemis.repository.ProgrammingExerciseRepository;
+import de.tum.in.www1.artemis.service.connectors.GitService;
+import de.tum.in.www1.artemis.web.rest.dto.RepositoryExportOptionsDTO;
+import de.tum.in.www1.artemis.web.rest.dto.RepositoryExportProgressDTO;
+
+public class ProgrammingExerciseExportServiceTest {
+
+    private static final String PROGRESS_TOPIC = "/topic/programming-exercises/1/export-repos-progress";
+
+    @TempDir
+    Path clonePath;
+
+    private final ProgrammingExerciseRepository programmingExerciseRepository = mock(ProgrammingExerciseRepository.class);
+
+    private final GitService gitService = mock(GitService.class);
+
+    private final WebsocketMessagingService websocketMessagingService = mock(WebsocketMessagingService.class);
+
+    private final ProgrammingExerciseExportService exportService = new ProgrammingExerciseExportService(programmingExerciseRepository, mock(FileService.class), gitService,
+            websocketMessagingService, 2);
+
+    private final List<ProgrammingExerciseStudentParticipation> participations = new ArrayList<>();
+
+    private final Set<String> checkedOutRepositories = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    public void init() throws Exception {
+        ReflectionTestUtils.setField(exportService, "REPO_DOWNLOAD_CLONE_PATH", clonePath.toString());
+
+        Course course = new Course();
+        course.setShortName("course");
+        ProgrammingExercise programmingExercise = new ProgrammingExercise();
+        programmingExercise.setId(1L);
+        programmingExercise.setShortName("exercise");
+        programmingExercise.setCourse(course);
+        when(programmingExerciseRepository.findWithTemplateParticipationAndSolutionParticipationById(1L)).thenReturn(Optional.of(programmingExercise));
+
+        for (int i = 1; i <= 8; i++) {
+            ProgrammingExerciseStudentParticipation participation = new ProgrammingExerciseStudentParticipation();
+            participation.setId((long) i);
+            participation.setRepositoryUrl("https://vcs.example.com/scm/exercise/exercise-student" + i + ".git");
+            participations.add(participation);
+
+            Repository repository = mock(Repository.class);
+            when(repository.getLocalPath()).thenReturn(clonePath.resolve("student" + i));
+            when(gitService.getExportNameForRepository(repository)).thenReturn("student" + i);
+            String name = "student" + i;
+            when(gitService.getOrCheckoutRepository(participation, clonePath.toString())).thenAnswer(invocation -> {
+                checkedOutRepositories.add(name);
+                return repository;
+            });
+        }
+
+        doAnswer(invocation -> {
+            ZipOutputStream zipOutputStream = invocation.getArgument(1);
+            zipOutputStream.putNextEntry(new ZipEntry(invocation.getArgument(2) + "README.md"));
+            zipOutputStream.closeEntry();
+            return null;
+        }).when(gitService).addRepositoryToZip(any(), any(), anyString());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        exportService.shutdownExportExecutor();
+    }
+
+    @Test
+    public void exportStudentRepositories_failedRepositoriesAreSkippedAndDeleted() throws Exception {
+        ProgrammingExerciseStudentParticipation checkoutFails = participations.get(2);
+        ProgrammingExerciseStudentParticipation resetFails = participations.get(3);
+        ProgrammingExerciseStudentParticipation zipFails = participations.get(4);
+        when(gitService.getOrCheckoutRepository(checkoutFails, clonePath.toString())).thenThrow(new InvalidRemoteException("not found"));
+        Repository resetFailsRepository = gitService.getOrCheckoutRepository(resetFails, clonePath.toString());
+        doThrow(new GitException("reset failed")).when(gitService).resetToOriginMaster(resetFailsRepository);
+        Repository zipFailsRepository = gitService.getOrCheckoutRepository(zipFails, clonePath.toString());
+        doThrow(new IOException("disk full")).when(gitService).addRepositoryToZip(eq(zipFailsRepository), any(), anyString());
+
+        File zipFile = exportService.exportStudentRepositories(1L, participations, new RepositoryExportOptionsDTO());
+
+        assertThat(zipFile).exists();
+        try (ZipFile zip = new ZipFile(zipFile)) {
+            List<String> entries = new ArrayList<>();
+            Collections.list(zip.entries()).forEach(entry -> entries.add(entry.getName()));
+            assertThat(entries).containsExactlyInAnyOrder("student1/README.md", "student2/README.md", "student6/README.md", "student7/README.md", "student8/README.md");
+        }
+
+        // every checked out repository is deleted again, also the ones that could not be prepared or zipped
+        for (ProgrammingExerciseStudentParticipation participation : participations) {
+            if (participation != checkoutFails) {
+                verify(gitService).deleteLocalRepository(participation, clonePath.toString());
+            }
+        }
+        verify(gitService, never()).deleteLocalRepository(checkoutFails, clonePath.toString());
+
+        ArgumentCaptor<RepositoryExportProgressDTO> progress = ArgumentCaptor.forClass(RepositoryExportProgressDTO.class);
+        verify(websocketMessagingService, times(8)).sendMessage(eq(PROGRESS_TOPIC), progress.capture());
+        RepositoryExportProgressDTO lastProgress = progress.getAllValues().get(7);
+        assertThat(lastProgress.getExportedRepositories()).isEqualTo(5);
+        assertThat(lastProgress.getFailedRepositories()).isEqualTo(3);
+        assertThat(lastProgress.getTotalRepositories()).isEqualTo(8);
+    }
+
+    @Test
+    public void exportStudentRepositories_abortedExportDeletesCheckedOutRepositories() throws Exception {
+        // the zip file cannot be written anymore, e.g. because the client closed the connection
+        doThrow(new IllegalStateException("zip file closed")).when(gitService).addRepositoryToZip(any(), any(), anyString());
+
+        assertThrows(IllegalStateException.class, () -> exportService.exportStudentRepositories(1L, participations, new RepositoryExportOptionsDTO()));
+
+        // all repositories that were checked out before the abort are deleted again, the remaining ones are not checked out at all
+        assertThat(checkedOutRepositories).isNotEmpty().hasSizeLessThanOrEqualTo(4);
+        verify(gitService, times(checkedOutRepositories.size())).deleteLocalRepository(any(ProgrammingExerciseStudentParticipation.class), eq(clonePath.toString()));
+    }
+}
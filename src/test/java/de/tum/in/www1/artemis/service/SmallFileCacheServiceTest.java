@@ -0,0 +1,118 @@
+package de.tum.in.www1.artemis.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class SmallFileCacheServiceTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * files of up to 4 bytes are cached, up to 10 bytes in total
+     */
+    private final SmallFileCacheService smallFileCacheService = new SmallFileCacheService(meterRegistry, 4, 10);
+
+    @TempDir
+    Path tempDir;
+
+    private File writeFile(String name, String content) throws IOException {
+        return Files.writeString(tempDir.resolve(name), content).toFile();
+    }
+
+    private static String content(Resource resource) throws IOException {
+        return new String(resource.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private double counter(String name) {
+        return meterRegistry.counter(name).count();
+    }
+
+    private double cachedBytes() {
+        return meterRegistry.get("artemis.file_cache.size_bytes").gauge().value();
+    }
+
+    @Test
+    public void getFileResource_smallFileIsServedFromCache() throws IOException {
+        File file = writeFile("icon.png", "abc");
+
+        assertThat(content(smallFileCacheService.getFileResource(file))).isEqualTo("abc");
+        Resource cachedResource = smallFileCacheService.getFileResource(file);
+
+        assertThat(cachedResource).isInstanceOf(ByteArrayResource.class);
+        assertThat(content(cachedResource)).isEqualTo("abc");
+        assertThat(counter("artemis.file_cache.misses")).isEqualTo(1);
+        assertThat(counter("artemis.file_cache.hits")).isEqualTo(1);
+        assertThat(cachedBytes()).isEqualTo(3);
+    }
+
+    @Test
+    public void getFileResource_rewrittenFileIsReadAgain() throws IOException {
+        File file = writeFile("icon.png", "abc");
+        smallFileCacheService.getFileResource(file);
+
+        // the file is rewritten with a different length
+        writeFile("icon.png", "abcd");
+        assertThat(content(smallFileCacheService.getFileResource(file))).isEqualTo("abcd");
+
+        // the file is rewritten with the same length, but a different modification date
+        long lastModified = file.lastModified();
+        writeFile("icon.png", "wxyz");
+        assertThat(file.setLastModified(lastModified + 10000)).isTrue();
+        assertThat(content(smallFileCacheService.getFileResource(file))).isEqualTo("wxyz");
+
+        assertThat(counter("artemis.file_cache.misses")).isEqualTo(3);
+        assertThat(counter("artemis.file_cache.hits")).isZero();
+        // the previous contents of the file are replaced in the cache
+        assertThat(cachedBytes()).isEqualTo(4);
+    }
+
+    @Test
+    public void getFileResource_largeFileIsNeverCached() throws IOException {
+        File file = writeFile("slides.pdf", "abcde");
+
+        Resource resource = smallFileCacheService.getFileResource(file);
+        smallFileCacheService.getFileResource(file);
+
+        assertThat(resource).isInstanceOf(FileSystemResource.class);
+        assertThat(content(resource)).isEqualTo("abcde");
+        assertThat(counter("artemis.file_cache.hits")).isZero();
+        assertThat(cachedBytes()).isZero();
+    }
+
+    @Test
+    public void getFileResource_leastRecentlyUsedFileIsEvictedAboveMaxTotalSize() throws IOException {
+        File first = writeFile("first.png", "1111");
+        File second = writeFile("second.png", "2222");
+        File third = writeFile("third.png", "3333");
+        smallFileCacheService.getFileResource(first);
+        smallFileCacheService.getFileResource(second);
+        // the first file is used again, so the second file is the least recently used one
+        smallFileCacheService.getFileResource(first);
+
+        smallFileCacheService.getFileResource(third);
+
+        assertThat(counter("artemis.file_cache.evictions")).isEqualTo(1);
+        assertThat(cachedBytes()).isEqualTo(8);
+        assertThat(counter("artemis.file_cache.hits")).isEqualTo(1);
+        smallFileCacheService.getFileResource(first);
+        smallFileCacheService.getFileResource(third);
+        assertThat(counter("artemis.file_cache.hits")).isEqualTo(3);
+        // the evicted file is read from disk again
+        assertThat(content(smallFileCacheService.getFileResource(second))).isEqualTo("2222");
+        assertThat(counter("artemis.file_cache.misses")).isEqualTo(4);
+    }
+}
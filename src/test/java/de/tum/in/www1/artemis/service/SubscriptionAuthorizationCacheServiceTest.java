@@ -0,0 +1,142 @@
+package de.tum.in.www1.artemis.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class SubscriptionAuthorizationCacheServiceTest {
+
+    private static final String DESTINATION = "/topic/exercise/1/newResults";
+
+    private static HazelcastInstance hazelcastInstance;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final SubscriptionAuthorizationCacheService cacheService = createService(60);
+
+    private final AtomicInteger authorizations = new AtomicInteger();
+
+    @BeforeAll
+    public static void startHazelcast() {
+        Config config = new Config();
+        config.setInstanceName("subscription-authorization-cache-test");
+        config.setClusterName("subscription-authorization-cache-test");
+        config.setProperty("hazelcast.phone.home.enabled", "false");
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getTcpIpConfig().setEnabled(false);
+        hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+    }
+
+    @AfterAll
+    public static void stopHazelcast() {
+        hazelcastInstance.shutdown();
+    }
+
+    /**
+     * @return a cache of another server of the cluster, all servers share the Hazelcast topic
+     */
+    private SubscriptionAuthorizationCacheService createService(long timeToLiveSeconds) {
+        return new SubscriptionAuthorizationCacheService(meterRegistry, hazelcastInstance, timeToLiveSeconds, 100);
+    }
+
+    private boolean authorize() {
+        authorizations.incrementAndGet();
+        return true;
+    }
+
+    private boolean deny() {
+        authorizations.incrementAndGet();
+        return false;
+    }
+
+    @Test
+    public void isAllowed_sameUserAndDestination_authorizesOnlyOnce() {
+        assertThat(cacheService.isAllowed("tutor1", DESTINATION, 1L, this::authorize)).isTrue();
+        assertThat(cacheService.isAllowed("tutor1", DESTINATION, 1L, this::authorize)).isTrue();
+        assertThat(cacheService.isAllowed("tutor2", DESTINATION, 1L, this::authorize)).isTrue();
+
+        assertThat(authorizations.get()).isEqualTo(2);
+        assertThat(meterRegistry.counter("artemis.websocket.subscription_authorization_cache.hits").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("artemis.websocket.subscription_authorization_cache.misses").count()).isEqualTo(2);
+    }
+
+    @Test
+    public void isAllowed_deniedSubscription_isNotCached() {
+        assertThat(cacheService.isAllowed("student1", DESTINATION, 1L, this::deny)).isFalse();
+        // e.g. the student was added to the team in the meantime
+        assertThat(cacheService.isAllowed("student1", DESTINATION, 1L, this::authorize)).isTrue();
+
+        assertThat(authorizations.get()).isEqualTo(2);
+        assertThat(cacheService.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void isAllowed_invalidationDuringAuthorization_isNotCached() {
+        assertThat(cacheService.isAllowed("student1", DESTINATION, 1L, () -> {
+            // the student is removed from the team while the authorization is computed with the old team
+            cacheService.invalidateUser("student1");
+            return authorize();
+        })).isTrue();
+
+        assertThat(cacheService.size()).isZero();
+    }
+
+    @Test
+    public void invalidateUser_removesOnlyDecisionsOfUser() {
+        cacheService.isAllowed("tutor1", DESTINATION, 1L, this::authorize);
+        cacheService.isAllowed("tutor2", DESTINATION, 1L, this::authorize);
+
+        cacheService.invalidateUser("tutor1");
+
+        assertThat(cacheService.size()).isEqualTo(1);
+        cacheService.isAllowed("tutor1", DESTINATION, 1L, this::authorize);
+        assertThat(authorizations.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void invalidateExercise_removesOnlyDecisionsOfExercise() {
+        cacheService.isAllowed("tutor1", DESTINATION, 1L, this::authorize);
+        cacheService.isAllowed("tutor1", "/topic/exercise/2/newResults", 2L, this::authorize);
+
+        cacheService.invalidateExercise(1L);
+
+        assertThat(cacheService.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void invalidationOnOtherServer_removesDecisions() {
+        SubscriptionAuthorizationCacheService otherServer = createService(60);
+        cacheService.isAllowed("tutor1", DESTINATION, 1L, this::authorize);
+        cacheService.isAllowed("tutor2", DESTINATION, 1L, this::authorize);
+        cacheService.isAllowed("tutor2", "/topic/exercise/2/newResults", 2L, this::authorize);
+
+        otherServer.invalidateUser("tutor1");
+        await().until(() -> cacheService.size() == 2);
+
+        otherServer.invalidateExercise(2L);
+        await().until(() -> cacheService.size() == 1);
+
+        otherServer.invalidateAll();
+        await().until(() -> cacheService.size() == 0);
+    }
+
+    @Test
+    public void isAllowed_expiredDecision_authorizesAgain() {
+        SubscriptionAuthorizationCacheService expiringCacheService = createService(0);
+        expiringCacheService.isAllowed("tutor1", DESTINATION, 1L, this::authorize);
+        expiringCacheService.isAllowed("tutor1", DESTINATION, 1L, this::authorize);
+
+        assertThat(authorizations.get()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,219 @@
+package de.tum.in.www1.artemis.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.tum.in.www1.artemis.domain.*;
+import de.tum.in.www1.artemis.domain.enumeration.Language;
+import de.tum.in.www1.artemis.exception.NetworkingError;
+import de.tum.in.www1.artemis.repository.TextBlockRepository;
+import de.tum.in.www1.artemis.repository.TextClusterRepository;
+import de.tum.in.www1.artemis.service.connectors.TextEmbeddingService;
+import de.tum.in.www1.artemis.service.connectors.TextSegmentationService;
+import de.tum.in.www1.artemis.service.connectors.TextSimilarityClusteringService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class TextClusteringServiceTest {
+
+    private static final long COURSE_ID = 1L;
+
+    private final TextBlockService textBlockService = mock(TextBlockService.class);
+
+    private final TextSubmissionService textSubmissionService = mock(TextSubmissionService.class);
+
+    private final TextClusterRepository textClusterRepository = mock(TextClusterRepository.class);
+
+    private final TextBlockRepository textBlockRepository = mock(TextBlockRepository.class);
+
+    private final TextSimilarityClusteringService textSimilarityClusteringService = mock(TextSimilarityClusteringService.class);
+
+    private final TextEmbeddingService textEmbeddingService = mock(TextEmbeddingService.class);
+
+    private final TextAssessmentQueueService textAssessmentQueueService = mock(TextAssessmentQueueService.class);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final TextEmbeddingCache textEmbeddingCache = new TextEmbeddingCache(meterRegistry, 100);
+
+    private final TextExercise exercise = new TextExercise();
+
+    private final List<TextSubmission> submissions = new ArrayList<>();
+
+    /**
+     * the text blocks that were passed to the embedding service, one list per chunk
+     */
+    private final List<List<String>> embeddedChunks = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * the sizes of the lists of text blocks that were saved, in the order of the calls
+     */
+    private final List<Integer> savedBlockChunkSizes = new ArrayList<>();
+
+    private final List<TextCluster> savedClusters = new ArrayList<>();
+
+    private TextClusteringService textClusteringService;
+
+    @BeforeEach
+    public void init() throws Exception {
+        Course course = new Course();
+        course.setId(COURSE_ID);
+        exercise.setId(10L);
+        exercise.setCourse(course);
+        when(textSubmissionService.getTextSubmissionsByExerciseId(10L, true)).thenReturn(submissions);
+        when(textBlockRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<TextBlock> blocks = invocation.getArgument(0);
+            savedBlockChunkSizes.add(blocks.size());
+            return new ArrayList<>(blocks);
+        });
+        when(textClusterRepository.saveAll(any())).thenAnswer(invocation -> {
+            savedClusters.addAll(invocation.getArgument(0));
+            return new ArrayList<>(invocation.<Collection<TextCluster>>getArgument(0));
+        });
+        // the vector of each text block is the length of its text
+        when(textEmbeddingService.embedTextBlocks(anyList(), eq(exercise), eq(2))).thenAnswer(invocation -> {
+            List<TextBlock> chunk = invocation.getArgument(0);
+            embeddedChunks.add(chunk.stream().map(TextBlock::getText).collect(Collectors.toList()));
+            return chunk.stream().map(block -> embedding(block.getId(), block.getText().length())).collect(Collectors.toList());
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        textClusteringService.shutdownExecutor();
+    }
+
+    private void createService(int embeddingChunkSize) {
+        textClusteringService = new TextClusteringService(textBlockService, textSubmissionService, textClusterRepository, textBlockRepository, textSimilarityClusteringService,
+                textEmbeddingService, textAssessmentQueueService, mock(TextSegmentationService.class), textEmbeddingCache, meterRegistry, embeddingChunkSize, 2);
+    }
+
+    private static TextEmbedding embedding(String id, float value) {
+        TextEmbedding embedding = new TextEmbedding();
+        embedding.setId(id);
+        embedding.setVector(new float[] { value });
+        return embedding;
+    }
+
+    private static TextBlock block(String id) {
+        TextBlock block = new TextBlock();
+        block.setId(id);
+        return block;
+    }
+
+    /**
+     * Adds a submission with one text block per text, the ids of the blocks are "block1", "block2", ... in the order of all added texts
+     */
+    private List<TextBlock> addSubmission(String... texts) {
+        TextSubmission submission = new TextSubmission((long) submissions.size() + 1);
+        submission.setLanguage(Language.ENGLISH);
+        List<TextBlock> blocks = new ArrayList<>();
+        for (String text : texts) {
+            TextBlock block = block("block" + (submissions.stream().mapToInt(s -> s.getBlocks().size()).sum() + blocks.size() + 1)).text(text);
+            blocks.add(block);
+        }
+        submission.setBlocks(blocks);
+        submissions.add(submission);
+        when(textBlockService.splitSubmissionIntoBlocks(submission)).thenReturn(blocks);
+        return blocks;
+    }
+
+    private List<TextEmbedding> clusteredEmbeddings(Map<Integer, TextCluster> clusters) throws NetworkingError {
+        AtomicReference<List<TextEmbedding>> embeddings = new AtomicReference<>();
+        when(textSimilarityClusteringService.clusterTextBlocks(anyList(), eq(3))).thenAnswer(invocation -> {
+            embeddings.set(invocation.getArgument(0));
+            return clusters;
+        });
+        textClusteringService.calculateClusters(exercise);
+        return embeddings.get();
+    }
+
+    private static Map<String, Float> vectorsById(List<TextEmbedding> embeddings) {
+        return embeddings.stream().collect(Collectors.toMap(TextEmbedding::getId, embedding -> embedding.getVector()[0]));
+    }
+
+    @Test
+    public void calculateClusters_identicalAndCachedTextsAreEmbeddedOnce() throws Exception {
+        createService(10);
+        addSubmission("same", "cached text");
+        addSubmission("same", "other");
+        textEmbeddingCache.put(textEmbeddingCache.keyOf(COURSE_ID, block("any").text("cached text")), new float[] { 42 });
+
+        List<TextEmbedding> embeddings = clusteredEmbeddings(new HashMap<>());
+
+        // the identical texts are embedded once, the cached text is not embedded at all
+        assertThat(embeddedChunks).hasSize(1);
+        assertThat(embeddedChunks.get(0)).containsExactlyInAnyOrder("same", "other");
+        assertThat(vectorsById(embeddings)).containsOnly(entry("block1", 4f), entry("block2", 42f), entry("block3", 4f), entry("block4", 5f));
+
+        // the embeddings are cached, so the next calculation does not embed anything
+        embeddedChunks.clear();
+        embeddings = clusteredEmbeddings(new HashMap<>());
+        assertThat(embeddedChunks).isEmpty();
+        assertThat(vectorsById(embeddings)).containsOnlyKeys("block1", "block2", "block3", "block4");
+    }
+
+    @Test
+    public void calculateClusters_failedChunkIsCountedAndLeftOut() throws Exception {
+        createService(2);
+        addSubmission("a", "bb", "ccc");
+        addSubmission("dddd", "eeeee");
+        when(textEmbeddingService.embedTextBlocks(argThat(chunk -> chunk.stream().anyMatch(block -> block.getText().equals("ccc"))), eq(exercise), eq(2)))
+                .thenThrow(new NetworkingError("embedding service not reachable"));
+
+        List<TextEmbedding> embeddings = clusteredEmbeddings(new HashMap<>());
+
+        assertThat(meterRegistry.counter("artemis.text_clustering.failed_embedding_chunks").count()).isEqualTo(1);
+        // the chunk with "ccc" also contains "dddd"
+        assertThat(vectorsById(embeddings)).containsOnlyKeys("block1", "block2", "block5");
+        assertThat(textEmbeddingCache.get(textEmbeddingCache.keyOf(COURSE_ID, block("any").text("ccc")))).isNull();
+    }
+
+    @Test
+    public void calculateClusters_blocksAndClustersAreSavedInChunks() throws Exception {
+        createService(2);
+        List<TextBlock> blocks = addSubmission("a", "bb", "ccc", "dddd", "eeeee");
+        Map<Integer, TextCluster> clusters = new HashMap<>();
+        clusters.put(-1, new TextCluster().blocks(new ArrayList<>(List.of(block("block2")))));
+        clusters.put(0, new TextCluster().blocks(new ArrayList<>(List.of(block("block4"), block("block1"), block("block5")))));
+
+        clusteredEmbeddings(clusters);
+
+        // the text blocks are saved in chunks before the clustering, then the blocks of the cluster in chunks
+        assertThat(savedBlockChunkSizes).containsExactly(2, 2, 1, 2, 1);
+        assertThat(savedClusters).hasSize(1);
+        TextCluster cluster = savedClusters.get(0);
+        assertThat(cluster.getExercise()).isEqualTo(exercise);
+        // the cluster contains the saved blocks, not the blocks returned by the clustering service
+        assertThat(cluster.getBlocks()).containsExactly(blocks.get(3), blocks.get(0), blocks.get(4));
+        assertThat(cluster.getBlocks()).extracting(TextBlock::getPositionInCluster).containsExactly(0, 1, 2);
+        assertThat(cluster.getBlocks()).allMatch(block -> block.getCluster() == cluster);
+        assertThat(blocks.get(1).getCluster()).isNull();
+        verify(textAssessmentQueueService).setAddedDistances(cluster.getBlocks(), cluster);
+    }
+
+    @Test
+    public void calculateClusters_unknownBlockPreventsSavingTheClusters() throws Exception {
+        createService(2);
+        addSubmission("a", "bb", "ccc");
+        Map<Integer, TextCluster> clusters = new HashMap<>();
+        clusters.put(0, new TextCluster().blocks(new ArrayList<>(List.of(block("block1"), block("unknown"), block("block3")))));
+
+        clusteredEmbeddings(clusters);
+
+        assertThat(savedClusters).isEmpty();
+        verify(textAssessmentQueueService, never()).setAddedDistances(any(), any());
+    }
+}
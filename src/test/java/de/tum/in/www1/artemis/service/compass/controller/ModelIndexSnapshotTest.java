@@ -0,0 +1,100 @@
+package de.tum.in.www1.artemis.service.compass.controller;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import de.tum.in.www1.artemis.service.compass.umlmodel.UMLDiagram;
+import de.tum.in.www1.artemis.service.compass.umlmodel.UMLElement;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.*;
+
+class ModelIndexSnapshotTest {
+
+    @Test
+    void restore_sameModels_restoresAllSimilarityIds() throws IOException {
+        ModelIndex originalIndex = new ModelIndex();
+        Map<Long, UMLDiagram> originalModels = Map.of(1L, createModel(1L, "Car", "Wheel"), 2L, createModel(2L, "Car", "Engine"));
+        originalModels.values().forEach(model -> {
+            SimilarityDetector.analyzeSimilarity(model, originalIndex);
+            originalIndex.addModel(model);
+        });
+        Map<Long, Long> fingerprints = Map.of(1L, 11L, 2L, 22L);
+
+        ModelIndexSnapshot snapshot = writeAndRead(ModelIndexSnapshot.create(originalIndex, fingerprints).orElseThrow());
+
+        ModelIndex restoredIndex = new ModelIndex();
+        Map<Long, UMLDiagram> restoredModels = Map.of(1L, createModel(1L, "Car", "Wheel"), 2L, createModel(2L, "Car", "Engine"));
+        Set<Long> restoredModelIds = snapshot.restore(restoredIndex, restoredModels, fingerprints);
+
+        assertThat(restoredModelIds).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(restoredIndex.getNumberOfUniqueElements()).isEqualTo(originalIndex.getNumberOfUniqueElements());
+        for (Long submissionId : originalModels.keySet()) {
+            for (UMLElement element : originalModels.get(submissionId).getAllModelElements()) {
+                UMLElement restoredElement = restoredModels.get(submissionId).getElementByJSONID(element.getJSONElementID());
+                assertThat(restoredElement.getSimilarityID()).isEqualTo(element.getSimilarityID());
+                assertThat(restoredElement.getContext()).isEqualTo(element.getContext());
+            }
+        }
+        // new elements are still compared with the restored unique elements
+        UMLDiagram newModel = createModel(3L, "Car", "Wheel");
+        SimilarityDetector.analyzeSimilarity(newModel, restoredIndex);
+        assertThat(newModel.getElementByJSONID("3-class1").getSimilarityID()).isEqualTo(restoredModels.get(1L).getElementByJSONID("1-class1").getSimilarityID());
+    }
+
+    @Test
+    void restore_changedModelWithUniqueElement_restoresNothing() {
+        ModelIndex originalIndex = new ModelIndex();
+        UMLDiagram model = createModel(1L, "Car", "Wheel");
+        SimilarityDetector.analyzeSimilarity(model, originalIndex);
+        originalIndex.addModel(model);
+        ModelIndexSnapshot snapshot = ModelIndexSnapshot.create(originalIndex, Map.of(1L, 11L)).orElseThrow();
+
+        ModelIndex restoredIndex = new ModelIndex();
+        Set<Long> restoredModelIds = snapshot.restore(restoredIndex, Map.of(1L, createModel(1L, "Car", "Wheel")), Map.of(1L, 12L));
+
+        assertThat(restoredModelIds).isEmpty();
+        assertThat(restoredIndex.getNumberOfUniqueElements()).isZero();
+    }
+
+    @Test
+    void create_uniqueElementWithoutModel_returnsEmpty() {
+        ModelIndex modelIndex = new ModelIndex();
+        UMLDiagram model = createModel(1L, "Car", "Wheel");
+        SimilarityDetector.analyzeSimilarity(model, modelIndex);
+        modelIndex.addModel(model);
+
+        Optional<ModelIndexSnapshot> snapshot = ModelIndexSnapshot.create(modelIndex, Map.of());
+
+        assertThat(snapshot).isEmpty();
+    }
+
+    @Test
+    void fingerprint_differentModels_differentFingerprints() {
+        assertThat(ModelIndexSnapshot.fingerprint("{\"elements\":[]}")).isEqualTo(ModelIndexSnapshot.fingerprint("{\"elements\":[]}"));
+        assertThat(ModelIndexSnapshot.fingerprint("{\"elements\":[]}")).isNotEqualTo(ModelIndexSnapshot.fingerprint("{\"elements\":[1]}"));
+    }
+
+    private ModelIndexSnapshot writeAndRead(ModelIndexSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        snapshot.writeTo(outputStream);
+        return ModelIndexSnapshot.readFrom(new ByteArrayInputStream(outputStream.toByteArray()));
+    }
+
+    private UMLDiagram createModel(long submissionId, String className1, String className2) {
+        UMLAttribute attribute = new UMLAttribute("name", "String", submissionId + "-attribute");
+        UMLClass class1 = new UMLClass(className1, List.of(attribute), emptyList(), submissionId + "-class1", UMLClass.UMLClassType.CLASS);
+        UMLClass class2 = new UMLClass(className2, emptyList(), emptyList(), submissionId + "-class2", UMLClass.UMLClassType.CLASS);
+        UMLRelationship relationship = new UMLRelationship(class1, class2, UMLRelationship.UMLRelationshipType.CLASS_BIDIRECTIONAL, submissionId + "-relationship", "", "", "",
+                "");
+        return new UMLClassDiagram(submissionId, List.of(class1, class2), List.of(relationship), emptyList());
+    }
+}
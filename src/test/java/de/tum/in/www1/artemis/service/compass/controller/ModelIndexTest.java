@@ -4,6 +4,10 @@ import static de.tum.in.www1.artemis.service.compass.utils.CompassConfiguration.
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,6 +15,10 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import de.tum.in.www1.artemis.service.compass.umlmodel.UMLElement;
+import de.tum.in.www1.artemis.service.compass.umlmodel.activitydiagram.UMLActivityNode;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLAttribute;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLClass;
+import de.tum.in.www1.artemis.service.compass.umlmodel.classdiagram.UMLPackage;
 
 @ExtendWith(MockitoExtension.class)
 class ModelIndexTest {
@@ -91,6 +99,66 @@ class ModelIndexTest {
         assertThat(modelIndex.getNumberOfUniqueElements()).isEqualTo(3);
     }
 
+    @Test
+    void retrieveSimilarityId_candidatePruningProducesSameIdsAsLinearScan() {
+        List<UMLElement> elements = createSyntheticElements(new Random(42), 3000);
+        ModelIndex linearScanIndex = new ModelIndex(false);
+        ModelIndex prunedIndex = new ModelIndex(true);
+
+        for (UMLElement element : elements) {
+            int expectedSimilarityId = linearScanIndex.retrieveSimilarityId(element);
+            assertThat(prunedIndex.retrieveSimilarityId(element)).as("similarity id of " + element).isEqualTo(expectedSimilarityId);
+            // the similarity detector sets the similarity id after retrieving it, the model index relies on it for later elements
+            element.setSimilarityID(expectedSimilarityId);
+        }
+        assertThat(prunedIndex.getNumberOfUniqueElements()).isEqualTo(linearScanIndex.getNumberOfUniqueElements());
+    }
+
+    /**
+     * Creates classes, attributes, packages and activity nodes whose names are random variations of a small set of base names, so that the resulting similarity sets contain
+     * similar but not equal names of different lengths.
+     */
+    private List<UMLElement> createSyntheticElements(Random random, int numberOfElements) {
+        String[] baseNames = { "Customer", "Order", "OrderItem", "Product", "Address", "Invoice", "Payment", "Shop", "Cart", "A", "" };
+        UMLClass.UMLClassType[] classTypes = UMLClass.UMLClassType.values();
+        UMLActivityNode.UMLActivityNodeType[] nodeTypes = UMLActivityNode.UMLActivityNodeType.values();
+        List<UMLElement> elements = new ArrayList<>();
+        for (int i = 0; elements.size() < numberOfElements; i++) {
+            String name = randomVariation(random, baseNames[random.nextInt(baseNames.length)]);
+            int elementKind = random.nextInt(4);
+            if (elementKind == 0) {
+                List<UMLAttribute> attributes = List.of(new UMLAttribute(randomVariation(random, "name"), "String", "attribute" + i));
+                elements.add(new UMLClass(name, attributes, List.of(), "class" + i, classTypes[random.nextInt(classTypes.length)]));
+                elements.addAll(attributes);
+            }
+            else if (elementKind == 1) {
+                elements.add(new UMLClass(random.nextInt(20) == 0 ? null : name, List.of(), List.of(), "class" + i, classTypes[random.nextInt(classTypes.length)]));
+            }
+            else if (elementKind == 2) {
+                elements.add(new UMLPackage(name, List.of(), "package" + i));
+            }
+            else {
+                elements.add(new UMLActivityNode(name, "node" + i, nodeTypes[random.nextInt(nodeTypes.length)]));
+            }
+        }
+        return elements;
+    }
+
+    private String randomVariation(Random random, String baseName) {
+        StringBuilder name = new StringBuilder(baseName);
+        int changes = random.nextInt(3);
+        for (int i = 0; i < changes; i++) {
+            char character = (char) ('a' + random.nextInt(26));
+            if (random.nextBoolean() || name.length() == 0) {
+                name.insert(random.nextInt(name.length() + 1), character);
+            }
+            else {
+                name.setCharAt(random.nextInt(name.length()), character);
+            }
+        }
+        return name.toString();
+    }
+
     private void mockSimilarityBetweenElements(UMLElement element1, UMLElement element2, double similarity) {
         when(element2.similarity(element1)).thenReturn(similarity);
     }
@@ -0,0 +1,88 @@
+package de.tum.in.www1.artemis.service.compass.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.tum.in.www1.artemis.service.compass.umlmodel.UMLDiagram;
+
+class ModelSelectorTest {
+
+    private ModelSelector modelSelector;
+
+    private ModelIndex modelIndex;
+
+    private final Set<Long> handledModels = new HashSet<>();
+
+    @BeforeEach
+    void setUp() {
+        modelSelector = new ModelSelector();
+        modelIndex = new ModelIndex();
+        for (long id = 1; id <= 20; id++) {
+            modelIndex.addModel(mockModel(id));
+        }
+    }
+
+    @Test
+    void selectNextModels_similaritySumsEqualFullRecomputation() {
+        selectAndVerify(2);
+
+        // new submissions
+        for (long id = 21; id <= 25; id++) {
+            modelIndex.addModel(mockModel(id));
+        }
+        selectAndVerify(2);
+
+        // a model is locked by a tutor and another lock is released again
+        long lockedModel = modelIndex.getModelCollection().stream().map(UMLDiagram::getModelSubmissionId).filter(id -> !handledModels.contains(id)).findFirst()
+                .orElseThrow();
+        modelSelector.addAlreadyHandledModel(lockedModel);
+        handledModels.add(lockedModel);
+        long releasedModel = handledModels.stream().filter(id -> id != lockedModel).findFirst().orElseThrow();
+        modelSelector.removeAlreadyHandledModel(releasedModel);
+        handledModels.remove(releasedModel);
+        selectAndVerify(3);
+
+        selectAndVerify(1);
+    }
+
+    private void selectAndVerify(int numberOfModels) {
+        List<UMLDiagram> unhandledModels = modelIndex.getModelCollection().stream().filter(model -> !handledModels.contains(model.getModelSubmissionId()))
+                .collect(Collectors.toList());
+
+        List<Long> selectedModels = modelSelector.selectNextModels(modelIndex, numberOfModels);
+        assertThat(selectedModels).hasSize(numberOfModels).doesNotContainAnyElementsOf(handledModels);
+        handledModels.addAll(selectedModels);
+
+        Map<Long, Double> similaritySums = modelSelector.getSimilaritySums();
+        assertThat(similaritySums).isNotEmpty();
+        for (Map.Entry<Long, Double> similaritySum : similaritySums.entrySet()) {
+            UMLDiagram candidate = modelIndex.getModel(similaritySum.getKey());
+            double expectedSum = unhandledModels.stream().mapToDouble(model -> model.similarity(candidate)).sum();
+            assertThat(similaritySum.getValue()).as("similarity sum of model %d", similaritySum.getKey()).isCloseTo(expectedSum, within(1e-9));
+        }
+    }
+
+    private static UMLDiagram mockModel(long id) {
+        UMLDiagram model = mock(UMLDiagram.class);
+        lenient().when(model.getModelSubmissionId()).thenReturn(id);
+        lenient().when(model.getLastAssessmentCoverage()).thenReturn((id % 5) / 10.0);
+        lenient().when(model.isUnassessed()).thenReturn(true);
+        lenient().when(model.similarity(any())).thenAnswer(invocation -> {
+            UMLDiagram reference = invocation.getArgument(0);
+            return 1.0 / (1 + Math.abs(id - reference.getModelSubmissionId()));
+        });
+        return model;
+    }
+}
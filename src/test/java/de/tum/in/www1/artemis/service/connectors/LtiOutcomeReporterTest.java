@@ -0,0 +1,204 @@
+package de.tum.in.www1.artemis.service.connectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.*;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import de.tum.in.www1.artemis.domain.LtiOutcomeUrl;
+import de.tum.in.www1.artemis.domain.ProgrammingExercise;
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.User;
+import de.tum.in.www1.artemis.repository.ResultRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class LtiOutcomeReporterTest {
+
+    private static final Pattern SCORE_PATTERN = Pattern.compile("<textString>(.*?)</textString>");
+
+    private final ResultRepository resultRepository = mock(ResultRepository.class);
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * the outcome service of the LTI consumer, it answers with the queued status codes and afterwards with 200
+     */
+    private HttpServer outcomeService;
+
+    private final ExecutorService outcomeServiceExecutor = Executors.newCachedThreadPool();
+
+    private final Queue<Integer> statusCodes = new ConcurrentLinkedQueue<>();
+
+    /**
+     * the paths and scores of the received requests, in the order in which they arrived
+     */
+    private final List<String> receivedOutcomes = Collections.synchronizedList(new ArrayList<>());
+
+    private final AtomicInteger concurrentRequests = new AtomicInteger();
+
+    private final AtomicInteger maxConcurrentRequests = new AtomicInteger();
+
+    private volatile CountDownLatch releaseRequests = new CountDownLatch(0);
+
+    private LtiOutcomeReporter ltiOutcomeReporter;
+
+    @BeforeEach
+    public void init() throws IOException {
+        outcomeService = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        outcomeService.createContext("/", this::handleOutcome);
+        outcomeService.setExecutor(outcomeServiceExecutor);
+        outcomeService.start();
+        setScore(1L, 50L);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        releaseRequests.countDown();
+        if (ltiOutcomeReporter != null) {
+            ltiOutcomeReporter.shutdown();
+        }
+        outcomeService.stop(0);
+        outcomeServiceExecutor.shutdownNow();
+    }
+
+    private void handleOutcome(HttpExchange exchange) throws IOException {
+        maxConcurrentRequests.accumulateAndGet(concurrentRequests.incrementAndGet(), Math::max);
+        try {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            Matcher score = SCORE_PATTERN.matcher(body);
+            receivedOutcomes.add(exchange.getRequestURI().getPath() + " " + (score.find() ? score.group(1) : "no score"));
+            releaseRequests.await(5, TimeUnit.SECONDS);
+            Integer statusCode = statusCodes.poll();
+            exchange.sendResponseHeaders(statusCode != null ? statusCode : 200, -1);
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        finally {
+            concurrentRequests.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private void createReporter(int maxAttempts, long retryBackoffMillis) {
+        ltiOutcomeReporter = new LtiOutcomeReporter(resultRepository, meterRegistry, "key", "secret", 100, 4, maxAttempts, retryBackoffMillis, 5000);
+    }
+
+    private void setScore(Long participationId, Long score) {
+        Result result = new Result();
+        result.setScore(score);
+        when(resultRepository.findFirstByParticipationIdOrderByCompletionDateDesc(participationId)).thenReturn(Optional.of(result));
+    }
+
+    private LtiOutcomeUrl outcomeUrl(long userId, String path) {
+        User user = new User();
+        user.setId(userId);
+        ProgrammingExercise exercise = new ProgrammingExercise();
+        exercise.setId(10L);
+        LtiOutcomeUrl ltiOutcomeUrl = new LtiOutcomeUrl();
+        ltiOutcomeUrl.setUser(user);
+        ltiOutcomeUrl.setExercise(exercise);
+        ltiOutcomeUrl.setUrl("http://localhost:" + outcomeService.getAddress().getPort() + path);
+        ltiOutcomeUrl.setSourcedId("sourcedId" + userId);
+        return ltiOutcomeUrl;
+    }
+
+    private double outcomes(String result) {
+        return meterRegistry.counter("artemis.lti.outcomes", "result", result).count();
+    }
+
+    @Test
+    public void enqueue_outcomesOfStudentAreCoalesced() {
+        createReporter(3, 0);
+        setScore(2L, 100L);
+        LtiOutcomeUrl student1 = outcomeUrl(1L, "/student1");
+        // the student pushes three times in quick succession
+        ltiOutcomeReporter.enqueue(student1, 1L);
+        ltiOutcomeReporter.enqueue(student1, 1L);
+        ltiOutcomeReporter.enqueue(student1, 1L);
+        ltiOutcomeReporter.enqueue(outcomeUrl(2L, "/student2"), 2L);
+
+        await().until(() -> outcomes("sent") == 2);
+        assertThat(receivedOutcomes).containsExactlyInAnyOrder("/student1 0.50", "/student2 1.00");
+        assertThat(outcomes("coalesced")).isEqualTo(2);
+    }
+
+    @Test
+    public void failedRequest_isRetriedWithBackoff() {
+        createReporter(5, 100);
+        statusCodes.add(503);
+        statusCodes.add(500);
+
+        long start = System.currentTimeMillis();
+        ltiOutcomeReporter.enqueue(outcomeUrl(1L, "/student1"), 1L);
+
+        await().until(() -> outcomes("sent") == 1);
+        // the delays before the second and third attempt are at least 100ms and 200ms
+        assertThat(System.currentTimeMillis() - start).isGreaterThanOrEqualTo(300);
+        assertThat(receivedOutcomes).containsExactly("/student1 0.50", "/student1 0.50", "/student1 0.50");
+        assertThat(outcomes("retried")).isEqualTo(2);
+        assertThat(outcomes("failed")).isZero();
+    }
+
+    @Test
+    public void failedRequest_failsAfterMaxAttempts() {
+        createReporter(2, 0);
+        statusCodes.add(502);
+        statusCodes.add(502);
+        // a client error is not retried
+        statusCodes.add(400);
+
+        ltiOutcomeReporter.enqueue(outcomeUrl(1L, "/student1"), 1L);
+        await().until(() -> outcomes("failed") == 1);
+        ltiOutcomeReporter.enqueue(outcomeUrl(1L, "/student1"), 1L);
+        await().until(() -> outcomes("failed") == 2);
+
+        assertThat(receivedOutcomes).hasSize(3);
+        assertThat(outcomes("retried")).isEqualTo(1);
+        assertThat(outcomes("sent")).isZero();
+    }
+
+    @Test
+    public void newerOutcome_isSentAfterPreviousRequestOfStudent() throws Exception {
+        createReporter(3, 0);
+        releaseRequests = new CountDownLatch(1);
+        LtiOutcomeUrl student1 = outcomeUrl(1L, "/student1");
+        ltiOutcomeReporter.enqueue(student1, 1L);
+        await().until(() -> receivedOutcomes.size() == 1);
+
+        // a new result arrives while the previous score is still being sent
+        setScore(1L, 80L);
+        ltiOutcomeReporter.enqueue(student1, 1L);
+        Thread.sleep(500);
+        assertThat(receivedOutcomes).hasSize(1);
+
+        releaseRequests.countDown();
+        await().until(() -> outcomes("sent") == 2);
+        assertThat(receivedOutcomes).containsExactly("/student1 0.50", "/student1 0.80");
+        assertThat(maxConcurrentRequests.get()).isEqualTo(1);
+    }
+}
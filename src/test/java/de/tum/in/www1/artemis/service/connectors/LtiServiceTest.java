@@ -0,0 +1,146 @@
+package de.tum.in.www1.artemis.service.connectors;
+
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+
+import de.tum.in.www1.artemis.domain.Course;
+import de.tum.in.www1.artemis.domain.LtiOutcomeUrl;
+import de.tum.in.www1.artemis.domain.ProgrammingExercise;
+import de.tum.in.www1.artemis.domain.User;
+import de.tum.in.www1.artemis.domain.participation.ProgrammingExerciseStudentParticipation;
+import de.tum.in.www1.artemis.repository.LtiOutcomeUrlRepository;
+import de.tum.in.www1.artemis.repository.LtiUserIdRepository;
+import de.tum.in.www1.artemis.repository.UserRepository;
+import de.tum.in.www1.artemis.security.ArtemisAuthenticationProvider;
+import de.tum.in.www1.artemis.service.UserService;
+import de.tum.in.www1.artemis.web.rest.dto.LtiLaunchRequestDTO;
+
+public class LtiServiceTest {
+
+    private static HazelcastInstance hazelcastInstance;
+
+    private final UserService userService = mock(UserService.class);
+
+    private final LtiOutcomeUrlRepository ltiOutcomeUrlRepository = mock(LtiOutcomeUrlRepository.class);
+
+    private final LtiOutcomeReporter ltiOutcomeReporter = mock(LtiOutcomeReporter.class);
+
+    private final ProgrammingExercise exercise = new ProgrammingExercise();
+
+    private final User student = new User();
+
+    private final ProgrammingExerciseStudentParticipation participation = new ProgrammingExerciseStudentParticipation();
+
+    private final LtiOutcomeUrl ltiOutcomeUrl = new LtiOutcomeUrl();
+
+    @BeforeAll
+    public static void startHazelcast() {
+        Config config = new Config();
+        config.setInstanceName("lti-service-test");
+        config.setClusterName("lti-service-test");
+        config.setProperty("hazelcast.phone.home.enabled", "false");
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getTcpIpConfig().setEnabled(false);
+        hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+    }
+
+    @AfterAll
+    public static void stopHazelcast() {
+        hazelcastInstance.shutdown();
+    }
+
+    @BeforeEach
+    public void init() {
+        Course course = new Course();
+        course.setStudentGroupName("students");
+        exercise.setId(1L);
+        exercise.setCourse(course);
+        student.setId(2L);
+        student.setLogin("student1");
+        student.setGroups(new HashSet<>(Set.of("students")));
+        participation.setId(3L);
+        participation.setExercise(exercise);
+        participation.setParticipant(student);
+        ltiOutcomeUrl.setUser(student);
+        ltiOutcomeUrl.setExercise(exercise);
+        ltiOutcomeUrl.setUrl("https://edx.example.com/outcome");
+        ltiOutcomeUrl.setSourcedId("sourcedId");
+        when(userService.getUserWithGroupsAndAuthorities()).thenReturn(student);
+    }
+
+    /**
+     * @return a service of another server of the cluster, all servers share the database and the Hazelcast topic
+     */
+    private LtiService createService() {
+        return new LtiService(userService, mock(UserRepository.class), ltiOutcomeUrlRepository, ltiOutcomeReporter, mock(ArtemisAuthenticationProvider.class),
+                mock(LtiUserIdRepository.class), mock(HttpServletResponse.class), hazelcastInstance);
+    }
+
+    private void saveOutcomeUrl(LtiService ltiService) {
+        LtiLaunchRequestDTO launchRequest = new LtiLaunchRequestDTO();
+        launchRequest.setLis_outcome_service_url(ltiOutcomeUrl.getUrl());
+        launchRequest.setLis_result_sourcedid(ltiOutcomeUrl.getSourcedId());
+        ltiService.onSuccessfulLtiAuthentication(launchRequest, exercise);
+        // the outcome url is in the database now
+        when(ltiOutcomeUrlRepository.existsByExerciseId(exercise.getId())).thenReturn(true);
+        when(ltiOutcomeUrlRepository.findByUserAndExercise(student, exercise)).thenReturn(Optional.of(ltiOutcomeUrl));
+    }
+
+    @Test
+    public void onNewResult_exerciseWithoutOutcomeUrlsIsSkipped() {
+        LtiService ltiService = createService();
+
+        ltiService.onNewResult(participation);
+        ltiService.onNewResult(participation);
+
+        // the exercise is only looked up once
+        verify(ltiOutcomeUrlRepository).existsByExerciseId(exercise.getId());
+        verify(ltiOutcomeUrlRepository, never()).findByUserAndExercise(any(), any());
+        verifyNoInteractions(ltiOutcomeReporter);
+    }
+
+    @Test
+    public void onNewResult_outcomeIsQueuedForStudentsWithOutcomeUrl() {
+        LtiService ltiService = createService();
+        saveOutcomeUrl(ltiService);
+
+        ltiService.onNewResult(participation);
+
+        verify(ltiOutcomeReporter).enqueue(ltiOutcomeUrl, participation.getId());
+        // the saved outcome url is known without a lookup
+        verify(ltiOutcomeUrlRepository, never()).existsByExerciseId(any());
+    }
+
+    @Test
+    public void outcomeUrlSavedOnOtherServer_invalidatesCachedLookup() {
+        LtiService server1 = createService();
+        LtiService server2 = createService();
+        server2.onNewResult(participation);
+        verifyNoInteractions(ltiOutcomeReporter);
+
+        saveOutcomeUrl(server1);
+
+        // the cached lookup of the second server is removed, so the next result is reported without waiting for the time to live
+        await().untilAsserted(() -> {
+            clearInvocations(ltiOutcomeReporter);
+            server2.onNewResult(participation);
+            verify(ltiOutcomeReporter).enqueue(ltiOutcomeUrl, participation.getId());
+        });
+    }
+}
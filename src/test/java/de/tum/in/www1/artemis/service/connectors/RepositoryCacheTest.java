@@ -0,0 +1,162 @@
+package de.tum.in.www1.artemis.service.connectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import de.tum.in.www1.artemis.domain.Repository;
+
+public class RepositoryCacheTest {
+
+    private final List<Repository> evictedRepositories = new ArrayList<>();
+
+    private final List<RepositoryCache.EvictionReason> evictionReasons = new ArrayList<>();
+
+    private RepositoryCache createCache(int maxSize, Duration maxIdleTime) {
+        return new RepositoryCache(maxSize, maxIdleTime, (repository, reason) -> {
+            evictedRepositories.add(repository);
+            evictionReasons.add(reason);
+        });
+    }
+
+    @Test
+    public void putIfAbsent_cacheFull_evictsLeastRecentlyUsedRepository() {
+        RepositoryCache cache = createCache(2, Duration.ofHours(1));
+        Path path1 = Paths.get("repos", "repo1");
+        Path path2 = Paths.get("repos", "repo2");
+        Repository repository1 = mock(Repository.class);
+        Repository repository2 = mock(Repository.class);
+        Repository repository3 = mock(Repository.class);
+
+        cache.putIfAbsent(path1, repository1);
+        cache.putIfAbsent(path2, repository2);
+        // access the first repository, so that the second one is the least recently used
+        assertThat(cache.get(path1)).isSameAs(repository1);
+        cache.putIfAbsent(Paths.get("repos", "repo3"), repository3);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get(path2)).isNull();
+        assertThat(evictedRepositories).containsExactly(repository2);
+        assertThat(evictionReasons).containsExactly(RepositoryCache.EvictionReason.SIZE);
+    }
+
+    @Test
+    public void putIfAbsent_alreadyCached_returnsCachedRepository() {
+        RepositoryCache cache = createCache(2, Duration.ofHours(1));
+        Path path = Paths.get("repos", "repo1");
+        Repository repository1 = mock(Repository.class);
+        Repository repository2 = mock(Repository.class);
+
+        assertThat(cache.putIfAbsent(path, repository1)).isSameAs(repository1);
+        assertThat(cache.putIfAbsent(path, repository2)).isSameAs(repository1);
+
+        assertThat(cache.get(path)).isSameAs(repository1);
+        assertThat(evictedRepositories).isEmpty();
+    }
+
+    @Test
+    public void evictIdleRepositories_evictsOnlyIdleRepositories() {
+        RepositoryCache idleCache = createCache(10, Duration.ZERO);
+        idleCache.putIfAbsent(Paths.get("repos", "repo1"), mock(Repository.class));
+        idleCache.putIfAbsent(Paths.get("repos", "repo2"), mock(Repository.class));
+
+        RepositoryCache activeCache = createCache(10, Duration.ofHours(1));
+        activeCache.putIfAbsent(Paths.get("repos", "repo3"), mock(Repository.class));
+
+        assertThat(idleCache.evictIdleRepositories()).isEqualTo(2);
+        assertThat(activeCache.evictIdleRepositories()).isZero();
+        assertThat(idleCache.size()).isZero();
+        assertThat(activeCache.size()).isEqualTo(1);
+        assertThat(evictionReasons).containsOnly(RepositoryCache.EvictionReason.IDLE);
+    }
+
+    @Test
+    public void remove_doesNotNotifyEvictionListener() {
+        RepositoryCache cache = createCache(2, Duration.ofHours(1));
+        Path path = Paths.get("repos", "repo1");
+        Repository repository = mock(Repository.class);
+        cache.putIfAbsent(path, repository);
+
+        assertThat(cache.remove(path)).isSameAs(repository);
+        assertThat(cache.get(path)).isNull();
+        assertThat(evictedRepositories).isEmpty();
+    }
+
+    @Test
+    public void lease_leasedRepositoryIsNotEvicted() {
+        RepositoryCache cache = createCache(1, Duration.ZERO);
+        Path path1 = Paths.get("repos", "repo1");
+        Repository repository1 = mockRepository(path1);
+        Repository repository2 = mockRepository(Paths.get("repos", "repo2"));
+        cache.putIfAbsent(path1, repository1);
+
+        RepositoryCache.Lease lease = cache.lease(repository1);
+        cache.putIfAbsent(Paths.get("repos", "repo2"), repository2);
+        // the least recently used repository is leased, so the cache temporarily holds more repositories than configured
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.evictIdleRepositories()).isEqualTo(1);
+        assertThat(evictedRepositories).containsExactly(repository2);
+        verify(repository1).incrementOpen();
+        verify(repository1, never()).close();
+
+        lease.close();
+        lease.close();
+        // JGit closes the repository only after the use count of the lease has been released
+        verify(repository1).close();
+        assertThat(cache.evictIdleRepositories()).isEqualTo(1);
+        assertThat(evictedRepositories).containsExactly(repository2, repository1);
+    }
+
+    @Test
+    public void startDeletion_failsIfRepositoryIsLeasedOrCachedAgain() {
+        RepositoryCache cache = createCache(2, Duration.ofHours(1));
+        Path path = Paths.get("repos", "repo1");
+        Repository evictedRepository = mockRepository(path);
+
+        try (RepositoryCache.Lease lease = cache.lease(evictedRepository)) {
+            assertThat(cache.startDeletion(path, evictedRepository)).isFalse();
+        }
+
+        cache.putIfAbsent(path, mockRepository(path));
+        assertThat(cache.startDeletion(path, evictedRepository)).isFalse();
+
+        cache.remove(path);
+        assertThat(cache.startDeletion(path, evictedRepository)).isTrue();
+        // only one deletion at a time
+        assertThat(cache.startDeletion(path, evictedRepository)).isFalse();
+        cache.finishDeletion(path);
+    }
+
+    @Test
+    public void putIfAbsent_duringDeletion_waitsAndReturnsNull() throws Exception {
+        RepositoryCache cache = createCache(2, Duration.ofHours(1));
+        Path path = Paths.get("repos", "repo1");
+        assertThat(cache.startDeletion(path, mockRepository(path))).isTrue();
+
+        CompletableFuture<Repository> reopenedRepository = CompletableFuture.supplyAsync(() -> cache.putIfAbsent(path, mockRepository(path)));
+        Thread.sleep(100);
+        assertThat(reopenedRepository).isNotDone();
+
+        cache.finishDeletion(path);
+        assertThat(reopenedRepository.get(5, TimeUnit.SECONDS)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    private static Repository mockRepository(Path localPath) {
+        Repository repository = mock(Repository.class);
+        when(repository.getLocalPath()).thenReturn(localPath);
+        return repository;
+    }
+}
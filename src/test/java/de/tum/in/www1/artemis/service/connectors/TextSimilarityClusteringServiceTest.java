@@ -15,6 +15,7 @@ import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
 
 import de.tum.in.www1.artemis.domain.*;
 import de.tum.in.www1.artemis.exception.NetworkingError;
@@ -27,7 +28,7 @@ public class TextSimilarityClusteringServiceTest {
 
     @Test
     public void clusterTextBlocks() throws NetworkingError {
-        final TextSimilarityClusteringService service = new TextSimilarityClusteringService();
+        final TextSimilarityClusteringService service = new TextSimilarityClusteringService(new RestTemplate());
         ReflectionTestUtils.setField(service, "API_ENDPOINT", CLUSTERING_ENDPOINT);
 
         final List<TextBlock> blocks = Stream.of("foo", "bar").map(text -> new TextBlock().text(text).startIndex(0).endIndex(3)).peek(TextBlock::computeId).collect(toList());
@@ -38,7 +39,7 @@ public class TextSimilarityClusteringServiceTest {
         exercise.setCourse(course);
 
         // TODO: Properly split tests
-        final TextEmbeddingService textEmbeddingService = new TextEmbeddingService();
+        final TextEmbeddingService textEmbeddingService = new TextEmbeddingService(new RestTemplate());
         ReflectionTestUtils.setField(textEmbeddingService, "API_ENDPOINT", EMBEDDING_ENDPOINT);
         final List<TextEmbedding> embeddings = textEmbeddingService.embedTextBlocks(blocks, exercise);
 
@@ -0,0 +1,132 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.util.MimeTypeUtils;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.User;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.domain.quiz.QuizExercise;
+import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class QuizResultDistributorTest {
+
+    private final SimpMessageSendingOperations messagingTemplate = mock(SimpMessageSendingOperations.class);
+
+    // configured like the object mapper of Spring Boot
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule()).configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private final QuizResultDistributor distributor = new QuizResultDistributor(messagingTemplate, objectMapper, new SimpleMeterRegistry(), 2, 10);
+
+    @AfterEach
+    public void tearDown() {
+        distributor.shutdown();
+    }
+
+    private static QuizExercise quizExercise() {
+        QuizExercise quizExercise = new QuizExercise();
+        quizExercise.setId(1L);
+        quizExercise.setTitle("Quiz");
+        quizExercise.setDuration(60);
+        quizExercise.setIsPlannedToStart(false);
+        quizExercise.setIsVisibleBeforeStart(false);
+        quizExercise.setIsOpenForPractice(false);
+        quizExercise.setRandomizeQuestionOrder(false);
+        return quizExercise;
+    }
+
+    private static StudentParticipation participation(QuizExercise quizExercise, long id, String login) {
+        User user = new User();
+        user.setLogin(login);
+        QuizSubmission quizSubmission = new QuizSubmission();
+        quizSubmission.setId(id);
+        quizSubmission.setSubmitted(true);
+        Result result = new Result();
+        result.setId(id);
+        result.setScore(50L);
+        result.setSubmission(quizSubmission);
+        StudentParticipation participation = new StudentParticipation();
+        participation.setId(id);
+        participation.setParticipant(user);
+        participation.setExercise(quizExercise);
+        participation.addResult(result);
+        return participation;
+    }
+
+    @Test
+    public void distributeResults_payloadIsParticipationWithExercise() throws Exception {
+        QuizExercise quizExercise = quizExercise();
+        List<StudentParticipation> participations = new ArrayList<>();
+        participations.add(participation(quizExercise, 1L, "student1"));
+        participations.add(participation(quizExercise, 2L, "ldap/student2"));
+
+        assertThat(distributor.distributeResults(quizExercise, participations)).isEqualTo(2);
+
+        ArgumentCaptor<Message> student1Message = ArgumentCaptor.forClass(Message.class);
+        verify(messagingTemplate).send(eq("/user/student1/topic/exercise/1/participation"), student1Message.capture());
+        verify(messagingTemplate).send(eq("/user/ldap%2Fstudent2/topic/exercise/1/participation"), any());
+        assertThat(student1Message.getValue().getHeaders().get(MessageHeaders.CONTENT_TYPE)).isEqualTo(MimeTypeUtils.APPLICATION_JSON);
+        byte[] payloadBytes = (byte[]) student1Message.getValue().getPayload();
+
+        // the spliced payload is the same JSON as the participation serialized together with its exercise
+        StudentParticipation sentParticipation = participations.get(0);
+        sentParticipation.setExercise(quizExercise);
+        JsonNode expected = objectMapper.readTree(objectMapper.writeValueAsBytes(sentParticipation));
+        JsonNode payload = objectMapper.readTree(payloadBytes);
+        assertThat(payload).isEqualTo(expected);
+        assertThat(payload.get("exercise").get("id").asLong()).isEqualTo(1L);
+        assertThat(payload.get("results").get(0).get("id").asLong()).isEqualTo(1L);
+
+        StudentParticipation deserialized = objectMapper.readValue(payloadBytes, StudentParticipation.class);
+        assertThat(deserialized.getId()).isEqualTo(1L);
+        assertThat(deserialized.getExercise()).isInstanceOf(QuizExercise.class);
+        assertThat(deserialized.getExercise().getTitle()).isEqualTo("Quiz");
+    }
+
+    @Test
+    public void distributeResults_failedMessageDoesNotStopDistribution() {
+        QuizExercise quizExercise = quizExercise();
+        List<StudentParticipation> participations = List.of(participation(quizExercise, 1L, "student1"), participation(quizExercise, 2L, "student2"));
+        doThrow(new IllegalStateException("session closed")).when(messagingTemplate).send(eq("/user/student1/topic/exercise/1/participation"), any());
+
+        assertThat(distributor.distributeResults(quizExercise, participations)).isEqualTo(1);
+        verify(messagingTemplate, times(2)).send(anyString(), any());
+    }
+
+    @Test
+    public void combine_splicesFragmentAndParticipation() throws Exception {
+        byte[] exerciseFragment = "{\"exercise\":{\"id\":1,\"title\":\"a \\\"}\"}}".getBytes(StandardCharsets.UTF_8);
+
+        JsonNode combined = objectMapper.readTree(QuizResultDistributor.combine(exerciseFragment, "{\"id\":2,\"results\":[]}".getBytes(StandardCharsets.UTF_8)));
+        ObjectNode expected = objectMapper.createObjectNode();
+        expected.set("exercise", objectMapper.createObjectNode().put("id", 1).put("title", "a \"}"));
+        expected.put("id", 2).putArray("results");
+        assertThat(combined).isEqualTo(expected);
+
+        // an empty participation does not lead to a trailing comma
+        JsonNode exerciseOnly = objectMapper.readTree(QuizResultDistributor.combine(exerciseFragment, "{}".getBytes(StandardCharsets.UTF_8)));
+        assertThat(exerciseOnly).isEqualTo(objectMapper.createObjectNode().set("exercise", expected.get("exercise")));
+    }
+}
@@ -0,0 +1,174 @@
+package de.tum.in.www1.artemis.service.scheduled.quiz;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+
+import de.tum.in.www1.artemis.domain.Result;
+import de.tum.in.www1.artemis.domain.User;
+import de.tum.in.www1.artemis.domain.participation.StudentParticipation;
+import de.tum.in.www1.artemis.domain.quiz.QuizSubmission;
+
+public class QuizSubmissionBufferTest {
+
+    private static HazelcastInstance hazelcastInstance;
+
+    @BeforeAll
+    public static void startHazelcast() {
+        Config config = new Config();
+        config.setInstanceName("quiz-submission-buffer-test");
+        config.setClusterName("quiz-submission-buffer-test");
+        config.setProperty("hazelcast.phone.home.enabled", "false");
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getTcpIpConfig().setEnabled(false);
+        hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+    }
+
+    @AfterAll
+    public static void stopHazelcast() {
+        hazelcastInstance.shutdown();
+    }
+
+    private static Stream<QuizSubmissionBuffer> buffers() {
+        return Stream.of(new LocalQuizSubmissionBuffer(), new HazelcastQuizSubmissionBuffer(hazelcastInstance));
+    }
+
+    private static QuizSubmission submission(long id, boolean submitted) {
+        QuizSubmission quizSubmission = new QuizSubmission();
+        quizSubmission.setId(id);
+        quizSubmission.setSubmitted(submitted);
+        return quizSubmission;
+    }
+
+    private static StudentParticipation participation(String login) {
+        User user = new User();
+        user.setLogin(login);
+        StudentParticipation participation = new StudentParticipation();
+        participation.setParticipant(user);
+        return participation;
+    }
+
+    private static Result result(long id) {
+        Result result = new Result();
+        result.setId(id);
+        return result;
+    }
+
+    @ParameterizedTest
+    @MethodSource("buffers")
+    public void submissions_replacedPerUserAndRemovedIndividually(QuizSubmissionBuffer buffer) {
+        buffer.clearAll();
+        buffer.putSubmission(1L, "student1", submission(1L, false));
+        buffer.putSubmission(1L, "student1", submission(2L, true));
+        buffer.putSubmission(1L, "student2", submission(3L, false));
+        buffer.putSubmission(2L, "student1", submission(4L, false));
+
+        assertThat(buffer.getSubmission(1L, "student1").getId()).isEqualTo(2L);
+        assertThat(buffer.getSubmission(1L, "student3")).isNull();
+        assertThat(buffer.getSubmission(3L, "student1")).isNull();
+        assertThat(buffer.getQuizExerciseIdsWithSubmissions()).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(buffer.getSubmissionBacklogSize()).isEqualTo(3);
+
+        Map<String, QuizSubmission> submissions = buffer.getSubmissions(1L);
+        assertThat(submissions).containsOnlyKeys("student1", "student2");
+        // the returned map is a snapshot
+        buffer.removeSubmission(1L, "student2");
+        assertThat(submissions).containsOnlyKeys("student1", "student2");
+        assertThat(buffer.getSubmissions(1L)).containsOnlyKeys("student1");
+        assertThat(buffer.getSubmissionBacklogSize()).isEqualTo(2);
+
+        buffer.removeSubmissions(1L);
+        assertThat(buffer.getSubmissions(1L)).isEmpty();
+        assertThat(buffer.getQuizExerciseIdsWithSubmissions()).containsExactly(2L);
+        assertThat(buffer.getSubmissionBacklogSize()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @MethodSource("buffers")
+    public void participations_removedOnlyOnce(QuizSubmissionBuffer buffer) {
+        buffer.clearAll();
+        buffer.putParticipation(1L, participation("student1"));
+        buffer.putParticipation(1L, participation("student2"));
+
+        assertThat(buffer.getParticipation(1L, "student1").getParticipantIdentifier()).isEqualTo("student1");
+        assertThat(buffer.getParticipation(2L, "student1")).isNull();
+        assertThat(buffer.getQuizExerciseIdsWithParticipations()).containsExactly(1L);
+
+        Collection<StudentParticipation> participations = buffer.removeParticipations(1L);
+        assertThat(participations).extracting(StudentParticipation::getParticipantIdentifier).containsExactlyInAnyOrder("student1", "student2");
+        assertThat(buffer.removeParticipations(1L)).isEmpty();
+        assertThat(buffer.getParticipation(1L, "student1")).isNull();
+        assertThat(buffer.getQuizExerciseIdsWithParticipations()).isEmpty();
+    }
+
+    @ParameterizedTest
+    @MethodSource("buffers")
+    public void results_removedOnlyOnce(QuizSubmissionBuffer buffer) {
+        buffer.clearAll();
+        buffer.addResult(1L, result(1L));
+        buffer.addResult(1L, result(2L));
+        buffer.addResult(2L, result(3L));
+
+        assertThat(buffer.getQuizExerciseIdsWithResults()).containsExactlyInAnyOrder(1L, 2L);
+        Set<Result> results = buffer.removeResults(1L);
+        assertThat(results).extracting(Result::getId).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(buffer.removeResults(1L)).isEmpty();
+        assertThat(buffer.getQuizExerciseIdsWithResults()).containsExactly(2L);
+    }
+
+    @ParameterizedTest
+    @MethodSource("buffers")
+    public void clear_removesOnlyDataOfQuiz(QuizSubmissionBuffer buffer) {
+        buffer.clearAll();
+        buffer.putSubmission(1L, "student1", submission(1L, false));
+        buffer.putParticipation(1L, participation("student1"));
+        buffer.addResult(1L, result(1L));
+        buffer.putSubmission(2L, "student1", submission(2L, false));
+
+        buffer.clear(1L);
+
+        assertThat(buffer.getSubmission(1L, "student1")).isNull();
+        assertThat(buffer.getParticipation(1L, "student1")).isNull();
+        assertThat(buffer.getQuizExerciseIdsWithResults()).isEmpty();
+        assertThat(buffer.getSubmission(2L, "student1").getId()).isEqualTo(2L);
+
+        buffer.clearAll();
+        assertThat(buffer.getQuizExerciseIdsWithSubmissions()).isEmpty();
+        assertThat(buffer.getSubmissionBacklogSize()).isZero();
+    }
+
+    @ParameterizedTest
+    @MethodSource("buffers")
+    public void tryLock_exclusivePerQuiz(QuizSubmissionBuffer buffer) {
+        assertThat(buffer.tryLock(1L)).isTrue();
+        try {
+            assertThat(CompletableFuture.supplyAsync(() -> tryLockAndUnlock(buffer, 1L)).join()).isFalse();
+            assertThat(CompletableFuture.supplyAsync(() -> tryLockAndUnlock(buffer, 2L)).join()).isTrue();
+        }
+        finally {
+            buffer.unlock(1L);
+        }
+        assertThat(CompletableFuture.supplyAsync(() -> tryLockAndUnlock(buffer, 1L)).join()).isTrue();
+    }
+
+    private static boolean tryLockAndUnlock(QuizSubmissionBuffer buffer, Long quizExerciseId) {
+        if (!buffer.tryLock(quizExerciseId)) {
+            return false;
+        }
+        buffer.unlock(quizExerciseId);
+        return true;
+    }
+}
@@ -1,8 +1,12 @@
-import { IProgrammingExerciseWebsocketService } from 'app/exercises/programming/manage/services/programming-exercise-websocket.service';
-import { Observable, of } from 'rxjs';
+import { IProgrammingExerciseWebsocketService, RepositoryExportProgress } from 'app/exercises/programming/manage/services/programming-exercise-websocket.service';
+import { EMPTY, Observable, of } from 'rxjs';
 
 export class MockProgrammingExerciseWebsocketService implements IProgrammingExerciseWebsocketService {
     getTestCaseState(programmingExerciseId: number): Observable<boolean> {
         return of(false);
     }
+
+    getRepositoryExportProgress(programmingExerciseId: number): Observable<RepositoryExportProgress> {
+        return EMPTY;
+    }
 }